@@ -57,6 +57,7 @@ abstract class AbstractGenerator implements Generator {
     boolean                            generateDaos                  = false;
     boolean                            generateJPAAnnotations        = false;
     boolean                            generateValidationAnnotations = false;
+    boolean                            generateIndexedAccessors      = false;
 
     protected GeneratorStrategyWrapper strategy;
 
@@ -195,6 +196,16 @@ abstract class AbstractGenerator implements Generator {
         this.generateValidationAnnotations = generateValidationAnnotations;
     }
 
+    @Override
+    public boolean generateIndexedAccessors() {
+        return generateIndexedAccessors;
+    }
+
+    @Override
+    public void setGenerateIndexedAccessors(boolean generateIndexedAccessors) {
+        this.generateIndexedAccessors = generateIndexedAccessors;
+    }
+
     // ----
 
     @Override
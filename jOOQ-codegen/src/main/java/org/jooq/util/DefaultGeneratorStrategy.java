@@ -179,6 +179,11 @@ public class DefaultGeneratorStrategy extends AbstractGeneratorStrategy {
             sb.append(".daos");
         }
 
+        // Mappers too
+        else if (mode == Mode.MAPPER) {
+            sb.append(".mappers");
+        }
+
         // Interfaces too
         else if (mode == Mode.INTERFACE) {
             sb.append(".interfaces");
@@ -209,6 +214,9 @@ public class DefaultGeneratorStrategy extends AbstractGeneratorStrategy {
         else if (mode == Mode.DAO) {
             result.append("Dao");
         }
+        else if (mode == Mode.MAPPER) {
+            result.append("Mapper");
+        }
         else if (mode == Mode.INTERFACE) {
             result.insert(0, "I");
         }
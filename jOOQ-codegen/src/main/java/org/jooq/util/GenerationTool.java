@@ -375,6 +375,8 @@ public class GenerationTool {
                 generator.setGenerateJPAAnnotations(g.getGenerate().isJpaAnnotations());
             if (g.getGenerate().isValidationAnnotations() != null)
                 generator.setGenerateValidationAnnotations(g.getGenerate().isValidationAnnotations());
+            if (g.getGenerate().isIndexedAccessors() != null)
+                generator.setGenerateIndexedAccessors(g.getGenerate().isIndexedAccessors());
 
             // Generator properties that should in fact be strategy properties
             strategy.setInstanceFields(generator.generateInstanceFields());
@@ -184,6 +184,18 @@ public interface Generator {
      */
     void setGenerateValidationAnnotations(boolean generateValidationAnnotations);
 
+    /**
+     * Whether records should access their values by index rather than by
+     * field
+     */
+    boolean generateIndexedAccessors();
+
+    /**
+     * Whether records should access their values by index rather than by
+     * field
+     */
+    void setGenerateIndexedAccessors(boolean generateIndexedAccessors);
+
     /**
      * The target directory
      */
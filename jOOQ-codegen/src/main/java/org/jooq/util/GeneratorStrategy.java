@@ -365,6 +365,12 @@ public interface GeneratorStrategy {
          */
         DAO,
 
+        /**
+         * The mapper mode. This is used when a {@link TableDefinition}'s
+         * record / pojo mapper class is being rendered
+         */
+        MAPPER,
+
         /**
          * The enum mode. This is used when a {@link EnumDefinition}'s class is
          * being rendered
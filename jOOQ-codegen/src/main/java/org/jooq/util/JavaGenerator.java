@@ -46,6 +46,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.jooq.AggregateFunction;
@@ -58,6 +59,8 @@ import org.jooq.ForeignKey;
 import org.jooq.Identity;
 import org.jooq.Parameter;
 import org.jooq.Record;
+import org.jooq.RecordMapper;
+import org.jooq.RecordUnmapper;
 import org.jooq.Result;
 import org.jooq.Row;
 import org.jooq.Sequence;
@@ -75,6 +78,7 @@ import org.jooq.impl.Executor;
 import org.jooq.impl.Factory;
 import org.jooq.impl.FieldTypeHelper;
 import org.jooq.impl.PackageImpl;
+import org.jooq.impl.RecordMappers;
 import org.jooq.impl.SQLDataType;
 import org.jooq.impl.SchemaImpl;
 import org.jooq.impl.SequenceImpl;
@@ -147,6 +151,7 @@ public class JavaGenerator extends AbstractGenerator {
         log.info("  instance fields", generateInstanceFields());
         log.info("  JPA annotations", generateJPAAnnotations());
         log.info("  validation annotations", generateValidationAnnotations());
+        log.info("  indexed accessors", generateIndexedAccessors());
         log.info("  navigation methods", generateNavigationMethods());
         log.info("  records", generateRecords()
             + ((!generateRecords && generateDaos) ? " (forced to true because of <daos/>)" : ""));
@@ -199,6 +204,10 @@ public class JavaGenerator extends AbstractGenerator {
             generatePojos(schema);
         }
 
+        if (generatePojos() && generateRecords() && database.getTables(schema).size() > 0) {
+            generateMappers(schema);
+        }
+
         if (generateDaos() && database.getTables(schema).size() > 0) {
             generateDaos(schema);
         }
@@ -508,7 +517,8 @@ public class JavaGenerator extends AbstractGenerator {
         out.println("public class %s extends %s<%s>[[before= implements ][%s]] {", className, baseClass, recordType, interfaces);
         out.printSerial();
 
-        for (ColumnDefinition column : table.getColumns()) {
+        for (int index = 0; index < degree; index++) {
+            final ColumnDefinition column = table.getColumn(index);
             final String comment = StringUtils.defaultString(column.getComment());
             final String setter = getStrategy().getJavaSetterName(column, Mode.DEFAULT);
             final String getter = getStrategy().getJavaGetterName(column, Mode.DEFAULT);
@@ -519,7 +529,7 @@ public class JavaGenerator extends AbstractGenerator {
             out.tab(1).javadoc("Setter for <code>%s</code>. %s", name, comment);
             out.tab(1).overrideIf(generateInterfaces());
             out.tab(1).println("public void %s(%s value) {", setter, type);
-            out.tab(2).println("setValue(%s, value);", id);
+            printSetValue(out, id, index);
             out.tab(1).println("}");
 
             if (generateRelations() && generateNavigationMethods()) {
@@ -534,7 +544,7 @@ public class JavaGenerator extends AbstractGenerator {
             printColumnJPAAnnotation(out, column);
             out.tab(1).overrideIf(generateInterfaces());
             out.tab(1).println("public %s %s() {", type, getter);
-            out.tab(2).println("return getValue(%s);", id);
+            printGetValue(out, type, id, index);
             out.tab(1).println("}");
         }
 
@@ -608,6 +618,17 @@ public class JavaGenerator extends AbstractGenerator {
         out.tab(2).println("super(%s);", tableIdentifier);
         out.tab(1).println("}");
 
+        if (generatePojos()) {
+            final String pojoType = getStrategy().getFullJavaClassName(table, Mode.POJO);
+            final String mapperType = getStrategy().getFullJavaClassName(table, Mode.MAPPER);
+
+            out.tab(1).header("Mapper registration");
+            out.tab(1).println("static {");
+            out.tab(2).println("%s mapper = new %s();", mapperType, mapperType);
+            out.tab(2).println("%s.register(%s.class, %s.class, mapper, mapper);", RecordMappers.class, recordType, pojoType);
+            out.tab(1).println("}");
+        }
+
         out.println("}");
         out.close();
     }
@@ -793,7 +814,9 @@ public class JavaGenerator extends AbstractGenerator {
         out.printSerial();
         out.println();
 
-        for (AttributeDefinition attribute : udt.getAttributes()) {
+        List<AttributeDefinition> attributes = udt.getAttributes();
+        for (int index = 0; index < attributes.size(); index++) {
+            final AttributeDefinition attribute = attributes.get(index);
             final String comment = StringUtils.defaultString(attribute.getComment());
             final String setter = getStrategy().getJavaSetterName(attribute, Mode.DEFAULT);
             final String getter = getStrategy().getJavaGetterName(attribute, Mode.DEFAULT);
@@ -803,12 +826,12 @@ public class JavaGenerator extends AbstractGenerator {
 
             out.tab(1).javadoc("Setter for <code>%s</code>. %s", name, comment);
             out.tab(1).println("public void %s(%s value) {", setter, type);
-            out.tab(2).println("setValue(%s, value);", id);
+            printSetValue(out, id, index);
             out.tab(1).println("}");
 
             out.tab(1).javadoc("Getter for <code>%s</code>. %s", name, comment);
             out.tab(1).println("public %s %s() {", type, getter);
-            out.tab(2).println("return getValue(%s);", id);
+            printGetValue(out, type, id, index);
             out.tab(1).println("}");
         }
 
@@ -1342,6 +1365,86 @@ public class JavaGenerator extends AbstractGenerator {
         out.close();
     }
 
+    protected void generateMappers(SchemaDefinition schema) {
+        log.info("Generating table mappers");
+
+        for (TableDefinition table : database.getTables(schema)) {
+            try {
+                generateMapper(table);
+            }
+            catch (Exception e) {
+                log.error("Error while generating table mapper " + table, e);
+            }
+        }
+
+        watch.splitInfo("Table mappers generated");
+    }
+
+    protected void generateMapper(TableDefinition table) {
+        log.info("Generating table mapper", getStrategy().getFileName(table, Mode.MAPPER));
+
+        final String className = getStrategy().getJavaClassName(table, Mode.MAPPER);
+        final String recordType = getStrategy().getFullJavaClassName(table, Mode.RECORD);
+        final String pojoType = getStrategy().getFullJavaClassName(table, Mode.POJO);
+        final List<String> interfaces = new ArrayList<String>(getStrategy().getJavaClassImplements(table, Mode.MAPPER));
+
+        interfaces.add(RecordMapper.class.getName() + "<" + recordType + ", " + pojoType + ">");
+        interfaces.add(RecordUnmapper.class.getName() + "<" + pojoType + ", " + recordType + ">");
+
+        JavaWriter out = new JavaWriter(getStrategy().getFile(table, Mode.MAPPER));
+        printPackage(out, table, Mode.MAPPER);
+        printClassJavadoc(out, "Maps <code>" + recordType + "</code> records to and from <code>" + pojoType + "</code> POJOs without reflection");
+
+        out.println("public class %s[[before= implements ][%s]] {", className, interfaces);
+
+        // map([Record])
+        // -------------
+        out.tab(1).overrideInherit();
+        out.tab(1).println("public %s map(%s record) {", pojoType, recordType);
+
+        if (generateImmutablePojos()) {
+            out.tab(2).print("return new %s(", pojoType);
+
+            String separator = "";
+            for (ColumnDefinition column : table.getColumns()) {
+                out.println(separator);
+                out.tab(3).print("record.%s()", getStrategy().getJavaGetterName(column, Mode.DEFAULT));
+                separator = ",";
+            }
+
+            out.println(");");
+        }
+        else {
+            out.tab(2).println("%s object = new %s();", pojoType, pojoType);
+
+            for (ColumnDefinition column : table.getColumns()) {
+                out.tab(2).println("object.%s(record.%s());",
+                    getStrategy().getJavaSetterName(column, Mode.POJO),
+                    getStrategy().getJavaGetterName(column, Mode.DEFAULT));
+            }
+
+            out.tab(2).println("return object;");
+        }
+
+        out.tab(1).println("}");
+
+        // unmap([POJO], [Record])
+        // -----------------------
+        out.tab(1).overrideInherit();
+        out.tab(1).println("public void unmap(%s object, %s record) {", pojoType, recordType);
+
+        for (ColumnDefinition column : table.getColumns()) {
+            out.tab(2).println("record.%s(object.%s());",
+                getStrategy().getJavaSetterName(column, Mode.DEFAULT),
+                getStrategy().getJavaGetterName(column, Mode.POJO));
+        }
+
+        out.tab(1).println("}");
+
+        out.println("}");
+        out.close();
+    }
+
     protected void generateTables(SchemaDefinition schema) {
         log.info("Generating tables");
 
@@ -1658,6 +1761,30 @@ public class JavaGenerator extends AbstractGenerator {
         }
     }
 
+    /**
+     * Print a record setter's body, setting a value by field or by index
+     */
+    protected void printSetValue(JavaWriter out, String id, int index) {
+        if (generateIndexedAccessors()) {
+            out.tab(2).println("setValue(%s, value);", index);
+        }
+        else {
+            out.tab(2).println("setValue(%s, value);", id);
+        }
+    }
+
+    /**
+     * Print a record getter's body, getting a value by field or by index
+     */
+    protected void printGetValue(JavaWriter out, String type, String id, int index) {
+        if (generateIndexedAccessors()) {
+            out.tab(2).println("return (%s) getValue(%s);", type, index);
+        }
+        else {
+            out.tab(2).println("return getValue(%s);", id);
+        }
+    }
+
     protected void printColumnJPAAnnotation(JavaWriter out, ColumnDefinition column) {
         if (generateJPAAnnotations()) {
             UniqueKeyDefinition pk = column.getPrimaryKey();
@@ -2122,6 +2249,14 @@ public class JavaGenerator extends AbstractGenerator {
 
         out.println("\t\t\t.fetchOne();");
         out.println("\t}");
+
+        final String referencingType = getStrategy().getFullJavaClassName(referencing, Mode.RECORD);
+        final String foreignKeyId = getStrategy().getFullJavaIdentifier(foreignKey);
+
+        out.tab(1).javadoc("Fetch all <code>%s</code> records referenced by a set of <code>%s</code> records with as few queries as possible", referenced.getQualifiedOutputName(), referencing.getQualifiedOutputName());
+        out.tab(1).println("public static %s<%s, %s> fetch%s[[before=By][%s]](%s<? extends %s> records) {", Map.class, referencingType, referencedType, referencedClassName, disambiguation, Collection.class, referencingType);
+        out.tab(2).println("return %s.fetchParents(records);", foreignKeyId);
+        out.tab(1).println("}");
     }
 
     protected void printFKSetter(JavaWriter out, ColumnDefinition column, ForeignKeyDefinition foreignKey) {
@@ -2239,6 +2374,14 @@ public class JavaGenerator extends AbstractGenerator {
 
         out.tab(3).println(".fetch();");
         out.tab(1).println("}");
+
+        final String referencedType = getStrategy().getFullJavaClassName(referenced, Mode.RECORD);
+        final String foreignKeyId = getStrategy().getFullJavaIdentifier(foreignKey);
+
+        out.tab(1).javadoc("Fetch all <code>%s</code> records referencing a set of <code>%s</code> records with as few queries as possible", referencing.getQualifiedOutputName(), referenced.getQualifiedOutputName());
+        out.tab(1).println("public static %s<%s, %s<%s>> %s(%s<? extends %s> records) {", Map.class, referencedType, Result.class, referencingType, method, Collection.class, referencedType);
+        out.tab(2).println("return %s.fetchChildren(records);", foreignKeyId);
+        out.tab(1).println("}");
     }
 
     protected void printClassJavadoc(JavaWriter out, Definition definition) {
@@ -0,0 +1,272 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.jooq.Record;
+import org.jooq.Table;
+import org.jooq.TableField;
+import org.jooq.util.h2.H2Database;
+import org.jooq.util.jaxb.CustomType;
+import org.jooq.util.jaxb.EnumType;
+import org.jooq.util.jaxb.ForcedType;
+import org.jooq.util.jaxb.Schema;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link JavaGenerator}
+ *
+ * @author Lukas Eder
+ */
+public class JavaGeneratorTest {
+
+    private Connection connection;
+    private File       directory;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:java-generator-test", "sa", "");
+        directory = File.createTempFile("jooq-codegen", "");
+        directory.delete();
+        directory.mkdirs();
+
+        Statement stmt = connection.createStatement();
+        stmt.execute("create schema test");
+        stmt.execute("create table test.t_book (id int primary key, title varchar(50), amount decimal(10, 2))");
+        stmt.close();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Statement stmt = connection.createStatement();
+        stmt.execute("drop schema test");
+        stmt.close();
+        connection.close();
+
+        delete(directory);
+    }
+
+    @Test
+    public void testMapper() throws Exception {
+        ClassLoader loader = generate(new DefaultGeneratorStrategy(), false);
+        File mapper = new File(directory, "org/jooq/test/generated/tables/mappers/TBookMapper.java");
+
+        assertTrue(mapper.exists());
+        assertMapper(loader,
+            "org.jooq.test.generated.tables.records.TBookRecord",
+            "org.jooq.test.generated.tables.pojos.TBook",
+            "org.jooq.test.generated.tables.TBook");
+    }
+
+    @Test
+    public void testMapperWithCustomStrategy() throws Exception {
+
+        // Strategies may use the same class names in all modes, and return
+        // unmodifiable lists of interfaces
+        ClassLoader loader = generate(new DefaultGeneratorStrategy() {
+            @Override
+            public String getJavaClassName(Definition definition, Mode mode) {
+                return definition.getOutputName();
+            }
+
+            @Override
+            public List<String> getJavaClassImplements(Definition definition, Mode mode) {
+                if (mode == Mode.MAPPER) {
+                    return Arrays.asList(Cloneable.class.getName());
+                }
+
+                return super.getJavaClassImplements(definition, mode);
+            }
+        }, false);
+
+        assertMapper(loader,
+            "org.jooq.test.generated.tables.records.T_BOOK",
+            "org.jooq.test.generated.tables.pojos.T_BOOK",
+            "org.jooq.test.generated.tables.T_BOOK");
+        assertTrue(Cloneable.class.isAssignableFrom(
+            loader.loadClass("org.jooq.test.generated.tables.mappers.T_BOOK")));
+    }
+
+    @Test
+    public void testAccessors() throws Exception {
+        generate(new DefaultGeneratorStrategy(), false);
+        String record = read(new File(directory, "org/jooq/test/generated/tables/records/TBookRecord.java"));
+
+        assertTrue(record.contains("setValue(org.jooq.test.generated.tables.TBook.T_BOOK.TITLE, value);"));
+        assertTrue(record.contains("return getValue(org.jooq.test.generated.tables.TBook.T_BOOK.TITLE);"));
+    }
+
+    @Test
+    public void testIndexedAccessors() throws Exception {
+        ClassLoader loader = generate(new DefaultGeneratorStrategy(), true);
+        String record = read(new File(directory, "org/jooq/test/generated/tables/records/TBookRecord.java"));
+
+        assertTrue(record.contains("setValue(1, value);"));
+        assertTrue(record.contains("return (java.lang.String) getValue(1);"));
+        assertMapper(loader,
+            "org.jooq.test.generated.tables.records.TBookRecord",
+            "org.jooq.test.generated.tables.pojos.TBook",
+            "org.jooq.test.generated.tables.TBook");
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void assertMapper(ClassLoader loader, String recordName, String pojoName, String tableName) throws Exception {
+        Class<? extends Record> recordType = (Class<? extends Record>) loader.loadClass(recordName);
+        Class<?> pojoType = loader.loadClass(pojoName);
+        Table<?> table = (Table<?>) loader.loadClass(tableName).newInstance();
+
+        TableField id = (TableField) table.getField("ID");
+        TableField title = (TableField) table.getField("TITLE");
+
+        // Record to POJO
+        Record record = recordType.newInstance();
+        record.setValue(id, 1);
+        record.setValue(title, "1984");
+
+        Object pojo = record.into(pojoType);
+        assertEquals(1, pojoType.getMethod("getId").invoke(pojo));
+        assertEquals("1984", pojoType.getMethod("getTitle").invoke(pojo));
+
+        // POJO to record
+        pojoType.getMethod("setTitle", String.class).invoke(pojo, "Animal Farm");
+        Record copy = recordType.newInstance();
+        copy.from(pojo);
+        assertEquals(1, copy.getValue(id));
+        assertEquals("Animal Farm", copy.getValue(title));
+    }
+
+    /**
+     * Generate and compile the test schema
+     */
+    private ClassLoader generate(GeneratorStrategy strategy, boolean indexedAccessors) throws Exception {
+        Schema schema = new Schema();
+        schema.setInputSchema("TEST");
+        schema.setOutputSchema("TEST");
+
+        Database database = new H2Database();
+        database.setConnection(connection);
+        database.setConfiguredSchemata(Arrays.asList(schema));
+        database.setIncludes(new String[] { ".*" });
+        database.setExcludes(new String[] { "" });
+        database.setRecordVersionFields(new String[] { "" });
+        database.setRecordTimestampFields(new String[] { "" });
+        database.setConfiguredCustomTypes(new ArrayList<CustomType>());
+        database.setConfiguredEnumTypes(new ArrayList<EnumType>());
+        database.setConfiguredForcedTypes(new ArrayList<ForcedType>());
+
+        JavaGenerator generator = new JavaGenerator();
+        generator.setStrategy(strategy);
+        generator.setTargetPackage("org.jooq.test.generated");
+        generator.setTargetDirectory(directory.getAbsolutePath());
+        generator.setGenerateRelations(true);
+        generator.setGenerateRecords(true);
+        generator.setGeneratePojos(true);
+        generator.setGenerateIndexedAccessors(indexedAccessors);
+        strategy.setInstanceFields(generator.generateInstanceFields());
+        generator.generate(database);
+
+        List<String> arguments = new ArrayList<String>();
+        arguments.add("-nowarn");
+        arguments.add("-classpath");
+        arguments.add(System.getProperty("java.class.path"));
+        arguments.add("-d");
+        arguments.add(directory.getAbsolutePath());
+        sources(directory, arguments);
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, arguments.toArray(new String[arguments.size()])));
+
+        return new URLClassLoader(new URL[] { directory.toURI().toURL() }, getClass().getClassLoader());
+    }
+
+    private static String read(File file) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                sb.append(line).append('\n');
+            }
+        }
+        finally {
+            reader.close();
+        }
+
+        return sb.toString();
+    }
+
+    private static void sources(File file, List<String> result) {
+        if (file.isDirectory()) {
+            for (File child : file.listFiles()) {
+                sources(child, result);
+            }
+        }
+        else if (file.getName().endsWith(".java")) {
+            result.add(file.getAbsolutePath());
+        }
+    }
+
+    private static void delete(File file) {
+        if (file.isDirectory()) {
+            for (File child : file.listFiles()) {
+                delete(child);
+            }
+        }
+
+        file.delete();
+    }
+}
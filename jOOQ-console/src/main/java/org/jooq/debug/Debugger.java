@@ -68,6 +68,22 @@ public interface Debugger extends QueryExecutorCreator {
      */
     LoggingListener getLoggingListener();
 
+    /**
+     * Set a logging policy to the <code>Debugger</code>
+     * <p>
+     * Logging policies govern sampling and stack trace capture of logged
+     * queries. They can be used to keep logging enabled on busy servers.
+     *
+     * @param policy a policy, or null to log every query with a full stack
+     *            trace.
+     */
+    void setLoggingPolicy(LoggingPolicy policy);
+
+    /**
+     * Get the <code>Debugger</code>'s configured logging policy
+     */
+    LoggingPolicy getLoggingPolicy();
+
     /**
      * Add (or modify) a breakpoint to the debugger
      * <p>
@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ *                          Christopher Deckers, chrriis@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.debug;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A policy governing how much a {@link Debugger} logs
+ * <p>
+ * Logging every query with its full caller stack trace is too expensive to
+ * keep enabled on busy servers. A <code>LoggingPolicy</code> allows for
+ * <ul>
+ * <li>Sampling only one out of <code>n</code> queries, either globally, or
+ * per distinct SQL string (i.e. per query "fingerprint")</li>
+ * <li>Limiting the depth of captured caller stack traces, or omitting them
+ * altogether</li>
+ * </ul>
+ * The sampling state is local to the JVM that executes queries. It is not
+ * transferred to remote debuggers.
+ *
+ * @author Christopher Deckers
+ * @see Debugger#setLoggingPolicy(LoggingPolicy)
+ */
+public class LoggingPolicy implements Serializable {
+
+    /**
+     * Generated UID
+     */
+    private static final long serialVersionUID = -3094017693536813022L;
+
+    /**
+     * The maximum number of distinct fingerprints for which sampling counters
+     * are maintained.
+     */
+    private static final int  MAX_FINGERPRINTS = 1000;
+
+    /**
+     * A policy that logs every query with its full caller stack trace. This
+     * corresponds to the behaviour of a debugger without any policy.
+     */
+    public static final LoggingPolicy ALL = new LoggingPolicy(1, false, -1);
+
+    private final int                 sampleInterval;
+    private final boolean             isSampledPerFingerprint;
+    private final int                 stackTraceDepth;
+
+    private final AtomicLong          counter;
+    private transient Map<String, long[]> fingerprintCounters;
+
+    /**
+     * Create a new logging policy
+     *
+     * @param sampleInterval Log only one out of <code>sampleInterval</code>
+     *            queries. Values lower than <code>1</code> are treated as
+     *            <code>1</code>, i.e. every query is logged.
+     * @param isSampledPerFingerprint Whether the sample interval applies to
+     *            every distinct SQL string individually, rather than to all
+     *            queries.
+     * @param stackTraceDepth The maximum number of caller stack trace elements
+     *            to retain. <code>0</code> disables stack trace capture,
+     *            negative values retain the full stack trace.
+     */
+    public LoggingPolicy(int sampleInterval, boolean isSampledPerFingerprint, int stackTraceDepth) {
+        this.sampleInterval = Math.max(1, sampleInterval);
+        this.isSampledPerFingerprint = isSampledPerFingerprint;
+        this.stackTraceDepth = stackTraceDepth;
+        this.counter = new AtomicLong();
+    }
+
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    public boolean isSampledPerFingerprint() {
+        return isSampledPerFingerprint;
+    }
+
+    /**
+     * The maximum number of caller stack trace elements to retain.
+     *
+     * @return <code>0</code> if no stack traces are captured, a negative value
+     *         if full stack traces are captured.
+     */
+    public int getStackTraceDepth() {
+        return stackTraceDepth;
+    }
+
+    /**
+     * Whether a given query should be logged according to this policy
+     * <p>
+     * Calling this method advances the policy's sampling counters. It should
+     * be called only once per executed query.
+     */
+    public boolean sample(QueryInfo queryInfo) {
+        if (sampleInterval == 1) {
+            return true;
+        }
+
+        if (isSampledPerFingerprint) {
+            String[] queries = queryInfo.getQueries();
+            String fingerprint = queries.length == 1 ? queries[0] : fingerprint(queries);
+
+            synchronized (this) {
+                if (fingerprintCounters == null) {
+                    fingerprintCounters = new LinkedHashMap<String, long[]>(16, 0.75f, true) {
+
+                        /**
+                         * Generated UID
+                         */
+                        private static final long serialVersionUID = 3407617402932497186L;
+
+                        @Override
+                        protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+                            return size() > MAX_FINGERPRINTS;
+                        }
+                    };
+                }
+
+                long[] count = fingerprintCounters.get(fingerprint);
+                if (count == null) {
+                    count = new long[1];
+                    fingerprintCounters.put(fingerprint, count);
+                }
+
+                return count[0]++ % sampleInterval == 0;
+            }
+        }
+        else {
+            return counter.getAndIncrement() % sampleInterval == 0;
+        }
+    }
+
+    private static String fingerprint(String[] queries) {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < queries.length; i++) {
+            if (i > 0) {
+                sb.append('\n');
+            }
+
+            sb.append(queries[i]);
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "LoggingPolicy [sampleInterval=" + sampleInterval
+            + ", isSampledPerFingerprint=" + isSampledPerFingerprint
+            + ", stackTraceDepth=" + stackTraceDepth + "]";
+    }
+}
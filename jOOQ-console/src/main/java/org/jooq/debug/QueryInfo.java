@@ -56,10 +56,22 @@ public class QueryInfo implements Serializable {
     private final long        threadID;
 
     public QueryInfo(QueryType queryType, String[] queries, String parameterDescription) {
-        Thread currentThread = Thread.currentThread();
+        this(queryType, queries, parameterDescription, Thread.currentThread());
+    }
+
+    private QueryInfo(QueryType queryType, String[] queries, String parameterDescription, Thread currentThread) {
+        this(queryType, queries, parameterDescription, currentThread.getName(), currentThread.getId());
+    }
 
-        this.threadName = currentThread.getName();
-        this.threadID = currentThread.getId();
+    /**
+     * Create a query info for a query executed by an arbitrary thread
+     * <p>
+     * This is mainly useful for reconstructing query infos that were received
+     * from a remote debugger.
+     */
+    public QueryInfo(QueryType queryType, String[] queries, String parameterDescription, String threadName, long threadID) {
+        this.threadName = threadName;
+        this.threadID = threadID;
         this.queryType = queryType;
         this.queries = queries;
         this.parameterDescription = parameterDescription;
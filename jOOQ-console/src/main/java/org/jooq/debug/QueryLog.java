@@ -36,7 +36,12 @@
  */
 package org.jooq.debug;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 
@@ -49,7 +54,9 @@ public class QueryLog implements Serializable {
     /**
      * Generated UID
      */
-    private static final long         serialVersionUID = 4788898342470338246L;
+    private static final long         serialVersionUID = -3172659284416710583L;
+
+    private static final StackTraceElement[] NO_STACK_TRACE = new StackTraceElement[0];
 
     private static AtomicInteger      nextID           = new AtomicInteger();
 
@@ -58,15 +65,73 @@ public class QueryLog implements Serializable {
     private final Long                preparationDuration;
     private final Long                bindingDuration;
     private final long                executionDuration;
-    private final StackTraceElement[] callerStackTraceElements;
+    private final int                 stackTraceDepth;
+    private StackTraceElement[]       callerStackTraceElements;
+
+    /**
+     * The caller stack trace, whose elements have not yet been materialised.
+     * <p>
+     * Filling in a {@link Throwable}'s stack trace is a lot cheaper than
+     * calling {@link Thread#getStackTrace()}, as the
+     * {@link StackTraceElement} objects are created only when they are
+     * actually needed, i.e. when the log is displayed or serialised. Java
+     * offers no way to fill in only part of a stack trace, but where the JVM
+     * allows for it, only the retained elements are materialised.
+     */
+    private transient Throwable       callerStackTrace;
 
+    /**
+     * Create a new query log with durations in milliseconds and a full caller
+     * stack trace.
+     */
     public QueryLog(QueryInfo queryInfo, Long preparationDuration, Long bindingDuration,
         long executionDuration) {
 
+        this(queryInfo, TimeUnit.MILLISECONDS, preparationDuration, bindingDuration, executionDuration, -1);
+    }
+
+    /**
+     * Create a new query log
+     *
+     * @param queryInfo The logged query
+     * @param unit The time unit of the supplied durations
+     * @param preparationDuration The statement preparation duration, or
+     *            <code>null</code> if the statement was not prepared
+     * @param bindingDuration The bind duration, or <code>null</code> if no
+     *            values were bound
+     * @param executionDuration The execution duration
+     * @param stackTraceDepth The maximum number of caller stack trace elements
+     *            to retain. <code>0</code> disables stack trace capture,
+     *            negative values retain the full stack trace.
+     */
+    public QueryLog(QueryInfo queryInfo, TimeUnit unit, Long preparationDuration, Long bindingDuration,
+        long executionDuration, int stackTraceDepth) {
+
         this.queryInfo = queryInfo;
 
         this.id = nextID.getAndIncrement();
-        this.callerStackTraceElements = Thread.currentThread().getStackTrace();
+        this.stackTraceDepth = stackTraceDepth;
+        this.callerStackTrace = stackTraceDepth == 0 ? null : new Throwable();
+        this.preparationDuration = preparationDuration == null ? null : unit.toNanos(preparationDuration);
+        this.bindingDuration = bindingDuration == null ? null : unit.toNanos(bindingDuration);
+        this.executionDuration = unit.toNanos(executionDuration);
+    }
+
+    /**
+     * Create a query log with a given ID, durations in nanoseconds and an
+     * already captured caller stack trace
+     * <p>
+     * This is mainly useful for reconstructing query logs that were received
+     * from a remote debugger.
+     */
+    public QueryLog(int id, QueryInfo queryInfo, Long preparationDuration, Long bindingDuration,
+        long executionDuration, StackTraceElement[] callerStackTraceElements) {
+
+        this.queryInfo = queryInfo;
+
+        this.id = id;
+        this.stackTraceDepth = -1;
+        this.callerStackTraceElements = callerStackTraceElements == null ? NO_STACK_TRACE : callerStackTraceElements;
         this.preparationDuration = preparationDuration;
         this.bindingDuration = bindingDuration;
         this.executionDuration = executionDuration;
@@ -80,19 +145,173 @@ public class QueryLog implements Serializable {
         return id;
     }
 
-    public StackTraceElement[] getCallerStackTraceElements() {
+    /**
+     * The caller stack trace, truncated to the configured stack trace depth.
+     * <p>
+     * The leading stack trace elements of jOOQ and of the debugger itself are
+     * skipped, such that the retained elements start with the frame that
+     * executed the query. The stack trace elements are materialised lazily,
+     * upon the first call to this method.
+     */
+    public synchronized StackTraceElement[] getCallerStackTraceElements() {
+        if (callerStackTraceElements == null) {
+            if (callerStackTrace == null) {
+                callerStackTraceElements = NO_STACK_TRACE;
+            }
+            else {
+                callerStackTraceElements = StackTraces.callerElements(callerStackTrace, stackTraceDepth);
+                callerStackTrace = null;
+            }
+        }
+
         return callerStackTraceElements;
     }
 
+    /**
+     * The statement preparation duration in milliseconds
+     */
     public Long getPreparedStatementPreparationDuration() {
-        return preparationDuration;
+        return getPreparedStatementPreparationDuration(TimeUnit.MILLISECONDS);
+    }
+
+    public Long getPreparedStatementPreparationDuration(TimeUnit unit) {
+        return preparationDuration == null ? null : unit.convert(preparationDuration, TimeUnit.NANOSECONDS);
     }
 
+    /**
+     * The bind duration in milliseconds
+     */
     public Long getPreparedStatementBindingDuration() {
-        return bindingDuration;
+        return getPreparedStatementBindingDuration(TimeUnit.MILLISECONDS);
+    }
+
+    public Long getPreparedStatementBindingDuration(TimeUnit unit) {
+        return bindingDuration == null ? null : unit.convert(bindingDuration, TimeUnit.NANOSECONDS);
     }
 
+    /**
+     * The execution duration in milliseconds
+     */
     public long getExecutionDuration() {
-        return executionDuration;
+        return getExecutionDuration(TimeUnit.MILLISECONDS);
+    }
+
+    public long getExecutionDuration(TimeUnit unit) {
+        return unit.convert(executionDuration, TimeUnit.NANOSECONDS);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+
+        // Materialise the lazy stack trace before it is lost
+        getCallerStackTraceElements();
+        out.defaultWriteObject();
+    }
+
+    /**
+     * Access to the elements of a filled in stack trace
+     * <p>
+     * On JVMs that expose <code>sun.misc.JavaLangAccess</code>, individual
+     * stack trace elements can be materialised without materialising the
+     * whole stack trace. Other JVMs fall back to
+     * {@link Throwable#getStackTrace()}.
+     */
+    static class StackTraces {
+
+        private static final Object JAVA_LANG_ACCESS;
+        private static final Method GET_STACK_TRACE_DEPTH;
+        private static final Method GET_STACK_TRACE_ELEMENT;
+
+        static {
+            Object access = null;
+            Method depth = null;
+            Method element = null;
+
+            try {
+                Class<?> secrets = Class.forName("sun.misc.SharedSecrets");
+                access = secrets.getMethod("getJavaLangAccess").invoke(null);
+                depth = access.getClass().getMethod("getStackTraceDepth", Throwable.class);
+                element = access.getClass().getMethod("getStackTraceElement", Throwable.class, int.class);
+                depth.setAccessible(true);
+                element.setAccessible(true);
+            }
+
+            // The internal API is not available on all JVMs
+            catch (Throwable ignore) {
+                access = null;
+            }
+
+            JAVA_LANG_ACCESS = access;
+            GET_STACK_TRACE_DEPTH = depth;
+            GET_STACK_TRACE_ELEMENT = element;
+        }
+
+        /**
+         * Materialise the caller elements of a stack trace
+         *
+         * @param trace The filled in stack trace
+         * @param depth The maximum number of elements to retain after the
+         *            leading jOOQ elements. Values lower than <code>1</code>
+         *            retain all elements.
+         */
+        static StackTraceElement[] callerElements(Throwable trace, int depth) {
+            if (JAVA_LANG_ACCESS != null) {
+                try {
+                    return callerElementsLazily(trace, depth);
+                }
+                catch (Exception ignore) {}
+            }
+
+            return callerElements(trace.getStackTrace(), depth);
+        }
+
+        static StackTraceElement[] callerElements(StackTraceElement[] elements, int depth) {
+            int start = 0;
+            while (start < elements.length && isInternal(elements[start])) {
+                start++;
+            }
+
+            // Queries executed from within jOOQ (e.g. from jOOQ's own tests)
+            // have no external caller
+            if (start == elements.length) {
+                start = 0;
+            }
+
+            int end = depth > 0 ? Math.min(elements.length, start + depth) : elements.length;
+            return Arrays.copyOfRange(elements, start, end);
+        }
+
+        private static StackTraceElement[] callerElementsLazily(Throwable trace, int depth) throws Exception {
+            int length = (Integer) GET_STACK_TRACE_DEPTH.invoke(JAVA_LANG_ACCESS, trace);
+
+            if (depth <= 0) {
+                return callerElements(trace.getStackTrace(), depth);
+            }
+
+            int start = 0;
+            StackTraceElement first = null;
+            while (start < length && isInternal(first = element(trace, start))) {
+                start++;
+            }
+
+            if (start == length) {
+                return callerElements(trace.getStackTrace(), depth);
+            }
+
+            StackTraceElement[] result = new StackTraceElement[Math.min(depth, length - start)];
+            result[0] = first;
+            for (int i = 1; i < result.length; i++) {
+                result[i] = element(trace, start + i);
+            }
+
+            return result;
+        }
+
+        private static StackTraceElement element(Throwable trace, int index) throws Exception {
+            return (StackTraceElement) GET_STACK_TRACE_ELEMENT.invoke(JAVA_LANG_ACCESS, trace, index);
+        }
+
+        private static boolean isInternal(StackTraceElement element) {
+            return element.getClassName().startsWith("org.jooq.");
+        }
     }
 }
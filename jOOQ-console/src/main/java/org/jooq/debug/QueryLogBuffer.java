@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ *                          Christopher Deckers, chrriis@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.debug;
+
+/**
+ * A {@link LoggingListener} keeping the most recent {@link QueryLog} and
+ * {@link ResultLog} entries in fixed-size ring buffers
+ * <p>
+ * This listener allocates its buffers only once, at construction time. When
+ * a buffer is full, the oldest entry is overwritten. This makes it suitable
+ * for being kept enabled on busy servers, where recent entries can be
+ * inspected on demand, using {@link #getQueryLogs()} and
+ * {@link #getResultLogs()}.
+ *
+ * @author Christopher Deckers
+ */
+public class QueryLogBuffer implements LoggingListener {
+
+    private final QueryMatcher[] matchers;
+    private final QueryLog[]     queryLogs;
+    private final ResultLog[]    resultLogs;
+    private int                  queryLogCount;
+    private int                  resultLogCount;
+
+    /**
+     * Create a new buffer logging all queries
+     *
+     * @param capacity The maximum number of retained entries per buffer
+     */
+    public QueryLogBuffer(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Create a new buffer
+     *
+     * @param capacity The maximum number of retained entries per buffer
+     * @param matchers The matchers used for this listener, or
+     *            <code>null</code> to log all queries
+     */
+    public QueryLogBuffer(int capacity, QueryMatcher[] matchers) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+
+        this.matchers = matchers;
+        this.queryLogs = new QueryLog[capacity];
+        this.resultLogs = new ResultLog[capacity];
+    }
+
+    @Override
+    public QueryMatcher[] getMatchers() {
+        return matchers;
+    }
+
+    @Override
+    public synchronized void logQuery(QueryLog log) {
+        queryLogs[queryLogCount++ % queryLogs.length] = log;
+
+        // Avoid overflows, keeping the ring position
+        if (queryLogCount == 2 * queryLogs.length) {
+            queryLogCount = queryLogs.length;
+        }
+    }
+
+    @Override
+    public synchronized void logResult(ResultLog log) {
+        resultLogs[resultLogCount++ % resultLogs.length] = log;
+
+        if (resultLogCount == 2 * resultLogs.length) {
+            resultLogCount = resultLogs.length;
+        }
+    }
+
+    /**
+     * Get a snapshot of the buffered query logs, oldest first
+     */
+    public synchronized QueryLog[] getQueryLogs() {
+        return copy(queryLogs, queryLogCount, new QueryLog[Math.min(queryLogCount, queryLogs.length)]);
+    }
+
+    /**
+     * Get a snapshot of the buffered result logs, oldest first
+     */
+    public synchronized ResultLog[] getResultLogs() {
+        return copy(resultLogs, resultLogCount, new ResultLog[Math.min(resultLogCount, resultLogs.length)]);
+    }
+
+    /**
+     * Discard all buffered entries
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < queryLogs.length; i++) {
+            queryLogs[i] = null;
+            resultLogs[i] = null;
+        }
+
+        queryLogCount = 0;
+        resultLogCount = 0;
+    }
+
+    public int getCapacity() {
+        return queryLogs.length;
+    }
+
+    private static <T> T[] copy(T[] buffer, int count, T[] result) {
+        int start = count <= buffer.length ? 0 : count % buffer.length;
+
+        for (int i = 0; i < result.length; i++) {
+            result[i] = buffer[(start + i) % buffer.length];
+        }
+
+        return result;
+    }
+}
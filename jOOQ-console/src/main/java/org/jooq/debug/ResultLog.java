@@ -37,6 +37,7 @@
 package org.jooq.debug;
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Christopher Deckers
@@ -48,7 +49,7 @@ public class ResultLog implements Serializable {
      */
     private static final long   serialVersionUID = 6968225986331050805L;
 
-    private static volatile int nextID;
+    private static final AtomicInteger nextID = new AtomicInteger();
 
     private final int           queryLogId;
     private final int           id;
@@ -58,8 +59,18 @@ public class ResultLog implements Serializable {
     private final int           writeCount;
 
     public ResultLog(int queryLogId, long lifeTime, final int readRows, final int readCount, final int writeCount) {
+        this(nextID.getAndIncrement(), queryLogId, lifeTime, readRows, readCount, writeCount);
+    }
+
+    /**
+     * Create a result log with a given ID
+     * <p>
+     * This is mainly useful for reconstructing result logs that were received
+     * from a remote debugger.
+     */
+    public ResultLog(int id, int queryLogId, long lifeTime, final int readRows, final int readCount, final int writeCount) {
         this.queryLogId = queryLogId;
-        this.id = nextID++;
+        this.id = id;
         this.lifeTime = lifeTime;
         this.readRows = readRows;
         this.readCount = readCount;
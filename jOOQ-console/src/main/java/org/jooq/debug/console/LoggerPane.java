@@ -772,8 +772,6 @@ public class LoggerPane extends JPanel {
         public QueryDebuggingInfo(long timestamp, QueryLog queryLog) {
             this.timestamp = timestamp;
             this.queryLog = queryLog;
-            this.throwable = new Exception("Query Stack trace");
-            throwable.setStackTrace(queryLog.getCallerStackTraceElements());
         }
         public long getTimestamp() {
             return timestamp;
@@ -802,6 +800,10 @@ public class LoggerPane extends JPanel {
             return queries;
         }
         public Throwable getThrowable() {
+            if(throwable == null) {
+                throwable = new Exception("Query Stack trace");
+                throwable.setStackTrace(queryLog.getCallerStackTraceElements());
+            }
             return throwable;
         }
         public String getThreadName() {
@@ -48,6 +48,7 @@ import org.jooq.debug.BreakpointHitHandler;
 import org.jooq.debug.Debugger;
 import org.jooq.debug.ExecutionType;
 import org.jooq.debug.LoggingListener;
+import org.jooq.debug.LoggingPolicy;
 import org.jooq.debug.QueryExecutor;
 import org.jooq.debug.QueryLog;
 import org.jooq.debug.ResultLog;
@@ -57,6 +58,7 @@ import org.jooq.debug.impl.ServerDebugger.CMS_getExecutionContextNames;
 import org.jooq.debug.impl.ServerDebugger.CMS_removeBreakpoint;
 import org.jooq.debug.impl.ServerDebugger.CMS_setBreakpointHitHandlerActive;
 import org.jooq.debug.impl.ServerDebugger.CMS_setLoggingActive;
+import org.jooq.debug.impl.ServerDebugger.CMS_setLoggingPolicy;
 
 /**
  * @author Christopher Deckers
@@ -99,6 +101,28 @@ class ClientDebugger implements Debugger {
         }
     }
 
+    private LoggingPolicy loggingPolicy;
+    private final Object LOGGING_POLICY_LOCK = new Object();
+
+    @Override
+    public void setLoggingPolicy(LoggingPolicy policy) {
+        synchronized (LOGGING_POLICY_LOCK) {
+            if (this.loggingPolicy == policy) {
+                return;
+            }
+            this.loggingPolicy = policy;
+        }
+
+        comm.asyncSend(new CMS_setLoggingPolicy(policy));
+    }
+
+    @Override
+    public LoggingPolicy getLoggingPolicy() {
+        synchronized (LOGGING_POLICY_LOCK) {
+            return loggingPolicy;
+        }
+    }
+
     private Breakpoint[] breakpoints;
     private final Object BREAKPOINT_LOCK = new Object();
 
@@ -202,30 +226,15 @@ class ClientDebugger implements Debugger {
     }
 
 
-    static class CMC_logQueries extends CommandMessage<NoResult> {
-        private final QueryLog queryLog;
-
-        CMC_logQueries(QueryLog queryLog) {
-            this.queryLog = queryLog;
-        }
-
-        @Override
-        public NoResult run(MessageContext context) {
-            LoggingListener loggingListener = context.getDebugger().getLoggingListener();
-
-            if (loggingListener != null) {
-                loggingListener.logQuery(queryLog);
-            }
+    /**
+     * A batch of {@link QueryLog} and {@link ResultLog} events, encoded using
+     * the {@link LogMessageCodec}
+     */
+    static class CMC_logBatch extends CommandMessage<NoResult> {
+        private final byte[] events;
 
-            return null;
-        }
-    }
-
-    static class CMC_logResultSet extends CommandMessage<NoResult> {
-        private final ResultLog resultLog;
-
-        CMC_logResultSet(ResultLog resultLog) {
-            this.resultLog = resultLog;
+        CMC_logBatch(byte[] events) {
+            this.events = events;
         }
 
         @Override
@@ -233,7 +242,14 @@ class ClientDebugger implements Debugger {
             LoggingListener loggingListener = context.getDebugger().getLoggingListener();
 
             if (loggingListener != null) {
-                loggingListener.logResult(resultLog);
+                for (Object event : LogMessageCodec.decode(events)) {
+                    if (event instanceof QueryLog) {
+                        loggingListener.logQuery((QueryLog) event);
+                    }
+                    else {
+                        loggingListener.logResult((ResultLog) event);
+                    }
+                }
             }
 
             return null;
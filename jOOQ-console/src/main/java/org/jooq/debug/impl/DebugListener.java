@@ -43,6 +43,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.jooq.ExecuteContext;
 import org.jooq.ExecuteType;
@@ -51,6 +52,7 @@ import org.jooq.debug.BreakpointHit;
 import org.jooq.debug.Debugger;
 import org.jooq.debug.ExecutionType;
 import org.jooq.debug.LoggingListener;
+import org.jooq.debug.LoggingPolicy;
 import org.jooq.debug.QueryInfo;
 import org.jooq.debug.QueryLog;
 import org.jooq.debug.QueryMatcher;
@@ -69,9 +71,11 @@ public class DebugListener extends DefaultExecuteListener {
 
     private boolean    hasDebuggers;
 
+    private boolean    isPrepared;
     private long       startPreparationTime;
     private long       aggregatedPreparationDuration;
 
+    private boolean    isBound;
     private long       startBindTime;
     private long       endBindTime;
 
@@ -86,6 +90,8 @@ public class DebugListener extends DefaultExecuteListener {
 	@Override
 	public void renderStart(ExecuteContext ctx) {
 		hasDebuggers = !DebuggerRegistry.get().isEmpty();
+		isPrepared = false;
+		isBound = false;
 		startPreparationTime = 0;
 		aggregatedPreparationDuration = 0;
 		startBindTime = 0;
@@ -99,7 +105,8 @@ public class DebugListener extends DefaultExecuteListener {
 		if(!hasDebuggers) {
 			return;
 		}
-		startPreparationTime = System.currentTimeMillis();
+		isPrepared = true;
+		startPreparationTime = System.nanoTime();
 	}
 
 	@Override
@@ -107,7 +114,7 @@ public class DebugListener extends DefaultExecuteListener {
 		if(!hasDebuggers) {
 			return;
 		}
-		aggregatedPreparationDuration += System.currentTimeMillis() - startPreparationTime;
+		aggregatedPreparationDuration += System.nanoTime() - startPreparationTime;
 		PreparedStatement statement = ctx.statement();
 		if (ctx.type() == ExecuteType.ROUTINE) {
 		    ctx.statement(new TrackingCallableStatement((CallableStatement)statement));
@@ -121,7 +128,8 @@ public class DebugListener extends DefaultExecuteListener {
 		if(!hasDebuggers) {
 			return;
 		}
-		startBindTime = System.currentTimeMillis();
+		isBound = true;
+		startBindTime = System.nanoTime();
 	}
 
 	@Override
@@ -129,7 +137,7 @@ public class DebugListener extends DefaultExecuteListener {
 		if(!hasDebuggers) {
 			return;
 		}
-		endBindTime = System.currentTimeMillis();
+		endBindTime = System.nanoTime();
 	}
 
 	@Override
@@ -185,33 +193,13 @@ public class DebugListener extends DefaultExecuteListener {
             QueryProcessor beforeExecutionProcessor = matchingBreakpoint.getBeforeExecutionProcessor();
             if(beforeExecutionProcessor != null) {
                 String sql = beforeExecutionProcessor.processSQL(matchingSQL);
-                long subStartExecutionTime = System.currentTimeMillis();
+                long subStartExecutionTime = System.nanoTime();
                 executeSQL(ctx, sql);
-                long subEndExecutionTime = System.currentTimeMillis();
+                long subEndExecutionTime = System.nanoTime();
 
                 // Log result of pre-processing.
-                for (Debugger debugger : debuggerList) {
-                    LoggingListener listener = debugger.getLoggingListener();
-
-                    if (listener != null) {
-                        QueryType type = QueryType.detectType(sql);
-                        QueryInfo info = new QueryInfo(type, new String[] { sql }, null);
-                        QueryLog log = new QueryLog(info, null, null, subEndExecutionTime - subStartExecutionTime);
-                        QueryMatcher[] matchers = listener.getMatchers();
-
-                        if (matchers == null) {
-                            listener.logQuery(log);
-                        }
-                        else {
-                            for (QueryMatcher matcher : matchers) {
-                                if (matcher.matches(log.getQueryInfo())) {
-                                    listener.logQuery(log);
-                                    break;
-                                }
-                            }
-                        }
-                    }
-                }
+                QueryInfo info = new QueryInfo(QueryType.detectType(sql), new String[] { sql }, null);
+                logQuery(debuggerList, info, null, null, subEndExecutionTime - subStartExecutionTime);
             }
             String mainSQL = null;
             QueryProcessor replacementExecutionProcessor = matchingBreakpoint.getReplacementExecutionProcessor();
@@ -281,7 +269,7 @@ public class DebugListener extends DefaultExecuteListener {
         if(!hasDebuggers) {
             return;
         }
-		startExecutionTime = System.currentTimeMillis();
+		startExecutionTime = System.nanoTime();
 	}
 
     private void executeSQL(ExecuteContext ctx, String sql) {
@@ -309,7 +297,7 @@ public class DebugListener extends DefaultExecuteListener {
 		if(!hasDebuggers) {
 			return;
 		}
-		endExecutionTime = System.currentTimeMillis();
+		endExecutionTime = System.nanoTime();
         List<Debugger> debuggers = DebuggerRegistry.get();
 		if(!debuggers.isEmpty()) {
 		    boolean hasListener = false;
@@ -332,38 +320,15 @@ public class DebugListener extends DefaultExecuteListener {
                     }
                 }
 		        QueryInfo info = new QueryInfo(type, sql, parameterDescription);
-		        final QueryLog log = new QueryLog(info, startPreparationTime == 0? null: aggregatedPreparationDuration, startBindTime == 0? null: endBindTime - startBindTime, endExecutionTime - startExecutionTime);
 		        final List<LoggingListener> listeners = new ArrayList<LoggingListener>(debuggers.size());
-                for (Debugger debugger : debuggers) {
-                    LoggingListener listener = debugger.getLoggingListener();
-
-                    if (listener != null) {
-                        QueryMatcher[] matchers = listener.getMatchers();
-                        if (matchers == null) {
-                            listeners.add(listener);
-                            listener.logQuery(log);
-                        }
-                        else {
-                            for (QueryMatcher matcher : matchers) {
-                                if (matcher.matches(log.getQueryInfo())) {
-                                    listeners.add(listener);
-                                    listener.logQuery(log);
-                                    break;
-                                }
-                            }
-                        }
-                    }
-		        }
+		        final QueryLog log = logQuery(debuggers, info, isPrepared? aggregatedPreparationDuration: null, isBound? endBindTime - startBindTime: null, endExecutionTime - startExecutionTime, listeners);
 		        ResultSet resultSet = ctx.resultSet();
-                if (resultSet != null && !listeners.isEmpty()) {
+                if (resultSet != null && log != null) {
                     ResultSet newResultSet = new TrackingResultSet(resultSet) {
                         @Override
                         protected void notifyData(long lifeTime, int readRows, int readCount, int writeCount) {
-                            ResultLog resultLog = null;
+                            ResultLog resultLog = new ResultLog(log.getID(), lifeTime, readRows, readCount, writeCount);
                             for (LoggingListener loggingListener : listeners) {
-                                if (resultLog == null) {
-                                    resultLog = new ResultLog(log.getID(), lifeTime, readRows, readCount, writeCount);
-                                }
                                 loggingListener.logResult(resultLog);
                             }
                         }
@@ -385,35 +350,80 @@ public class DebugListener extends DefaultExecuteListener {
             matchingBreakpoint = null;
             if(afterExecutionProcessor != null) {
                 String sql = afterExecutionProcessor.processSQL(matchingSQL);
-                long subStartExecutionTime = System.currentTimeMillis();
+                long subStartExecutionTime = System.nanoTime();
                 executeSQL(ctx, sql);
-                long subEndExecutionTime = System.currentTimeMillis();
-                // Log result of pre-processing.
-                for (Debugger debugger : debuggers) {
-                    LoggingListener listener = debugger.getLoggingListener();
+                long subEndExecutionTime = System.nanoTime();
+                // Log result of post-processing.
+                QueryInfo info = new QueryInfo(QueryType.detectType(sql), new String[] { sql }, null);
+                logQuery(debuggers, info, null, null, subEndExecutionTime - subStartExecutionTime);
+            }
+        }
+	}
 
-                    if (listener != null) {
-                        QueryType type = QueryType.detectType(sql);
-                        QueryInfo info = new QueryInfo(type, new String[] {sql}, null);
-                        QueryLog log = new QueryLog(info, null, null, subEndExecutionTime - subStartExecutionTime);
-                        QueryMatcher[] matchers = listener.getMatchers();
+    private static QueryLog logQuery(List<Debugger> debuggers, QueryInfo info, Long preparationNanos, Long bindingNanos, long executionNanos) {
+        return logQuery(debuggers, info, preparationNanos, bindingNanos, executionNanos, new ArrayList<LoggingListener>(debuggers.size()));
+    }
 
-                        if (matchers == null) {
-                            listener.logQuery(log);
-                        }
-                        else {
-                            for (QueryMatcher matcher : matchers) {
-                                if (matcher.matches(log.getQueryInfo())) {
-                                    listener.logQuery(log);
-                                    break;
-                                }
-                            }
-                        }
+    /**
+     * Notify all matching logging listeners of an executed query.
+     * <p>
+     * A {@link QueryLog} is created only if at least one listener matches the
+     * query, and its debugger's {@link LoggingPolicy} samples it. Stack traces
+     * are captured to the largest depth requested by any such policy.
+     *
+     * @param listeners The listeners that were notified. This list is
+     *            populated by this method.
+     * @return The query log, or <code>null</code> if no listener was notified.
+     */
+    private static QueryLog logQuery(List<Debugger> debuggers, QueryInfo info, Long preparationNanos, Long bindingNanos, long executionNanos, List<LoggingListener> listeners) {
+        int stackTraceDepth = 0;
+
+        for (Debugger debugger : debuggers) {
+            LoggingListener listener = debugger.getLoggingListener();
+
+            if (listener != null && matches(listener.getMatchers(), info)) {
+                LoggingPolicy policy = debugger.getLoggingPolicy();
+
+                if (policy == null) {
+                    policy = LoggingPolicy.ALL;
+                }
+
+                if (policy.sample(info)) {
+                    listeners.add(listener);
+
+                    int depth = policy.getStackTraceDepth();
+                    if (stackTraceDepth >= 0 && (depth < 0 || depth > stackTraceDepth)) {
+                        stackTraceDepth = depth;
                     }
                 }
             }
         }
-	}
+
+        if (listeners.isEmpty()) {
+            return null;
+        }
+
+        QueryLog log = new QueryLog(info, TimeUnit.NANOSECONDS, preparationNanos, bindingNanos, executionNanos, stackTraceDepth);
+        for (LoggingListener listener : listeners) {
+            listener.logQuery(log);
+        }
+
+        return log;
+    }
+
+    private static boolean matches(QueryMatcher[] matchers, QueryInfo info) {
+        if (matchers == null) {
+            return true;
+        }
+
+        for (QueryMatcher matcher : matchers) {
+            if (matcher.matches(info)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
 
 //	private long startFetchTime;
 //	private long endFetchTime;
@@ -57,6 +57,7 @@ import org.jooq.debug.BreakpointHitHandler;
 import org.jooq.debug.DatabaseDescriptor;
 import org.jooq.debug.Debugger;
 import org.jooq.debug.LoggingListener;
+import org.jooq.debug.LoggingPolicy;
 import org.jooq.debug.QueryExecutorContext;
 
 
@@ -94,6 +95,23 @@ class LocalDebugger implements Debugger {
         }
     }
 
+    private LoggingPolicy loggingPolicy;
+    private final Object LOGGING_POLICY_LOCK = new Object();
+
+    @Override
+    public void setLoggingPolicy(LoggingPolicy loggingPolicy) {
+        synchronized (LOGGING_POLICY_LOCK) {
+            this.loggingPolicy = loggingPolicy;
+        }
+    }
+
+    @Override
+    public LoggingPolicy getLoggingPolicy() {
+        synchronized (LOGGING_POLICY_LOCK) {
+            return loggingPolicy;
+        }
+    }
+
     private Breakpoint[] breakpoints;
     private final Object BREAKPOINT_LOCK = new Object();
 
@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ *                          Christopher Deckers, chrriis@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.debug.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jooq.debug.QueryLog;
+import org.jooq.debug.ResultLog;
+import org.jooq.debug.impl.ClientDebugger.CMC_logBatch;
+
+/**
+ * A bounded, batching sender of log events to a remote debugger
+ * <p>
+ * Log events are queued and sent in batches by a single sender thread, encoded
+ * using the {@link LogMessageCodec}. When the remote side cannot keep up with
+ * a busy server, the queue applies back-pressure by dropping the oldest queued
+ * events, rather than blocking the threads executing queries, or growing
+ * without bounds. When a {@link QueryLog} is dropped, its {@link ResultLog}s
+ * are dropped as well, such that the remote side doesn't receive results of
+ * unknown queries.
+ * <p>
+ * The following system properties can be used to tune this sender:
+ * <ul>
+ * <li><code>communication.interface.log.queuesize</code>: The maximum number
+ * of queued events (default <code>10000</code>)</li>
+ * <li><code>communication.interface.log.batchsize</code>: The maximum number
+ * of events per sent message (default <code>500</code>)</li>
+ * <li><code>communication.interface.log.flushinterval</code>: The maximum
+ * time in milliseconds before queued events are sent (default
+ * <code>100</code>)</li>
+ * </ul>
+ *
+ * @author Christopher Deckers
+ */
+class LogEventSender {
+
+    private static final int    QUEUE_SIZE     = Integer.getInteger("communication.interface.log.queuesize", 10000);
+    private static final int    BATCH_SIZE     = Integer.getInteger("communication.interface.log.batchsize", 500);
+    private static final long   FLUSH_INTERVAL = Long.getLong("communication.interface.log.flushinterval", 100L);
+
+    private final Communication comm;
+    private final ArrayDeque<Object> queue;
+    private final int           capacity;
+    private final int           batchSize;
+    private final long          flushInterval;
+
+    private long                droppedCount;
+    private boolean             isClosed;
+
+    /**
+     * The IDs of recently dropped {@link QueryLog}s, whose {@link ResultLog}s
+     * must be dropped as well. Only as many IDs as events fit in the queue are
+     * remembered.
+     */
+    private final Set<Integer>  droppedQueryLogIds;
+
+    LogEventSender(Communication comm) {
+        this(comm, QUEUE_SIZE, BATCH_SIZE, FLUSH_INTERVAL);
+    }
+
+    LogEventSender(Communication comm, int capacity, int batchSize, long flushInterval) {
+        this.comm = comm;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushInterval = Math.max(1, flushInterval);
+        this.queue = new ArrayDeque<Object>(Math.min(this.capacity, 1024));
+        this.droppedQueryLogIds = new LinkedHashSet<Integer>();
+
+        Thread sender = new Thread("Communication Interface Log Sender") {
+            @Override
+            public void run() {
+                sendLoop();
+            }
+        };
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    void add(QueryLog log) {
+        enqueue(log);
+    }
+
+    void add(ResultLog log) {
+        enqueue(log);
+    }
+
+    /**
+     * The number of events that were dropped because the queue was full
+     */
+    synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Stop sending events. Queued events are discarded.
+     */
+    synchronized void close() {
+        isClosed = true;
+        queue.clear();
+        droppedQueryLogIds.clear();
+        notifyAll();
+    }
+
+    private synchronized void enqueue(Object event) {
+        if (isClosed || isOrphan(event)) {
+            return;
+        }
+
+        if (queue.size() >= capacity) {
+            Object dropped = queue.pollFirst();
+            droppedCount++;
+
+            if (dropped instanceof QueryLog) {
+                if (droppedQueryLogIds.size() >= capacity) {
+                    droppedQueryLogIds.remove(droppedQueryLogIds.iterator().next());
+                }
+
+                droppedQueryLogIds.add(((QueryLog) dropped).getID());
+            }
+        }
+
+        queue.addLast(event);
+
+        // Wake up the sender only when it has to start waiting for a batch, or
+        // when a full batch is available
+        int size = queue.size();
+        if (size == 1 || size == batchSize) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Whether an event is a {@link ResultLog} whose {@link QueryLog} was
+     * dropped. Such events are counted as dropped events, too.
+     */
+    private boolean isOrphan(Object event) {
+        if (event instanceof ResultLog && droppedQueryLogIds.contains(((ResultLog) event).getQueryLogId())) {
+            droppedCount++;
+            return true;
+        }
+
+        return false;
+    }
+
+    private void sendLoop() {
+        List<Object> batch = new ArrayList<Object>(batchSize);
+
+        while (true) {
+            synchronized (this) {
+                try {
+                    while (!isClosed && queue.isEmpty()) {
+                        wait();
+                    }
+
+                    // Give the first queued event some time to be joined by others
+                    long deadline = System.nanoTime() + flushInterval * 1000000L;
+                    while (!isClosed && queue.size() < batchSize) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+
+                        wait(Math.max(1, remaining / 1000000L));
+                    }
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+
+                if (isClosed) {
+                    return;
+                }
+
+                while (batch.size() < batchSize && !queue.isEmpty()) {
+                    Object event = queue.pollFirst();
+
+                    // The event's QueryLog may have been dropped after the
+                    // event was queued
+                    if (!isOrphan(event)) {
+                        batch.add(event);
+                    }
+                }
+
+                if (batch.isEmpty()) {
+                    continue;
+                }
+            }
+
+            try {
+                comm.asyncSend(new CMC_logBatch(LogMessageCodec.encode(batch)));
+            }
+
+            // The communication was closed in the meantime
+            catch (IllegalStateException e) {
+                close();
+                return;
+            }
+            finally {
+                batch.clear();
+            }
+        }
+    }
+}
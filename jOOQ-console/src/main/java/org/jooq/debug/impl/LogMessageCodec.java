@@ -0,0 +1,344 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ *                          Christopher Deckers, chrriis@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.debug.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jooq.debug.QueryInfo;
+import org.jooq.debug.QueryLog;
+import org.jooq.debug.QueryType;
+import org.jooq.debug.ResultLog;
+
+/**
+ * A compact binary codec for batches of {@link QueryLog} and {@link ResultLog}
+ * events
+ * <p>
+ * Java serialisation of individual log objects writes class descriptors and
+ * full object graphs for every event. This codec writes events as tagged
+ * records of variable-length integers. Strings (SQL, thread names, stack trace
+ * element class / method / file names) are written only once per batch and
+ * referenced by index thereafter, which collapses repeated statements and
+ * stack traces.
+ *
+ * @author Christopher Deckers
+ */
+final class LogMessageCodec {
+
+    private static final int  VERSION      = 1;
+
+    private static final int  TAG_QUERY    = 1;
+    private static final int  TAG_RESULT   = 2;
+
+    private static final int  NULL_STRING  = 0;
+
+    /**
+     * Encode a list of {@link QueryLog} and {@link ResultLog} events
+     */
+    static byte[] encode(List<?> events) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * events.size() + 16);
+        Encoder encoder = new Encoder(new DataOutputStream(bytes));
+
+        try {
+            encoder.writeVarLong(VERSION);
+            encoder.writeVarLong(events.size());
+
+            for (Object event : events) {
+                if (event instanceof QueryLog) {
+                    encoder.writeQueryLog((QueryLog) event);
+                }
+                else if (event instanceof ResultLog) {
+                    encoder.writeResultLog((ResultLog) event);
+                }
+                else {
+                    throw new IllegalArgumentException("Unsupported log event: " + event);
+                }
+            }
+
+            encoder.out.flush();
+        }
+
+        // ByteArrayOutputStream doesn't throw IOExceptions
+        catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a list of {@link QueryLog} and {@link ResultLog} events
+     */
+    static List<Object> decode(byte[] data) {
+        Decoder decoder = new Decoder(new DataInputStream(new ByteArrayInputStream(data)));
+
+        try {
+            int version = (int) decoder.readVarLong();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported log message version: " + version);
+            }
+
+            int size = (int) decoder.readVarLong();
+            List<Object> result = new ArrayList<Object>(size);
+
+            for (int i = 0; i < size; i++) {
+                int tag = decoder.in.readByte();
+
+                switch (tag) {
+                    case TAG_QUERY:
+                        result.add(decoder.readQueryLog());
+                        break;
+
+                    case TAG_RESULT:
+                        result.add(decoder.readResultLog());
+                        break;
+
+                    default:
+                        throw new IllegalStateException("Unknown log event tag: " + tag);
+                }
+            }
+
+            return result;
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Corrupt log message", e);
+        }
+    }
+
+    private static class Encoder {
+
+        final DataOutputStream     out;
+        final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+        Encoder(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void writeQueryLog(QueryLog log) throws IOException {
+            QueryInfo info = log.getQueryInfo();
+
+            out.writeByte(TAG_QUERY);
+            writeVarLong(log.getID());
+            writeVarLong(info.getQueryType().ordinal());
+
+            String[] queries = info.getQueries();
+            writeVarLong(queries.length);
+            for (String query : queries) {
+                writeString(query);
+            }
+
+            writeString(info.getParameterDescription());
+            writeString(info.getThreadName());
+            writeVarLong(info.getThreadID());
+
+            writeNullableDuration(log.getPreparedStatementPreparationDuration(TimeUnit.NANOSECONDS));
+            writeNullableDuration(log.getPreparedStatementBindingDuration(TimeUnit.NANOSECONDS));
+            writeVarLong(log.getExecutionDuration(TimeUnit.NANOSECONDS));
+
+            StackTraceElement[] elements = log.getCallerStackTraceElements();
+            writeVarLong(elements.length);
+            for (StackTraceElement element : elements) {
+                writeString(element.getClassName());
+                writeString(element.getMethodName());
+                writeString(element.getFileName());
+
+                // Line numbers may be negative for unknown or native frames
+                writeVarLong(element.getLineNumber() + 2);
+            }
+        }
+
+        void writeResultLog(ResultLog log) throws IOException {
+            out.writeByte(TAG_RESULT);
+            writeVarLong(log.getId());
+            writeVarLong(log.getQueryLogId());
+            writeVarLong(log.getLifeTime());
+            writeVarLong(log.getReadRows());
+            writeVarLong(log.getReadCount());
+            writeVarLong(log.getWriteCount());
+        }
+
+        /**
+         * Write a string as a reference into this batch's string table.
+         * <p>
+         * References are <code>0</code> for <code>null</code>, the positive
+         * index of a previously written string, or the negative index of a
+         * new string, which is then written in full.
+         */
+        void writeString(String string) throws IOException {
+            if (string == null) {
+                writeVarLong(NULL_STRING);
+                return;
+            }
+
+            Integer index = strings.get(string);
+            if (index != null) {
+                writeVarLong(index);
+            }
+            else {
+                index = strings.size() + 1;
+                strings.put(string, index);
+
+                writeVarLong(-index);
+                byte[] utf8 = string.getBytes("UTF-8");
+                writeVarLong(utf8.length);
+                out.write(utf8);
+            }
+        }
+
+        void writeNullableDuration(Long duration) throws IOException {
+            writeVarLong(duration == null ? 0 : duration + 1);
+        }
+
+        /**
+         * Write a zig-zag encoded variable-length integer
+         */
+        void writeVarLong(long value) throws IOException {
+            long v = (value << 1) ^ (value >> 63);
+
+            while ((v & ~0x7FL) != 0) {
+                out.writeByte((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+
+            out.writeByte((int) v);
+        }
+    }
+
+    private static class Decoder {
+
+        final DataInputStream in;
+        final List<String>    strings = new ArrayList<String>();
+
+        Decoder(DataInputStream in) {
+            this.in = in;
+        }
+
+        QueryLog readQueryLog() throws IOException {
+            int id = (int) readVarLong();
+            QueryType type = QueryType.values()[(int) readVarLong()];
+
+            String[] queries = new String[(int) readVarLong()];
+            for (int i = 0; i < queries.length; i++) {
+                queries[i] = readString();
+            }
+
+            String parameterDescription = readString();
+            String threadName = readString();
+            long threadID = readVarLong();
+
+            Long preparationDuration = readNullableDuration();
+            Long bindingDuration = readNullableDuration();
+            long executionDuration = readVarLong();
+
+            StackTraceElement[] elements = new StackTraceElement[(int) readVarLong()];
+            for (int i = 0; i < elements.length; i++) {
+                String className = readString();
+                String methodName = readString();
+                String fileName = readString();
+                int lineNumber = (int) readVarLong() - 2;
+
+                elements[i] = new StackTraceElement(className, methodName, fileName, lineNumber);
+            }
+
+            QueryInfo info = new QueryInfo(type, queries, parameterDescription, threadName, threadID);
+            return new QueryLog(id, info, preparationDuration, bindingDuration, executionDuration, elements);
+        }
+
+        ResultLog readResultLog() throws IOException {
+            int id = (int) readVarLong();
+            int queryLogId = (int) readVarLong();
+            long lifeTime = readVarLong();
+            int readRows = (int) readVarLong();
+            int readCount = (int) readVarLong();
+            int writeCount = (int) readVarLong();
+
+            return new ResultLog(id, queryLogId, lifeTime, readRows, readCount, writeCount);
+        }
+
+        String readString() throws IOException {
+            int index = (int) readVarLong();
+
+            if (index == NULL_STRING) {
+                return null;
+            }
+            else if (index > 0) {
+                return strings.get(index - 1);
+            }
+            else {
+                byte[] utf8 = new byte[(int) readVarLong()];
+                in.readFully(utf8);
+
+                String string = new String(utf8, "UTF-8");
+                strings.add(string);
+                return string;
+            }
+        }
+
+        Long readNullableDuration() throws IOException {
+            long value = readVarLong();
+            return value == 0 ? null : value - 1;
+        }
+
+        long readVarLong() throws IOException {
+            long v = 0;
+
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = in.readByte();
+                v |= (long) (b & 0x7F) << shift;
+
+                if ((b & 0x80) == 0) {
+                    return (v >>> 1) ^ -(v & 1);
+                }
+            }
+
+            throw new IOException("Malformed variable-length integer");
+        }
+    }
+
+    /**
+     * No instances
+     */
+    private LogMessageCodec() {}
+}
@@ -47,6 +47,12 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jooq.debug.impl.Message.NoResult;
 
@@ -99,19 +105,45 @@ class MessagingInterface {
 
     public void destroy() {
         isAlive = false;
+        dispatcher.shutdown();
         try {
             ois.close();
         } catch(Exception e) {
         }
     }
 
-    private class MessageProcessingThread extends Thread {
+    /**
+     * The maximum number of threads dispatching received messages, per
+     * connection. This can be set with the
+     * <code>communication.interface.dispatcher.threads</code> system property.
+     */
+    private static final int DISPATCHER_THREADS = Math.max(1, Integer.getInteger("communication.interface.dispatcher.threads", 4));
+
+    /**
+     * This connection's pool of threads dispatching received messages.
+     * <p>
+     * Messages are processed by one {@link MessageProcessor} per originator
+     * thread, in order to preserve their ordering. Processors are executed on
+     * a bounded number of pooled threads, which are reused once a processor
+     * has no more messages to process, instead of creating a new thread per
+     * originator. Processors of further originators are queued until a thread
+     * is available. Idle threads are released. Note that processors may block
+     * for a long time, e.g. when a breakpoint hit is being handled.
+     */
+    private final ThreadPoolExecutor dispatcher;
+
+    /**
+     * The processor currently being executed by a dispatcher thread
+     */
+    private final ThreadLocal<MessageProcessor> currentProcessor = new ThreadLocal<MessageProcessor>();
+
+    private class MessageProcessor implements Runnable {
 
         private long originatorThreadID;
         private List<Message<?>> messageList = new LinkedList<Message<?>>();
+        private volatile long workerThreadID;
 
-        public MessageProcessingThread(long originatorThreadID) {
-            setName("Communication Interface Message Dispatcher-" + getId() + " [" + originatorThreadID + "]");
+        public MessageProcessor(long originatorThreadID) {
             this.originatorThreadID = originatorThreadID;
         }
 
@@ -125,6 +157,13 @@ class MessagingInterface {
             return originatorThreadID;
         }
 
+        /**
+         * The ID of the dispatcher thread executing this processor
+         */
+        public long getWorkerThreadID() {
+            return workerThreadID;
+        }
+
         private boolean isWaitingOnSyncCall;
 
         public boolean isWaitingOnSyncCall() {
@@ -137,6 +176,18 @@ class MessagingInterface {
 
         @Override
         public void run() {
+            workerThreadID = Thread.currentThread().getId();
+            currentProcessor.set(this);
+
+            try {
+                processMessages();
+            }
+            finally {
+                currentProcessor.remove();
+            }
+        }
+
+        private void processMessages() {
             while(true) {
                 Message<?> message;
                 synchronized(messageList) {
@@ -146,13 +197,13 @@ class MessagingInterface {
                         message = messageList.remove(0);
                     }
                 }
-                // When there are no more messages to process, we try to de-register the current thread.
+                // When there are no more messages to process, we try to de-register the current processor.
                 // We need to make sure that no message is posted while we do this.
                 if(message == null) {
-                    synchronized (originatorThreadIDToThreadMap) {
+                    synchronized (originatorThreadIDToProcessorMap) {
                         synchronized(messageList) {
                             if(messageList.isEmpty()) {
-                                originatorThreadIDToThreadMap.remove(originatorThreadID);
+                                originatorThreadIDToProcessorMap.remove(originatorThreadID);
                             } else {
                                 message = messageList.remove(0);
                             }
@@ -168,7 +219,7 @@ class MessagingInterface {
 
     }
 
-    private Map<Long, MessageProcessingThread> originatorThreadIDToThreadMap = new HashMap<Long, MessagingInterface.MessageProcessingThread>();
+    private Map<Long, MessageProcessor> originatorThreadIDToProcessorMap = new HashMap<Long, MessagingInterface.MessageProcessor>();
 
     private Communication comm;
     private boolean isClient;
@@ -176,6 +227,17 @@ class MessagingInterface {
     MessagingInterface(final Communication communication, final Socket socket, boolean isClient) {
         this.comm = communication;
         this.isClient = isClient;
+        this.dispatcher = new ThreadPoolExecutor(DISPATCHER_THREADS, DISPATCHER_THREADS, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger nextID = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Communication Interface Message Dispatcher (" + (MessagingInterface.this.isClient ? "client" : "server") + ")-" + nextID.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.dispatcher.allowCoreThreadTimeOut(true);
         try {
             oos = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()) {
                 @Override
@@ -229,26 +291,30 @@ class MessagingInterface {
 //                        boolean isOriginatingSide = message instanceof CM_asyncExecResponse;
                         boolean isProcessorToOriginator = message.isProcessorToOriginator();
                         if(!isProcessorToOriginator) {
-                            MessageProcessingThread messageProcessingThread;
+                            MessageProcessor messageProcessor;
                             boolean isNew = false;
-                            synchronized (originatorThreadIDToThreadMap) {
-                                messageProcessingThread = originatorThreadIDToThreadMap.get(threadID);
-                                if(messageProcessingThread == null) {
-                                    messageProcessingThread = new MessageProcessingThread(threadID);
-                                    originatorThreadIDToThreadMap.put(threadID, messageProcessingThread);
+                            synchronized (originatorThreadIDToProcessorMap) {
+                                messageProcessor = originatorThreadIDToProcessorMap.get(threadID);
+                                if(messageProcessor == null) {
+                                    messageProcessor = new MessageProcessor(threadID);
+                                    originatorThreadIDToProcessorMap.put(threadID, messageProcessor);
                                     isNew = true;
-                                    messageProcessingThread.addMessage(message);
+                                    messageProcessor.addMessage(message);
                                 } else {
-                                    if(messageProcessingThread.isWaitingOnSyncCall()) {
-                                        threadID = messageProcessingThread.getId();
+                                    if(messageProcessor.isWaitingOnSyncCall()) {
+                                        threadID = messageProcessor.getWorkerThreadID();
                                         isProcessorToOriginator = true;
                                     } else {
-                                        messageProcessingThread.addMessage(message);
+                                        messageProcessor.addMessage(message);
                                     }
                                 }
                             }
                             if(isNew) {
-                                messageProcessingThread.start();
+                                try {
+                                    dispatcher.execute(messageProcessor);
+                                } catch(RejectedExecutionException e) {
+                                    // The connection was destroyed in the meantime
+                                }
                             }
                         }
                         if(isProcessorToOriginator) {
@@ -270,6 +336,7 @@ class MessagingInterface {
                         }
                     }
                 }
+                dispatcher.shutdown();
                 try {
                     oos.close();
                 } catch(Exception e) {
@@ -417,9 +484,10 @@ class MessagingInterface {
         synchronized (idToThreadInfo) {
             previousThreadInfo = idToThreadInfo.put(threadID, threadInfo);
         }
-        if(thread instanceof MessageProcessingThread) {
-            synchronized (originatorThreadIDToThreadMap) {
-                ((MessageProcessingThread)thread).setWaitingOnSyncCall(true);
+        MessageProcessor processor = currentProcessor.get();
+        if(processor != null) {
+            synchronized (originatorThreadIDToProcessorMap) {
+                processor.setWaitingOnSyncCall(true);
             }
         }
         CM_asyncExec<S> asyncExec = new CM_asyncExec<S>(threadID, message);
@@ -454,9 +522,9 @@ class MessagingInterface {
                 idToThreadInfo.remove(threadID);
             }
         }
-        if(previousThreadInfo == null &&thread instanceof MessageProcessingThread) {
-            synchronized (originatorThreadIDToThreadMap) {
-                ((MessageProcessingThread)thread).setWaitingOnSyncCall(false);
+        if(previousThreadInfo == null && processor != null) {
+            synchronized (originatorThreadIDToProcessorMap) {
+                processor.setWaitingOnSyncCall(false);
             }
         }
         return processCommandResult(commandResultMessage);
@@ -478,13 +546,13 @@ class MessagingInterface {
 
     public void asyncSend(Message<?> message) {
         message.setSyncExec(false);
-        Thread thread = Thread.currentThread();
+        MessageProcessor processor = currentProcessor.get();
         // If the message was sent by the other side, all returning messages need to know which originating thread they are bound to.
-        if(thread instanceof MessageProcessingThread) {
-            message.setThreadID(((MessageProcessingThread) thread).getOriginatorThreadID());
+        if(processor != null) {
+            message.setThreadID(processor.getOriginatorThreadID());
             message.setProcessorToOriginator(true);
         } else {
-            message.setThreadID(thread.getId());
+            message.setThreadID(Thread.currentThread().getId());
             message.setProcessorToOriginator(false);
         }
         try {
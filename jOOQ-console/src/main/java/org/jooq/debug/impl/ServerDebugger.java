@@ -46,13 +46,12 @@ import org.jooq.debug.BreakpointHit;
 import org.jooq.debug.BreakpointHitHandler;
 import org.jooq.debug.DatabaseDescriptor;
 import org.jooq.debug.LoggingListener;
+import org.jooq.debug.LoggingPolicy;
 import org.jooq.debug.QueryExecution;
 import org.jooq.debug.QueryExecutor;
 import org.jooq.debug.QueryLog;
 import org.jooq.debug.QueryMatcher;
 import org.jooq.debug.ResultLog;
-import org.jooq.debug.impl.ClientDebugger.CMC_logQueries;
-import org.jooq.debug.impl.ClientDebugger.CMC_logResultSet;
 import org.jooq.debug.impl.ClientDebugger.CMC_processBreakpointAfterExecutionHit;
 import org.jooq.debug.impl.ClientDebugger.CMC_processBreakpointBeforeExecutionHit;
 import org.jooq.debug.impl.Message.NoResult;
@@ -73,8 +72,19 @@ class ServerDebugger extends LocalDebugger {
         this.comm = communication;
     }
 
+    private LogEventSender logEventSender;
+    private final Object LOG_EVENT_SENDER_LOCK = new Object();
+
     private void setLoggingActive(boolean isActive, final QueryMatcher[] matchers) {
         if (isActive) {
+            final LogEventSender sender;
+            synchronized (LOG_EVENT_SENDER_LOCK) {
+                if (logEventSender == null) {
+                    logEventSender = new LogEventSender(comm);
+                }
+                sender = logEventSender;
+            }
+
             setLoggingListener(new LoggingListener() {
 
                 @Override
@@ -84,17 +94,27 @@ class ServerDebugger extends LocalDebugger {
 
                 @Override
                 public void logQuery(QueryLog queryLog) {
-                    comm.asyncSend((CommandMessage<?>) new CMC_logQueries(queryLog));
+                    sender.add(queryLog);
                 }
 
                 @Override
                 public void logResult(ResultLog resultLog) {
-                    comm.asyncSend((CommandMessage<?>) new CMC_logResultSet(resultLog));
+                    sender.add(resultLog);
                 }
             });
         }
         else {
             setLoggingListener(null);
+            closeLogEventSender();
+        }
+    }
+
+    private void closeLogEventSender() {
+        synchronized (LOG_EVENT_SENDER_LOCK) {
+            if (logEventSender != null) {
+                logEventSender.close();
+                logEventSender = null;
+            }
         }
     }
 
@@ -114,6 +134,20 @@ class ServerDebugger extends LocalDebugger {
         }
     }
 
+    static class CMS_setLoggingPolicy extends CommandMessage<NoResult> {
+        private final LoggingPolicy policy;
+
+        CMS_setLoggingPolicy(LoggingPolicy policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public NoResult run(MessageContext context) {
+            context.getDebugger().setLoggingPolicy(policy);
+            return null;
+        }
+    }
+
     private void setBreakpointHitHandlerActive(boolean isActive) {
         if (isActive) {
             setBreakpointHitHandler(new BreakpointHitHandler() {
@@ -306,6 +340,7 @@ class ServerDebugger extends LocalDebugger {
     }
 
     void cleanup() {
+        closeLogEventSender();
         synchronized (idToStatementExecutorMap) {
             for(QueryExecutor executor: idToStatementExecutorMap.values()) {
                 executor.stopExecution();
@@ -57,6 +57,7 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.Calendar;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.jooq.tools.jdbc.JDBC41ResultSet;
 
@@ -69,7 +70,7 @@ abstract class TrackingResultSet extends JDBC41ResultSet implements ResultSet {
 
     public TrackingResultSet(ResultSet resultSet) {
         this.resultSet = resultSet;
-        creationTime = System.currentTimeMillis();
+        creationTime = System.nanoTime();
     }
 
     @Override
@@ -94,8 +95,9 @@ abstract class TrackingResultSet extends JDBC41ResultSet implements ResultSet {
     @Override
     public void close() throws SQLException {
         resultSet.close();
-        if(disposeTime == 0) {
-            disposeTime = System.currentTimeMillis();
+        if(!isDisposed) {
+            isDisposed = true;
+            disposeTime = System.nanoTime();
             notifyData();
         }
     }
@@ -1189,19 +1191,20 @@ abstract class TrackingResultSet extends JDBC41ResultSet implements ResultSet {
 
     private long creationTime;
     private long disposeTime;
+    private boolean isDisposed;
     private int readCount;
     private int writeCount;
     private int readRows;
 
     private void notifyData() {
-        notifyData(disposeTime - creationTime, readRows, readCount, writeCount);
+        notifyData(TimeUnit.NANOSECONDS.toMillis(disposeTime - creationTime), readRows, readCount, writeCount);
     }
 
     /**
      * Subclasses may override this method to be notified of data
      *
-     * @param lifeTime The time between <code>ResultSet</code> creation and its
-     *            closing.
+     * @param lifeTime The time in milliseconds between <code>ResultSet</code>
+     *            creation and its closing.
      * @param readRows The rows read
      * @param readCount The read operations performed
      * @param writeCount The write operations performed
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ *                          Christopher Deckers, chrriis@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.debug;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link QueryLog}
+ *
+ * @author Christopher Deckers
+ */
+public class QueryLogTest {
+
+    private static final QueryInfo INFO = new QueryInfo(QueryType.SELECT, new String[] { "select 1" }, null);
+
+    private static StackTraceElement element(String className) {
+        return new StackTraceElement(className, "method", className + ".java", 1);
+    }
+
+    private static final StackTraceElement[] TRACE = {
+        element("org.jooq.debug.QueryLog"),
+        element("org.jooq.debug.impl.DebugListener"),
+        element("org.jooq.impl.AbstractQuery"),
+        element("com.example.Dao"),
+        element("com.example.Service"),
+        element("org.jooq.impl.Executor"),
+        element("java.lang.Thread")
+    };
+
+    @Test
+    public void testInternalElementsAreSkipped() throws Exception {
+        StackTraceElement[] elements = QueryLog.StackTraces.callerElements(TRACE, 2);
+
+        assertEquals(2, elements.length);
+        assertEquals("com.example.Dao", elements[0].getClassName());
+        assertEquals("com.example.Service", elements[1].getClassName());
+    }
+
+    @Test
+    public void testOnlyLeadingInternalElementsAreSkipped() throws Exception {
+        StackTraceElement[] elements = QueryLog.StackTraces.callerElements(TRACE, -1);
+
+        assertEquals(4, elements.length);
+        assertEquals("com.example.Dao", elements[0].getClassName());
+        assertEquals("org.jooq.impl.Executor", elements[2].getClassName());
+        assertEquals("java.lang.Thread", elements[3].getClassName());
+    }
+
+    @Test
+    public void testDepthLargerThanStackTrace() throws Exception {
+        assertEquals(4, QueryLog.StackTraces.callerElements(TRACE, 100).length);
+    }
+
+    @Test
+    public void testOnlyInternalElements() throws Exception {
+        StackTraceElement[] trace = {
+            element("org.jooq.debug.QueryLog"),
+            element("org.jooq.test.SomeTest")
+        };
+
+        StackTraceElement[] elements = QueryLog.StackTraces.callerElements(trace, 1);
+        assertEquals(1, elements.length);
+        assertEquals("org.jooq.debug.QueryLog", elements[0].getClassName());
+    }
+
+    @Test
+    public void testCapturedStackTrace() throws Exception {
+        QueryLog log = new QueryLog(INFO, TimeUnit.NANOSECONDS, null, null, 1000L, 3);
+        StackTraceElement[] elements = log.getCallerStackTraceElements();
+
+        // This test and QueryLog are both internal to jOOQ
+        assertEquals(3, elements.length);
+        assertFalse(elements[0].getClassName().startsWith("org.jooq."));
+        assertTrue(elements == log.getCallerStackTraceElements());
+    }
+
+    @Test
+    public void testNoStackTrace() throws Exception {
+        QueryLog log = new QueryLog(INFO, TimeUnit.NANOSECONDS, null, null, 1000L, 0);
+        assertEquals(0, log.getCallerStackTraceElements().length);
+    }
+
+    @Test
+    public void testSerialisation() throws Exception {
+        QueryLog log = new QueryLog(INFO, TimeUnit.MILLISECONDS, 1L, 2L, 3L, 2);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(log);
+        out.close();
+
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        QueryLog copy = (QueryLog) in.readObject();
+
+        assertEquals(log.getID(), copy.getID());
+        assertEquals(2, copy.getCallerStackTraceElements().length);
+        assertEquals(log.getCallerStackTraceElements()[0], copy.getCallerStackTraceElements()[0]);
+        assertEquals(Long.valueOf(1L), copy.getPreparedStatementPreparationDuration());
+        assertEquals(Long.valueOf(2L), copy.getPreparedStatementBindingDuration());
+        assertEquals(3L, copy.getExecutionDuration());
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ *                          Christopher Deckers, chrriis@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.debug.impl;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jooq.debug.QueryInfo;
+import org.jooq.debug.QueryLog;
+import org.jooq.debug.QueryType;
+import org.jooq.debug.ResultLog;
+
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link LogMessageCodec}
+ *
+ * @author Christopher Deckers
+ */
+public class LogMessageCodecTest {
+
+    private static final StackTraceElement[] TRACE = {
+        new StackTraceElement("com.example.Dao", "load", "Dao.java", 42),
+        new StackTraceElement("com.example.Service", "run", null, -2),
+        new StackTraceElement("com.example.Service", "<init>", "Service.java", -1)
+    };
+
+    private static QueryLog queryLog(int id, String sql, Long preparation, Long binding, long execution) {
+        QueryInfo info = new QueryInfo(QueryType.SELECT, new String[] { sql }, "[1, 'a']", "main", 1L);
+        return new QueryLog(id, info, preparation, binding, execution, TRACE);
+    }
+
+    @Test
+    public void testEmptyBatch() throws Exception {
+        assertEquals(Collections.emptyList(), LogMessageCodec.decode(LogMessageCodec.encode(Collections.emptyList())));
+    }
+
+    @Test
+    public void testQueryLogRoundTrip() throws Exception {
+        QueryInfo info = new QueryInfo(QueryType.UPDATE, new String[] { "update t set a = ?", "delete from \u00e9t\u00e9" }, null, "worker-\u4e00", Long.MAX_VALUE);
+        QueryLog log = new QueryLog(Integer.MAX_VALUE, info, null, 0L, 123456789012L, TRACE);
+
+        List<Object> decoded = LogMessageCodec.decode(LogMessageCodec.encode(asList(log)));
+        assertEquals(1, decoded.size());
+
+        QueryLog copy = (QueryLog) decoded.get(0);
+        assertEquals(log.getID(), copy.getID());
+        assertEquals(QueryType.UPDATE, copy.getQueryInfo().getQueryType());
+        assertArrayEquals(info.getQueries(), copy.getQueryInfo().getQueries());
+        assertNull(copy.getQueryInfo().getParameterDescription());
+        assertEquals("worker-\u4e00", copy.getQueryInfo().getThreadName());
+        assertEquals(Long.MAX_VALUE, copy.getQueryInfo().getThreadID());
+        assertNull(copy.getPreparedStatementPreparationDuration(TimeUnit.NANOSECONDS));
+        assertEquals(Long.valueOf(0L), copy.getPreparedStatementBindingDuration(TimeUnit.NANOSECONDS));
+        assertEquals(123456789012L, copy.getExecutionDuration(TimeUnit.NANOSECONDS));
+        assertArrayEquals(TRACE, copy.getCallerStackTraceElements());
+    }
+
+    @Test
+    public void testResultLogRoundTrip() throws Exception {
+        ResultLog log = new ResultLog(7, 3, 0L, 0, Integer.MAX_VALUE, 5);
+
+        ResultLog copy = (ResultLog) LogMessageCodec.decode(LogMessageCodec.encode(asList(log))).get(0);
+        assertEquals(7, copy.getId());
+        assertEquals(3, copy.getQueryLogId());
+        assertEquals(0L, copy.getLifeTime());
+        assertEquals(0, copy.getReadRows());
+        assertEquals(Integer.MAX_VALUE, copy.getReadCount());
+        assertEquals(5, copy.getWriteCount());
+    }
+
+    @Test
+    public void testMixedBatchPreservesOrder() throws Exception {
+        List<Object> events = new ArrayList<Object>();
+
+        for (int i = 0; i < 100; i++) {
+            events.add(queryLog(i, "select " + (i % 3), 10L * i, null, i));
+            events.add(new ResultLog(1000 + i, i, i, i, i, 0));
+        }
+
+        List<Object> decoded = LogMessageCodec.decode(LogMessageCodec.encode(events));
+        assertEquals(events.size(), decoded.size());
+
+        for (int i = 0; i < 100; i++) {
+            QueryLog query = (QueryLog) decoded.get(2 * i);
+            ResultLog result = (ResultLog) decoded.get(2 * i + 1);
+
+            assertEquals(i, query.getID());
+            assertEquals("select " + (i % 3), query.getQueryInfo().getQueries()[0]);
+            assertEquals(Long.valueOf(10L * i), query.getPreparedStatementPreparationDuration(TimeUnit.NANOSECONDS));
+            assertArrayEquals(TRACE, query.getCallerStackTraceElements());
+            assertEquals(1000 + i, result.getId());
+            assertEquals(i, result.getQueryLogId());
+        }
+    }
+
+    @Test
+    public void testRepeatedStringsAreWrittenOnce() throws Exception {
+        List<Object> one = new ArrayList<Object>();
+        List<Object> many = new ArrayList<Object>();
+
+        one.add(queryLog(0, "select * from a_rather_long_table_name", null, null, 1));
+        for (int i = 0; i < 10; i++) {
+            many.add(queryLog(i, "select * from a_rather_long_table_name", null, null, 1));
+        }
+
+        int oneSize = LogMessageCodec.encode(one).length;
+        int manySize = LogMessageCodec.encode(many).length;
+
+        // Every additional event only references the SQL string and the stack
+        // trace elements
+        assertTrue(manySize < 3 * oneSize);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedEvent() throws Exception {
+        LogMessageCodec.encode(asList("event"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnsupportedVersion() throws Exception {
+        LogMessageCodec.decode(new byte[] { 4, 0 });
+    }
+}
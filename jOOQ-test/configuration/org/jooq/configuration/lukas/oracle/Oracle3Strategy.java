@@ -91,6 +91,9 @@ public class Oracle3Strategy extends DefaultGeneratorStrategy {
                 return Arrays.asList(Cloneable.class.getName());
             }
         }
+        else if (mode == Mode.MAPPER) {
+            return Arrays.asList(Serializable.class.getName());
+        }
         else {
             if (definition.getName().toLowerCase().contains("library")) {
                 return Arrays.asList(Serializable.class.getName(), Cloneable.class.getName());
@@ -109,6 +112,9 @@ public class Oracle3Strategy extends DefaultGeneratorStrategy {
         if (mode == Mode.INTERFACE) {
             return definition.getOutputName() + "_INTERFACE";
         }
+        if (mode == Mode.MAPPER) {
+            return definition.getOutputName() + "_MAPPER";
+        }
 
         return definition.getOutputName();
     }
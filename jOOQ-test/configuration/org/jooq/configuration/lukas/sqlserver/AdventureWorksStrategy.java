@@ -67,6 +67,10 @@ public class AdventureWorksStrategy extends DefaultGeneratorStrategy {
 
     @Override
     public String getJavaClassName(Definition definition, Mode mode) {
+        if (mode == Mode.MAPPER) {
+            return definition.getOutputName() + "Mapper";
+        }
+
         return definition.getOutputName();
     }
 
@@ -35,6 +35,11 @@
  */
 package org.jooq;
 
+import java.util.Collection;
+import java.util.Map;
+
+import org.jooq.exception.DataAccessException;
+
 /**
  * A <code>ForeignKey</code> is an object referencing a {@link UniqueKey}. It
  * represents a <code>FOREIGN KEY</code> relationship between two tables.
@@ -49,4 +54,56 @@ public interface ForeignKey<R extends Record, U extends Record> extends Key<R> {
      * The referenced <code>Key</code>
      */
     UniqueKey<U> getKey();
+
+    /**
+     * Fetch the parent records referenced by a set of child records.
+     * <p>
+     * Rather than fetching every child record's parent record with a separate
+     * query, all distinct foreign key values are collected and fetched with
+     * <code>IN</code> predicates, or with <code>OR</code>-connected
+     * predicates for composite keys. Large sets of key values are fetched in
+     * chunks, as large as the dialect's bind value limit permits.
+     * <p>
+     * The query is executed with the configuration of the first record.
+     * <p>
+     * The resulting map uses {@link Record#equals(Object)} for its keys, i.e.
+     * records are compared by their values. Argument records holding equal
+     * values reference the same parent record and are collapsed into a
+     * single map entry, whose key is the first such record in iteration order.
+     *
+     * @param records The child records holding the foreign key values
+     * @return A map containing all distinct argument records in iteration
+     *         order, with their parent records as values. Records that
+     *         reference no parent record (e.g. with <code>NULL</code> foreign
+     *         key values) are mapped to <code>null</code>
+     * @throws DataAccessException if something went wrong executing the query
+     */
+    @Support
+    Map<R, U> fetchParents(Collection<? extends R> records) throws DataAccessException;
+
+    /**
+     * Fetch the child records referencing a set of parent records.
+     * <p>
+     * Rather than fetching every parent record's child records with a separate
+     * query, all distinct key values are collected and fetched with
+     * <code>IN</code> predicates, or with <code>OR</code>-connected
+     * predicates for composite keys. Large sets of key values are fetched in
+     * chunks, as large as the dialect's bind value limit permits.
+     * <p>
+     * The query is executed with the configuration of the first record.
+     * <p>
+     * The resulting map uses {@link Record#equals(Object)} for its keys, i.e.
+     * records are compared by their values. Argument records holding equal
+     * values are referenced by the same child records and are collapsed into
+     * a single map entry, whose key is the first such record in iteration
+     * order.
+     *
+     * @param records The parent records holding the referenced key values
+     * @return A map containing all distinct argument records in iteration
+     *         order, with their child records as values. Records that are not
+     *         referenced by any child record are mapped to an empty result
+     * @throws DataAccessException if something went wrong executing the query
+     */
+    @Support
+    Map<U, Result<R>> fetchChildren(Collection<? extends U> records) throws DataAccessException;
 }
@@ -587,6 +587,39 @@ public interface Result<R extends Record> extends FieldProvider, List<R>, Attach
     <E> Map<Record, List<E>> intoGroups(Field<?>[] keys, Class<? extends E> type) throws IllegalArgumentException,
         MappingException;
 
+    /**
+     * Create a hash index over this result's records by the given keys
+     * <p>
+     * Unlike {@link #intoGroups(Field[])}, the returned index can be probed
+     * repeatedly by key values, without creating any key records. The index
+     * reflects the contents of this result at the time it was created.
+     *
+     * @param keys The keys. If this is <code>null</code> or an empty array,
+     *            all records have the same key.
+     * @return An index allowing for non-unique keys
+     * @throws IllegalArgumentException If any of the argument fields is not
+     *             contained in {@link #getFields()}
+     */
+    ResultIndex<R> index(Field<?>... keys) throws IllegalArgumentException;
+
+    /**
+     * Create a hash index over this result's records by the given unique keys
+     * <p>
+     * Unlike {@link #intoMap(Field[])}, the returned index can be probed
+     * repeatedly by key values, without creating any key records. The index
+     * reflects the contents of this result at the time it was created.
+     *
+     * @param keys The keys. Client code must assure that keys are unique in the
+     *            result set. If this is <code>null</code> or an empty array,
+     *            this result may contain at most one record.
+     * @return An index guaranteeing unique keys
+     * @throws IllegalArgumentException If any of the argument fields is not
+     *             contained in {@link #getFields()}
+     * @throws InvalidResultException if the keys are non-unique in the result
+     *             set.
+     */
+    ResultIndex<R> uniqueIndex(Field<?>... keys) throws IllegalArgumentException, InvalidResultException;
+
     /**
      * Convert this result into an array of arrays
      * <p>
@@ -989,4 +1022,55 @@ public interface Result<R extends Record> extends FieldProvider, List<R>, Attach
      * @return The result itself
      */
     Result<R> sortDesc(java.util.Comparator<? super R> comparator);
+
+    /**
+     * Sort this result by several of its contained fields.
+     * <p>
+     * Records are compared by the natural order of the sort fields' values,
+     * observing {@link SortField#getOrder()}, {@link SortField#nullsFirst()}
+     * and {@link SortField#nullsLast()}. If neither <code>NULLS FIRST</code>
+     * nor <code>NULLS LAST</code> is specified, <code>null</code> is
+     * considered smaller than any other value. The sort is stable. Large
+     * results are sorted in parallel.
+     *
+     * @param fields The sort fields, e.g. <code>FIELD.desc().nullsLast()</code>
+     * @return The result itself
+     * @throws IllegalArgumentException If any of the sort fields' fields is
+     *             not contained in {@link #getFields()}, or if its values
+     *             are not {@link Comparable}
+     */
+    Result<R> sort(SortField<?>... fields) throws IllegalArgumentException;
+
+    /**
+     * Get the first records of this result, as if it were sorted by several
+     * of its contained fields.
+     * <p>
+     * This is the same as sorting a copy of this result using
+     * {@link #sort(SortField...)}, and taking the first <code>n</code>
+     * records, but it doesn't sort the whole result. This result is not
+     * modified.
+     *
+     * @param n The maximum number of records to return
+     * @param fields The sort fields, e.g. <code>FIELD.desc().nullsLast()</code>
+     * @return A new result containing the first <code>n</code> records
+     * @throws IllegalArgumentException If any of the sort fields' fields is
+     *             not contained in {@link #getFields()}, or if its values
+     *             are not {@link Comparable}
+     */
+    Result<R> top(int n, SortField<?>... fields) throws IllegalArgumentException;
+
+    /**
+     * Get the first records of this result, as if it were sorted using a
+     * comparator that can compare records.
+     * <p>
+     * This is the same as sorting a copy of this result using
+     * {@link #sortAsc(java.util.Comparator)}, and taking the first
+     * <code>n</code> records, but it doesn't sort the whole result. This
+     * result is not modified.
+     *
+     * @param n The maximum number of records to return
+     * @param comparator The comparator used to sort this result.
+     * @return A new result containing the first <code>n</code> records
+     */
+    Result<R> top(int n, java.util.Comparator<? super R> comparator);
 }
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq;
+
+import java.util.List;
+
+import org.jooq.exception.DataTypeException;
+import org.jooq.exception.InvalidResultException;
+
+/**
+ * A hash index over the records of a {@link Result}
+ * <p>
+ * An index is created once using {@link Result#index(Field...)} or
+ * {@link Result#uniqueIndex(Field...)}, and can then be probed repeatedly by
+ * key values, without creating any key {@link Record} instances. The index
+ * reflects the contents of the result at the time it was created. Subsequent
+ * modifications to the result or to its records are not reflected in the
+ * index.
+ * <p>
+ * Key values are compared using {@link Object#equals(Object)}. Probe values
+ * are converted to the respective key field's type, if necessary.
+ * <code>null</code> keys are indexed like any other value.
+ *
+ * @param <R> The indexed result's record type
+ * @author Lukas Eder
+ * @see Result#index(Field...)
+ * @see Result#uniqueIndex(Field...)
+ */
+public interface ResultIndex<R extends Record> {
+
+    /**
+     * The key fields of this index
+     */
+    List<Field<?>> getKeys();
+
+    /**
+     * Whether this index guarantees key values to be unique
+     */
+    boolean isUnique();
+
+    /**
+     * The number of distinct key values in this index
+     */
+    int size();
+
+    /**
+     * Check whether a record with the given key values exists
+     *
+     * @param values The key values, in the order of {@link #getKeys()}
+     * @throws IllegalArgumentException If the number of values doesn't match
+     *             the number of keys
+     * @throws DataTypeException If a value cannot be converted to its key
+     *             field's type
+     */
+    boolean contains(Object... values) throws IllegalArgumentException, DataTypeException;
+
+    /**
+     * Get the unique record with the given key values
+     *
+     * @param values The key values, in the order of {@link #getKeys()}
+     * @return The matching record or <code>null</code> if no record matches
+     * @throws IllegalArgumentException If the number of values doesn't match
+     *             the number of keys
+     * @throws DataTypeException If a value cannot be converted to its key
+     *             field's type
+     * @throws InvalidResultException If more than one record matches
+     */
+    R get(Object... values) throws IllegalArgumentException, DataTypeException, InvalidResultException;
+
+    /**
+     * Get all records with the given key values
+     *
+     * @param values The key values, in the order of {@link #getKeys()}
+     * @return The matching records, in their original order. This is never
+     *         <code>null</code>
+     * @throws IllegalArgumentException If the number of values doesn't match
+     *             the number of keys
+     * @throws DataTypeException If a value cannot be converted to its key
+     *             field's type
+     */
+    Result<R> getAll(Object... values) throws IllegalArgumentException, DataTypeException;
+
+    /**
+     * Get the positions of all records with the given key values
+     *
+     * @param values The key values, in the order of {@link #getKeys()}
+     * @return The matching records' positions in the indexed result, in
+     *         ascending order. This is never <code>null</code>
+     * @throws IllegalArgumentException If the number of values doesn't match
+     *             the number of keys
+     * @throws DataTypeException If a value cannot be converted to its key
+     *             field's type
+     */
+    int[] positions(Object... values) throws IllegalArgumentException, DataTypeException;
+}
@@ -35,6 +35,7 @@
  */
 package org.jooq;
 
+import java.sql.CallableStatement;
 import java.util.List;
 
 import org.jooq.exception.DataAccessException;
@@ -147,4 +148,31 @@ public interface Routine<T> extends QueryPart {
      * @throws DataAccessException if something went wrong executing the query
      */
     int execute() throws DataAccessException;
+
+    /**
+     * Keep the routine's underlying statement open after execution
+     * <p>
+     * This indicates to jOOQ that the routine's underlying
+     * {@link CallableStatement} should be kept open after execution. Subsequent
+     * executions rendering the same SQL will then re-use that statement, along
+     * with its OUT parameter registrations, binding only the new IN values. If
+     * it is kept open, client code is responsible for properly closing it using
+     * {@link #close()}
+     *
+     * @param keepStatement Whether to keep the underlying statement open
+     */
+    Routine<T> keepStatement(boolean keepStatement);
+
+    /**
+     * Close the underlying statement
+     * <p>
+     * This closes the routine's underlying {@link CallableStatement} if a
+     * previous call to {@link #keepStatement(boolean)} indicated that jOOQ
+     * should keep statements open after execution. If there is no underlying
+     * open statement, this call is simply ignored.
+     *
+     * @throws DataAccessException If something went wrong closing the statement
+     * @see CallableStatement#close()
+     */
+    void close() throws DataAccessException;
 }
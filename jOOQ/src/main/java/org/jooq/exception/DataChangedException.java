@@ -35,6 +35,12 @@
  */
 package org.jooq.exception;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.jooq.Record;
 import org.jooq.UpdatableRecord;
 
 /**
@@ -51,13 +57,28 @@ public class DataChangedException extends DataAccessException {
      */
     private static final long serialVersionUID = -6460945824599280420L;
 
+    private final List<Record> records;
+
     /**
      * Constructor for DataChangedException.
      *
      * @param message the detail message
      */
     public DataChangedException(String message) {
+        this(message, Collections.<Record> emptyList());
+    }
+
+    /**
+     * Constructor for DataChangedException.
+     *
+     * @param message the detail message
+     * @param records the records whose underlying database records have been
+     *            changed
+     */
+    public DataChangedException(String message, Collection<? extends Record> records) {
         super(message);
+
+        this.records = new ArrayList<Record>(records);
     }
 
     /**
@@ -69,5 +90,19 @@ public class DataChangedException extends DataAccessException {
      */
     public DataChangedException(String message, Throwable cause) {
         super(message, cause);
+
+        this.records = Collections.emptyList();
+    }
+
+    /**
+     * The records whose underlying database records have been changed.
+     * <p>
+     * This is useful when storing several records in a batch, e.g. with
+     * {@link org.jooq.impl.Executor#batchStore(org.jooq.UpdatableRecord...)}.
+     *
+     * @return The offending records, or an empty list, if unknown
+     */
+    public List<Record> getRecords() {
+        return Collections.unmodifiableList(records);
     }
 }
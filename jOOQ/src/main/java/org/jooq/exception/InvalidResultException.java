@@ -35,7 +35,13 @@
  */
 package org.jooq.exception;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
 import org.jooq.Query;
+import org.jooq.Record;
 import org.jooq.ResultQuery;
 import org.jooq.TableRecord;
 import org.jooq.UpdatableRecord;
@@ -66,12 +72,38 @@ public class InvalidResultException extends DataAccessException {
      */
     private static final long serialVersionUID = -6460945824599280420L;
 
+    private final List<Record> records;
+
     /**
      * Constructor for InvalidResultException.
      *
      * @param message the detail message
      */
     public InvalidResultException(String message) {
+        this(message, Collections.<Record> emptyList());
+    }
+
+    /**
+     * Constructor for InvalidResultException.
+     *
+     * @param message the detail message
+     * @param records the records that caused the unexpected result
+     */
+    public InvalidResultException(String message, Collection<? extends Record> records) {
         super(message);
+
+        this.records = new ArrayList<Record>(records);
+    }
+
+    /**
+     * The records that caused the unexpected result.
+     * <p>
+     * This is useful when refreshing several records at once, e.g. with
+     * {@link org.jooq.impl.Executor#refresh(Collection)}.
+     *
+     * @return The offending records, or an empty list, if unknown
+     */
+    public List<Record> getRecords() {
+        return Collections.unmodifiableList(records);
     }
 }
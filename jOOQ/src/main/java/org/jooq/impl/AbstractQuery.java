@@ -53,6 +53,7 @@ import org.jooq.ExecuteContext;
 import org.jooq.ExecuteListener;
 import org.jooq.Param;
 import org.jooq.Query;
+import org.jooq.ResultQuery;
 import org.jooq.exception.DetachedException;
 import org.jooq.tools.JooqLogger;
 
@@ -271,6 +272,14 @@ abstract class AbstractQuery extends AbstractQueryPart implements Query, Attacha
                 }
 
                 result = execute(ctx, listener);
+
+                // Statements other than SELECT may modify any of the tables
+                // they reference. Dependent cached results are invalidated
+                if (!(this instanceof ResultQuery)) {
+                    ResultCache.invalidate(c, this);
+                    RecordCache.invalidate(c, this);
+                }
+
                 return result;
             }
             catch (SQLException e) {
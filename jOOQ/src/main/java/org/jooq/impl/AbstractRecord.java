@@ -54,6 +54,7 @@ import java.lang.reflect.Modifier;
 import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -65,6 +66,7 @@ import org.jooq.Field;
 import org.jooq.FieldProvider;
 import org.jooq.Record;
 import org.jooq.RecordMapper;
+import org.jooq.RecordUnmapper;
 import org.jooq.Result;
 import org.jooq.Table;
 import org.jooq.UniqueKey;
@@ -86,7 +88,25 @@ abstract class AbstractRecord extends AbstractStore implements Record {
     private static final long   serialVersionUID = -6052512608911220404L;
 
     private final FieldProvider fields;
-    private Value<?>[]          values;
+
+    /**
+     * The record's current values
+     */
+    private Object[]            values;
+
+    /**
+     * The record's original values, or <code>null</code> if no value has been
+     * modified since the record was loaded. This is copied from
+     * {@link #values} only when a value is first modified, which spares the
+     * copy for the many records that are fetched only to be read.
+     */
+    private Object[]            originals;
+
+    /**
+     * The changed flags of the record's values, or <code>null</code> if no
+     * value has been flagged as changed yet
+     */
+    private BitSet              changed;
 
     AbstractRecord(FieldProvider fields) {
         this.fields = fields;
@@ -102,7 +122,7 @@ abstract class AbstractRecord extends AbstractStore implements Record {
 
         int size = getFields().size();
         for (int i = 0; i < size; i++) {
-            Object value = getValue0(i).getValue();
+            Object value = getValue(i);
 
             if (value instanceof Attachable) {
                 result.add((Attachable) value);
@@ -160,13 +180,15 @@ abstract class AbstractRecord extends AbstractStore implements Record {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public final <T> T getValue(Field<T> field) {
-        return getValue0(field).getValue();
+        return (T) getValues()[getIndex(field)];
     }
 
     @Override
     public final <T> T getValue(Field<T> field, T defaultValue) {
-        return getValue0(field).getValue(defaultValue);
+        final T result = getValue(field);
+        return result == null ? defaultValue : result;
     }
 
     @Override
@@ -193,7 +215,13 @@ abstract class AbstractRecord extends AbstractStore implements Record {
 
     @Override
     public final Object getValue(int index) {
-        return getValue0(index).getValue();
+        Object[] v = getValues();
+
+        if (index >= v.length) {
+            throw new IllegalArgumentException("Field " + index + " is not contained in list");
+        }
+
+        return v[index];
     }
 
     @Override
@@ -257,29 +285,9 @@ abstract class AbstractRecord extends AbstractStore implements Record {
         return result == null ? defaultValue : result;
     }
 
-    @SuppressWarnings("unchecked")
-    final <T> Value<T> getValue0(int index) {
-        Value<?>[] v = getValues();
-
-        if (index >= v.length) {
-            throw new IllegalArgumentException("Field " + index + " is not contained in list");
-        }
-
-        return (Value<T>) v[index];
-    }
-
-    @SuppressWarnings("unchecked")
-    final <T> Value<T> getValue0(Field<T> field) {
-        return (Value<T>) getValues()[getIndex(field)];
-    }
-
-    final Value<?>[] getValues() {
+    final Object[] getValues() {
         if (values == null) {
-            values = new Value<?>[fields.getFields().size()];
-
-            for (int i = 0; i < values.length; i++) {
-                values[i] = new Value<Object>(null);
-            }
+            values = new Object[fields.getFields().size()];
         }
 
         return values;
@@ -287,31 +295,51 @@ abstract class AbstractRecord extends AbstractStore implements Record {
 
     @Override
     public final <T> void setValue(Field<T> field, T value) {
+        setValue0(getIndex(field), field, value);
+    }
+
+    /**
+     * Set a value by its index in this record.
+     * <p>
+     * This is used by generated records, whose setters know the index of their
+     * field in advance, and can thus avoid looking it up in the record's
+     * {@link FieldProvider}. The value is expected to be of the type of the
+     * field at the given index.
+     */
+    @SuppressWarnings("unchecked")
+    protected final void setValue(int index, Object value) {
+        setValue0(index, (Field<Object>) getField(index), value);
+    }
+
+    private final <T> void setValue0(int index, Field<T> field, T value) {
         UniqueKey<?> mainKey = getMainKey();
-        Value<T> val = getValue0(field);
+        Object[] v = getValues();
+
+        // Keep the original values before modifying any of them
+        if (originals == null) {
+            originals = v.clone();
+        }
 
         // Normal fields' changed flag is always set to true
+        // [#945] To avoid bugs resulting from setting the same value twice
+        // [#948] To allow for controlling the number of hard-parses
+        //        To allow for explicitly overriding default values
         if (mainKey == null || !mainKey.getFields().contains(field)) {
-            val.setValue(value);
+            setChanged(index, true);
         }
 
         // The main key's changed flag might've been set previously
-        else if (val.isChanged()) {
-            val.setValue(value);
+        else if (isChanged(index)) {
         }
 
         // [#979] If the main key is being changed, all other fields' flags need
         // to be set to true for in case this record is stored again, an INSERT
         // statement will thus be issued
-        else {
-            val.setValue(value, true);
-
-            if (val.isChanged()) {
-                for (Value<?> other : getValues()) {
-                    other.setChanged(true);
-                }
-            }
+        else if (v[index] == null ? value != null : !v[index].equals(value)) {
+            setAllChanged(true);
         }
+
+        v[index] = value;
     }
 
     @Override
@@ -319,12 +347,79 @@ abstract class AbstractRecord extends AbstractStore implements Record {
         setValue(field, converter.to(value));
     }
 
-    final void setValue(Field<?> field, Value<?> value) {
-        setValue(getIndex(field), value);
+    /**
+     * Load a value into this record, as if it had been fetched from the
+     * database. The value becomes the original value and is flagged as
+     * unchanged.
+     */
+    final void initValue(Field<?> field, Object value) {
+        initValue(getIndex(field), value);
     }
 
-    final void setValue(int index, Value<?> value) {
+    /**
+     * Load a value into this record, as if it had been fetched from the
+     * database. The value becomes the original value and is flagged as
+     * unchanged.
+     */
+    final void initValue(int index, Object value) {
         getValues()[index] = value;
+
+        if (originals != null) {
+            originals[index] = value;
+        }
+
+        setChanged(index, false);
+    }
+
+    /**
+     * Copy a value, its original value and its changed flag from another
+     * record into this one
+     */
+    final void copyValue(int index, AbstractRecord source, int sourceIndex) {
+        Object[] v = getValues();
+        Object original = source.getOriginal(sourceIndex);
+
+        v[index] = source.getValue(sourceIndex);
+
+        if (originals != null) {
+            originals[index] = original;
+        }
+        else if (original != v[index]) {
+            originals = v.clone();
+            originals[index] = original;
+        }
+
+        setChanged(index, source.isChanged(sourceIndex));
+    }
+
+    /**
+     * Get the original value at a given index
+     */
+    final Object getOriginal(int index) {
+        return originals == null ? getValues()[index] : originals[index];
+    }
+
+    /**
+     * Whether the value at a given index has been changed
+     */
+    final boolean isChanged(int index) {
+        return changed != null && changed.get(index);
+    }
+
+    /**
+     * Set the changed flag of the value at a given index
+     */
+    final void setChanged(int index, boolean flag) {
+        if (flag) {
+            if (changed == null) {
+                changed = new BitSet(getValues().length);
+            }
+
+            changed.set(index);
+        }
+        else if (changed != null) {
+            changed.clear(index);
+        }
     }
 
     /**
@@ -337,9 +432,16 @@ abstract class AbstractRecord extends AbstractStore implements Record {
     /**
      * Reset all value flags' changed status
      */
-    final void setAllChanged(boolean changed) {
-        for (Value<?> value : getValues()) {
-            value.setChanged(changed);
+    final void setAllChanged(boolean flag) {
+        if (flag) {
+            if (changed == null) {
+                changed = new BitSet(getValues().length);
+            }
+
+            changed.set(0, getValues().length);
+        }
+        else {
+            changed = null;
         }
     }
 
@@ -349,10 +451,10 @@ abstract class AbstractRecord extends AbstractStore implements Record {
     @Override
     public Record original() {
         AbstractRecord result = Utils.newRecord(getClass(), getFieldProvider(), getConfiguration());
-        Value<?>[] v = getValues();
+        int size = getValues().length;
 
-        for (int i = 0; i < v.length; i++) {
-            result.setValue(i, new Value<Object>(v[i].getOriginal()));
+        for (int i = 0; i < size; i++) {
+            result.initValue(i, getOriginal(i));
         }
 
         return result;
@@ -360,13 +462,7 @@ abstract class AbstractRecord extends AbstractStore implements Record {
 
     @Override
     public final boolean changed() {
-        for (Value<?> value : getValues()) {
-            if (value.isChanged()) {
-                return true;
-            }
-        }
-
-        return false;
+        return changed != null && !changed.isEmpty();
     }
 
     @Override
@@ -394,6 +490,13 @@ abstract class AbstractRecord extends AbstractStore implements Record {
 
     @Override
     public final <E> E into(Class<? extends E> type) {
+        RecordMapper<Record, E> mapper = RecordMappers.mapper(getClass(), type);
+
+        // Generated mappers don't need any reflection
+        if (mapper != null) {
+            return mapper.map(this);
+        }
+
         try {
             if (type.isArray()) {
                 return intoArray(type);
@@ -687,6 +790,13 @@ abstract class AbstractRecord extends AbstractStore implements Record {
         if (source == null) return;
 
         Class<?> type = source.getClass();
+        RecordUnmapper<Object, Record> unmapper = RecordMappers.unmapper(getClass(), type);
+
+        // Generated unmappers don't need any reflection
+        if (unmapper != null) {
+            unmapper.unmap(source, this);
+            return;
+        }
 
         try {
             boolean useAnnotations = hasColumnAnnotations(type);
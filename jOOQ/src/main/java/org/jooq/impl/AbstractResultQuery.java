@@ -271,7 +271,23 @@ abstract class AbstractResultQuery<R extends Record> extends AbstractQuery imple
 
     @Override
     public final Result<R> fetch() {
-        execute();
+        ResultCache cache = ResultCache.get(getConfiguration());
+        RecordCache records = RecordCache.get(getConfiguration());
+        long generation = records != null ? records.generation() : 0L;
+
+        // SELECT .. FOR UPDATE statements must always acquire their locks
+        if (cache != null && isExecutable() && !isForUpdate()) {
+            result = cache.fetch(this, maxRows);
+        }
+        else {
+            execute();
+        }
+
+        // Fetched UpdatableRecords can serve subsequent lookups by key
+        if (records != null && result != null) {
+            records.put(result, generation);
+        }
+
         return result;
     }
 
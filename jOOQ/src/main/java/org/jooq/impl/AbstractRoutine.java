@@ -111,6 +111,10 @@ public abstract class AbstractRoutine<T> extends AbstractQueryPart implements Ro
     private final Map<Parameter<?>, Object>   results;
     private final Map<Parameter<?>, Integer>  parameterIndexes;
 
+    private boolean                           keepStatement;
+    private transient CallableStatement       statement;
+    private transient String                  sql;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -196,6 +200,26 @@ public abstract class AbstractRoutine<T> extends AbstractQueryPart implements Ro
         return execute();
     }
 
+    @Override
+    public final AbstractRoutine<T> keepStatement(boolean k) {
+        this.keepStatement = k;
+        return this;
+    }
+
+    @Override
+    public final void close() {
+        if (statement != null) {
+            try {
+                statement.close();
+                statement = null;
+                sql = null;
+            }
+            catch (SQLException e) {
+                throw Utils.translate(sql, e);
+            }
+        }
+    }
+
     @Override
     public final int execute() {
         // Procedures (no return value) are always executed as CallableStatement
@@ -259,14 +283,35 @@ public abstract class AbstractRoutine<T> extends AbstractQueryPart implements Ro
             ctx.sql(create(configuration).render(this));
             listener.renderEnd(ctx);
 
-            listener.prepareStart(ctx);
-            ctx.statement(connection.prepareCall(ctx.sql()));
-            // [#1856] TODO: Add Statement flags like timeout here
-            listener.prepareEnd(ctx);
+            // A statement that was kept open can be re-used as long as the
+            // rendered SQL is the same. This may not be the case when
+            // defaulted parameters are set or when null values are inlined
+            boolean reuse = keepStatement && statement != null && ctx.sql().equals(sql);
+
+            if (reuse) {
+                ctx.statement(statement);
+            }
+            else {
+                close();
+
+                listener.prepareStart(ctx);
+                ctx.statement(connection.prepareCall(ctx.sql()));
+                // [#1856] TODO: Add Statement flags like timeout here
+                listener.prepareEnd(ctx);
+
+                statement = (CallableStatement) ctx.statement();
+                sql = ctx.sql();
+            }
 
             listener.bindStart(ctx);
             create(configuration).bind(this, ctx.statement());
-            registerOutParameters(configuration, (CallableStatement) ctx.statement());
+
+            // OUT parameter registrations remain in effect on re-used
+            // statements. Only IN values need to be bound again
+            if (!reuse) {
+                registerOutParameters(configuration, (CallableStatement) ctx.statement());
+            }
+
             listener.bindEnd(ctx);
 
             // Postgres requires two separate queries running in the same
@@ -293,7 +338,12 @@ public abstract class AbstractRoutine<T> extends AbstractQueryPart implements Ro
             throw ctx.exception();
         }
         finally {
-            Utils.safeClose(listener, ctx);
+            Utils.safeClose(listener, ctx, keepStatement);
+
+            if (!keepStatement) {
+                statement = null;
+                sql = null;
+            }
         }
     }
 
@@ -90,6 +90,11 @@ class BatchMultiple implements Batch {
             int[] result = ctx.statement().executeBatch();
             listener.executeEnd(ctx);
 
+            for (Query query : queries) {
+                ResultCache.invalidate(create, query);
+                RecordCache.invalidate(create, query);
+            }
+
             return result;
         }
         catch (SQLException e) {
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.impl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jooq.Batch;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.jooq.Routine;
+
+/**
+ * A batch of stored procedure calls, executed through
+ * {@link java.sql.CallableStatement#addBatch()}
+ * <p>
+ * Subsequent routines rendering the same SQL share a single
+ * <code>CallableStatement</code>. As JDBC batches cannot return any values,
+ * only procedures with IN parameters are supported.
+ *
+ * @author Lukas Eder
+ */
+class BatchRoutine implements Batch {
+
+    /**
+     * Generated UID
+     */
+    private static final long  serialVersionUID = -2960541830399466624L;
+
+    private final Executor     create;
+    private final Routine<?>[] routines;
+
+    public BatchRoutine(Executor create, Routine<?>... routines) {
+        this.create = create;
+        this.routines = routines;
+
+        for (Routine<?> routine : routines) {
+            if (!(routine instanceof AbstractRoutine)
+                || ((AbstractRoutine<?>) routine).getReturnParameter() != null
+                || !routine.getOutParameters().isEmpty()) {
+
+                throw new IllegalArgumentException("Only procedures without OUT parameters or return values can be executed in batch mode : " + routine.getName());
+            }
+        }
+    }
+
+    @Override
+    public final int[] execute() {
+        List<int[]> results = new ArrayList<int[]>();
+        int length = 0;
+
+        String previous = null;
+        List<Routine<?>> group = new ArrayList<Routine<?>>();
+
+        // Routines are batched together as long as they render the same SQL,
+        // e.g. as long as they don't omit different defaulted parameters
+        for (Routine<?> routine : routines) {
+            String sql = create.render(routine);
+
+            if (previous != null && !previous.equals(sql)) {
+                int[] result = execute(previous, group);
+                results.add(result);
+                length += result.length;
+                group.clear();
+            }
+
+            previous = sql;
+            group.add(routine);
+        }
+
+        if (previous != null) {
+            int[] result = execute(previous, group);
+            results.add(result);
+            length += result.length;
+        }
+
+        int[] array = new int[length];
+        int i = 0;
+        for (int[] result : results) {
+            System.arraycopy(result, 0, array, i, result.length);
+            i += result.length;
+        }
+
+        return array;
+    }
+
+    private final int[] execute(String sql, List<Routine<?>> group) {
+        Connection connection = create.getConnection();
+
+        ExecuteContext ctx = new DefaultExecuteContext(create, group.get(0));
+        ExecuteListener listener = new ExecuteListeners(ctx);
+
+        try {
+            listener.renderStart(ctx);
+            ctx.sql(sql);
+            listener.renderEnd(ctx);
+
+            listener.prepareStart(ctx);
+            ctx.statement(connection.prepareCall(ctx.sql()));
+            listener.prepareEnd(ctx);
+
+            for (Routine<?> routine : group) {
+                listener.bindStart(ctx);
+                create.bind(routine, ctx.statement());
+                listener.bindEnd(ctx);
+
+                ctx.statement().addBatch();
+            }
+
+            listener.executeStart(ctx);
+            int[] result = ctx.statement().executeBatch();
+            listener.executeEnd(ctx);
+
+            return result;
+        }
+        catch (SQLException e) {
+            ctx.sqlException(e);
+            listener.exception(ctx);
+            throw ctx.exception();
+        }
+        finally {
+            Utils.safeClose(listener, ctx);
+        }
+    }
+}
@@ -38,8 +38,11 @@ package org.jooq.impl;
 import static org.jooq.conf.SettingsTools.executeStaticStatements;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.jooq.BatchBindStep;
@@ -61,6 +64,7 @@ class BatchSingle implements BatchBindStep {
     private final Executor           create;
     private final Query             query;
     private final List<Object[]>    allBindValues;
+    private List<Object>            generatedKeys;
 
     public BatchSingle(Executor create, Query query) {
         this.create = create;
@@ -68,6 +72,24 @@ class BatchSingle implements BatchBindStep {
         this.allBindValues = new ArrayList<Object[]>();
     }
 
+    /**
+     * Retrieve generated keys from {@link Statement#getGeneratedKeys()} after
+     * executing the batch with bind values
+     */
+    final BatchSingle returnGeneratedKeys() {
+        generatedKeys = new ArrayList<Object>();
+        return this;
+    }
+
+    /**
+     * The generated keys retrieved after executing the batch, in the order
+     * reported by the JDBC driver. Drivers may report fewer keys than
+     * inserted rows
+     */
+    final List<Object> getGeneratedKeys() {
+        return generatedKeys == null ? Collections.emptyList() : generatedKeys;
+    }
+
     @Override
     public final BatchSingle bind(Object... bindValues) {
         allBindValues.add(bindValues);
@@ -107,7 +129,12 @@ class BatchSingle implements BatchBindStep {
             listener.renderEnd(ctx);
 
             listener.prepareStart(ctx);
-            ctx.statement(connection.prepareStatement(ctx.sql()));
+            if (generatedKeys != null) {
+                ctx.statement(connection.prepareStatement(ctx.sql(), Statement.RETURN_GENERATED_KEYS));
+            }
+            else {
+                ctx.statement(connection.prepareStatement(ctx.sql()));
+            }
             listener.prepareEnd(ctx);
 
             for (Object[] bindValues : allBindValues) {
@@ -128,6 +155,22 @@ class BatchSingle implements BatchBindStep {
             int[] result = ctx.statement().executeBatch();
             listener.executeEnd(ctx);
 
+            if (generatedKeys != null) {
+                generatedKeys.clear();
+                ResultSet rs = ctx.statement().getGeneratedKeys();
+
+                try {
+                    while (rs.next()) {
+                        generatedKeys.add(rs.getObject(1));
+                    }
+                }
+                finally {
+                    rs.close();
+                }
+            }
+
+            ResultCache.invalidate(create, query);
+            RecordCache.invalidate(create, query);
             return result;
         }
         catch (SQLException e) {
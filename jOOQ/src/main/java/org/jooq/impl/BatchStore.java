@@ -35,25 +35,39 @@
  */
 package org.jooq.impl;
 
+import static java.lang.Boolean.TRUE;
 import static org.jooq.conf.SettingsTools.executeStaticStatements;
 
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.jooq.AttachableInternal;
 import org.jooq.Batch;
-import org.jooq.BatchBindStep;
 import org.jooq.Configuration;
 import org.jooq.ExecuteContext;
+import org.jooq.Field;
+import org.jooq.Identity;
+import org.jooq.Param;
 import org.jooq.Query;
+import org.jooq.Record;
+import org.jooq.SQLDialect;
+import org.jooq.Table;
+import org.jooq.TableField;
 import org.jooq.UpdatableRecord;
+import org.jooq.UpdatableTable;
 import org.jooq.conf.Settings;
 import org.jooq.conf.SettingsTools;
 import org.jooq.exception.DataAccessException;
+import org.jooq.exception.DataChangedException;
+import org.jooq.tools.JooqLogger;
 
 /**
  * @author Lukas Eder
@@ -64,6 +78,7 @@ class BatchStore implements Batch {
      * Generated UID
      */
     private static final long          serialVersionUID = -2935544935267715011L;
+    private static final JooqLogger    log              = JooqLogger.getLogger(BatchStore.class);
 
     private final Executor              create;
     private final UpdatableRecord<?>[] records;
@@ -88,13 +103,21 @@ class BatchStore implements Batch {
 
     private final int[] executePrepared() {
         Map<String, List<Query>> queries = new LinkedHashMap<String, List<Query>>();
+        Map<Query, UpdatableRecord<?>> stored = new IdentityHashMap<Query, UpdatableRecord<?>>();
+        Set<Query> missed = newIdentitySet();
 
         Settings work = create.getSettings();
         Settings orig = SettingsTools.clone(work);
+        boolean locking = TRUE.equals(work.isExecuteWithOptimisticLocking());
+
+        if (locking) {
+            checkIfChanged();
+        }
 
         try {
             // [#1537] Communicate with UpdatableRecordImpl
             create.setData(Utils.DATA_OMIT_RETURNING_CLAUSE, true);
+            create.setData(Utils.DATA_OMIT_CHECK_IF_CHANGED, true);
 
             // Add the QueryCollector to intercept query execution after rendering
             work.setExecuteListeners(Arrays.asList(QueryCollector.class.getName()));
@@ -115,14 +138,8 @@ class BatchStore implements Batch {
 
                     // Aggregate executable queries by identical SQL
                     if (query.isExecutable()) {
-                        List<Query> list = queries.get(sql);
-
-                        if (list == null) {
-                            list = new ArrayList<Query>();
-                            queries.put(sql, list);
-                        }
-
-                        list.add(query);
+                        add(queries, sql, query);
+                        stored.put(query, records[i]);
                     }
                 }
                 finally {
@@ -134,44 +151,69 @@ class BatchStore implements Batch {
         // Restore the original factory
         finally {
             create.getData().remove(Utils.DATA_OMIT_RETURNING_CLAUSE);
+            create.getData().remove(Utils.DATA_OMIT_CHECK_IF_CHANGED);
 
             work.setExecuteListeners(orig.getExecuteListeners());
             work.setExecuteLogging(orig.isExecuteLogging());
         }
 
+        // Combine identical INSERT statements into multi-row INSERT statements
+        Map<Query, List<Query>> merged = new IdentityHashMap<Query, List<Query>>();
+        if (TRUE.equals(work.isExecuteMultiRowInserts())) {
+            queries = multiRow(queries, merged);
+        }
+
         // Execute one batch statement for each identical SQL statement. Every
         // SQL statement may have several queries with different bind values.
         // The order is preserved as much as possible
         List<Integer> result = new ArrayList<Integer>();
         for (Entry<String, List<Query>> entry : queries.entrySet()) {
-            BatchBindStep batch = create.batch(entry.getValue().get(0));
+            List<Query> list = entry.getValue();
+            BatchSingle batch = new BatchSingle(create, list.get(0));
+            Identity<?, ?> identity = identity(list.get(0));
 
-            for (Query query : entry.getValue()) {
+            if (identity != null) {
+                batch.returnGeneratedKeys();
+            }
+
+            for (Query query : list) {
                 batch.bind(query.getBindValues().toArray());
             }
 
             int[] array = batch.execute();
-            for (int i : array) {
-                result.add(i);
+
+            if (identity != null) {
+                setIdentities(identity, rows(list, merged, stored), batch.getGeneratedKeys());
             }
-        }
 
-        int[] array = new int[result.size()];
-        for (int i = 0; i < result.size(); i++) {
-            array[i] = result.get(i);
+            for (int i = 0; i < array.length; i++) {
+                addResult(result, list.get(i), array[i]);
+
+                if (locking && array[i] == 0) {
+                    missed.add(list.get(i));
+                }
+            }
         }
 
-        setAllUnchanged();
-        return array;
+        afterExecute(stored, missed);
+        return toArray(result);
     }
 
     private final int[] executeStatic() {
         List<Query> queries = new ArrayList<Query>();
+        Map<Query, UpdatableRecord<?>> stored = new IdentityHashMap<Query, UpdatableRecord<?>>();
+        Set<Query> missed = newIdentitySet();
 
         Settings work = create.getSettings();
         Settings orig = SettingsTools.clone(work);
+        boolean locking = TRUE.equals(work.isExecuteWithOptimisticLocking());
+
+        if (locking) {
+            checkIfChanged();
+        }
 
         try {
+            create.setData(Utils.DATA_OMIT_CHECK_IF_CHANGED, true);
             work.setExecuteListeners(Arrays.asList(QueryCollector.class.getName()));
 
             for (int i = 0; i < records.length; i++) {
@@ -186,6 +228,7 @@ class BatchStore implements Batch {
 
                     if (query.isExecutable()) {
                         queries.add(query);
+                        stored.put(query, records[i]);
                     }
                 }
                 finally {
@@ -196,21 +239,368 @@ class BatchStore implements Batch {
 
         // Restore the original factory
         finally {
+            create.getData().remove(Utils.DATA_OMIT_CHECK_IF_CHANGED);
             work.setExecuteListeners(orig.getExecuteListeners());
         }
 
+        // Combine subsequent identical INSERT statements into multi-row INSERT
+        // statements, without changing the requested order
+        if (TRUE.equals(work.isExecuteMultiRowInserts())) {
+            queries = multiRow(queries, new IdentityHashMap<Query, List<Query>>());
+        }
+
         // Resulting statements can be batch executed in their requested order
-        int[] result = create.batch(queries).execute();
-        setAllUnchanged();
-        return result;
+        int[] array = create.batch(queries).execute();
+
+        List<Integer> result = new ArrayList<Integer>();
+        for (int i = 0; i < array.length; i++) {
+            addResult(result, queries.get(i), array[i]);
+
+            if (locking && array[i] == 0) {
+                missed.add(queries.get(i));
+            }
+        }
+
+        afterExecute(stored, missed);
+        return toArray(result);
+    }
+
+    /**
+     * [#1547] Fetch all records that are going to be updated with as few
+     * <code>SELECT .. FOR UPDATE</code> statements as possible, and compare
+     * them with the original values of the records to be stored.
+     * <p>
+     * Records with version and/or timestamp columns are checked by the update
+     * counts of their <code>UPDATE</code> statements, instead.
+     */
+    private final void checkIfChanged() {
+        Map<UpdatableTable<?>, List<UpdatableRecordImpl<?>>> tables = new LinkedHashMap<UpdatableTable<?>, List<UpdatableRecordImpl<?>>>();
+
+        for (UpdatableRecord<?> record : records) {
+            if (record instanceof UpdatableRecordImpl) {
+                UpdatableRecordImpl<?> r = (UpdatableRecordImpl<?>) record;
+
+                if (r.changed() && r.isStoreUpdate() && !r.isTimestampOrVersionAvailable()) {
+                    List<UpdatableRecordImpl<?>> list = tables.get(r.getTable());
+
+                    if (list == null) {
+                        list = new ArrayList<UpdatableRecordImpl<?>>();
+                        tables.put(r.getTable(), list);
+                    }
+
+                    list.add(r);
+                }
+            }
+        }
+
+        List<Record> changed = new ArrayList<Record>();
+        for (Entry<UpdatableTable<?>, List<UpdatableRecordImpl<?>>> entry : tables.entrySet()) {
+            checkIfChanged(entry.getKey(), entry.getValue(), changed);
+        }
+
+        if (!changed.isEmpty()) {
+            throw new DataChangedException("Database records have been changed or no longer exist", changed);
+        }
+    }
+
+    private final <R extends Record> void checkIfChanged(UpdatableTable<R> table, List<UpdatableRecordImpl<?>> list, List<Record> changed) {
+        List<TableField<R, ?>> key = table.getMainKey().getFields();
+        Map<List<Object>, R> fetched = Utils.fetchByKeys(create, table, list, true);
+
+        for (UpdatableRecordImpl<?> record : list) {
+            R database = fetched.get(Utils.keyValues(record, key));
+
+            if (database == null || !record.isOriginal((AbstractRecord) database)) {
+                changed.add(record);
+            }
+        }
     }
 
-    private final void setAllUnchanged() {
+    /**
+     * Reset the records' changed flags after execution, and report records
+     * whose <code>UPDATE</code> didn't affect any rows with optimistic locking
+     */
+    private final void afterExecute(Map<Query, UpdatableRecord<?>> stored, Set<Query> missed) {
+        Set<Record> changed = newIdentitySet();
+
+        for (Entry<Query, UpdatableRecord<?>> entry : stored.entrySet()) {
+
+            // [#1596] No records were updated due to version and/or timestamp change
+            if (missed.contains(entry.getKey())) {
+                changed.add(entry.getValue());
+            }
+
+            // [#1596] If the store was successful, update version and/or
+            // timestamp values on the record
+            else {
+                setRecordVersionAndTimestamp(entry.getValue(), entry.getKey());
+            }
+        }
+
         for (UpdatableRecord<?> record : records) {
-            if (record instanceof AbstractRecord) {
+            if (record instanceof AbstractRecord && !changed.contains(record)) {
                 ((AbstractRecord) record).setAllChanged(false);
             }
         }
+
+        if (!changed.isEmpty()) {
+            throw new DataChangedException("Database records have been changed or no longer exist", changed);
+        }
+    }
+
+    /**
+     * Set the version and timestamp values that were stored by a query onto
+     * the stored record
+     */
+    private static final void setRecordVersionAndTimestamp(UpdatableRecord<?> record, Query query) {
+        if (record instanceof AbstractRecord && query instanceof AbstractStoreQuery) {
+            AbstractRecord r = (AbstractRecord) record;
+            Map<Field<?>, Field<?>> values = ((AbstractStoreQuery<?>) query).getValues();
+
+            initValue(r, values, record.getTable().getRecordVersion());
+            initValue(r, values, record.getTable().getRecordTimestamp());
+        }
+    }
+
+    private static final void initValue(AbstractRecord record, Map<Field<?>, Field<?>> values, Field<?> field) {
+        if (field != null) {
+            Field<?> value = values.get(field);
+
+            if (value instanceof Param) {
+                record.initValue(field, ((Param<?>) value).getValue());
+            }
+        }
+    }
+
+    private static final <T> Set<T> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+    }
+
+    /**
+     * Replace lists of INSERT statements with identical SQL by multi-row
+     * INSERT statements
+     */
+    private final Map<String, List<Query>> multiRow(Map<String, List<Query>> queries, Map<Query, List<Query>> merged) {
+        Map<String, List<Query>> result = new LinkedHashMap<String, List<Query>>();
+
+        for (Entry<String, List<Query>> entry : queries.entrySet()) {
+            List<Query> list = entry.getValue();
+
+            if (list.size() > 1 && list.get(0) instanceof InsertQueryImpl) {
+
+                // All but the last chunk render the same SQL and can be
+                // batched again
+                for (Query query : multiRowChunks(list, merged)) {
+                    add(result, create.render(query), query);
+                }
+            }
+            else {
+                for (Query query : list) {
+                    add(result, entry.getKey(), query);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Replace subsequent INSERT statements with identical SQL by multi-row
+     * INSERT statements
+     */
+    private final List<Query> multiRow(List<Query> queries, Map<Query, List<Query>> merged) {
+        List<Query> result = new ArrayList<Query>();
+        List<Query> inserts = new ArrayList<Query>();
+        String previous = null;
+
+        for (Query query : queries) {
+            String sql = (query instanceof InsertQueryImpl) ? create.render(query) : null;
+
+            if (sql == null || !sql.equals(previous)) {
+                if (!inserts.isEmpty()) {
+                    result.addAll(multiRowChunks(inserts, merged));
+                    inserts.clear();
+                }
+            }
+
+            if (sql == null) {
+                result.add(query);
+            }
+            else {
+                inserts.add(query);
+            }
+
+            previous = sql;
+        }
+
+        if (!inserts.isEmpty()) {
+            result.addAll(multiRowChunks(inserts, merged));
+        }
+
+        return result;
+    }
+
+    /**
+     * Combine INSERT statements with identical SQL into as few multi-row
+     * INSERT statements as the dialect's row and bind value limits permit. The
+     * combined INSERT statements are registered in <code>merged</code>
+     */
+    private final List<Query> multiRowChunks(List<Query> inserts, Map<Query, List<Query>> merged) {
+        List<Query> result = new ArrayList<Query>();
+        InsertQueryImpl<?> first = (InsertQueryImpl<?>) inserts.get(0);
+        int chunk = multiRowChunkSize(create.getDialect(), first.getValues().size());
+
+        for (int i = 0; i < inserts.size(); i += chunk) {
+            List<Query> sublist = new ArrayList<Query>(inserts.subList(i, Math.min(i + chunk, inserts.size())));
+            Query query = multiRow(first.getInto(), sublist);
+
+            result.add(query);
+            merged.put(query, sublist);
+        }
+
+        return result;
+    }
+
+    /**
+     * The number of rows per multi-row INSERT statement with a given number of
+     * columns
+     */
+    static final int multiRowChunkSize(SQLDialect dialect, int columns) {
+        int rows = Utils.maxBindValues(dialect) / Math.max(1, columns);
+        return Math.max(1, Math.min(Utils.maxMultiRowInserts(dialect), rows));
+    }
+
+    /**
+     * Combine INSERT statements with identical SQL into a multi-row INSERT
+     * statement.
+     * <p>
+     * Dialects that do not support multi-row <code>VALUES</code> clauses
+     * render an <code>INSERT .. SELECT .. UNION ALL SELECT ..</code>
+     * statement, instead.
+     */
+    private final <R extends Record> Query multiRow(Table<R> table, List<Query> inserts) {
+        if (inserts.size() == 1) {
+            return inserts.get(0);
+        }
+
+        InsertQueryImpl<R> result = (InsertQueryImpl<R>) create.insertQuery(table);
+
+        for (Query insert : inserts) {
+            result.newRecord();
+            result.getValues().putAll(((InsertQueryImpl<?>) insert).getValues());
+        }
+
+        return result;
+    }
+
+    /**
+     * The identity whose generated values should be retrieved after executing
+     * a batch of <code>query</code>, or <code>null</code> if the query is not
+     * an <code>INSERT</code> statement, if it inserts explicit identity values,
+     * or if the JDBC driver cannot report generated keys for batches
+     */
+    private final Identity<?, ?> identity(Query query) {
+        switch (create.getDialect()) {
+            case HSQLDB:
+            case MYSQL: {
+                if (query instanceof InsertQueryImpl) {
+                    InsertQueryImpl<?> insert = (InsertQueryImpl<?>) query;
+                    Identity<?, ?> identity = insert.getInto().getIdentity();
+
+                    if (identity != null && !insert.getValues().containsKey(identity.getField())) {
+                        return identity;
+                    }
+                }
+
+                return null;
+            }
+
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * The stored records of executed queries, in the order of inserted rows
+     */
+    private static final List<UpdatableRecord<?>> rows(List<Query> queries, Map<Query, List<Query>> merged, Map<Query, UpdatableRecord<?>> stored) {
+        List<UpdatableRecord<?>> result = new ArrayList<UpdatableRecord<?>>();
+
+        for (Query query : queries) {
+            List<Query> list = merged.get(query);
+
+            if (list == null) {
+                list = Collections.singletonList(query);
+            }
+
+            for (Query q : list) {
+                result.add(stored.get(q));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Set generated identity values on batch inserted records. This is only
+     * done if the JDBC driver reported one generated key per inserted row,
+     * as keys cannot be matched with records, otherwise
+     */
+    private static final void setIdentities(Identity<?, ?> identity, List<UpdatableRecord<?>> rows, List<Object> keys) {
+        if (rows.size() != keys.size()) {
+            log.warn("Generated keys", "Expected " + rows.size() + " generated keys for " + identity.getTable() + ", but got " + keys.size() + ". Identity values are not set on inserted records");
+        }
+        else {
+            Field<?> field = identity.getField();
+
+            for (int i = 0; i < rows.size(); i++) {
+                UpdatableRecord<?> record = rows.get(i);
+
+                if (record instanceof AbstractRecord) {
+                    ((AbstractRecord) record).initValue(field, field.getDataType().convert(keys.get(i)));
+                }
+            }
+        }
+    }
+
+    private static final void add(Map<String, List<Query>> queries, String sql, Query query) {
+        List<Query> list = queries.get(sql);
+
+        if (list == null) {
+            list = new ArrayList<Query>();
+            queries.put(sql, list);
+        }
+
+        list.add(query);
+    }
+
+    /**
+     * Report one update count per record, also for multi-row INSERT statements
+     */
+    private static final void addResult(List<Integer> result, Query query, int count) {
+        int rows = (query instanceof InsertQueryImpl) ? ((InsertQueryImpl<?>) query).rows() : 1;
+
+        if (rows == 1) {
+            result.add(count);
+        }
+
+        // The update count can only be distributed among records, if every
+        // record was inserted
+        else {
+            for (int i = 0; i < rows; i++) {
+                result.add(count == rows ? 1 : Statement.SUCCESS_NO_INFO);
+            }
+        }
+    }
+
+    private static final int[] toArray(List<Integer> list) {
+        int[] result = new int[list.size()];
+
+        for (int i = 0; i < result.length; i++) {
+            result[i] = list.get(i);
+        }
+
+        return result;
     }
 
     /**
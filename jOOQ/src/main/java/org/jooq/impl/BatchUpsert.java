@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.impl;
+
+import static org.jooq.impl.Factory.field;
+import static org.jooq.impl.Factory.fieldByName;
+import static org.jooq.impl.Factory.val;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jooq.Batch;
+import org.jooq.Condition;
+import org.jooq.Field;
+import org.jooq.MergeNotMatchedStep;
+import org.jooq.MergeOnConditionStep;
+import org.jooq.Query;
+import org.jooq.Record;
+import org.jooq.Select;
+import org.jooq.Table;
+import org.jooq.TableField;
+import org.jooq.UpdatableTable;
+import org.jooq.exception.DataAccessException;
+import org.jooq.exception.SQLDialectNotSupportedException;
+
+/**
+ * A batch operation inserting or updating many records in chunks.
+ * <p>
+ * Every chunk of records is stored with a single statement:
+ * <ul>
+ * <li>A multi-row <code>INSERT .. ON DUPLICATE KEY UPDATE</code> statement
+ * in {@link org.jooq.SQLDialect#MYSQL}</li>
+ * <li>An H2-specific <code>MERGE .. KEY (..) SELECT ..</code> statement in
+ * {@link org.jooq.SQLDialect#H2}</li>
+ * <li>A standard <code>MERGE .. USING (SELECT .. UNION ALL SELECT ..)</code>
+ * statement in other dialects supporting the <code>MERGE</code> statement</li>
+ * </ul>
+ *
+ * @author Lukas Eder
+ */
+class BatchUpsert<R extends Record> implements Batch {
+
+    /**
+     * Generated UID
+     */
+    private static final long           serialVersionUID = 4536298137621658236L;
+
+    /**
+     * The default number of records per statement. Larger statements risk
+     * exceeding parser limits in some databases.
+     */
+    static final int                    DEFAULT_CHUNK_SIZE = 1000;
+
+    private final Executor              create;
+    private final UpdatableTable<R>     table;
+    private final Iterable<? extends R> records;
+    private final int                   chunkSize;
+
+    BatchUpsert(Executor create, UpdatableTable<R> table, Iterable<? extends R> records, int chunkSize) {
+        this.create = create;
+        this.table = table;
+        this.records = records;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public final int[] execute() throws DataAccessException {
+        List<Field<?>> fields = table.getFields();
+
+        // Chunks must not exceed the dialect's bind value limit
+        int size = Utils.maxBindValues(create.getDialect()) / Math.max(1, fields.size());
+        size = Math.max(1, Math.min(chunkSize, size));
+
+        List<Integer> result = new ArrayList<Integer>();
+        List<R> chunk = new ArrayList<R>();
+
+        // Records are consumed only once, in case they're fetched lazily
+        for (R record : records) {
+            chunk.add(record);
+
+            if (chunk.size() == size) {
+                result.add(execute(chunk));
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            result.add(execute(chunk));
+        }
+
+        int[] array = new int[result.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = result.get(i);
+        }
+
+        return array;
+    }
+
+    private final int execute(List<R> chunk) {
+        int result = query(chunk).execute();
+
+        for (R record : chunk) {
+            if (record instanceof AbstractRecord) {
+                ((AbstractRecord) record).setAllChanged(false);
+            }
+        }
+
+        return result;
+    }
+
+    final Query query(List<R> chunk) {
+        switch (create.getDialect()) {
+            case MYSQL:
+                return toInsert(chunk);
+
+            case H2:
+                return create.mergeInto(table, table.getFields())
+                             .key(table.getMainKey().getFields())
+                             .select(toSelect(chunk));
+
+            case CUBRID:
+            case DB2:
+            case HSQLDB:
+            case ORACLE:
+            case SQLSERVER:
+            case SYBASE:
+                return toMerge(chunk);
+
+            default:
+                throw new SQLDialectNotSupportedException("Bulk upserts are not supported in dialect : " + create.getDialect());
+        }
+    }
+
+    /**
+     * Render a multi-row <code>INSERT .. ON DUPLICATE KEY UPDATE</code>
+     * statement, updating values from the <code>VALUES()</code> function
+     */
+    private final Query toInsert(List<R> chunk) {
+        InsertQueryImpl<R> insert = (InsertQueryImpl<R>) create.insertQuery(table);
+        List<TableField<R, ?>> key = table.getMainKey().getFields();
+
+        for (R record : chunk) {
+            insert.newRecord();
+
+            for (Field<?> field : table.getFields()) {
+                insert.getValues().put(field, val(record.getValue(field), field));
+            }
+        }
+
+        insert.onDuplicateKeyUpdate(true);
+
+        boolean updated = false;
+        for (Field<?> field : table.getFields()) {
+            if (!key.contains(field)) {
+                addValueForUpdate(insert, field, field("values({0})", field.getDataType(), fieldByName(field.getName())));
+                updated = true;
+            }
+        }
+
+        // Tables consisting only of key fields cannot be updated. A no-op
+        // update prevents errors on duplicate keys
+        if (!updated) {
+            addValueForUpdate(insert, key.get(0), key.get(0));
+        }
+
+        return insert;
+    }
+
+    /**
+     * Extracted method to ensure generic type safety.
+     */
+    @SuppressWarnings("unchecked")
+    private final <T> void addValueForUpdate(InsertQueryImpl<R> insert, Field<T> field, Field<?> value) {
+        insert.addValueForUpdate(field, (Field<T>) value);
+    }
+
+    /**
+     * Render a standard <code>MERGE</code> statement using a derived table
+     * with all records of a chunk
+     */
+    @SuppressWarnings("unchecked")
+    private final Query toMerge(List<R> chunk) {
+        Table<Record> src = toSelect(chunk).asTable("src");
+        List<TableField<R, ?>> key = table.getMainKey().getFields();
+
+        Condition condition = null;
+        for (Field<?> field : key) {
+            Condition other = ((Field<Object>) field).equal((Field<Object>) src.getField(field.getName()));
+
+            if (condition == null) {
+                condition = other;
+            }
+            else {
+                condition = condition.and(other);
+            }
+        }
+
+        Map<Field<?>, Field<?>> update = new LinkedHashMap<Field<?>, Field<?>>();
+        Map<Field<?>, Field<?>> insert = new LinkedHashMap<Field<?>, Field<?>>();
+
+        for (Field<?> field : table.getFields()) {
+            Field<?> value = src.getField(field.getName());
+
+            // Oracle does not allow to update fields from the ON clause
+            if (!key.contains(field)) {
+                update.put(field, value);
+            }
+
+            insert.put(field, value);
+        }
+
+        MergeOnConditionStep<R> on = create.mergeInto(table)
+                                           .using(src)
+                                           .on(condition);
+
+        MergeNotMatchedStep<R> notMatched = on;
+        if (!update.isEmpty()) {
+            notMatched = on.whenMatchedThenUpdate()
+                           .set(update);
+        }
+
+        return notMatched.whenNotMatchedThenInsert()
+                         .set(insert);
+    }
+
+    /**
+     * Create a <code>SELECT .. UNION ALL SELECT ..</code> statement with all
+     * records of a chunk
+     */
+    private final Select<Record> toSelect(List<R> chunk) {
+        List<Field<?>> fields = table.getFields();
+        List<Select<Record>> selects = new ArrayList<Select<Record>>(chunk.size());
+
+        for (R record : chunk) {
+            Field<?>[] values = new Field<?>[fields.size()];
+
+            for (int i = 0; i < values.length; i++) {
+                Field<?> field = fields.get(i);
+                values[i] = val(record.getValue(field), field).as(field.getName());
+            }
+
+            selects.add(create.select(values));
+        }
+
+        if (selects.size() == 1) {
+            return selects.get(0);
+        }
+        else {
+            return new Union<Record>(create, selects, CombineOperator.UNION_ALL);
+        }
+    }
+}
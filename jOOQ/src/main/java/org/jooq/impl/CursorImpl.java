@@ -1302,7 +1302,7 @@ class CursorImpl<R extends Record> implements Cursor<R> {
          */
         private final <T> void setValue(AbstractRecord record, Field<T> field, int index) throws SQLException {
             T value = FieldTypeHelper.getFromResultSet(ctx, field, index + 1);
-            record.setValue(index, new Value<T>(value));
+            record.initValue(index, value);
         }
 
         @Override
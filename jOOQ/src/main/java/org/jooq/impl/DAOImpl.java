@@ -174,6 +174,10 @@ public abstract class DAOImpl<R extends UpdatableRecord<R>, P, T> implements DAO
         Field<?> pk = pk();
 
         if (pk != null) {
+            if (cached(pk, id) != null) {
+                return true;
+            }
+
             return create.selectCount()
                          .from(table)
                          .where(equal(pk, id))
@@ -204,9 +208,13 @@ public abstract class DAOImpl<R extends UpdatableRecord<R>, P, T> implements DAO
         R record = null;
 
         if (pk != null) {
-            record = create.selectFrom(table)
-                           .where(equal(pk, id))
-                           .fetchOne();
+            record = cached(pk, id);
+
+            if (record == null) {
+                record = create.selectFrom(table)
+                               .where(equal(pk, id))
+                               .fetchOne();
+            }
         }
 
         return record == null ? null : record.into(type);
@@ -262,6 +270,21 @@ public abstract class DAOImpl<R extends UpdatableRecord<R>, P, T> implements DAO
         }
     }
 
+    /**
+     * Look up a record by its primary key in the {@link RecordCache}, if one
+     * is installed
+     */
+    @SuppressWarnings("unchecked")
+    private final R cached(Field<?> pk, T id) {
+        RecordCache cache = RecordCache.get(create);
+
+        if (cache != null && cache.isEnabled(table)) {
+            return cache.get((UpdatableTable<R>) table, singletonList((Object) pk.getDataType().convert(id)), create);
+        }
+
+        return null;
+    }
+
     private final Field<?> pk() {
         if (table instanceof UpdatableTable) {
             UpdatableTable<?> updatable = (UpdatableTable<?>) table;
@@ -283,7 +306,7 @@ public abstract class DAOImpl<R extends UpdatableRecord<R>, P, T> implements DAO
             R record = create.newRecord(table, object);
 
             if (forUpdate && pk != null) {
-                ((AbstractRecord) record).getValue0(pk).setChanged(false);
+                ((AbstractRecord) record).setChanged(record.getIndex(pk), false);
             }
 
             result.add(record);
@@ -38,6 +38,8 @@ package org.jooq.impl;
 import static java.util.Arrays.asList;
 
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.jooq.Configuration;
 import org.jooq.QueryPart;
@@ -47,7 +49,6 @@ import org.jooq.SQLDialect;
 import org.jooq.conf.RenderKeywordStyle;
 import org.jooq.conf.RenderNameStyle;
 import org.jooq.conf.Settings;
-import org.jooq.tools.StringUtils;
 
 /**
  * @author Lukas Eder
@@ -59,6 +60,43 @@ class DefaultRenderContext extends AbstractContext<RenderContext> implements Ren
      */
     private static final long   serialVersionUID = -8358225526567622252L;
 
+    /**
+     * Keywords are almost always lower case string literals from a small,
+     * fixed set, so their upper case versions are computed only once.
+     * {@link String#toLowerCase()} doesn't allocate for such keywords.
+     */
+    private static final int                           KEYWORD_CACHE_SIZE = 1000;
+    private static final ConcurrentMap<String, String> KEYWORDS_UPPER     = new ConcurrentHashMap<String, String>();
+
+    /**
+     * Pre-rendered aliases for the first few calls to {@link #nextAlias()}
+     */
+    private static final String[]                      ALIASES            = new String[32];
+
+    /**
+     * Blanks used for indentation, appended by range instead of being padded
+     * for every new line
+     */
+    private static final String                        BLANKS             = "                                                                                                                                ";
+
+    /**
+     * The longest SQL string rendered by {@link #render(QueryPart)} per
+     * {@link QueryPart} type, used as a size hint for the buffers of child
+     * contexts. Hints are capped, and top-level contexts start small. Types
+     * are referenced by name, as user-defined <code>QueryPart</code> classes
+     * must not be kept from being unloaded.
+     */
+    private static final int                           SIZE_HINT          = 128;
+    private static final int                           MAX_SIZE_HINT      = 8192;
+    private static final int                           SIZE_HINTS_SIZE    = 1000;
+    private static final ConcurrentMap<String, Integer> SIZE_HINTS        = new ConcurrentHashMap<String, Integer>();
+
+    static {
+        for (int i = 0; i < ALIASES.length; i++) {
+            ALIASES[i] = "alias_" + i;
+        }
+    }
+
     private final StringBuilder sql;
     private boolean             inline;
     private boolean             renderNamedParams;
@@ -70,25 +108,43 @@ class DefaultRenderContext extends AbstractContext<RenderContext> implements Ren
     private Stack<Integer>      indentLock       = new Stack<Integer>();
     private int                 printMargin      = 80;
 
+    // A child context that is re-used by render(QueryPart)
+    private transient DefaultRenderContext child;
+    private transient boolean   childInUse;
+
     // [#1632] Cached values from Settings
     private RenderKeywordStyle  cachedRenderKeywordStyle;
     private RenderNameStyle     cachedRenderNameStyle;
     private boolean             cachedRenderFormatted;
 
     DefaultRenderContext(Configuration configuration) {
+        this(configuration, SIZE_HINT);
+    }
+
+    DefaultRenderContext(RenderContext context) {
+        this(context, SIZE_HINT);
+    }
+
+    private DefaultRenderContext(Configuration configuration, int capacity) {
         super(configuration);
 
         Settings settings = configuration.getSettings();
 
-        this.sql = new StringBuilder();
+        this.sql = new StringBuilder(capacity);
         this.cachedRenderKeywordStyle = settings.getRenderKeywordStyle();
         this.cachedRenderFormatted = Boolean.TRUE.equals(settings.isRenderFormatted());
         this.cachedRenderNameStyle = settings.getRenderNameStyle();
     }
 
-    DefaultRenderContext(RenderContext context) {
-        this((Configuration) context);
+    private DefaultRenderContext(RenderContext context, int capacity) {
+        this((Configuration) context, capacity);
+        init(context);
+    }
 
+    /**
+     * Initialise this context's flags from a parent context
+     */
+    private final void init(RenderContext context) {
         inline(context.inline());
         namedParams(context.namedParams());
         qualify(context.qualify());
@@ -97,18 +153,43 @@ class DefaultRenderContext extends AbstractContext<RenderContext> implements Ren
         declareTables(context.declareTables());
     }
 
+    /**
+     * Reset this context to the state of a newly created child of
+     * <code>context</code>, keeping the allocated buffer
+     */
+    private final void reset(RenderContext context) {
+        Settings settings = configuration.getSettings();
+
+        sql.setLength(0);
+        subquery = false;
+        index = 0;
+        alias = 0;
+        indent = 0;
+        indentLock.clear();
+        printMargin = 80;
+        cachedRenderKeywordStyle = settings.getRenderKeywordStyle();
+        cachedRenderFormatted = Boolean.TRUE.equals(settings.isRenderFormatted());
+        cachedRenderNameStyle = settings.getRenderNameStyle();
+
+        init(context);
+    }
+
     // ------------------------------------------------------------------------
     // RenderContext API
     // ------------------------------------------------------------------------
 
     @Override
     public final String peekAlias() {
-        return "alias_" + (alias + 1);
+        return alias(alias + 1);
     }
 
     @Override
     public final String nextAlias() {
-        return "alias_" + (++alias);
+        return alias(++alias);
+    }
+
+    private static final String alias(int a) {
+        return a < ALIASES.length ? ALIASES[a] : "alias_" + a;
     }
 
     @Override
@@ -118,23 +199,103 @@ class DefaultRenderContext extends AbstractContext<RenderContext> implements Ren
 
     @Override
     public final String render(QueryPart part) {
-        return new DefaultRenderContext(this).sql(part).render();
+
+        String type = part.getClass().getName();
+        int hint = sizeHint(type);
+
+        // Child contexts are re-used, as long as they're not used recursively
+        if (childInUse) {
+            return sizeHint(type, hint, new DefaultRenderContext(this, hint).sql(part).render());
+        }
+
+        if (child == null) {
+            child = new DefaultRenderContext(this, hint);
+        }
+        else {
+            child.reset(this);
+            child.sql.ensureCapacity(hint);
+        }
+
+        childInUse = true;
+        try {
+            return sizeHint(type, hint, child.sql(part).render());
+        }
+        finally {
+            childInUse = false;
+        }
+    }
+
+    /**
+     * The initial buffer size for rendering a {@link QueryPart} of a given type
+     */
+    private static final int sizeHint(String type) {
+        Integer hint = SIZE_HINTS.get(type);
+        return hint == null ? SIZE_HINT : hint;
+    }
+
+    /**
+     * Grow the size hint for a {@link QueryPart} type, if needed
+     */
+    private static final String sizeHint(String type, int hint, String result) {
+        int length = result.length();
+
+        if (length > hint && length <= MAX_SIZE_HINT) {
+            if (SIZE_HINTS.size() < SIZE_HINTS_SIZE || SIZE_HINTS.containsKey(type)) {
+                SIZE_HINTS.put(type, length);
+            }
+        }
+
+        return result;
     }
 
     @Override
     public final RenderContext keyword(String keyword) {
         if (RenderKeywordStyle.UPPER == cachedRenderKeywordStyle) {
-            return sql(keyword.toUpperCase());
+            return sql(upper(keyword));
         }
         else {
             return sql(keyword.toLowerCase());
         }
     }
 
+    private static final String upper(String keyword) {
+        String result = KEYWORDS_UPPER.get(keyword);
+
+        if (result == null) {
+            result = keyword.toUpperCase();
+
+            // Don't let arbitrary user-defined keywords flood the cache
+            if (KEYWORDS_UPPER.size() < KEYWORD_CACHE_SIZE) {
+                KEYWORDS_UPPER.put(keyword, result);
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public final RenderContext sql(String s) {
         if (s != null && cachedRenderFormatted) {
-            sql.append(s.replaceAll("[\\n\\r]", "$0" + indentation()));
+            int length = s.length();
+            int start = 0;
+
+            // Indent every line break contained in s
+            for (int i = 0; i < length; i++) {
+                char c = s.charAt(i);
+
+                if (c == '\n' || c == '\r') {
+                    sql.append(s, start, i + 1);
+                    indentation();
+                    start = i + 1;
+                }
+            }
+
+            if (start == 0) {
+                sql.append(s);
+            }
+            else {
+                sql.append(s, start, length);
+            }
         }
         else {
             sql.append(s);
@@ -158,8 +319,8 @@ class DefaultRenderContext extends AbstractContext<RenderContext> implements Ren
     @Override
     public final RenderContext formatNewLine() {
         if (cachedRenderFormatted) {
-            sql.append("\n");
-            sql.append(indentation());
+            sql.append('\n');
+            indentation();
         }
 
         return this;
@@ -176,8 +337,17 @@ class DefaultRenderContext extends AbstractContext<RenderContext> implements Ren
         return this;
     }
 
-    private final String indentation() {
-        return StringUtils.leftPad("", indent, " ");
+    private final void indentation() {
+        int i = indent;
+
+        while (i > BLANKS.length()) {
+            sql.append(BLANKS);
+            i -= BLANKS.length();
+        }
+
+        if (i > 0) {
+            sql.append(BLANKS, 0, i);
+        }
     }
 
     @Override
@@ -197,7 +367,7 @@ class DefaultRenderContext extends AbstractContext<RenderContext> implements Ren
             formatNewLine();
         }
         else {
-            sql.append(" ");
+            sql.append(' ');
         }
 
         return this;
@@ -235,13 +405,28 @@ class DefaultRenderContext extends AbstractContext<RenderContext> implements Ren
     public final RenderContext formatIndentLockStart() {
         if (cachedRenderFormatted) {
             indentLock.push(indent);
-            String[] lines = sql.toString().split("[\\n\\r]");
-            indent = lines[lines.length - 1].length();
+
+            // Indent to the length of the last non-empty line
+            int end = sql.length();
+            while (end > 0 && isNewLine(sql.charAt(end - 1))) {
+                end--;
+            }
+
+            int start = end;
+            while (start > 0 && !isNewLine(sql.charAt(start - 1))) {
+                start--;
+            }
+
+            indent = end - start;
         }
 
         return this;
     }
 
+    private static final boolean isNewLine(char c) {
+        return c == '\n' || c == '\r';
+    }
+
     @Override
     public final RenderContext formatIndentLockEnd() {
         if (cachedRenderFormatted) {
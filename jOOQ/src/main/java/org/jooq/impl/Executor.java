@@ -59,18 +59,22 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.math.BigInteger;
+import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Savepoint;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import javax.sql.DataSource;
 import javax.xml.bind.JAXB;
@@ -103,21 +107,26 @@ import org.jooq.RecordHandler;
 import org.jooq.RenderContext;
 import org.jooq.Result;
 import org.jooq.ResultQuery;
+import org.jooq.Routine;
 import org.jooq.SQLDialect;
 import org.jooq.Schema;
+import org.jooq.Select;
 import org.jooq.SelectQuery;
 import org.jooq.SelectSelectStep;
 import org.jooq.Sequence;
+import org.jooq.SortField;
 import org.jooq.SimpleSelectQuery;
 import org.jooq.SimpleSelectWhereStep;
 import org.jooq.Support;
 import org.jooq.Table;
+import org.jooq.TableField;
 import org.jooq.TableLike;
 import org.jooq.TableRecord;
 import org.jooq.Truncate;
 import org.jooq.UDT;
 import org.jooq.UDTRecord;
 import org.jooq.UpdatableRecord;
+import org.jooq.UpdatableTable;
 import org.jooq.UpdateQuery;
 import org.jooq.UpdateSetFirstStep;
 import org.jooq.conf.Settings;
@@ -504,6 +513,15 @@ public class Executor implements Configuration {
     // XXX Convenience methods accessing the underlying Connection
     // -------------------------------------------------------------------------
 
+    /**
+     * Access the database meta data
+     * <p>
+     * If a {@link MetaCache} is installed in this <code>Executor</code> or for
+     * its {@link DataSource}, the returned object serves catalogs, schemas and
+     * tables from that cache.
+     *
+     * @see MetaCache
+     */
     public final Meta meta() {
         return new MetaImpl(this);
     }
@@ -2281,6 +2299,52 @@ public class Executor implements Configuration {
         return new BatchSingle(this, query);
     }
 
+    /**
+     * Execute a set of stored procedure calls in batch mode (with bind
+     * values).
+     * <p>
+     * This essentially runs the following logic: <code><pre>
+     * CallableStatement s = connection.prepareCall(routine.getSQL());
+     *
+     * for (Routine<?> routine : routines) {
+     *     for (Object inValue : inValues) {
+     *         s.setXXX(inValue);
+     *     }
+     *
+     *     s.addBatch();
+     * }
+     *
+     * s.executeBatch();
+     * </pre></code>
+     * <p>
+     * Subsequent routines are batched in the same
+     * {@link CallableStatement}, as long as they render the same SQL. As JDBC
+     * batches cannot return any values, only procedures with IN parameters
+     * can be executed this way.
+     *
+     * @throws IllegalArgumentException If any routine has OUT parameters or a
+     *             return value
+     * @see CallableStatement#executeBatch()
+     */
+    @Support
+    public final Batch batchCall(Routine<?>... routines) {
+        return new BatchRoutine(this, routines);
+    }
+
+    /**
+     * Execute a set of stored procedure calls in batch mode (with bind
+     * values).
+     *
+     * @throws IllegalArgumentException If any routine has OUT parameters or a
+     *             return value
+     * @see #batchCall(Routine...)
+     * @see CallableStatement#executeBatch()
+     */
+    @Support
+    public final Batch batchCall(Collection<? extends Routine<?>> routines) {
+        return batchCall(routines.toArray(new Routine<?>[routines.size()]));
+    }
+
     /**
      * Execute a set of <code>INSERT</code> and <code>UPDATE</code> queries in
      * batch mode (with bind values).
@@ -2314,6 +2378,23 @@ public class Executor implements Configuration {
      * operations, as the order of records is preserved entirely, and jOOQ can
      * guarantee that only a single batch statement is serialised to the
      * database.
+     * <h3>With
+     * <code>{@link Settings#isExecuteMultiRowInserts()} == true</code></h3>
+     * In this mode, <code>INSERT</code> statements for the same table and set
+     * of columns are combined into multi-row <code>INSERT</code> statements,
+     * as many rows per statement as the dialect's bind value limit permits.
+     * With {@link StatementType#STATIC_STATEMENT}, only subsequent
+     * <code>INSERT</code> statements are combined, to preserve record order.
+     * The resulting array still contains one update count per record. If a
+     * multi-row <code>INSERT</code> statement does not report one inserted row
+     * per record, its records are reported with
+     * {@link Statement#SUCCESS_NO_INFO}.
+     * <h3>Generated identity values</h3> With bind values, generated
+     * <code>IDENTITY</code> values of inserted records are retrieved from
+     * {@link Statement#getGeneratedKeys()} in {@link SQLDialect#HSQLDB} and
+     * {@link SQLDialect#MYSQL}, whose JDBC drivers report one key per inserted
+     * row after batch execution. In other dialects, batch inserted records do
+     * not receive their <code>IDENTITY</code> values.
      *
      * @see Statement#executeBatch()
      */
@@ -2334,6 +2415,118 @@ public class Executor implements Configuration {
         return batchStore(records.toArray(new UpdatableRecord[records.size()]));
     }
 
+    /**
+     * Insert or update a set of records in bulk.
+     * <p>
+     * This is the same as calling
+     * {@link #batchUpsert(UpdatableTable, Iterable, int)} with chunks of
+     * <code>1000</code> records.
+     *
+     * @see #batchUpsert(UpdatableTable, Iterable, int)
+     */
+    @Support({ CUBRID, DB2, H2, HSQLDB, MYSQL, ORACLE, SQLSERVER, SYBASE })
+    public final <R extends Record> Batch batchUpsert(UpdatableTable<R> table, Iterable<? extends R> records) {
+        return batchUpsert(table, records, BatchUpsert.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Insert or update a set of records in bulk.
+     * <p>
+     * Records are inserted, or updated if a record with the same main key
+     * already exists, as with
+     * {@link InsertQuery#onDuplicateKeyUpdate(boolean)}. Rather than executing
+     * one statement per record, records are stored in chunks of
+     * <code>chunkSize</code> records, each with a single statement:
+     * <ul>
+     * <li>{@link SQLDialect#MYSQL}: A multi-row
+     * <code>INSERT .. ON DUPLICATE KEY UPDATE</code> statement</li>
+     * <li>{@link SQLDialect#H2}: An H2-specific
+     * <code>MERGE .. KEY (..)</code> statement</li>
+     * <li>Other dialects: A <code>MERGE</code> statement using all records
+     * of a chunk as its source</li>
+     * </ul>
+     * <p>
+     * All fields of <code>table</code> are inserted or updated. Chunks are
+     * made smaller than <code>chunkSize</code>, if needed to respect the
+     * dialect's bind value limit. <code>records</code> is iterated only once,
+     * so records can be passed from a {@link Result} or from a lazily
+     * fetched {@link Cursor}.
+     *
+     * @return One update count per executed chunk, as reported by the JDBC
+     *         driver.
+     */
+    @Support({ CUBRID, DB2, H2, HSQLDB, MYSQL, ORACLE, SQLSERVER, SYBASE })
+    public final <R extends Record> Batch batchUpsert(UpdatableTable<R> table, Iterable<? extends R> records, int chunkSize) {
+        return new BatchUpsert<R>(this, table, records, chunkSize);
+    }
+
+    /**
+     * Refresh a set of records from the database, based on the values of their
+     * main keys.
+     * <p>
+     * This has the same effect as calling {@link UpdatableRecord#refresh()} on
+     * every record, but records are fetched with as few statements as
+     * possible. Records are grouped by table, and each group is fetched in
+     * chunks of main key values, as many as the dialect's bind value limit
+     * permits. The executed statements are <code><pre>
+     * SELECT * FROM [table]
+     * WHERE [main key fields IN (main key values)]</pre></code>
+     * <p>
+     * Fetched values are written back into the existing record instances.
+     *
+     * @throws DataAccessException if something went wrong executing the query
+     * @throws InvalidResultException if any of the records does not exist
+     *             anymore in the database. All other records are refreshed
+     *             anyway. The missing records are available from
+     *             {@link InvalidResultException#getRecords()}.
+     */
+    @Support
+    public final void refresh(Collection<? extends UpdatableRecord<?>> records) throws DataAccessException, InvalidResultException {
+        Map<UpdatableTable<?>, List<UpdatableRecord<?>>> tables = new LinkedHashMap<UpdatableTable<?>, List<UpdatableRecord<?>>>();
+
+        for (UpdatableRecord<?> record : records) {
+            List<UpdatableRecord<?>> list = tables.get(record.getTable());
+
+            if (list == null) {
+                list = new ArrayList<UpdatableRecord<?>>();
+                tables.put(record.getTable(), list);
+            }
+
+            list.add(record);
+        }
+
+        List<Record> missing = new ArrayList<Record>();
+        for (Entry<UpdatableTable<?>, List<UpdatableRecord<?>>> entry : tables.entrySet()) {
+            refresh(entry.getKey(), entry.getValue(), missing);
+        }
+
+        if (!missing.isEmpty()) {
+            throw new InvalidResultException("Exactly one row expected for refresh. " + missing.size() + " record(s) do not exist in database.", missing);
+        }
+    }
+
+    /**
+     * Refresh records of a single table, collecting records that are missing
+     * in the database
+     */
+    private final <R extends Record> void refresh(UpdatableTable<R> table, List<UpdatableRecord<?>> records, List<Record> missing) {
+        List<TableField<R, ?>> key = table.getMainKey().getFields();
+        Map<List<Object>, R> fetched = Utils.fetchByKeys(this, table, records, false);
+
+        for (UpdatableRecord<?> record : records) {
+            R database = fetched.get(Utils.keyValues(record, key));
+
+            if (database == null) {
+                missing.add(record);
+            }
+            else {
+                for (Field<?> field : table.getFields()) {
+                    ((AbstractRecord) record).initValue(field, database.getValue(field));
+                }
+            }
+        }
+    }
+
     // -------------------------------------------------------------------------
     // XXX DDL Statements
     // -------------------------------------------------------------------------
@@ -2656,6 +2849,57 @@ public class Executor implements Configuration {
         }
     }
 
+    /**
+     * Execute a {@link Select} in several partitions, concurrently, and return
+     * the merged results.
+     * <p>
+     * The <code>SELECT</code> statement is nested in a derived table, which is
+     * split into <code>partitions</code> ranges of <code>splitField</code>
+     * values:
+     * <ul>
+     * <li>Numeric split fields are split into ranges of equal width between
+     * their <code>MIN()</code> and <code>MAX()</code> values. This is
+     * supported by all dialects.</li>
+     * <li>Other split fields are split into ranges containing equally many
+     * rows using the <code>NTILE()</code> window function. This is only
+     * supported by {@link SQLDialect#ORACLE}, {@link SQLDialect#POSTGRES} and
+     * {@link SQLDialect#SQLSERVER}.</li>
+     * </ul>
+     * <code>NULL</code> values are fetched in an additional partition of their
+     * own, which precedes all other partitions. The split field and all <code>orderBy</code> fields must be contained in the
+     * <code>SELECT</code> statement's projection, and the projection must
+     * not contain ambiguous field names.
+     * <p>
+     * If this executor is configured with a {@link DataSource}, every
+     * partition is fetched in its own thread, with its own
+     * <code>Connection</code> obtained from the <code>DataSource</code>.
+     * Otherwise, partitions are fetched one after the other, using this
+     * executor's <code>Connection</code>. Note that concurrently fetched
+     * partitions may not see a consistent snapshot of the data, depending on
+     * the database's isolation level.
+     * <p>
+     * Without <code>orderBy</code> fields, partitions are concatenated in
+     * ascending order of their split field value ranges. Otherwise, every
+     * partition is sorted by <code>orderBy</code> in Java, and partitions are
+     * merged using the same order. Records are sorted by the values' natural
+     * order, as in {@link Result#sortAsc(Field)}, with <code>NULL</code>
+     * values being lower than all other values. This may differ from the
+     * database's collation, e.g. for case-insensitive string comparison.
+     *
+     * @param select The select statement to execute
+     * @param splitField The field whose values are split into ranges
+     * @param partitions The number of partitions
+     * @param orderBy The fields to order the result by
+     * @return The merged result
+     * @throws DataAccessException if something went wrong executing the query
+     * @throws IllegalArgumentException If any of the <code>orderBy</code>
+     *             fields' types is not {@link Comparable}
+     */
+    @Support
+    public final <R extends Record> Result<R> fetchParallel(Select<R> select, Field<?> splitField, int partitions, SortField<?>... orderBy) throws DataAccessException {
+        return new ParallelSelect<R>(this, select, splitField, partitions, orderBy).fetch();
+    }
+
     /**
      * Execute a {@link ResultQuery} in the context of this executor and return
      * a cursor.
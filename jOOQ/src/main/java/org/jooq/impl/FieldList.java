@@ -37,21 +37,28 @@
 package org.jooq.impl;
 
 import java.util.Collection;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.jooq.Field;
 import org.jooq.FieldProvider;
+import org.jooq.TableField;
 
 /**
  * @author Lukas Eder
  */
 class FieldList extends QueryPartList<Field<?>> implements FieldProvider {
 
-    private static final long                serialVersionUID = -6911012275707591576L;
+    private static final long serialVersionUID = -6911012275707591576L;
 
-    private transient Map<Field<?>, Integer> indexes;
+    /**
+     * A lazily built index of this list's fields. Records of a
+     * {@link org.jooq.Cursor} or {@link org.jooq.Result} share their
+     * <code>FieldList</code>, and thus this index.
+     */
+    private transient Lookup  lookup;
 
     FieldList() {
         super();
@@ -72,22 +79,8 @@ class FieldList extends QueryPartList<Field<?>> implements FieldProvider {
             return null;
         }
 
-        // [#1802] Try finding an exact match (e.g. exact matching qualified name)
-        for (Field<?> f : this) {
-            if (f.equals(field)) {
-                return (Field<T>) f;
-            }
-        }
-
-        // In case no exact match was found, return the first field with matching name
-        String name = field.getName();
-        for (Field<?> f1 : this) {
-            if (f1.getName().equals(name)) {
-                return (Field<T>) f1;
-            }
-        }
-
-        return null;
+        int index = lookup().indexOf(field);
+        return index < 0 ? null : (Field<T>) get(index);
     }
 
     @Override
@@ -96,13 +89,8 @@ class FieldList extends QueryPartList<Field<?>> implements FieldProvider {
             return null;
         }
 
-        for (Field<?> f : this) {
-            if (f.getName().equals(name)) {
-                return f;
-            }
-        }
-
-        return null;
+        int index = lookup().indexOf(name);
+        return index < 0 ? null : get(index);
     }
 
     @Override
@@ -121,29 +109,167 @@ class FieldList extends QueryPartList<Field<?>> implements FieldProvider {
 
     @Override
     public final int getIndex(Field<?> field) {
-        if (indexes == null) {
-            indexes = new LinkedHashMap<Field<?>, Integer>();
+        int index = field == null ? -1 : lookup().indexOf(field);
 
-            for (int i = 0; i < size(); i++) {
-                indexes.put(get(i), i);
-            }
+        if (index < 0) {
+            throw new IllegalArgumentException("Field " + field + " is not contained in list");
         }
 
-        // Return the field's index itself, if it is contained
-        if (indexes.containsKey(field)) {
-            return indexes.get(field);
+        return index;
+    }
+
+    @Override
+    public final int getIndex(String fieldName) {
+        int index = fieldName == null ? -1 : lookup().indexOf(fieldName);
+
+        if (index < 0) {
+            throw new IllegalArgumentException("Field " + fieldName + " is not contained in list");
         }
 
-        // Check if the field is an alias of a contained field
-        if (indexes.containsKey(getField(field))) {
-            return indexes.get(getField(field));
+        return index;
+    }
+
+    /**
+     * Get the lookup index, (re)building it if this list has been modified
+     */
+    private final Lookup lookup() {
+        Lookup result = lookup;
+
+        if (result == null || result.modifications != modifications() || result.size != size()) {
+            result = new Lookup(this);
+            lookup = result;
         }
 
-        throw new IllegalArgumentException("Field " + field + " is not contained in list");
+        return result;
     }
 
-    @Override
-    public final int getIndex(String fieldName) {
-        return getIndex(getField(fieldName));
+    /**
+     * The qualified name of a table field, or <code>null</code> for any other
+     * field
+     */
+    private static final String qualifiedName(Field<?> field) {
+        if (field instanceof TableField) {
+            TableField<?, ?> f = (TableField<?, ?>) field;
+
+            if (f.getTable() != null) {
+                return f.getTable().getName() + "." + f.getName();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * A hashed index of a <code>FieldList</code>'s fields.
+     * <p>
+     * Field lookups used to scan the list once for a field equal to the
+     * requested one, and then once more for a field with the same name. As
+     * field equality is based on rendered SQL, it can only hold between fields
+     * of the same name. This index therefore resolves lookups by:
+     * <ol>
+     * <li>The field's identity, which is the common case</li>
+     * <li>The field's name, if only one contained field has that name</li>
+     * <li>The field's qualified name, if only one contained field has that
+     * qualified name</li>
+     * <li>The first equal field among those with the same (qualified) name, or
+     * else the first field with the same name</li>
+     * </ol>
+     */
+    private static final class Lookup {
+
+        final int                        modifications;
+        final int                        size;
+        final Map<Field<?>, Integer>     identities;
+        final Map<String, int[]>         names;
+        final Map<String, int[]>         qualifiedNames;
+        final FieldList                  fields;
+
+        Lookup(FieldList fields) {
+            this.fields = fields;
+            this.modifications = fields.modifications();
+            this.size = fields.size();
+            this.identities = new IdentityHashMap<Field<?>, Integer>(size);
+            this.names = new HashMap<String, int[]>();
+            this.qualifiedNames = new HashMap<String, int[]>();
+
+            for (int i = 0; i < size; i++) {
+                Field<?> field = fields.get(i);
+
+                if (!identities.containsKey(field)) {
+                    identities.put(field, i);
+                }
+
+                add(names, field.getName(), i);
+
+                String qualified = qualifiedName(field);
+                if (qualified != null) {
+                    add(qualifiedNames, qualified, i);
+                }
+            }
+        }
+
+        private static final void add(Map<String, int[]> map, String key, int index) {
+            int[] indexes = map.get(key);
+
+            if (indexes == null) {
+                map.put(key, new int[] { index });
+            }
+            else {
+                int[] copy = new int[indexes.length + 1];
+                System.arraycopy(indexes, 0, copy, 0, indexes.length);
+                copy[indexes.length] = index;
+                map.put(key, copy);
+            }
+        }
+
+        final int indexOf(String name) {
+            int[] candidates = names.get(name);
+            return candidates == null ? -1 : candidates[0];
+        }
+
+        final int indexOf(Field<?> field) {
+            Integer index = identities.get(field);
+
+            if (index != null) {
+                return index;
+            }
+
+            int[] candidates = names.get(field.getName());
+
+            if (candidates == null) {
+                return -1;
+            }
+            else if (candidates.length == 1) {
+                return candidates[0];
+            }
+
+            // [#1802] Several fields share the same name, try finding an exact
+            // match (e.g. exact matching qualified name)
+            String qualified = qualifiedName(field);
+            int[] exact = qualified == null ? null : qualifiedNames.get(qualified);
+
+            if (exact != null) {
+                if (exact.length == 1) {
+                    return exact[0];
+                }
+
+                for (int i : exact) {
+                    if (fields.get(i).equals(field)) {
+                        return i;
+                    }
+                }
+            }
+            else {
+                for (int i : candidates) {
+                    if (fields.get(i).equals(field)) {
+                        return i;
+                    }
+                }
+            }
+
+            // In case no exact match was found, return the first field with
+            // matching name
+            return candidates[0];
+        }
     }
 }
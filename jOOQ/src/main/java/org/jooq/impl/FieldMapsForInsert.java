@@ -99,21 +99,15 @@ class FieldMapsForInsert extends AbstractQueryPart {
         insertMaps.get(0).toSQLReferenceKeys(context);
         context.sql(" ");
 
-        Select<Record> select = null;
+        // Avoid nesting UNION ALL operations for large numbers of rows
+        List<Select<Record>> selects = new ArrayList<Select<Record>>();
         for (FieldMapForInsert map : insertMaps) {
             if (map != null) {
-                Select<Record> iteration = new Executor(context).select(map.values());
-
-                if (select == null) {
-                    select = iteration;
-                }
-                else {
-                    select = select.unionAll(iteration);
-                }
+                selects.add(new Executor(context).select(map.values()));
             }
         }
 
-        context.sql(select);
+        context.sql(new Union<Record>(context, selects, CombineOperator.UNION_ALL));
     }
 
     private void toSQL92Values(RenderContext context) {
@@ -143,6 +137,21 @@ class FieldMapsForInsert extends AbstractQueryPart {
         return !insertMaps.isEmpty() && insertMaps.get(0) != null;
     }
 
+    /**
+     * The number of rows to be inserted
+     */
+    final int rows() {
+        int result = 0;
+
+        for (FieldMapForInsert map : insertMaps) {
+            if (map != null) {
+                result++;
+            }
+        }
+
+        return result;
+    }
+
     public final FieldMapForInsert getMap() {
         if (insertMaps.get(index()) == null) {
             insertMaps.set(index(), new FieldMapForInsert());
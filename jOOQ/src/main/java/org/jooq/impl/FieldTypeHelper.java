@@ -56,10 +56,7 @@ import java.sql.SQLOutput;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -94,6 +91,7 @@ import org.jooq.util.ingres.IngresDataType;
 import org.jooq.util.mysql.MySQLDataType;
 import org.jooq.util.oracle.OracleDataType;
 import org.jooq.util.postgres.PostgresDataType;
+import org.jooq.util.postgres.PostgresLiteralParser;
 import org.jooq.util.postgres.PostgresUtils;
 import org.jooq.util.sqlite.SQLiteDataType;
 import org.jooq.util.sqlserver.SQLServerDataType;
@@ -550,29 +548,14 @@ public final class FieldTypeHelper {
 
         // SQLite's type affinity needs special care...
         if (dialect == SQLDialect.SQLITE) {
-            String date = rs.getString(index);
-
-            if (date != null) {
-                return new Date(parse("yyyy-MM-dd", date));
-            }
-
-            return null;
+            return TemporalCodec.parseDate(rs.getString(index));
         }
 
         // Cubrid SQL dates are incorrectly fetched. Reset milliseconds...
         // See http://jira.cubrid.org/browse/APIS-159
         // See https://sourceforge.net/apps/trac/cubridinterface/ticket/140
         else if (dialect == CUBRID) {
-            Date date = rs.getDate(index);
-
-            if (date != null) {
-                Calendar cal = Calendar.getInstance();
-                cal.setTimeInMillis(date.getTime());
-                cal.set(Calendar.MILLISECOND, 0);
-                date = new Date(cal.getTimeInMillis());
-            }
-
-            return date;
+            return TemporalCodec.truncateMillis(rs.getDate(index));
         }
 
         else {
@@ -580,33 +563,30 @@ public final class FieldTypeHelper {
         }
     }
 
+    private static Date getDate(SQLDialect dialect, CallableStatement stmt, int index) throws SQLException {
+        if (dialect == SQLDialect.SQLITE) {
+            return TemporalCodec.parseDate(stmt.getString(index));
+        }
+        else if (dialect == CUBRID) {
+            return TemporalCodec.truncateMillis(stmt.getDate(index));
+        }
+        else {
+            return stmt.getDate(index);
+        }
+    }
+
     private static Time getTime(SQLDialect dialect, ResultSet rs, int index) throws SQLException {
 
         // SQLite's type affinity needs special care...
         if (dialect == SQLDialect.SQLITE) {
-            String time = rs.getString(index);
-
-            if (time != null) {
-                return new Time(parse("HH:mm:ss", time));
-            }
-
-            return null;
+            return TemporalCodec.parseTime(rs.getString(index));
         }
 
         // Cubrid SQL dates are incorrectly fetched. Reset milliseconds...
         // See http://jira.cubrid.org/browse/APIS-159
         // See https://sourceforge.net/apps/trac/cubridinterface/ticket/140
         else if (dialect == CUBRID) {
-            Time time = rs.getTime(index);
-
-            if (time != null) {
-                Calendar cal = Calendar.getInstance();
-                cal.setTimeInMillis(time.getTime());
-                cal.set(Calendar.MILLISECOND, 0);
-                time = new Time(cal.getTimeInMillis());
-            }
-
-            return time;
+            return TemporalCodec.truncateMillis(rs.getTime(index));
         }
 
         else {
@@ -614,37 +594,35 @@ public final class FieldTypeHelper {
         }
     }
 
+    private static Time getTime(SQLDialect dialect, CallableStatement stmt, int index) throws SQLException {
+        if (dialect == SQLDialect.SQLITE) {
+            return TemporalCodec.parseTime(stmt.getString(index));
+        }
+        else if (dialect == CUBRID) {
+            return TemporalCodec.truncateMillis(stmt.getTime(index));
+        }
+        else {
+            return stmt.getTime(index);
+        }
+    }
+
     private static Timestamp getTimestamp(SQLDialect dialect, ResultSet rs, int index) throws SQLException {
 
         // SQLite's type affinity needs special care...
         if (dialect == SQLDialect.SQLITE) {
-            String timestamp = rs.getString(index);
-
-            if (timestamp != null) {
-                return new Timestamp(parse("yyyy-MM-dd HH:mm:ss", timestamp));
-            }
-
-            return null;
-        } else {
+            return TemporalCodec.parseTimestamp(rs.getString(index));
+        }
+        else {
             return rs.getTimestamp(index);
         }
     }
 
-    private static long parse(String pattern, String date) throws SQLException {
-        try {
-
-            // Try reading a plain number first
-            try {
-                return Long.valueOf(date);
-            }
-
-            // If that fails, try reading a formatted date
-            catch (NumberFormatException e) {
-                return new SimpleDateFormat(pattern).parse(date).getTime();
-            }
+    private static Timestamp getTimestamp(SQLDialect dialect, CallableStatement stmt, int index) throws SQLException {
+        if (dialect == SQLDialect.SQLITE) {
+            return TemporalCodec.parseTimestamp(stmt.getString(index));
         }
-        catch (ParseException e) {
-            throw new SQLException("Could not parse date " + date, e);
+        else {
+            return stmt.getTimestamp(index);
         }
     }
 
@@ -707,7 +685,7 @@ public final class FieldTypeHelper {
             return (T) stmt.getClob(index);
         }
         else if (type == Date.class) {
-            return (T) stmt.getDate(index);
+            return (T) getDate(ctx.getDialect(), stmt, index);
         }
         else if (type == Double.class) {
             return (T) checkWasNull(stmt, Double.valueOf(stmt.getDouble(index)));
@@ -728,10 +706,10 @@ public final class FieldTypeHelper {
             return (T) stmt.getString(index);
         }
         else if (type == Time.class) {
-            return (T) stmt.getTime(index);
+            return (T) getTime(ctx.getDialect(), stmt, index);
         }
         else if (type == Timestamp.class) {
-            return (T) stmt.getTimestamp(index);
+            return (T) getTimestamp(ctx.getDialect(), stmt, index);
         }
         else if (type == YearToMonth.class) {
             if (ctx.getDialect() == POSTGRES) {
@@ -955,8 +933,7 @@ public final class FieldTypeHelper {
             // Not supported
         }
         else if (type == Date.class) {
-            SimpleDateFormat f = new SimpleDateFormat("yyyy-MM-dd");
-            return (T) new Date(pgParseDate(string, f).getTime());
+            return (T) TemporalCodec.parseDate(string);
         }
         else if (type == Double.class) {
             return (T) Double.valueOf(string);
@@ -977,12 +954,10 @@ public final class FieldTypeHelper {
             return (T) string;
         }
         else if (type == Time.class) {
-            SimpleDateFormat f = new SimpleDateFormat("HH:mm:ss");
-            return (T) new Time(pgParseDate(string, f).getTime());
+            return (T) TemporalCodec.parseTime(string);
         }
         else if (type == Timestamp.class) {
-            SimpleDateFormat f = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-            return (T) new Timestamp(pgParseDate(string, f).getTime());
+            return (T) TemporalCodec.parseTimestamp(string);
         }
         else if (type == UByte.class) {
             return (T) UByte.valueOf(string);
@@ -1012,15 +987,6 @@ public final class FieldTypeHelper {
         throw new UnsupportedOperationException("Class " + type + " is not supported");
     }
 
-    private static java.util.Date pgParseDate(String string, SimpleDateFormat f) throws SQLException {
-        try {
-            return f.parse(string);
-        }
-        catch (ParseException e) {
-            throw new SQLException(e);
-        }
-    }
-
     /**
      * Create a UDT record from a PGobject
      * <p>
@@ -1039,11 +1005,15 @@ public final class FieldTypeHelper {
 
         @SuppressWarnings({ "unchecked", "rawtypes" })
         UDTRecord<?> record = (UDTRecord<?>) Utils.newRecord((Class) type);
-        List<String> values = PostgresUtils.toPGObject(object.toString());
+        PostgresLiteralParser parser = new PostgresLiteralParser(object.toString());
+        parser.openRow();
 
-        List<Field<?>> fields = record.getFields();
-        for (int i = 0; i < fields.size(); i++) {
-            pgSetValue(record, fields.get(i), values.get(i));
+        for (Field<?> field : record.getFields()) {
+            if (!parser.next()) {
+                throw new SQLException("Too few attributes in Postgres row literal: " + object);
+            }
+
+            pgSetValue(record, field, parser.string());
         }
 
         return record;
@@ -1111,26 +1081,32 @@ public final class FieldTypeHelper {
         }
 
         try {
-            Class<?> component = type.getComponentType();
-            String values = string.replaceAll("^\\{(.*)\\}$", "$1");
+            PostgresLiteralParser parser = new PostgresLiteralParser(string);
+            return pgReadArray(type, parser);
+        }
+        catch (Exception e) {
+            throw new SQLException(e);
+        }
+    }
 
-            if ("".equals(values)) {
-                return (Object[]) java.lang.reflect.Array.newInstance(component, 0);
+    /**
+     * Read an array from a parser, reading nested arrays in place
+     */
+    private static Object[] pgReadArray(Class<?> type, PostgresLiteralParser parser) throws SQLException {
+        Class<?> component = type.getComponentType();
+        List<Object> result = new ArrayList<Object>();
+
+        parser.openArray();
+        while (parser.next()) {
+            if (component.isArray() && parser.isArray()) {
+                result.add(pgReadArray(component, parser));
             }
             else {
-                String[] split = values.split(",");
-                Object[] result = (Object[]) java.lang.reflect.Array.newInstance(component, split.length);
-
-                for (int i = 0; i < split.length; i++) {
-                    result[i] = pgFromString(type.getComponentType(), split[i]);
-                }
-
-                return result;
+                result.add(pgFromString(component, parser.string()));
             }
         }
-        catch (Exception e) {
-            throw new SQLException(e);
-        }
+
+        return result.toArray((Object[]) java.lang.reflect.Array.newInstance(component, result.size()));
     }
 
     private static <T> void pgSetValue(UDTRecord<?> record, Field<T> field, String value)
@@ -115,6 +115,13 @@ class InsertQueryImpl<R extends Record> extends AbstractStoreQuery<R> implements
         setRecord(record);
     }
 
+    /**
+     * The number of rows to be inserted by this query
+     */
+    final int rows() {
+        return insertMaps.rows();
+    }
+
     @Override
     public final void onDuplicateKeyUpdate(boolean flag) {
         this.onDuplicateKeyIgnore = false;
@@ -607,7 +614,7 @@ class InsertQueryImpl<R extends Record> extends AbstractStoreQuery<R> implements
                 if (returning.size() == 1 && returning.get(0).equals(field)) {
                     for (Number id : ids) {
                         R typed = Utils.newRecord(into, configuration);
-                        ((AbstractRecord) typed).setValue(field, new Value<Number>(id));
+                        ((AbstractRecord) typed).initValue(field, id);
                         getReturnedRecords().add(typed);
                     }
                 }
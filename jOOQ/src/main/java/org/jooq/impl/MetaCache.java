@@ -0,0 +1,234 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.sql.DataSource;
+
+import org.jooq.Configuration;
+import org.jooq.Meta;
+import org.jooq.Schema;
+import org.jooq.Table;
+
+/**
+ * A cache for the objects returned by {@link Executor#meta()}
+ * <p>
+ * Once {@link #install(Configuration) installed} in a {@link Configuration},
+ * or {@link #install(DataSource) installed} for a {@link DataSource}, the
+ * {@link Meta} objects obtained from {@link Executor#meta()} memoise the
+ * catalogs, schemas and tables they read from
+ * {@link java.sql.DatabaseMetaData}. Each object is loaded lazily on first
+ * access, such that tables of a schema are only loaded when that schema's
+ * tables are requested. The columns of all tables of a schema are loaded in
+ * one go.
+ * <p>
+ * This cache is thread-safe. Installing it for a <code>DataSource</code>
+ * shares it among all {@link Executor} instances operating on that
+ * <code>DataSource</code>. Schema modifications are not detected. Use
+ * {@link #invalidate(Schema...)}, {@link #clear()} or
+ * {@link #refresh(Executor)} after executing DDL statements.
+ *
+ * @author Lukas Eder
+ * @see RecordCache
+ */
+public class MetaCache {
+
+    /**
+     * Caches installed for {@link DataSource}s. The cache does not reference
+     * its <code>DataSource</code>, which may be garbage collected
+     */
+    private static final Map<DataSource, MetaCache> DATA_SOURCES = Collections.synchronizedMap(new WeakHashMap<DataSource, MetaCache>());
+
+    private List<String>                            catalogs;
+    private List<String>                            schemas;
+    private final Map<String, List<Table<?>>>       tables;
+
+    /**
+     * The number of invalidations so far. Objects loaded concurrently with an
+     * invalidation may be stale and are not cached
+     */
+    private long                                    generation;
+
+    /**
+     * Create a new, empty cache
+     */
+    public MetaCache() {
+        this.tables = new HashMap<String, List<Table<?>>>();
+    }
+
+    // -------------------------------------------------------------------------
+    // XXX: Configuration API
+    // -------------------------------------------------------------------------
+
+    /**
+     * Install this cache in a {@link Configuration}
+     * <p>
+     * This stores the cache in the <code>Configuration</code>'s custom data.
+     * All {@link Executor} instances sharing that data share this cache.
+     *
+     * @see Configuration#setData(String, Object)
+     */
+    public final void install(Configuration configuration) {
+        configuration.setData(Utils.DATA_META_CACHE, this);
+    }
+
+    /**
+     * Install this cache for a {@link DataSource}
+     * <p>
+     * All {@link Executor} instances operating on that
+     * <code>DataSource</code> share this cache, unless another cache is
+     * installed in their {@link Configuration}.
+     */
+    public final void install(DataSource dataSource) {
+        DATA_SOURCES.put(dataSource, this);
+    }
+
+    /**
+     * Remove any cache from a {@link Configuration}
+     */
+    public static void uninstall(Configuration configuration) {
+        configuration.setData(Utils.DATA_META_CACHE, null);
+    }
+
+    /**
+     * Remove any cache from a {@link DataSource}
+     */
+    public static void uninstall(DataSource dataSource) {
+        DATA_SOURCES.remove(dataSource);
+    }
+
+    /**
+     * Get the cache installed in a {@link Configuration}, or for its
+     * {@link DataSource}
+     *
+     * @return The installed cache or <code>null</code>, if no cache is
+     *         installed
+     */
+    public static MetaCache get(Configuration configuration) {
+        if (configuration == null) {
+            return null;
+        }
+
+        MetaCache result = (MetaCache) configuration.getData(Utils.DATA_META_CACHE);
+        if (result == null && configuration.getDataSource() != null) {
+            result = DATA_SOURCES.get(configuration.getDataSource());
+        }
+
+        return result;
+    }
+
+    // -------------------------------------------------------------------------
+    // XXX: Cache API
+    // -------------------------------------------------------------------------
+
+    /**
+     * Invalidate the cached tables of any of the argument schemas
+     * <p>
+     * Catalogs and schemas remain cached.
+     */
+    public final synchronized void invalidate(Schema... s) {
+        generation++;
+
+        for (Schema schema : s) {
+            tables.remove(schema.getName());
+        }
+    }
+
+    /**
+     * Invalidate all cached objects
+     */
+    public final synchronized void clear() {
+        generation++;
+
+        catalogs = null;
+        schemas = null;
+        tables.clear();
+    }
+
+    /**
+     * Invalidate all cached objects, and load all catalogs, schemas and tables
+     * again, using an {@link Executor}
+     */
+    public final void refresh(Executor executor) {
+        clear();
+        new MetaImpl(executor, this).getTables();
+    }
+
+    // -------------------------------------------------------------------------
+    // XXX: Internal API
+    // -------------------------------------------------------------------------
+
+    final synchronized long generation() {
+        return generation;
+    }
+
+    final synchronized List<String> getCatalogs() {
+        return catalogs;
+    }
+
+    final synchronized void putCatalogs(List<String> c, long before) {
+        if (generation == before) {
+            catalogs = Collections.unmodifiableList(new ArrayList<String>(c));
+        }
+    }
+
+    final synchronized List<String> getSchemas() {
+        return schemas;
+    }
+
+    final synchronized void putSchemas(List<String> s, long before) {
+        if (generation == before) {
+            schemas = Collections.unmodifiableList(new ArrayList<String>(s));
+        }
+    }
+
+    final synchronized List<Table<?>> getTables(String schema) {
+        return tables.get(schema);
+    }
+
+    final synchronized void putTables(String schema, List<Table<?>> t, long before) {
+        if (generation == before) {
+            tables.put(schema, Collections.unmodifiableList(new ArrayList<Table<?>>(t)));
+        }
+    }
+}
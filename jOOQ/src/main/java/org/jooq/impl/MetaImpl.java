@@ -36,11 +36,14 @@
 package org.jooq.impl;
 
 import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.jooq.Catalog;
 import org.jooq.ForeignKey;
@@ -60,10 +63,16 @@ import org.jooq.exception.DataAccessException;
 class MetaImpl implements Meta {
 
     private final Executor             executor;
+    private final MetaCache            cache;
     private transient DatabaseMetaData meta;
 
     MetaImpl(Executor executor) {
+        this(executor, MetaCache.get(executor));
+    }
+
+    MetaImpl(Executor executor, MetaCache cache) {
         this.executor = executor;
+        this.cache = cache;
     }
 
     private final DatabaseMetaData meta() {
@@ -81,19 +90,28 @@ class MetaImpl implements Meta {
 
     @Override
     public final List<Catalog> getCatalogs() {
-        try {
-            List<Catalog> result = new ArrayList<Catalog>();
-            Result<Record> schemas = executor.fetch(meta().getCatalogs());
+        List<String> names = cache == null ? null : cache.getCatalogs();
 
-            for (String name : schemas.getValues(0, String.class)) {
-                result.add(new MetaCatalog(name));
-            }
+        if (names == null) {
+            try {
+                long generation = cache == null ? 0L : cache.generation();
+                names = names(meta().getCatalogs());
 
-            return result;
+                if (cache != null) {
+                    cache.putCatalogs(names, generation);
+                }
+            }
+            catch (SQLException e) {
+                throw new DataAccessException("Error while accessing DatabaseMetaData", e);
+            }
         }
-        catch (SQLException e) {
-            throw new DataAccessException("Error while accessing DatabaseMetaData", e);
+
+        List<Catalog> result = new ArrayList<Catalog>();
+        for (String name : names) {
+            result.add(new MetaCatalog(name, this));
         }
+
+        return result;
     }
 
     @Override
@@ -118,112 +136,205 @@ class MetaImpl implements Meta {
         return result;
     }
 
-    private class MetaCatalog extends CatalogImpl {
+    /**
+     * Get the (cached) schemas of a catalog
+     */
+    private final List<Schema> getSchemas(Catalog catalog) {
+        List<String> names = cache == null ? null : cache.getSchemas();
+
+        if (names == null) {
+            try {
+                long generation = cache == null ? 0L : cache.generation();
+                names = names(meta().getSchemas());
+
+                if (cache != null) {
+                    cache.putSchemas(names, generation);
+                }
+            }
+            catch (SQLException e) {
+                throw new DataAccessException("Error while accessing DatabaseMetaData", e);
+            }
+        }
+
+        List<Schema> result = new ArrayList<Schema>();
+        for (String name : names) {
+            result.add(new MetaSchema(name, cache, this));
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the (cached) tables of a schema
+     */
+    private final List<Table<?>> getTables(Schema schema) {
+        List<Table<?>> result = cache == null ? null : cache.getTables(schema.getName());
+
+        if (result == null) {
+            long generation = cache == null ? 0L : cache.generation();
+            result = fetchTables(schema.getName());
+
+            if (cache != null) {
+                cache.putTables(schema.getName(), result, generation);
+            }
+        }
+
+        return new ArrayList<Table<?>>(result);
+    }
+
+    private final List<Table<?>> fetchTables(String schemaName) {
+        try {
+            List<Table<?>> result = new ArrayList<Table<?>>();
+            Result<Record> tables = executor.fetch(meta().getTables(null, schemaName, "%", null));
+
+            // Cached tables are loaded with a schema that references only the
+            // cache, not this MetaImpl and its Executor
+            Schema tableSchema = cache == null
+                ? new MetaSchema(schemaName, null, this)
+                : new MetaSchema(schemaName, cache, null);
+
+            // Load the columns of all tables in this schema at once,
+            // rather than issuing one DatabaseMetaData call per table
+            Map<String, List<String>> columns = new HashMap<String, List<String>>();
+            for (Record column : executor.fetch(meta().getColumns(null, schemaName, "%", "%"))) {
+
+                // The schema argument is a LIKE pattern, which may match
+                // other schemas, e.g. through the "_" wildcard
+                if (!schemaName.equals(column.getValue("TABLE_SCHEM", String.class))) {
+                    continue;
+                }
+
+                String table = column.getValue("TABLE_NAME", String.class);
+                List<String> list = columns.get(table);
+
+                if (list == null) {
+                    list = new ArrayList<String>();
+                    columns.put(table, list);
+                }
+
+                list.add(column.getValue("COLUMN_NAME", String.class));
+            }
+
+            for (Record table : tables) {
+                String catalog = table.getValue(0, String.class);
+                String schema = table.getValue(1, String.class);
+                String name = table.getValue(2, String.class);
+
+                if (!schemaName.equals(schema)) {
+                    continue;
+                }
+
+                List<String> tableColumns = columns.get(name);
+                if (tableColumns == null) {
+                    tableColumns = Collections.emptyList();
+                }
+
+                Result<Record> pkColumns = executor.fetch(meta().getPrimaryKeys(catalog, schema, name))
+                                                   .sortAsc("KEY_SEQ");
+
+                if (pkColumns.size() == 0) {
+                    result.add(new MetaTable(name, tableSchema, tableColumns));
+                }
+                else {
+                    result.add(new MetaUpdatableTable(name, tableSchema, tableColumns));
+                }
+            }
+
+            return result;
+        }
+        catch (SQLException e) {
+            throw new DataAccessException("Error while accessing DatabaseMetaData", e);
+        }
+    }
+
+    private final List<String> names(ResultSet rs) {
+        return executor.fetch(rs).getValues(0, String.class);
+    }
+
+    private static class MetaCatalog extends CatalogImpl {
 
         /**
          * Generated UID
          */
-        private static final long serialVersionUID = -2821093577201327275L;
+        private static final long  serialVersionUID = -2821093577201327275L;
+
+        private transient MetaImpl meta;
 
-        MetaCatalog(String name) {
+        MetaCatalog(String name, MetaImpl meta) {
             super(name);
+
+            this.meta = meta;
         }
 
         @Override
         public final List<Schema> getSchemas() {
-            try {
-                List<Schema> result = new ArrayList<Schema>();
-                Result<Record> schemas = executor.fetch(meta().getSchemas());
-
-                for (String name : schemas.getValues(0, String.class)) {
-                    result.add(new MetaSchema(name));
-                }
-
-                return result;
-            }
-            catch (SQLException e) {
-                throw new DataAccessException("Error while accessing DatabaseMetaData", e);
+            if (meta == null) {
+                return Collections.emptyList();
             }
+
+            return meta.getSchemas(this);
         }
     }
 
-    private class MetaSchema extends SchemaImpl {
+    /**
+     * A schema loaded from {@link DatabaseMetaData}
+     * <p>
+     * Schemas referenced by tables have no {@link MetaImpl}. They can only
+     * provide tables that are still cached.
+     */
+    private static class MetaSchema extends SchemaImpl {
 
         /**
          * Generated UID
          */
-        private static final long serialVersionUID = -2621899850912554198L;
+        private static final long   serialVersionUID = -2621899850912554198L;
+
+        private transient MetaCache cache;
+        private transient MetaImpl  meta;
 
-        MetaSchema(String name) {
+        MetaSchema(String name, MetaCache cache, MetaImpl meta) {
             super(name);
+
+            this.cache = cache;
+            this.meta = meta;
         }
 
         @Override
         public final List<Table<?>> getTables() {
-            try {
-                List<Table<?>> result = new ArrayList<Table<?>>();
-                Result<Record> tables = executor.fetch(meta().getTables(null, getName(), "%", null));
-
-                for (Record table : tables) {
-                    String catalog = table.getValue(0, String.class);
-                    String schema = table.getValue(1, String.class);
-                    String name = table.getValue(2, String.class);
-
-                    Result<Record> pkColumns = executor.fetch(meta().getPrimaryKeys(catalog, schema, name))
-                                                       .sortAsc("KEY_SEQ");
-
-                    if (pkColumns.size() == 0) {
-                        result.add(new MetaTable(name, this));
-                    }
-                    else {
-                        result.add(new MetaUpdatableTable(name, this));
-                    }
-                }
-
-                return result;
-            }
-            catch (SQLException e) {
-                throw new DataAccessException("Error while accessing DatabaseMetaData", e);
+            if (meta != null) {
+                return meta.getTables(this);
             }
+
+            List<Table<?>> result = cache == null ? null : cache.getTables(getName());
+            return result == null ? new ArrayList<Table<?>>() : new ArrayList<Table<?>>(result);
         }
     }
 
-    private class MetaTable extends TableImpl<Record> {
+    private static class MetaTable extends TableImpl<Record> {
 
         /**
          * Generated UID
          */
         private static final long serialVersionUID = 4843841667753000233L;
 
-        MetaTable(String name, Schema schema) {
+        MetaTable(String name, Schema schema, List<String> columns) {
             super(name, schema);
 
-            init();
-        }
-
-        private final void init() {
-            try {
-                Result<Record> columns = executor.fetch(meta().getColumns(null, getSchema().getName(), getName(), "%"));
-
-                for (Record column : columns) {
-                    createField(column.getValue("COLUMN_NAME", String.class), SQLDataType.OTHER, this);
-                }
-            }
-            catch (SQLException e) {
-                throw new DataAccessException("Error while accessing DatabaseMetaData", e);
+            for (String column : columns) {
+                createField(column, SQLDataType.OTHER, this);
             }
         }
     }
 
-    private class MetaUpdatableTable extends MetaTable implements UpdatableTable<Record> {
+    private static class MetaUpdatableTable extends MetaTable implements UpdatableTable<Record> {
 
         /**
          * Generated UID
          */
         private static final long serialVersionUID = -4555457095396846609L;
 
-        MetaUpdatableTable(String name, Schema schema) {
-            super(name, schema);
+        MetaUpdatableTable(String name, Schema schema, List<String> columns) {
+            super(name, schema, columns);
         }
 
         @Override
@@ -0,0 +1,364 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.impl;
+
+import static org.jooq.impl.Factory.fieldByName;
+import static org.jooq.impl.Factory.max;
+import static org.jooq.impl.Factory.min;
+import static org.jooq.impl.Factory.ntile;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jooq.Condition;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.Select;
+import org.jooq.SelectConditionStep;
+import org.jooq.SortField;
+import org.jooq.SortOrder;
+import org.jooq.Table;
+import org.jooq.exception.DataAccessException;
+
+/**
+ * A <code>SELECT</code> statement whose result is fetched in several
+ * partitions, concurrently.
+ * <p>
+ * The <code>SELECT</code> statement is nested in a derived table, and every
+ * partition restricts the derived table to a range of values of a split
+ * field. Range bounds are calculated from the split field's
+ * <code>MIN()</code> and <code>MAX()</code> values for numeric split fields,
+ * or from <code>NTILE()</code> window functions for other split fields.
+ * <code>NULL</code> values of the split field are fetched in a partition of
+ * their own.
+ * <p>
+ * Ordered results are sorted in Java, rather than in the database, as the
+ * partitions are merged using the values' natural order, which may differ
+ * from the database's collation.
+ *
+ * @author Lukas Eder
+ */
+class ParallelSelect<R extends Record> {
+
+    private static final String  ALIAS = "p";
+
+    private final Executor       create;
+    private final Select<R>      select;
+    private final Field<?>       split;
+    private final int            partitions;
+    private final SortField<?>[] orderBy;
+
+    ParallelSelect(Executor create, Select<R> select, Field<?> split, int partitions, SortField<?>... orderBy) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Partitions must be positive: " + partitions);
+        }
+
+        this.create = create;
+        this.select = select;
+        this.split = split;
+        this.partitions = partitions;
+        this.orderBy = orderBy;
+    }
+
+    final Result<R> fetch() {
+        Table<R> table = select.asTable(ALIAS);
+        Field<Object> field = splitField();
+        List<Object> bounds = bounds(table, field);
+
+        List<Select<Record>> queries = new ArrayList<Select<Record>>();
+
+        // A single partition needs no range predicates
+        if (bounds.isEmpty()) {
+            queries.add(create.select(table.getFields()).from(table));
+        }
+
+        // NULL values are fetched first, in a partition of their own. After
+        // that, partition i contains values in (bounds[i - 1], bounds[i]]
+        else {
+            queries.add(create.select(table.getFields()).from(table).where(field.isNull()));
+
+            for (int i = 0; i <= bounds.size(); i++) {
+                Condition condition = null;
+
+                if (i == 0) {
+                    condition = field.lessOrEqual(bounds.get(0));
+                }
+                else if (i == bounds.size()) {
+                    condition = field.greaterThan(bounds.get(i - 1));
+                }
+                else {
+                    condition = field.greaterThan(bounds.get(i - 1)).and(field.lessOrEqual(bounds.get(i)));
+                }
+
+                SelectConditionStep<Record> query = create.select(table.getFields()).from(table).where(condition);
+                queries.add(query);
+            }
+        }
+
+        return merge(execute(queries));
+    }
+
+    @SuppressWarnings("unchecked")
+    private final Field<Object> splitField() {
+        return (Field<Object>) fieldByName(split.getDataType(), ALIAS, split.getName());
+    }
+
+    /**
+     * Calculate the inclusive upper bounds of all partitions but the last
+     */
+    private final List<Object> bounds(Table<R> table, Field<Object> field) {
+        List<Object> result = new ArrayList<Object>();
+
+        if (partitions == 1) {
+            return result;
+        }
+
+        // Numeric split fields are split into ranges of equal width
+        if (Number.class.isAssignableFrom(split.getType())) {
+            Record minMax = create.select(min(field), max(field)).from(table).fetchOne();
+            BigDecimal lo = minMax.getValue(0, BigDecimal.class);
+            BigDecimal hi = minMax.getValue(1, BigDecimal.class);
+
+            if (lo != null) {
+                BigDecimal step = hi.subtract(lo).divide(BigDecimal.valueOf(partitions), 10, RoundingMode.FLOOR);
+
+                for (int i = 1; i < partitions; i++) {
+                    Object bound = field.getDataType().convert(lo.add(step.multiply(BigDecimal.valueOf(i))));
+
+                    // Integer split fields may produce identical bounds
+                    if (result.isEmpty() || !bound.equals(result.get(result.size() - 1))) {
+                        result.add(bound);
+                    }
+                }
+            }
+        }
+
+        // Other split fields are split into ranges of equal size. NULL values
+        // are excluded from the tiles, as they are fetched separately
+        else {
+            Field<Integer> tile = ntile(partitions).over().orderBy(field).as("t");
+            Table<?> tiles = create.select(field, tile).from(table).where(field.isNotNull()).asTable("q");
+            Field<Object> value = fieldByName(Object.class, "q", split.getName());
+
+            for (Record record : create.select(max(value))
+                                       .from(tiles)
+                                       .groupBy(fieldByName("q", "t"))
+                                       .orderBy(1)
+                                       .fetch()) {
+                Object bound = field.getDataType().convert(record.getValue(0));
+
+                // Tiles of few distinct values may produce identical bounds
+                if (bound != null && (result.isEmpty() || !bound.equals(result.get(result.size() - 1)))) {
+                    result.add(bound);
+                }
+            }
+
+            // The last tile's upper bound is the maximum value
+            if (!result.isEmpty()) {
+                result.remove(result.size() - 1);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * A comparator for the records of all partitions
+     */
+    private final Comparator<Record> comparator() {
+        SortField<?>[] sortFields = new SortField<?>[orderBy.length];
+
+        for (int i = 0; i < orderBy.length; i++) {
+            SortField<?> sort = select.getField(orderBy[i].getName()).sort(orderBy[i].getOrder());
+
+            // NULL values are considered lower than all other values
+            sortFields[i] = orderBy[i].getOrder() == SortOrder.DESC ? sort.nullsLast() : sort.nullsFirst();
+        }
+
+        return ResultSorting.comparator(select, sortFields);
+    }
+
+    /**
+     * Execute all partitions' queries, concurrently if possible
+     */
+    private final List<Result<Record>> execute(List<Select<Record>> queries) {
+        List<Result<Record>> result = new ArrayList<Result<Record>>();
+
+        // Without a DataSource, there is only a single Connection, which
+        // cannot be shared among threads
+        if (create.getDataSource() == null || queries.size() == 1) {
+            for (Select<Record> query : queries) {
+                result.add(query.fetch());
+            }
+
+            return result;
+        }
+
+        ExecutorService service = Executors.newFixedThreadPool(queries.size());
+        try {
+            List<Future<Result<Record>>> futures = new ArrayList<Future<Result<Record>>>();
+
+            for (final Select<Record> query : queries) {
+                final Executor partition = new Executor(create.getDataSource(), create.getDialect(), create.getSettings());
+                partition.getData().putAll(create.getData());
+
+                futures.add(service.submit(new Callable<Result<Record>>() {
+                    @Override
+                    public Result<Record> call() {
+                        return partition.fetch(query);
+                    }
+                }));
+            }
+
+            for (Future<Result<Record>> future : futures) {
+                result.add(future.get());
+            }
+
+            return result;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while fetching partitions", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new DataAccessException("Error while fetching partitions", e.getCause());
+        }
+        finally {
+            service.shutdownNow();
+        }
+    }
+
+    /**
+     * Merge the partitions' results into a single result, preserving the
+     * requested order
+     */
+    private final Result<R> merge(List<Result<Record>> results) {
+        ResultImpl<R> result = new ResultImpl<R>(create, select);
+
+        if (orderBy.length == 0) {
+            for (Result<Record> r : results) {
+                for (Record record : r) {
+                    result.add(copy(record));
+                }
+            }
+        }
+
+        // Every partition is sorted with the same comparator, before the
+        // k-way merge of all partitions
+        else {
+            Comparator<Record> comparator = comparator();
+
+            PriorityQueue<Cursor> queue = new PriorityQueue<Cursor>(results.size());
+            for (Result<Record> r : results) {
+                if (!r.isEmpty()) {
+                    Record[] records = r.toArray(new Record[r.size()]);
+                    ResultSorting.sort(records, comparator);
+                    queue.add(new Cursor(Arrays.asList(records), comparator));
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                Cursor cursor = queue.poll();
+                result.add(copy(cursor.current()));
+
+                if (cursor.next()) {
+                    queue.add(cursor);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Copy a record of a partition into a record of the original select
+     */
+    @SuppressWarnings("unchecked")
+    private final R copy(Record record) {
+        AbstractRecord result = (AbstractRecord) Utils.newRecord((Class<R>) select.getRecordType(), select, create);
+        int size = select.getFields().size();
+
+        for (int i = 0; i < size; i++) {
+            result.initValue(i, record.getValue(i));
+        }
+
+        return (R) result;
+    }
+
+    /**
+     * A position in a partition's ordered result
+     */
+    private static class Cursor implements Comparable<Cursor> {
+
+        private final List<Record>       records;
+        private final Comparator<Record> comparator;
+        private int                      position;
+
+        Cursor(List<Record> records, Comparator<Record> comparator) {
+            this.records = records;
+            this.comparator = comparator;
+        }
+
+        final Record current() {
+            return records.get(position);
+        }
+
+        final boolean next() {
+            return ++position < records.size();
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return comparator.compare(current(), other.current());
+        }
+    }
+}
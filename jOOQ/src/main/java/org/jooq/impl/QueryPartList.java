@@ -36,6 +36,7 @@
 
 package org.jooq.impl;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -55,6 +56,13 @@ class QueryPartList<T extends QueryPart> extends AbstractQueryPart implements Li
     private static final long serialVersionUID = -2936922742534009564L;
     private final List<T>     wrappedList      = new ArrayList<T>();
 
+    /**
+     * The number of modifications applied to this list through the
+     * <code>List</code> API, including its iterators and sub lists.
+     * Subclasses may use this to invalidate derived state.
+     */
+    private transient int     modifications;
+
     QueryPartList() {
         this((Collection<T>) null);
     }
@@ -106,6 +114,13 @@ class QueryPartList<T extends QueryPart> extends AbstractQueryPart implements Li
         context.bind(wrappedList);
     }
 
+    /**
+     * The number of modifications applied to this list so far
+     */
+    final int modifications() {
+        return modifications;
+    }
+
     /**
      * Subclasses may override this method
      */
@@ -136,7 +151,7 @@ class QueryPartList<T extends QueryPart> extends AbstractQueryPart implements Li
 
     @Override
     public final Iterator<T> iterator() {
-        return wrappedList.iterator();
+        return listIterator();
     }
 
     @Override
@@ -152,6 +167,7 @@ class QueryPartList<T extends QueryPart> extends AbstractQueryPart implements Li
     @Override
     public final boolean add(T e) {
         if (e != null) {
+            modifications++;
             return wrappedList.add(e);
         }
 
@@ -160,6 +176,7 @@ class QueryPartList<T extends QueryPart> extends AbstractQueryPart implements Li
 
     @Override
     public final boolean remove(Object o) {
+        modifications++;
         return wrappedList.remove(o);
     }
 
@@ -170,11 +187,13 @@ class QueryPartList<T extends QueryPart> extends AbstractQueryPart implements Li
 
     @Override
     public final boolean addAll(Collection<? extends T> c) {
+        modifications++;
         return wrappedList.addAll(removeNulls(c));
     }
 
     @Override
     public final boolean addAll(int index, Collection<? extends T> c) {
+        modifications++;
         return wrappedList.addAll(index, removeNulls(c));
     }
 
@@ -193,16 +212,19 @@ class QueryPartList<T extends QueryPart> extends AbstractQueryPart implements Li
 
     @Override
     public final boolean removeAll(Collection<?> c) {
+        modifications++;
         return wrappedList.removeAll(c);
     }
 
     @Override
     public final boolean retainAll(Collection<?> c) {
+        modifications++;
         return wrappedList.retainAll(c);
     }
 
     @Override
     public final void clear() {
+        modifications++;
         wrappedList.clear();
     }
 
@@ -214,6 +236,7 @@ class QueryPartList<T extends QueryPart> extends AbstractQueryPart implements Li
     @Override
     public final T set(int index, T element) {
         if (element != null) {
+            modifications++;
             return wrappedList.set(index, element);
         }
 
@@ -223,12 +246,14 @@ class QueryPartList<T extends QueryPart> extends AbstractQueryPart implements Li
     @Override
     public final void add(int index, T element) {
         if (element != null) {
+            modifications++;
             wrappedList.add(index, element);
         }
     }
 
     @Override
     public final T remove(int index) {
+        modifications++;
         return wrappedList.remove(index);
     }
 
@@ -244,16 +269,118 @@ class QueryPartList<T extends QueryPart> extends AbstractQueryPart implements Li
 
     @Override
     public final ListIterator<T> listIterator() {
-        return wrappedList.listIterator();
+        return listIterator(0);
     }
 
     @Override
     public final ListIterator<T> listIterator(int index) {
-        return wrappedList.listIterator(index);
+        return new Itr(wrappedList.listIterator(index));
     }
 
     @Override
     public final List<T> subList(int fromIndex, int toIndex) {
-        return wrappedList.subList(fromIndex, toIndex);
+        return new SubList(wrappedList.subList(fromIndex, toIndex));
+    }
+
+    /**
+     * A list iterator counting modifications of this list
+     */
+    private class Itr implements ListIterator<T> {
+
+        private final ListIterator<T> delegate;
+
+        Itr(ListIterator<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public T next() {
+            return delegate.next();
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return delegate.hasPrevious();
+        }
+
+        @Override
+        public T previous() {
+            return delegate.previous();
+        }
+
+        @Override
+        public int nextIndex() {
+            return delegate.nextIndex();
+        }
+
+        @Override
+        public int previousIndex() {
+            return delegate.previousIndex();
+        }
+
+        @Override
+        public void remove() {
+            delegate.remove();
+            modifications++;
+        }
+
+        @Override
+        public void set(T e) {
+            delegate.set(e);
+            modifications++;
+        }
+
+        @Override
+        public void add(T e) {
+            delegate.add(e);
+            modifications++;
+        }
+    }
+
+    /**
+     * A sub list view counting modifications of this list
+     */
+    private class SubList extends AbstractList<T> {
+
+        private final List<T> delegate;
+
+        SubList(List<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public T get(int index) {
+            return delegate.get(index);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public T set(int index, T element) {
+            T result = delegate.set(index, element);
+            modifications++;
+            return result;
+        }
+
+        @Override
+        public void add(int index, T element) {
+            delegate.add(index, element);
+            modifications++;
+        }
+
+        @Override
+        public T remove(int index) {
+            T result = delegate.remove(index);
+            modifications++;
+            return result;
+        }
     }
 }
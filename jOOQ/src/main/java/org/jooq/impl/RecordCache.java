@@ -0,0 +1,448 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jooq.Configuration;
+import org.jooq.Field;
+import org.jooq.Query;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.Table;
+import org.jooq.UpdatableRecord;
+import org.jooq.UpdatableTable;
+
+/**
+ * A cache for {@link UpdatableRecord}s by their main key values
+ * <p>
+ * Once {@link #install(Configuration) installed} in a
+ * {@link Configuration}, records of {@link #enable(UpdatableTable...)
+ * enabled} tables fetched through that <code>Configuration</code> are put into
+ * this cache. Lookups by main key, such as {@link DAOImpl#findById(Object)}
+ * and {@link DAOImpl#existsById(Object)}, are then served from this cache,
+ * rather than from the database. Cached records expire after a configurable
+ * time to live, and the least recently used records are evicted once the
+ * cache's capacity is exceeded.
+ * <p>
+ * When <code>INSERT</code>, <code>UPDATE</code>, <code>DELETE</code>,
+ * <code>MERGE</code> or <code>TRUNCATE</code> statements are executed through
+ * the same <code>Configuration</code>, including those executed by
+ * {@link UpdatableRecord#store()}, {@link UpdatableRecord#delete()} and
+ * {@link org.jooq.DAO} methods, all cached records of the affected tables are
+ * invalidated. Plain SQL statements invalidate all records. Modifications
+ * executed outside of jOOQ, or through other <code>Configuration</code>
+ * instances are not detected. Use {@link #invalidate(Table...)} or
+ * {@link #clear()} in those cases.
+ * <p>
+ * This cache is most useful for reference data, which is read often and
+ * modified rarely. Records are copied into and out of the cache, such that
+ * clients may modify them freely. Note that the copies are shallow, i.e.
+ * mutable values such as <code>byte[]</code> or {@link java.util.Date} are
+ * shared.
+ *
+ * @author Lukas Eder
+ * @see ResultCache
+ */
+public class RecordCache {
+
+    /**
+     * The default capacity of a cache
+     */
+    public static final int       DEFAULT_CAPACITY = 10000;
+
+    private final int             capacity;
+    private final long            ttl;
+    private final Map<Key, Entry> entries;
+    private final Set<String>     tables;
+    private final AtomicLong      hits;
+    private final AtomicLong      misses;
+
+    /**
+     * The number of invalidations so far. Records fetched concurrently with an
+     * invalidation may be stale and are not cached
+     */
+    private long                  generation;
+
+    /**
+     * Create a new cache with a capacity of {@link #DEFAULT_CAPACITY} records,
+     * which never expire
+     */
+    public RecordCache() {
+        this(DEFAULT_CAPACITY, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Create a new cache
+     *
+     * @param capacity The maximum number of cached records
+     * @param ttl The time to live of cached records. If this is
+     *            <code>0</code>, records never expire
+     * @param unit The unit of <code>ttl</code>
+     */
+    public RecordCache(int capacity, long ttl, TimeUnit unit) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+
+        this.capacity = capacity;
+        this.ttl = unit.toNanos(ttl);
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+        this.tables = Collections.synchronizedSet(new HashSet<String>());
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    // -------------------------------------------------------------------------
+    // XXX: Configuration API
+    // -------------------------------------------------------------------------
+
+    /**
+     * Install this cache in a {@link Configuration}
+     * <p>
+     * This stores the cache in the <code>Configuration</code>'s custom data.
+     * All {@link Executor} instances sharing that data share this cache.
+     *
+     * @see Configuration#setData(String, Object)
+     */
+    public final void install(Configuration configuration) {
+        configuration.setData(Utils.DATA_RECORD_CACHE, this);
+    }
+
+    /**
+     * Remove any cache from a {@link Configuration}
+     */
+    public static void uninstall(Configuration configuration) {
+        configuration.setData(Utils.DATA_RECORD_CACHE, null);
+    }
+
+    /**
+     * Get the cache installed in a {@link Configuration}
+     *
+     * @return The installed cache or <code>null</code>, if no cache is
+     *         installed
+     */
+    public static RecordCache get(Configuration configuration) {
+        if (configuration == null) {
+            return null;
+        }
+
+        return (RecordCache) configuration.getData(Utils.DATA_RECORD_CACHE);
+    }
+
+    // -------------------------------------------------------------------------
+    // XXX: Cache API
+    // -------------------------------------------------------------------------
+
+    /**
+     * Enable caching of records of the argument tables
+     * <p>
+     * Records of other tables are never cached.
+     */
+    public final RecordCache enable(UpdatableTable<?>... t) {
+        for (UpdatableTable<?> table : t) {
+            tables.add(TableCollector.name(table));
+        }
+
+        return this;
+    }
+
+    /**
+     * Disable caching of records of the argument tables, and invalidate their
+     * cached records
+     */
+    public final RecordCache disable(UpdatableTable<?>... t) {
+        for (UpdatableTable<?> table : t) {
+            tables.remove(TableCollector.name(table));
+        }
+
+        invalidate(t);
+        return this;
+    }
+
+    /**
+     * Whether caching of records of a table is enabled
+     */
+    public final boolean isEnabled(Table<?> table) {
+        return table instanceof UpdatableTable && tables.contains(TableCollector.name(table));
+    }
+
+    /**
+     * The number of records currently cached
+     */
+    public final int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * The number of lookups served from this cache
+     */
+    public final long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * The number of lookups served from the database, because the record was
+     * not cached
+     */
+    public final long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Invalidate all cached records of any of the argument tables
+     */
+    public final void invalidate(Table<?>... t) {
+        Set<String> names = new HashSet<String>();
+
+        for (Table<?> table : t) {
+            names.add(TableCollector.name(table));
+        }
+
+        invalidate(names, false);
+    }
+
+    /**
+     * Invalidate all cached records
+     */
+    public final void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // XXX: Internal API
+    // -------------------------------------------------------------------------
+
+    /**
+     * The number of invalidations so far, to be passed to
+     * {@link #put(Result, long)}
+     */
+    final long generation() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * Get a copy of a cached record by its main key values
+     *
+     * @return The cached record, or <code>null</code> if no record with the
+     *         given main key values is cached
+     */
+    @SuppressWarnings("unchecked")
+    final <R extends Record> R get(UpdatableTable<R> table, List<Object> key, Configuration configuration) {
+        Key k = new Key(table.getRecordType(), key);
+
+        synchronized (entries) {
+            Entry entry = entries.get(k);
+
+            if (entry != null) {
+                if (ttl == 0L || System.nanoTime() - entry.expires < 0L) {
+                    hits.incrementAndGet();
+                    return copy((R) entry.record, table, configuration);
+                }
+
+                entries.remove(k);
+            }
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Put all complete records of enabled tables from a result into this
+     * cache, unless the cache was invalidated since <code>before</code>
+     */
+    @SuppressWarnings("unchecked")
+    final void put(Result<?> result, long before) {
+        if (result.isEmpty()) {
+            return;
+        }
+
+        Record first = result.get(0);
+        if (!(first instanceof UpdatableRecord)) {
+            return;
+        }
+
+        UpdatableTable<Record> table = (UpdatableTable<Record>) ((UpdatableRecord<?>) first).getTable();
+        if (!isEnabled(table) || first.getFields().size() != table.getFields().size()) {
+            return;
+        }
+
+        String name = TableCollector.name(table);
+        List<? extends Field<?>> key = table.getMainKey().getFields();
+        long expires = System.nanoTime() + ttl;
+
+        synchronized (entries) {
+
+            // Don't cache records that may have been fetched before a
+            // concurrent invalidation was committed
+            if (before != generation) {
+                return;
+            }
+
+            // Only the last records of large results remain in the cache
+            for (Record record : result.subList(Math.max(0, result.size() - capacity), result.size())) {
+                entries.put(
+                    new Key(table.getRecordType(), Utils.keyValues(record, key)),
+                    new Entry(copy(record, table, null), name, expires));
+            }
+
+            Iterator<Key> it = entries.keySet().iterator();
+            for (int size = entries.size(); size > capacity; size--) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Invalidate all cached records of tables referenced by a query
+     */
+    static final void invalidate(Configuration configuration, Query query) {
+        RecordCache cache = get(configuration);
+
+        if (cache != null) {
+            TableCollector collector = new TableCollector(configuration);
+            collector.bind(query);
+            cache.invalidate(collector.result, collector.plainSQL);
+        }
+    }
+
+    private final void invalidate(Set<String> t, boolean all) {
+        synchronized (entries) {
+            generation++;
+
+            if (all) {
+                entries.clear();
+                return;
+            }
+
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (t.contains(it.next().table)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a shallow copy of a record, attaching it to a configuration
+     */
+    private static final <R extends Record> R copy(R record, Table<R> table, Configuration configuration) {
+        AbstractRecord source = (AbstractRecord) record;
+        AbstractRecord target = (AbstractRecord) Utils.newRecord(table, configuration);
+        int size = table.getFields().size();
+
+        for (int i = 0; i < size; i++) {
+            target.initValue(i, source.getValue(i));
+        }
+
+        @SuppressWarnings("unchecked")
+        R result = (R) target;
+        return result;
+    }
+
+    /**
+     * The cache key of a record
+     */
+    private static final class Key {
+
+        private final Class<?>     type;
+        private final List<Object> values;
+        private final int          hash;
+
+        Key(Class<?> type, List<Object> values) {
+            this.type = type;
+            this.values = values;
+            this.hash = 31 * type.hashCode() + Arrays.deepHashCode(values.toArray());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+            return hash == other.hash
+                && type == other.type
+                && Arrays.deepEquals(values.toArray(), other.values.toArray());
+        }
+    }
+
+    /**
+     * A cached record and its table
+     */
+    private static final class Entry {
+
+        final Record record;
+        final String table;
+        final long   expires;
+
+        Entry(Record record, String table, long expires) {
+            this.record = record;
+            this.table = table;
+            this.expires = expires;
+        }
+    }
+}
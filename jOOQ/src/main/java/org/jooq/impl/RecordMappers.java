@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jooq.Record;
+import org.jooq.RecordMapper;
+import org.jooq.RecordUnmapper;
+
+/**
+ * A registry of typed mappers between record types and custom types
+ * <p>
+ * {@link Record#into(Class)}, {@link org.jooq.Result#into(Class)} and
+ * {@link Record#from(Object)} map records to and from custom types through
+ * reflection. If a {@link RecordMapper} and a {@link RecordUnmapper} are
+ * registered for a given pair of record type and custom type, these are used
+ * instead. The code generator registers such mappers for every generated
+ * record and POJO pair.
+ * <p>
+ * Mappers are only applied to the exact types they are registered for. Records
+ * or custom types extending the registered types are still mapped through
+ * reflection.
+ *
+ * @author Lukas Eder
+ */
+public final class RecordMappers {
+
+    /**
+     * The registered mappers, by record type and custom type
+     */
+    private static final Map<Class<?>, Map<Class<?>, Mappers<?, ?>>> MAPPERS =
+        new ConcurrentHashMap<Class<?>, Map<Class<?>, Mappers<?, ?>>>();
+
+    /**
+     * Register a mapper pair for a record type and a custom type.
+     * <p>
+     * Any previously registered mappers for the same types are replaced.
+     *
+     * @param recordType The record type
+     * @param type The custom type
+     * @param mapper The mapper used to map records into the custom type
+     * @param unmapper The unmapper used to load records from the custom type
+     */
+    public static <R extends Record, E> void register(
+        Class<R> recordType,
+        Class<E> type,
+        RecordMapper<R, E> mapper,
+        RecordUnmapper<E, R> unmapper) {
+
+        synchronized (MAPPERS) {
+            Map<Class<?>, Mappers<?, ?>> map = MAPPERS.get(recordType);
+
+            if (map == null) {
+                map = new ConcurrentHashMap<Class<?>, Mappers<?, ?>>();
+                MAPPERS.put(recordType, map);
+            }
+
+            map.put(type, new Mappers<R, E>(mapper, unmapper));
+        }
+    }
+
+    /**
+     * Remove any mappers registered for a record type and a custom type
+     */
+    public static void unregister(Class<? extends Record> recordType, Class<?> type) {
+        synchronized (MAPPERS) {
+            Map<Class<?>, Mappers<?, ?>> map = MAPPERS.get(recordType);
+
+            if (map != null) {
+                map.remove(type);
+            }
+        }
+    }
+
+    /**
+     * Get the mapper registered for a record type and a custom type, or
+     * <code>null</code> if no such mapper is registered
+     */
+    @SuppressWarnings("unchecked")
+    static final <R extends Record, E> RecordMapper<R, E> mapper(Class<?> recordType, Class<? extends E> type) {
+        Mappers<?, ?> mappers = mappers(recordType, type);
+        return mappers == null ? null : (RecordMapper<R, E>) mappers.mapper;
+    }
+
+    /**
+     * Get the unmapper registered for a record type and a custom type, or
+     * <code>null</code> if no such unmapper is registered
+     */
+    @SuppressWarnings("unchecked")
+    static final <R extends Record, E> RecordUnmapper<E, R> unmapper(Class<?> recordType, Class<? extends E> type) {
+        Mappers<?, ?> mappers = mappers(recordType, type);
+        return mappers == null ? null : (RecordUnmapper<E, R>) mappers.unmapper;
+    }
+
+    private static final Mappers<?, ?> mappers(Class<?> recordType, Class<?> type) {
+        Map<Class<?>, Mappers<?, ?>> map = MAPPERS.get(recordType);
+        return map == null ? null : map.get(type);
+    }
+
+    /**
+     * No instances
+     */
+    private RecordMappers() {}
+
+    /**
+     * A registered pair of mappers
+     */
+    private static final class Mappers<R extends Record, E> {
+        final RecordMapper<R, E>   mapper;
+        final RecordUnmapper<E, R> unmapper;
+
+        Mappers(RecordMapper<R, E> mapper, RecordUnmapper<E, R> unmapper) {
+            this.mapper = mapper;
+            this.unmapper = unmapper;
+        }
+    }
+}
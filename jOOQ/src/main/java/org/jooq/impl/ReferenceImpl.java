@@ -35,11 +35,23 @@
  */
 package org.jooq.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jooq.Field;
 import org.jooq.ForeignKey;
 import org.jooq.Record;
+import org.jooq.Result;
 import org.jooq.Table;
 import org.jooq.TableField;
 import org.jooq.UniqueKey;
+import org.jooq.exception.DataAccessException;
 
 /**
  * @author Lukas Eder
@@ -63,4 +75,94 @@ class ReferenceImpl<R extends Record, U extends Record> extends AbstractKey<R> i
     public final UniqueKey<U> getKey() {
         return key;
     }
+
+    @Override
+    public final Map<R, U> fetchParents(Collection<? extends R> records) throws DataAccessException {
+        Map<R, U> result = new LinkedHashMap<R, U>();
+
+        if (!records.isEmpty()) {
+            List<TableField<R, ?>> fields = getFields();
+            List<TableField<U, ?>> keyFields = key.getFields();
+            Map<List<Object>, U> parents = new HashMap<List<Object>, U>();
+
+            for (U parent : Utils.fetchByValues(create(records), key.getTable(), keyFields, values(records, fields, keyFields))) {
+                parents.put(Utils.keyValues(parent, keyFields), parent);
+            }
+
+            for (R record : records) {
+                result.put(record, parents.get(values(record, fields, keyFields)));
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public final Map<U, Result<R>> fetchChildren(Collection<? extends U> records) throws DataAccessException {
+        Map<U, Result<R>> result = new LinkedHashMap<U, Result<R>>();
+
+        if (!records.isEmpty()) {
+            Executor create = create(records);
+            List<TableField<R, ?>> fields = getFields();
+            List<TableField<U, ?>> keyFields = key.getFields();
+            Map<List<Object>, Result<R>> children = new HashMap<List<Object>, Result<R>>();
+
+            for (R child : Utils.fetchByValues(create, getTable(), fields, values(records, keyFields, fields))) {
+                List<Object> values = Utils.keyValues(child, fields);
+                Result<R> list = children.get(values);
+
+                if (list == null) {
+                    list = new ResultImpl<R>(create, getTable());
+                    children.put(values, list);
+                }
+
+                list.add(child);
+            }
+
+            for (U record : records) {
+                Result<R> list = children.get(values(record, keyFields, fields));
+                result.put(record, list != null ? list : new ResultImpl<R>(create, getTable()));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get an executor from the configuration of the first record
+     */
+    private static final Executor create(Collection<? extends Record> records) {
+        return new Executor(Utils.getConfiguration(records.iterator().next()));
+    }
+
+    /**
+     * Collect the distinct, non-null key values of a set of records
+     */
+    private static final Set<List<Object>> values(Collection<? extends Record> records, List<? extends Field<?>> from, List<? extends Field<?>> to) {
+        Set<List<Object>> result = new LinkedHashSet<List<Object>>();
+
+        for (Record record : records) {
+            List<Object> values = values(record, from, to);
+
+            if (!values.contains(null)) {
+                result.add(values);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Extract a record's values for <code>from</code> fields, converted to the
+     * types of the corresponding <code>to</code> fields
+     */
+    private static final List<Object> values(Record record, List<? extends Field<?>> from, List<? extends Field<?>> to) {
+        List<Object> result = new ArrayList<Object>(from.size());
+
+        for (int i = 0; i < from.size(); i++) {
+            result.add(to.get(i).getDataType().convert(record.getValue(from.get(i))));
+        }
+
+        return result;
+    }
 }
@@ -0,0 +1,399 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jooq.Configuration;
+import org.jooq.Query;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.ResultQuery;
+import org.jooq.Table;
+
+/**
+ * A cache for results of {@link ResultQuery#fetch()} calls
+ * <p>
+ * Once {@link #install(Configuration) installed} in a
+ * {@link Configuration}, identical queries executed through that
+ * <code>Configuration</code> are served from this cache, rather than from
+ * the database. Queries are considered identical if they render the same SQL
+ * and bind the same values. Cached results expire after a configurable time to
+ * live, and the least recently used results are evicted once the cache's
+ * capacity is exceeded.
+ * <p>
+ * Every cached result depends on the tables it was selected from. When
+ * <code>INSERT</code>, <code>UPDATE</code>, <code>DELETE</code>,
+ * <code>MERGE</code> or <code>TRUNCATE</code> statements are executed through
+ * the same <code>Configuration</code>, including those executed by
+ * {@link org.jooq.UpdatableRecord#store()} and
+ * {@link org.jooq.UpdatableRecord#delete()}, all dependent results are
+ * invalidated. Plain SQL statements may reference any table, hence:
+ * <ul>
+ * <li>Results selected using plain SQL are invalidated by any statement</li>
+ * <li>Plain SQL statements invalidate all results</li>
+ * </ul>
+ * Modifications executed outside of jOOQ, or through other
+ * <code>Configuration</code> instances are not detected. Use
+ * {@link #invalidate(Table...)} or {@link #clear()} in those cases.
+ * <p>
+ * Results are copied into and out of the cache, such that clients may modify
+ * them freely. Note that the copies are shallow, i.e. mutable values such as
+ * <code>byte[]</code> or {@link java.util.Date} are shared. Results of
+ * <code>SELECT .. FOR UPDATE</code> statements and of lazy fetching methods,
+ * such as {@link ResultQuery#fetchLazy()}, are never cached.
+ *
+ * @author Lukas Eder
+ */
+public class ResultCache {
+
+    /**
+     * The default capacity of a cache
+     */
+    public static final int       DEFAULT_CAPACITY = 1000;
+
+    private final int             capacity;
+    private final long            ttl;
+    private final Map<Key, Entry> entries;
+    private final AtomicLong      hits;
+    private final AtomicLong      misses;
+
+    /**
+     * The number of invalidations so far. Results selected concurrently with
+     * an invalidation may be stale and are not cached
+     */
+    private long                  generation;
+
+    /**
+     * Create a new cache with a capacity of {@link #DEFAULT_CAPACITY} results,
+     * which never expire
+     */
+    public ResultCache() {
+        this(DEFAULT_CAPACITY, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Create a new cache
+     *
+     * @param capacity The maximum number of cached results
+     * @param ttl The time to live of cached results. If this is
+     *            <code>0</code>, results never expire
+     * @param unit The unit of <code>ttl</code>
+     */
+    public ResultCache(int capacity, long ttl, TimeUnit unit) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+
+        this.capacity = capacity;
+        this.ttl = unit.toNanos(ttl);
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    // -------------------------------------------------------------------------
+    // XXX: Configuration API
+    // -------------------------------------------------------------------------
+
+    /**
+     * Install this cache in a {@link Configuration}
+     * <p>
+     * This stores the cache in the <code>Configuration</code>'s custom data.
+     * All {@link Executor} instances sharing that data share this cache.
+     *
+     * @see Configuration#setData(String, Object)
+     */
+    public final void install(Configuration configuration) {
+        configuration.setData(Utils.DATA_RESULT_CACHE, this);
+    }
+
+    /**
+     * Remove any cache from a {@link Configuration}
+     */
+    public static void uninstall(Configuration configuration) {
+        configuration.setData(Utils.DATA_RESULT_CACHE, null);
+    }
+
+    /**
+     * Get the cache installed in a {@link Configuration}
+     *
+     * @return The installed cache or <code>null</code>, if no cache is
+     *         installed
+     */
+    public static ResultCache get(Configuration configuration) {
+        if (configuration == null) {
+            return null;
+        }
+
+        return (ResultCache) configuration.getData(Utils.DATA_RESULT_CACHE);
+    }
+
+    // -------------------------------------------------------------------------
+    // XXX: Cache API
+    // -------------------------------------------------------------------------
+
+    /**
+     * The number of results currently cached
+     */
+    public final int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * The number of queries served from this cache
+     */
+    public final long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * The number of queries executed against the database, because they were
+     * not cached
+     */
+    public final long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Invalidate all results depending on any of the argument tables
+     */
+    public final void invalidate(Table<?>... tables) {
+        Set<String> names = new HashSet<String>();
+
+        for (Table<?> table : tables) {
+            TableCollector collector = new TableCollector(null);
+            collector.bind(table);
+            names.addAll(collector.result);
+        }
+
+        invalidate(names, false);
+    }
+
+    /**
+     * Invalidate all results
+     */
+    public final void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // XXX: Internal API
+    // -------------------------------------------------------------------------
+
+    /**
+     * Fetch a query's result from this cache, or execute the query if it is
+     * not cached
+     */
+    @SuppressWarnings("unchecked")
+    final <R extends Record> Result<R> fetch(AbstractResultQuery<R> query, int maxRows) {
+        Key key = new Key(query.getRecordType(), query.getSQL(), query.getBindValues().toArray(), maxRows);
+        long before;
+
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+
+            if (entry != null) {
+                if (ttl == 0L || System.nanoTime() - entry.expires < 0L) {
+                    hits.incrementAndGet();
+                    return copy((Result<R>) entry.result, query.getConfiguration());
+                }
+
+                entries.remove(key);
+            }
+
+            before = generation;
+        }
+
+        misses.incrementAndGet();
+        query.execute();
+        Result<R> result = query.getResult();
+
+        TableCollector collector = new TableCollector(query.getConfiguration());
+        collector.bind(query);
+
+        Entry entry = new Entry(
+            copy(result, null),
+            collector.plainSQL ? null : collector.result,
+            System.nanoTime() + ttl);
+
+        synchronized (entries) {
+
+            // Don't cache results that may have been selected before a
+            // concurrent invalidation was committed
+            if (before == generation) {
+                entries.put(key, entry);
+
+                if (entries.size() > capacity) {
+                    Iterator<Key> it = entries.keySet().iterator();
+                    it.next();
+                    it.remove();
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Invalidate all results depending on tables referenced by a query
+     */
+    static final void invalidate(Configuration configuration, Query query) {
+        ResultCache cache = get(configuration);
+
+        if (cache != null) {
+            TableCollector collector = new TableCollector(configuration);
+            collector.bind(query);
+            cache.invalidate(collector.result, collector.plainSQL);
+        }
+    }
+
+    private final void invalidate(Set<String> tables, boolean all) {
+        synchronized (entries) {
+            generation++;
+
+            if (all) {
+                entries.clear();
+                return;
+            }
+
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Set<String> dependencies = it.next().tables;
+
+                if (dependencies == null || !Collections.disjoint(dependencies, tables)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a shallow copy of a result, attaching it to a configuration
+     */
+    @SuppressWarnings("unchecked")
+    private static final <R extends Record> Result<R> copy(Result<R> result, Configuration configuration) {
+        FieldList fields = new FieldList(result.getFields());
+        ResultImpl<R> copy = new ResultImpl<R>(configuration, fields);
+        int size = fields.size();
+
+        for (R record : result) {
+            AbstractRecord source = (AbstractRecord) record;
+            AbstractRecord target = (AbstractRecord) Utils.newRecord(record.getClass(), fields, configuration);
+
+            for (int i = 0; i < size; i++) {
+                target.initValue(i, source.getValue(i));
+            }
+
+            copy.add((R) target);
+        }
+
+        return copy;
+    }
+
+    /**
+     * The cache key of a query
+     */
+    private static final class Key {
+
+        private final Class<?> type;
+        private final String   sql;
+        private final Object[] bindValues;
+        private final int      maxRows;
+        private final int      hash;
+
+        Key(Class<?> type, String sql, Object[] bindValues, int maxRows) {
+            this.type = type;
+            this.sql = sql;
+            this.bindValues = bindValues;
+            this.maxRows = maxRows;
+            this.hash = 31 * (31 * (31 * type.hashCode() + sql.hashCode()) + Arrays.deepHashCode(bindValues)) + maxRows;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+            return hash == other.hash
+                && maxRows == other.maxRows
+                && type == other.type
+                && sql.equals(other.sql)
+                && Arrays.deepEquals(bindValues, other.bindValues);
+        }
+    }
+
+    /**
+     * A cached result and its dependencies
+     */
+    private static final class Entry {
+
+        final Result<?>   result;
+        final Set<String> tables;
+        final long        expires;
+
+        Entry(Result<?> result, Set<String> tables, long expires) {
+            this.result = result;
+            this.tables = tables;
+            this.expires = expires;
+        }
+    }
+}
@@ -69,6 +69,8 @@ import org.jooq.Record;
 import org.jooq.RecordHandler;
 import org.jooq.RecordMapper;
 import org.jooq.Result;
+import org.jooq.ResultIndex;
+import org.jooq.SortField;
 import org.jooq.Table;
 import org.jooq.exception.InvalidResultException;
 import org.jooq.tools.Convert;
@@ -710,6 +712,16 @@ class ResultImpl<R extends Record> implements Result<R>, AttachableInternal {
 
     }
 
+    @Override
+    public final ResultIndex<R> index(Field<?>... keys) {
+        return new ResultIndexImpl<R>(this, keys == null ? new Field<?>[0] : keys, false);
+    }
+
+    @Override
+    public final ResultIndex<R> uniqueIndex(Field<?>... keys) {
+        return new ResultIndexImpl<R>(this, keys == null ? new Field<?>[0] : keys, true);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public final <K> Map<K, R> intoMap(Field<K> key) {
@@ -1003,8 +1015,17 @@ class ResultImpl<R extends Record> implements Result<R>, AttachableInternal {
     public final <T> List<T> into(Class<? extends T> type) {
         List<T> list = new ArrayList<T>(size());
 
+        // Look up generated mappers only once for the whole result
+        Class<?> recordType = isEmpty() ? null : get(0).getClass();
+        RecordMapper<R, T> mapper = recordType == null ? null : RecordMappers.<R, T>mapper(recordType, type);
+
         for (R record : this) {
-            list.add(record.into(type));
+            if (mapper != null && record.getClass() == recordType) {
+                list.add(mapper.map(record));
+            }
+            else {
+                list.add(record.into(type));
+            }
         }
 
         return list;
@@ -1122,6 +1143,40 @@ class ResultImpl<R extends Record> implements Result<R>, AttachableInternal {
         return sortAsc(Collections.reverseOrder(comparator));
     }
 
+    @Override
+    public final Result<R> sort(SortField<?>... sortFields) {
+        Comparator<R> comparator = ResultSorting.comparator(fields, sortFields);
+        Object[] array = records.toArray();
+
+        ResultSorting.sort(array, comparator);
+        set(array);
+        return this;
+    }
+
+    @Override
+    public final Result<R> top(int n, SortField<?>... sortFields) {
+        return top(n, ResultSorting.<R>comparator(fields, sortFields));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Result<R> top(int n, Comparator<? super R> comparator) {
+        ResultImpl<R> result = new ResultImpl<R>(configuration, fields);
+
+        for (Object record : ResultSorting.top(records, n, comparator)) {
+            result.records.add((R) record);
+        }
+
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private final void set(Object[] array) {
+        for (int i = 0; i < array.length; i++) {
+            records.set(i, (R) array[i]);
+        }
+    }
+
     /**
      * A comparator for records, wrapping another comparator for &lt;T&gt;
      */
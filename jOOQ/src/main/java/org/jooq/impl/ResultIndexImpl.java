@@ -0,0 +1,323 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.ResultIndex;
+import org.jooq.exception.InvalidResultException;
+import org.jooq.tools.Convert;
+
+/**
+ * A {@link ResultIndex} implementation based on an open-addressing hash table
+ * over record positions
+ * <p>
+ * Key values are copied from the indexed records into a flat array when the
+ * index is created. Records with equal keys are linked in a chain starting
+ * at the first such record, such that the hash table only contains one slot
+ * per distinct key.
+ *
+ * @author Lukas Eder
+ */
+class ResultIndexImpl<R extends Record> implements ResultIndex<R> {
+
+    private final ResultImpl<R>  result;
+    private final List<Field<?>> keys;
+    private final Class<?>[]     types;
+    private final boolean        unique;
+
+    private final Object[]       records;
+
+    /**
+     * The key values of all records, with record <code>i</code>'s values
+     * being stored at <code>[i * keys.size(), (i + 1) * keys.size())</code>
+     */
+    private final Object[]       values;
+    private final int[]          hashes;
+
+    /**
+     * The hash table, containing <code>position + 1</code> of the first
+     * record of each distinct key, or <code>0</code> for empty slots
+     */
+    private final int[]          table;
+
+    /**
+     * The chains of records with equal keys, containing
+     * <code>position + 1</code> of the next record with the same key, or
+     * <code>0</code> at the end of a chain
+     */
+    private final int[]          next;
+    private int                  size;
+
+    ResultIndexImpl(ResultImpl<R> result, Field<?>[] keys, boolean unique) {
+        int k = keys.length;
+        int[] indexes = new int[k];
+
+        this.result = result;
+        this.keys = Collections.unmodifiableList(Arrays.asList(keys.clone()));
+        this.types = new Class<?>[k];
+        this.unique = unique;
+
+        for (int i = 0; i < k; i++) {
+            indexes[i] = result.getIndex(keys[i]);
+            types[i] = keys[i].getType();
+        }
+
+        int n = result.size();
+        int capacity = 2;
+        while (capacity < n * 2) {
+            capacity <<= 1;
+        }
+
+        this.records = result.toArray();
+        this.values = new Object[n * k];
+        this.hashes = new int[n];
+        this.table = new int[capacity];
+        this.next = unique ? null : new int[n];
+
+        // The last record of each chain, indexed by the chain's first record
+        int[] last = unique ? null : new int[n];
+
+        for (int row = 0; row < n; row++) {
+            Record record = (Record) records[row];
+
+            for (int i = 0; i < k; i++) {
+                values[row * k + i] = record.getValue(indexes[i]);
+            }
+
+            int hash = hash(values, row * k);
+            int mask = capacity - 1;
+            int slot = hash & mask;
+            hashes[row] = hash;
+
+            for (;;) {
+                int head = table[slot] - 1;
+
+                if (head < 0) {
+                    table[slot] = row + 1;
+                    size++;
+
+                    if (!unique) {
+                        last[row] = row;
+                    }
+
+                    break;
+                }
+                else if (hashes[head] == hash && equal(head, values, row * k)) {
+                    if (unique) {
+                        throw new InvalidResultException("Key " + this.keys + " is not unique in Result for " + result);
+                    }
+
+                    next[last[head]] = row + 1;
+                    last[head] = row;
+                    break;
+                }
+
+                slot = (slot + 1) & mask;
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // XXX: ResultIndex API
+    // -------------------------------------------------------------------------
+
+    @Override
+    public final List<Field<?>> getKeys() {
+        return keys;
+    }
+
+    @Override
+    public final boolean isUnique() {
+        return unique;
+    }
+
+    @Override
+    public final int size() {
+        return size;
+    }
+
+    @Override
+    public final boolean contains(Object... probe) {
+        return find(probe) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final R get(Object... probe) {
+        int head = find(probe);
+
+        if (head < 0) {
+            return null;
+        }
+        else if (!unique && next[head] != 0) {
+            throw new InvalidResultException("Key " + Arrays.asList(probe) + " is not unique in Result for " + result);
+        }
+
+        return (R) records[head];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Result<R> getAll(Object... probe) {
+        Result<R> r = new ResultImpl<R>(result.getConfiguration(), new FieldList(result.getFields()));
+
+        for (int row = find(probe); row >= 0; row = unique ? -1 : next[row] - 1) {
+            r.add((R) records[row]);
+        }
+
+        return r;
+    }
+
+    @Override
+    public final int[] positions(Object... probe) {
+        int head = find(probe);
+
+        if (head < 0) {
+            return new int[0];
+        }
+        else if (unique) {
+            return new int[] { head };
+        }
+
+        int count = 0;
+        for (int row = head; row >= 0; row = next[row] - 1) {
+            count++;
+        }
+
+        int[] positions = new int[count];
+        int i = 0;
+        for (int row = head; row >= 0; row = next[row] - 1) {
+            positions[i++] = row;
+        }
+
+        return positions;
+    }
+
+    // -------------------------------------------------------------------------
+    // XXX: Hash table access
+    // -------------------------------------------------------------------------
+
+    /**
+     * Find the position of the first record matching the probe values
+     *
+     * @return The position or <code>-1</code> if no record matches
+     */
+    private final int find(Object[] probe) {
+        if (probe == null) {
+            probe = new Object[] { null };
+        }
+
+        if (probe.length != types.length) {
+            throw new IllegalArgumentException("Expected " + types.length + " key values, but got " + probe.length);
+        }
+
+        probe = convert(probe);
+
+        int hash = hash(probe, 0);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+
+        for (;;) {
+            int head = table[slot] - 1;
+
+            if (head < 0) {
+                return -1;
+            }
+            else if (hashes[head] == hash && equal(head, probe, 0)) {
+                return head;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Convert probe values to their key types, copying the probe array only
+     * if necessary
+     */
+    private final Object[] convert(Object[] probe) {
+        Object[] result = probe;
+
+        for (int i = 0; i < types.length; i++) {
+            Object value = probe[i];
+
+            if (value != null && !types[i].isInstance(value)) {
+                if (result == probe) {
+                    result = probe.clone();
+                }
+
+                result[i] = Convert.convert(value, types[i]);
+            }
+        }
+
+        return result;
+    }
+
+    private final int hash(Object[] array, int offset) {
+        int h = 1;
+
+        for (int i = 0; i < types.length; i++) {
+            Object value = array[offset + i];
+            h = 31 * h + (value == null ? 0 : value.hashCode());
+        }
+
+        // Spread the bits, as only the lower bits are used for addressing
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private final boolean equal(int row, Object[] array, int offset) {
+        int k = types.length;
+
+        for (int i = 0; i < k; i++) {
+            Object v1 = values[row * k + i];
+            Object v2 = array[offset + i];
+
+            if (v1 == null ? v2 != null : !v1.equals(v2)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,502 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.impl;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jooq.Field;
+import org.jooq.FieldProvider;
+import org.jooq.Record;
+import org.jooq.SortField;
+import org.jooq.SortOrder;
+
+/**
+ * Utilities for sorting {@link org.jooq.Result} records in memory
+ * <p>
+ * Large arrays are sorted in parallel by sorting partitions in a shared pool
+ * of daemon threads and merging them pairwise. Top-N sorts use a bounded
+ * binary heap of record positions. All sorts are stable.
+ *
+ * @author Lukas Eder
+ */
+final class ResultSorting {
+
+    /**
+     * The minimum number of records to sort per thread
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * Create a comparator for records from {@link SortField} specifications
+     * <p>
+     * Records are compared by the natural order of the sort fields' values.
+     * <code>null</code> values are sorted according to
+     * {@link SortField#nullsFirst()} and {@link SortField#nullsLast()}. If
+     * neither is specified, <code>null</code> is considered smaller than any
+     * other value, as in {@link org.jooq.Result#sortAsc(org.jooq.Field)}.
+     *
+     * @throws IllegalArgumentException If any of the sort fields' fields is
+     *             not contained in the argument field provider, or if its
+     *             type is not {@link Comparable}
+     */
+    static <R extends Record> Comparator<R> comparator(FieldProvider fields, SortField<?>... sortFields) {
+        int length = sortFields == null ? 0 : sortFields.length;
+        int[] indexes = new int[length];
+        int[] signs = new int[length];
+        int[] nulls = new int[length];
+
+        for (int i = 0; i < length; i++) {
+            if (!(sortFields[i] instanceof SortFieldImpl)) {
+                throw new IllegalArgumentException("Unsupported sort field : " + sortFields[i]);
+            }
+
+            SortFieldImpl<?> s = (SortFieldImpl<?>) sortFields[i];
+            int index = fields.getIndex(s.getField());
+
+            if (index < 0) {
+                throw new IllegalArgumentException("Field " + s.getField() + " is not contained in list");
+            }
+
+            checkComparable(s.getField(), s.getField().getType());
+
+            indexes[i] = index;
+            signs[i] = s.getOrder() == SortOrder.DESC ? -1 : 1;
+
+            // The comparison result for a null value and a non-null value
+            nulls[i] = s.isNullsFirst() ? -1 : s.isNullsLast() ? 1 : -signs[i];
+        }
+
+        return new SortFieldComparator<R>(indexes, signs, nulls);
+    }
+
+    /**
+     * Reject fields whose values cannot be compared, such as
+     * <code>byte[]</code>, {@link org.jooq.UDTRecord} or
+     * {@link org.jooq.ArrayRecord}. Fields of type {@link Object} are checked
+     * when their values are compared
+     */
+    private static void checkComparable(Field<?> field, Class<?> type) {
+        if (type != Object.class && !Comparable.class.isAssignableFrom(type)) {
+            throw new IllegalArgumentException("Cannot sort by field " + field + " of non-comparable type " + type.getName());
+        }
+    }
+
+    /**
+     * Stable-sort an array, in parallel if it is large enough
+     */
+    @SuppressWarnings("rawtypes")
+    static void sort(Object[] array, Comparator comparator) {
+        sort(array, comparator, Math.min(Runtime.getRuntime().availableProcessors(), array.length / PARALLEL_THRESHOLD));
+    }
+
+    /**
+     * Stable-sort an array in a given number of partitions
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    static void sort(final Object[] array, final Comparator comparator, int parts) {
+        int length = array.length;
+
+        if (parts <= 1 || parts > length) {
+            Arrays.sort(array, comparator);
+            return;
+        }
+
+        // Sort partitions
+        final int[] bounds = new int[parts + 1];
+        Runnable[] tasks = new Runnable[parts];
+
+        for (int i = 0; i <= parts; i++) {
+            bounds[i] = (int) ((long) i * length / parts);
+        }
+
+        for (int i = 0; i < parts; i++) {
+            final int from = bounds[i];
+            final int to = bounds[i + 1];
+
+            tasks[i] = new Runnable() {
+                @Override
+                public void run() {
+                    Arrays.sort(array, from, to, comparator);
+                }
+            };
+        }
+
+        run(tasks);
+
+        // Merge adjacent partitions pairwise, alternating between two buffers
+        Object[] source = array;
+        Object[] target = new Object[length];
+        int[] runs = bounds;
+
+        while (runs.length > 2) {
+            final Object[] s = source;
+            final Object[] t = target;
+            final int[] r = runs;
+            int pairs = (r.length - 1) / 2;
+            boolean odd = (r.length - 1) % 2 == 1;
+
+            tasks = new Runnable[pairs + (odd ? 1 : 0)];
+            int[] merged = new int[pairs + (odd ? 1 : 0) + 1];
+
+            for (int i = 0; i < pairs; i++) {
+                final int from = r[2 * i];
+                final int mid = r[2 * i + 1];
+                final int to = r[2 * i + 2];
+
+                merged[i] = from;
+                tasks[i] = new Runnable() {
+                    @Override
+                    public void run() {
+                        merge(s, t, from, mid, to, comparator);
+                    }
+                };
+            }
+
+            if (odd) {
+                final int from = r[r.length - 2];
+                final int to = r[r.length - 1];
+
+                merged[pairs] = from;
+                tasks[pairs] = new Runnable() {
+                    @Override
+                    public void run() {
+                        System.arraycopy(s, from, t, from, to - from);
+                    }
+                };
+            }
+
+            merged[merged.length - 1] = length;
+            run(tasks);
+
+            runs = merged;
+            source = target;
+            target = s;
+        }
+
+        if (source != array) {
+            System.arraycopy(source, 0, array, 0, length);
+        }
+    }
+
+    /**
+     * Get the first <code>n</code> elements of a list according to a
+     * comparator, in order
+     * <p>
+     * This is the same as stable-sorting a copy of the list, and taking the
+     * first <code>n</code> elements, but it only needs
+     * <code>O(size * log(n))</code> comparisons and <code>O(n)</code>
+     * memory.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    static Object[] top(List<?> list, int n, Comparator comparator) {
+        int size = list.size();
+
+        if (n <= 0) {
+            return new Object[0];
+        }
+        else if (n >= size) {
+            Object[] result = list.toArray();
+            Arrays.sort(result, comparator);
+            return result;
+        }
+
+        // A max-heap of the positions of the n smallest elements so far
+        Object[] elements = list.toArray();
+        int[] heap = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            heap[i] = i;
+            siftUp(heap, i, elements, comparator);
+        }
+
+        for (int i = n; i < size; i++) {
+
+            // Ties are resolved by position, so later elements never replace
+            // equal earlier elements
+            if (comparator.compare(elements[i], elements[heap[0]]) < 0) {
+                heap[0] = i;
+                siftDown(heap, n, elements, comparator);
+            }
+        }
+
+        // Sort the positions, as heap order is not sorted order
+        Integer[] positions = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            positions[i] = heap[i];
+        }
+
+        Arrays.sort(positions, new PositionComparator(elements, comparator));
+
+        Object[] result = new Object[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = elements[positions[i]];
+        }
+
+        return result;
+    }
+
+    /**
+     * Stable merge two sorted ranges from a source array into a target array
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static void merge(Object[] source, Object[] target, int from, int mid, int to, Comparator comparator) {
+        int i = from;
+        int j = mid;
+        int k = from;
+
+        while (i < mid && j < to) {
+            if (comparator.compare(source[j], source[i]) < 0) {
+                target[k++] = source[j++];
+            }
+            else {
+                target[k++] = source[i++];
+            }
+        }
+
+        System.arraycopy(source, i, target, k, mid - i);
+        System.arraycopy(source, j, target, k + mid - i, to - j);
+    }
+
+    /**
+     * Compare two positions by their elements, and then by their position
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static int compare(Object[] elements, int p1, int p2, Comparator comparator) {
+        int result = comparator.compare(elements[p1], elements[p2]);
+        return result != 0 ? result : p1 < p2 ? -1 : p1 == p2 ? 0 : 1;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static void siftUp(int[] heap, int i, Object[] elements, Comparator comparator) {
+        int position = heap[i];
+
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+
+            if (compare(elements, position, heap[parent], comparator) <= 0) {
+                break;
+            }
+
+            heap[i] = heap[parent];
+            i = parent;
+        }
+
+        heap[i] = position;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static void siftDown(int[] heap, int n, Object[] elements, Comparator comparator) {
+        int position = heap[0];
+        int i = 0;
+
+        for (;;) {
+            int child = 2 * i + 1;
+
+            if (child >= n) {
+                break;
+            }
+
+            if (child + 1 < n && compare(elements, heap[child + 1], heap[child], comparator) > 0) {
+                child++;
+            }
+
+            if (compare(elements, heap[child], position, comparator) <= 0) {
+                break;
+            }
+
+            heap[i] = heap[child];
+            i = child;
+        }
+
+        heap[i] = position;
+    }
+
+    /**
+     * Run tasks in parallel, running the first task in the calling thread
+     */
+    private static void run(Runnable[] tasks) {
+        Future<?>[] futures = new Future<?>[tasks.length];
+        Throwable error = null;
+
+        for (int i = 1; i < tasks.length; i++) {
+            futures[i] = Pool.POOL.submit(tasks[i]);
+        }
+
+        try {
+            tasks[0].run();
+        }
+        catch (Throwable e) {
+            error = e;
+        }
+
+        boolean interrupted = false;
+        for (int i = 1; i < tasks.length; i++) {
+            for (;;) {
+                try {
+                    futures[i].get();
+                    break;
+                }
+                catch (InterruptedException e) {
+                    interrupted = true;
+                }
+                catch (ExecutionException e) {
+                    if (error == null) {
+                        error = e.getCause();
+                    }
+
+                    break;
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        else if (error instanceof Error) {
+            throw (Error) error;
+        }
+    }
+
+    /**
+     * The lazily initialised thread pool shared by all parallel sorts
+     */
+    private static class Pool {
+
+        static final ExecutorService POOL = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "jOOQ result sort " + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+    }
+
+    /**
+     * A comparator for records, comparing several fields
+     */
+    private static class SortFieldComparator<R extends Record> implements Comparator<R> {
+
+        private final int[] indexes;
+
+        /**
+         * <code>-1</code> for descending order, <code>1</code> otherwise
+         */
+        private final int[] signs;
+
+        /**
+         * The comparison result for a <code>null</code> value and a
+         * non-<code>null</code> value
+         */
+        private final int[] nulls;
+
+        SortFieldComparator(int[] indexes, int[] signs, int[] nulls) {
+            this.indexes = indexes;
+            this.signs = signs;
+            this.nulls = nulls;
+        }
+
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        @Override
+        public int compare(R record1, R record2) {
+            for (int i = 0; i < indexes.length; i++) {
+                Object v1 = record1.getValue(indexes[i]);
+                Object v2 = record2.getValue(indexes[i]);
+                int result;
+
+                if (v1 == null) {
+                    result = v2 == null ? 0 : nulls[i];
+                }
+                else if (v2 == null) {
+                    result = -nulls[i];
+                }
+                else if (!(v1 instanceof Comparable)) {
+                    throw new IllegalArgumentException("Cannot sort by non-comparable value " + v1);
+                }
+                else if (signs[i] < 0) {
+                    result = ((Comparable) v2).compareTo(v1);
+                }
+                else {
+                    result = ((Comparable) v1).compareTo(v2);
+                }
+
+                if (result != 0) {
+                    return result;
+                }
+            }
+
+            return 0;
+        }
+    }
+
+    /**
+     * A comparator for positions, comparing the elements at those positions
+     */
+    @SuppressWarnings("rawtypes")
+    private static class PositionComparator implements Comparator<Integer> {
+
+        private final Object[]   elements;
+        private final Comparator comparator;
+
+        PositionComparator(Object[] elements, Comparator comparator) {
+            this.elements = elements;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public int compare(Integer p1, Integer p2) {
+            return ResultSorting.compare(elements, p1, p2, comparator);
+        }
+    }
+
+    private ResultSorting() {}
+}
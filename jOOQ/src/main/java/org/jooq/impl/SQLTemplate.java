@@ -0,0 +1,343 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.impl;
+
+import static org.jooq.impl.Utils.peek;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.jooq.BindContext;
+import org.jooq.QueryPart;
+import org.jooq.RenderContext;
+
+/**
+ * A parsed plain SQL string, as passed to {@link Factory#query(String, Object...)}
+ * and similar methods
+ * <p>
+ * Plain SQL strings are split into literal segments, bind value placeholders
+ * <code>?</code>, numbered placeholders <code>{n}</code> and
+ * <code>{keywords}</code> once. The resulting templates are cached by their
+ * SQL string, such that repeated rendering and binding of the same plain SQL
+ * need not scan it again. The cache is bounded, evicting arbitrary templates
+ * once it is full, as applications generating plain SQL dynamically might
+ * otherwise fill it up.
+ *
+ * @author Lukas Eder
+ */
+final class SQLTemplate {
+
+    /**
+     * The maximum number of cached templates
+     */
+    private static final int                       CACHE_SIZE          = 1000;
+
+    /**
+     * A pattern for the JDBC escape syntax
+     */
+    private static final Pattern                   JDBC_ESCAPE_PATTERN = Pattern.compile("\\{(fn|d|t|ts)\\b.*");
+
+    /**
+     * The cached templates. Lookups don't block each other
+     */
+    private static final Map<String, SQLTemplate>  CACHE               = new ConcurrentHashMap<String, SQLTemplate>();
+
+    private static final int                       LITERAL             = 0;
+    private static final int                       BIND_VALUE          = 1;
+    private static final int                       PLACEHOLDER         = 2;
+    private static final int                       KEYWORD             = 3;
+
+    /**
+     * The token types, one of {@link #LITERAL}, {@link #BIND_VALUE},
+     * {@link #PLACEHOLDER} and {@link #KEYWORD}
+     */
+    private final int[]                            types;
+
+    /**
+     * The literal SQL or the keyword of each token
+     */
+    private final String[]                         texts;
+
+    /**
+     * The index of the substitute of each {@link #PLACEHOLDER} token
+     */
+    private final int[]                            indexes;
+
+    /**
+     * Get a (possibly cached) template for a plain SQL string
+     */
+    static final SQLTemplate template(String sql) {
+        SQLTemplate result = CACHE.get(sql);
+
+        if (result == null) {
+            result = new SQLTemplate(sql);
+
+            // Make room for the new template. Concurrent callers may exceed
+            // the maximum size slightly
+            if (CACHE.size() >= CACHE_SIZE) {
+                Iterator<String> it = CACHE.keySet().iterator();
+
+                if (it.hasNext()) {
+                    it.next();
+                    it.remove();
+                }
+            }
+
+            CACHE.put(sql, result);
+        }
+
+        return result;
+    }
+
+    private SQLTemplate(String sql) {
+        List<Integer> t = new ArrayList<Integer>();
+        List<String> s = new ArrayList<String>();
+        List<Integer> n = new ArrayList<Integer>();
+        StringBuilder literal = new StringBuilder();
+        char[] sqlChars = sql.toCharArray();
+
+        for (int i = 0; i < sqlChars.length; i++) {
+
+            // [#1797] Skip content inside of single-line comments, e.g.
+            // select 1 x -- what's this ?'?
+            // from t_book -- what's that ?'?
+            // where id = ?
+            if (peek(sqlChars, i, "--")) {
+
+                // Consume the complete comment
+                for (; sqlChars[i] != '\r' && sqlChars[i] != '\n'; literal.append(sqlChars[i++]));
+
+                // Consume the newline character
+                literal.append(sqlChars[i]);
+            }
+
+            // [#1797] Skip content inside of multi-line comments, e.g.
+            // select 1 x /* what's this ?'?
+            // I don't know ?'? */
+            // from t_book where id = ?
+            else if (peek(sqlChars, i, "/*")) {
+
+                // Consume the complete comment
+                for (; !peek(sqlChars, i, "*/"); literal.append(sqlChars[i++]));
+
+                // Consume the comment delimiter
+                literal.append(sqlChars[i++]);
+                literal.append(sqlChars[i]);
+            }
+
+            // [#1031] [#1032] Skip ? inside of string literals, e.g.
+            // insert into x values ('Hello? Anybody out there?');
+            else if (sqlChars[i] == '\'') {
+
+                // Consume the initial string literal delimiter
+                literal.append(sqlChars[i++]);
+
+                // Consume the whole string literal
+                for (;;) {
+
+                    // Consume an escaped apostrophe
+                    if (peek(sqlChars, i, "''")) {
+                        literal.append(sqlChars[i++]);
+                    }
+
+                    // Break on the terminal string literal delimiter
+                    else if (peek(sqlChars, i, "'")) {
+                        break;
+                    }
+
+                    // Consume string literal content
+                    literal.append(sqlChars[i++]);
+                }
+
+                // Consume the terminal string literal delimiter
+                literal.append(sqlChars[i]);
+            }
+
+            // Bind variables only outside of string literals. Whether a ? is
+            // substituted depends on the number of substitutes, which is only
+            // known when rendering
+            else if (sqlChars[i] == '?') {
+                token(t, s, n, literal, LITERAL, null, 0);
+                token(t, s, n, literal, BIND_VALUE, null, 0);
+            }
+
+            // [#1432] Inline substitues for {numbered placeholders} outside of string literals
+            else if (sqlChars[i] == '{') {
+
+                // [#1461] Be careful not to match any JDBC escape syntax
+                if (JDBC_ESCAPE_PATTERN.matcher(sql.substring(i)).matches()) {
+                    literal.append(sqlChars[i]);
+                }
+
+                // Consume the whole token
+                else {
+                    int start = ++i;
+                    for (; i < sqlChars.length && sqlChars[i] != '}'; i++);
+                    int end = i;
+
+                    String token = sql.substring(start, end);
+                    token(t, s, n, literal, LITERAL, null, 0);
+
+                    // Try getting the {numbered placeholder}
+                    try {
+                        token(t, s, n, literal, PLACEHOLDER, null, Integer.valueOf(token));
+                    }
+
+                    // If the above failed, then we're dealing with a {keyword}
+                    catch (NumberFormatException e) {
+                        token(t, s, n, literal, KEYWORD, token, 0);
+                    }
+                }
+            }
+
+            // Any other character
+            else {
+                literal.append(sqlChars[i]);
+            }
+        }
+
+        token(t, s, n, literal, LITERAL, null, 0);
+
+        types = new int[t.size()];
+        texts = s.toArray(new String[s.size()]);
+        indexes = new int[n.size()];
+
+        for (int i = 0; i < types.length; i++) {
+            types[i] = t.get(i);
+            indexes[i] = n.get(i);
+        }
+    }
+
+    /**
+     * Add a token to the template being parsed. Literal tokens consume the
+     * pending literal SQL, if any.
+     */
+    private static final void token(
+        List<Integer> t,
+        List<String> s,
+        List<Integer> n,
+        StringBuilder literal,
+        int type,
+        String text,
+        int index) {
+
+        if (type == LITERAL) {
+            if (literal.length() == 0) {
+                return;
+            }
+
+            text = literal.toString();
+            literal.setLength(0);
+        }
+
+        t.add(type);
+        s.add(text);
+        n.add(index);
+    }
+
+    /**
+     * Render and bind a list of {@link QueryPart} to this template
+     *
+     * @see Utils#renderAndBind(RenderContext, BindContext, String, List)
+     */
+    final void renderAndBind(RenderContext render, BindContext bind, List<QueryPart> substitutes) {
+        int substituteIndex = 0;
+        int size = substitutes.size();
+
+        for (int i = 0; i < types.length; i++) {
+            switch (types[i]) {
+                case LITERAL: {
+                    if (render != null) {
+                        render.sql(texts[i]);
+                    }
+
+                    break;
+                }
+
+                case BIND_VALUE: {
+                    if (substituteIndex < size) {
+                        QueryPart substitute = substitutes.get(substituteIndex++);
+
+                        if (render != null) {
+                            if (render.inline()) {
+                                render.sql(substitute);
+                            }
+                            else {
+                                render.sql('?');
+                            }
+                        }
+
+                        if (bind != null) {
+                            bind.bind(substitute);
+                        }
+                    }
+                    else if (render != null) {
+                        render.sql('?');
+                    }
+
+                    break;
+                }
+
+                case PLACEHOLDER: {
+                    QueryPart substitute = substitutes.get(indexes[i]);
+
+                    if (render != null) {
+                        render.sql(substitute);
+                    }
+
+                    if (bind != null) {
+                        bind.bind(substitute);
+                    }
+
+                    break;
+                }
+
+                case KEYWORD: {
+                    if (render != null) {
+                        render.keyword(texts[i]);
+                    }
+
+                    break;
+                }
+            }
+        }
+    }
+}
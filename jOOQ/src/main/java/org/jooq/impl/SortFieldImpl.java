@@ -72,6 +72,18 @@ class SortFieldImpl<T> extends AbstractQueryPart implements SortField<T> {
         return order;
     }
 
+    final Field<T> getField() {
+        return field;
+    }
+
+    final boolean isNullsFirst() {
+        return nullsFirst;
+    }
+
+    final boolean isNullsLast() {
+        return nullsLast;
+    }
+
     @Override
     public final SortField<T> nullsFirst() {
         nullsFirst = true;
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.jooq.BindContext;
+import org.jooq.Configuration;
+import org.jooq.QueryPartInternal;
+import org.jooq.Table;
+
+/**
+ * A stub {@link BindContext} that collects the names of all tables referenced
+ * by a {@link org.jooq.QueryPart}
+ * <p>
+ * Plain SQL query parts may reference arbitrary tables. If any such part is
+ * encountered, the collected tables are flagged as incomplete.
+ *
+ * @author Lukas Eder
+ */
+class TableCollector extends AbstractBindContext {
+
+    /**
+     * Generated UID
+     */
+    private static final long serialVersionUID = 2395372460470163917L;
+
+    final Set<String>         result           = new LinkedHashSet<String>();
+    boolean                   plainSQL;
+
+    TableCollector(Configuration configuration) {
+        super(configuration);
+    }
+
+    /**
+     * The normalised name of a table, as collected by this context
+     */
+    static final String name(Table<?> table) {
+        return table.getName().toUpperCase();
+    }
+
+    /**
+     * Collecting tables does not bind any values to a statement
+     *
+     * @return <code>null</code>
+     */
+    @Override
+    public final PreparedStatement statement() {
+        return null;
+    }
+
+    @Override
+    protected final void bindInternal(QueryPartInternal internal) {
+        if (internal instanceof TableImpl) {
+            Table<?> aliased = ((TableImpl<?>) internal).getAliasedTable();
+
+            if (aliased != null) {
+                bind(aliased);
+            }
+            else {
+                result.add(name((Table<?>) internal));
+            }
+        }
+        else if (internal instanceof TableAlias) {
+            bind(((TableAlias<?>) internal).getAliasedTable());
+        }
+        else if (internal instanceof QualifiedTable) {
+            result.add(name((Table<?>) internal));
+        }
+        else {
+            if (internal instanceof SQLTable
+                || internal instanceof SQLQuery
+                || internal instanceof SQLResultQuery
+                || internal instanceof SQLField
+                || internal instanceof SQLCondition) {
+
+                plainSQL = true;
+            }
+
+            super.bindInternal(internal);
+        }
+    }
+
+    @Override
+    protected final BindContext bindValue0(Object value, Class<?> type) throws SQLException {
+        return this;
+    }
+}
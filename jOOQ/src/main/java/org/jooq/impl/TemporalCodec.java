@@ -0,0 +1,396 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.impl;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * A utility for decoding temporal values, which cannot be read directly from
+ * JDBC
+ * <p>
+ * Some databases (e.g. {@link org.jooq.SQLDialect#SQLITE}) store temporal
+ * values as text or numbers, other JDBC drivers (e.g.
+ * {@link org.jooq.SQLDialect#CUBRID}) produce imprecise values. This codec
+ * decodes such values without any intermediary objects, such as
+ * {@link java.text.SimpleDateFormat} or {@link java.util.Calendar}, except
+ * for dates before the Gregorian cutover. All methods are thread-safe.
+ * <p>
+ * Text values are expected in ISO format and interpreted in the default time
+ * zone, using the same hybrid Julian / Gregorian calendar as
+ * {@link Timestamp#valueOf(String)}:
+ * <ul>
+ * <li>Dates: <code>yyyy-MM-dd</code></li>
+ * <li>Times: <code>HH:mm:ss</code></li>
+ * <li>Timestamps: <code>yyyy-MM-dd HH:mm:ss.fffffffff</code>, where the
+ * separator may also be <code>T</code>, and the seconds and fractional
+ * seconds are optional</li>
+ * </ul>
+ * Any trailing characters are ignored. Local times that do not exist in the
+ * default time zone, because of a daylight saving gap, are moved forward
+ * across the gap. Numeric values are interpreted as milliseconds since the
+ * epoch.
+ * <p>
+ * The default time zone is looked up only once, as
+ * {@link TimeZone#getDefault()} returns a new clone on every call. Call
+ * {@link #resetZone()} after changing it.
+ *
+ * @author Lukas Eder
+ */
+final class TemporalCodec {
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_DAY    = 86400000L;
+
+    /**
+     * Dates before this year are subject to the Julian calendar, and are
+     * calculated through a {@link GregorianCalendar}
+     */
+    private static final int  GREGORIAN_YEAR    = 1583;
+
+    private static volatile TimeZone zone;
+
+    /**
+     * Decode a {@link Date} from its text representation
+     */
+    static final Date parseDate(String string) throws SQLException {
+        if (string == null) {
+            return null;
+        }
+        else if (isNumeric(string)) {
+            return new Date(Long.parseLong(string));
+        }
+
+        Parser p = new Parser(string);
+        int year = p.number('-');
+        int month = p.number('-');
+        int day = p.number((char) 0);
+
+        return new Date(p.millis(year, month, day, 0, 0, 0, 0));
+    }
+
+    /**
+     * Decode a {@link Time} from its text representation
+     */
+    static final Time parseTime(String string) throws SQLException {
+        if (string == null) {
+            return null;
+        }
+        else if (isNumeric(string)) {
+            return new Time(Long.parseLong(string));
+        }
+
+        Parser p = new Parser(string);
+        int hour = p.number(':');
+        int minute = p.number(':');
+        int second = p.number((char) 0);
+
+        return new Time(p.millis(1970, 1, 1, hour, minute, second, 0));
+    }
+
+    /**
+     * Decode a {@link Timestamp} from its text representation
+     */
+    static final Timestamp parseTimestamp(String string) throws SQLException {
+        if (string == null) {
+            return null;
+        }
+        else if (isNumeric(string)) {
+            return new Timestamp(Long.parseLong(string));
+        }
+
+        Parser p = new Parser(string);
+        int year = p.number('-');
+        int month = p.number('-');
+        int day = p.number((char) 0);
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int nanos = 0;
+
+        if (p.skip(' ') || p.skip('T')) {
+            hour = p.number(':');
+            minute = p.number((char) 0);
+
+            if (p.skip(':')) {
+                second = p.number((char) 0);
+
+                if (p.skip('.')) {
+                    nanos = p.nanos();
+                }
+            }
+        }
+
+        Timestamp result = new Timestamp(p.millis(year, month, day, hour, minute, second, 0));
+        result.setNanos(nanos);
+        return result;
+    }
+
+    /**
+     * Truncate the milliseconds of a {@link java.util.Date} in place
+     *
+     * @return The argument date
+     */
+    static final <D extends java.util.Date> D truncateMillis(D date) {
+        if (date != null) {
+            long millis = date.getTime();
+            long truncated = millis - floorMod(millis, MILLIS_PER_SECOND);
+
+            if (truncated != millis) {
+                date.setTime(truncated);
+            }
+        }
+
+        return date;
+    }
+
+    /**
+     * Discard the cached default time zone, e.g. after a call to
+     * {@link TimeZone#setDefault(TimeZone)}
+     */
+    static final void resetZone() {
+        zone = null;
+    }
+
+    private static final TimeZone zone() {
+        TimeZone result = zone;
+
+        if (result == null) {
+            result = TimeZone.getDefault();
+            zone = result;
+        }
+
+        return result;
+    }
+
+    private static final boolean isNumeric(String string) {
+        int length = string.length();
+        int i = 0;
+
+        if (length > 0 && string.charAt(0) == '-') {
+            i++;
+        }
+
+        if (i == length) {
+            return false;
+        }
+
+        for (; i < length; i++) {
+            char c = string.charAt(i);
+
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static final long floorMod(long x, long y) {
+        long mod = x % y;
+        return mod < 0 ? mod + y : mod;
+    }
+
+    /**
+     * The number of days since the epoch of a date in the proleptic Gregorian
+     * calendar
+     */
+    private static final long epochDay(long year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * A cursor over a temporal value's text representation
+     */
+    private static final class Parser {
+
+        private final String string;
+        private int          position;
+
+        Parser(String string) {
+            this.string = string;
+        }
+
+        /**
+         * Read an unsigned number, followed by a mandatory separator
+         *
+         * @param separator The separator, or <code>0</code> if no separator
+         *            is expected
+         */
+        int number(char separator) throws SQLException {
+            int start = position;
+            int result = 0;
+
+            while (position < string.length()) {
+                char c = string.charAt(position);
+
+                if (c < '0' || c > '9') {
+                    break;
+                }
+
+                result = result * 10 + (c - '0');
+                position++;
+            }
+
+            if (position == start || position - start > 9) {
+                throw error();
+            }
+
+            if (separator != 0 && !skip(separator)) {
+                throw error();
+            }
+
+            return result;
+        }
+
+        /**
+         * Read fractional seconds as nanoseconds. Digits beyond the
+         * nanosecond precision are ignored
+         */
+        int nanos() throws SQLException {
+            int start = position;
+            int result = 0;
+            int digits = 0;
+
+            while (position < string.length()) {
+                char c = string.charAt(position);
+
+                if (c < '0' || c > '9') {
+                    break;
+                }
+
+                if (digits < 9) {
+                    result = result * 10 + (c - '0');
+                    digits++;
+                }
+
+                position++;
+            }
+
+            if (position == start) {
+                throw error();
+            }
+
+            for (; digits < 9; digits++) {
+                result *= 10;
+            }
+
+            return result;
+        }
+
+        /**
+         * Skip an optional character
+         *
+         * @return Whether the character was skipped
+         */
+        boolean skip(char c) {
+            if (position < string.length() && string.charAt(position) == c) {
+                position++;
+                return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * Calculate milliseconds since the epoch from local date time fields
+         */
+        long millis(int year, int month, int day, int hour, int minute, int second, int millis) throws SQLException {
+            if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 59) {
+                throw error();
+            }
+
+            TimeZone z = zone();
+
+            // Dates before the Gregorian cutover use the Julian calendar
+            if (year < GREGORIAN_YEAR) {
+                Calendar calendar = new GregorianCalendar(z);
+                calendar.clear();
+                calendar.set(year, month - 1, day, hour, minute, second);
+                calendar.set(Calendar.MILLISECOND, millis);
+
+                return calendar.getTimeInMillis();
+            }
+
+            long local = epochDay(year, month, day) * MILLIS_PER_DAY
+                + ((hour * 60L + minute) * 60L + second) * MILLIS_PER_SECOND
+                + millis;
+
+            // The offsets in effect a day before and a day after the local
+            // time. They differ only around offset transitions
+            int earlier = z.getOffset(local - MILLIS_PER_DAY);
+            int later = z.getOffset(local + MILLIS_PER_DAY);
+
+            if (earlier == later) {
+                return local - earlier;
+            }
+
+            // Check whether the local time is valid with either offset. If it
+            // is valid with both offsets, the local time is ambiguous
+            long beforeTransition = local - earlier;
+            long afterTransition = local - later;
+
+            if (z.getOffset(afterTransition) == later) {
+                return afterTransition;
+            }
+            else if (z.getOffset(beforeTransition) == earlier) {
+                return beforeTransition;
+            }
+
+            // If it is valid with neither offset, the local time is in a gap.
+            // Move it forward across the gap
+            return Math.max(beforeTransition, afterTransition);
+        }
+
+        private SQLException error() {
+            return new SQLException("Could not parse date " + string);
+        }
+    }
+
+    private TemporalCodec() {}
+}
@@ -67,6 +67,16 @@ class Union<R extends Record> extends AbstractSelect<R> {
         this.queries.add(query2);
     }
 
+    /**
+     * Combine several queries with the same operator, without nesting them
+     */
+    Union(Configuration configuration, List<? extends Select<R>> queries, CombineOperator operator) {
+        super(configuration);
+
+        this.operator = operator;
+        this.queries = new ArrayList<Select<R>>(queries);
+    }
+
     @Override
     public final Class<? extends R> getRecordType() {
         return queries.get(0).getRecordType();
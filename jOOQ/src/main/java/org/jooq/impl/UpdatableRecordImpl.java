@@ -86,7 +86,7 @@ public class UpdatableRecordImpl<R extends UpdatableRecord<R>> extends TableReco
         RecordImpl result = new RecordImpl(new FieldList(getMainKey().getFields()));
 
         for (Field<?> field : result.getFields()) {
-            result.setValue(field, getValue0(field));
+            result.copyValue(result.getIndex(field), this, getIndex(field));
         }
 
         return result;
@@ -105,14 +105,30 @@ public class UpdatableRecordImpl<R extends UpdatableRecord<R>> extends TableReco
     @Override
     public final int store() {
         TableField<R, ?>[] keys = getMainKey().getFieldsArray();
+        int result = 0;
+
+        if (isStoreUpdate()) {
+            result = storeUpdate(keys);
+        }
+        else {
+            result = storeInsert();
+        }
+
+        setAllChanged(false);
+        return result;
+    }
+
+    /**
+     * Whether {@link #store()} executes an UPDATE, rather than an INSERT
+     */
+    final boolean isStoreUpdate() {
         boolean executeUpdate = false;
 
-        for (TableField<R, ?> field : keys) {
+        for (TableField<R, ?> field : getMainKey().getFieldsArray()) {
 
             // If any primary key value is null or changed, execute an insert
-            if (getValue(field) == null || getValue0(field).isChanged()) {
-                executeUpdate = false;
-                break;
+            if (getValue(field) == null || isChanged(getIndex(field))) {
+                return false;
             }
 
             // If primary key values are unchanged, updates are possible
@@ -121,17 +137,7 @@ public class UpdatableRecordImpl<R extends UpdatableRecord<R>> extends TableReco
             }
         }
 
-        int result = 0;
-
-        if (executeUpdate) {
-            result = storeUpdate(keys);
-        }
-        else {
-            result = storeInsert();
-        }
-
-        setAllChanged(false);
-        return result;
+        return executeUpdate;
     }
 
     private final int storeInsert() {
@@ -166,7 +172,7 @@ public class UpdatableRecordImpl<R extends UpdatableRecord<R>> extends TableReco
             if (key != null && !key.isEmpty()) {
                 if (insert.getReturnedRecord() != null) {
                     for (Field<?> field : key) {
-                        setValue(field, new Value<Object>(insert.getReturnedRecord().getValue(field)));
+                        initValue(field, insert.getReturnedRecord().getValue(field));
                     }
                 }
             }
@@ -195,8 +201,9 @@ public class UpdatableRecordImpl<R extends UpdatableRecord<R>> extends TableReco
             }
 
             // [#1547] Try fetching the Record again first, and compare this
-            // Record's original values with the ones in the database
-            else {
+            // Record's original values with the ones in the database. In batch
+            // stores, all records have been fetched and compared beforehand
+            else if (!TRUE.equals(create().getData(Utils.DATA_OMIT_CHECK_IF_CHANGED))) {
                 checkIfChanged(keys);
             }
         }
@@ -211,9 +218,11 @@ public class UpdatableRecordImpl<R extends UpdatableRecord<R>> extends TableReco
      * Set all changed values of this record to a store query
      */
     private final void addChangedValues(StoreQuery<R> query) {
-        for (Field<?> field : getFields()) {
-            if (getValue0(field).isChanged()) {
-                addValue(query, field);
+        int size = getFields().size();
+
+        for (int i = 0; i < size; i++) {
+            if (isChanged(i)) {
+                addValue(query, getField(i));
             }
         }
     }
@@ -309,9 +318,7 @@ public class UpdatableRecordImpl<R extends UpdatableRecord<R>> extends TableReco
         // [#673] If store() is called after delete(), a new INSERT should
         // be executed and the record should be recreated
         finally {
-            for (Field<?> field : getFields()) {
-                getValue0(field).setChanged(true);
-            }
+            setAllChanged(true);
         }
     }
 
@@ -324,7 +331,7 @@ public class UpdatableRecordImpl<R extends UpdatableRecord<R>> extends TableReco
             AbstractRecord record = (AbstractRecord) select.getResult().get(0);
 
             for (Field<?> field : getFields()) {
-                setValue(field, record.getValue0(field));
+                initValue(field, record.getValue(field));
             }
         }
         else {
@@ -388,7 +395,7 @@ public class UpdatableRecordImpl<R extends UpdatableRecord<R>> extends TableReco
         if (t != null) Utils.addCondition(query, this, t);
     }
 
-    private final boolean isTimestampOrVersionAvailable() {
+    final boolean isTimestampOrVersionAvailable() {
         UpdatableTable<R> table = getTable();
 
         return table.getRecordTimestamp() != null || table.getRecordVersion() != null;
@@ -414,17 +421,28 @@ public class UpdatableRecordImpl<R extends UpdatableRecord<R>> extends TableReco
             throw new DataChangedException("Database record no longer exists");
         }
 
-        for (Field<?> field : getFields()) {
-            Value<?> thisValue = getValue0(field);
-            Value<?> thatValue = ((AbstractRecord) record).getValue0(field);
+        if (!isOriginal((AbstractRecord) record)) {
+            throw new DataChangedException("Database record has been changed");
+        }
+    }
 
-            Object thisObject = thisValue.getOriginal();
-            Object thatObject = thatValue.getOriginal();
+    /**
+     * Check if a record fetched from the database still contains this record's
+     * original values.
+     */
+    final boolean isOriginal(AbstractRecord record) {
+        int size = getFields().size();
+
+        for (int i = 0; i < size; i++) {
+            Object thisObject = getOriginal(i);
+            Object thatObject = record.getOriginal(i);
 
             if (!StringUtils.equals(thisObject, thatObject)) {
-                throw new DataChangedException("Database record has been changed");
+                return false;
             }
         }
+
+        return true;
     }
 
     /**
@@ -452,11 +470,11 @@ public class UpdatableRecordImpl<R extends UpdatableRecord<R>> extends TableReco
     private final void setRecordVersionAndTimestamp(BigInteger version, Timestamp timestamp) {
         if (version != null) {
             TableField<R, ?> field = getTable().getRecordVersion();
-            setValue(field, new Value<Object>(field.getDataType().convert(version)));
+            initValue(field, field.getDataType().convert(version));
         }
         if (timestamp != null) {
             TableField<R, ?> field = getTable().getRecordTimestamp();
-            setValue(field, new Value<Object>(field.getDataType().convert(timestamp)));
+            initValue(field, field.getDataType().convert(timestamp));
         }
     }
 }
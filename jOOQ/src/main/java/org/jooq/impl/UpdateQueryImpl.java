@@ -130,7 +130,7 @@ class UpdateQueryImpl<R extends Record> extends AbstractStoreQuery<R> implements
     @Override
     public final void setRecord(R record) {
         for (Field<?> field : record.getFields()) {
-            if (((AbstractRecord) record).getValue0(field).isChanged()) {
+            if (((AbstractRecord) record).isChanged(record.getIndex(field))) {
                 addValue(record, field);
             }
         }
@@ -52,8 +52,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -62,22 +63,27 @@ import org.jooq.ArrayRecord;
 import org.jooq.Attachable;
 import org.jooq.AttachableInternal;
 import org.jooq.BindContext;
+import org.jooq.Condition;
 import org.jooq.Configuration;
 import org.jooq.DataType;
 import org.jooq.ExecuteContext;
 import org.jooq.ExecuteListener;
 import org.jooq.Field;
 import org.jooq.FieldProvider;
+import org.jooq.Operator;
 import org.jooq.Param;
 import org.jooq.QueryPart;
 import org.jooq.Record;
 import org.jooq.RenderContext;
 import org.jooq.SQLDialect;
 import org.jooq.Schema;
+import org.jooq.SimpleSelectQuery;
 import org.jooq.Table;
+import org.jooq.TableField;
 import org.jooq.UDT;
 import org.jooq.UDTRecord;
 import org.jooq.UpdatableRecord;
+import org.jooq.UpdatableTable;
 import org.jooq.conf.Settings;
 import org.jooq.exception.DataAccessException;
 import org.jooq.tools.Convert;
@@ -105,6 +111,32 @@ final class Utils {
      */
     static final String          DATA_OMIT_RETURNING_CLAUSE = "org.jooq.configuration.omit-returning-clause";
 
+    /**
+     * This constant is used internally by jOOQ to omit the
+     * <code>SELECT .. FOR UPDATE</code> statement executed per record with
+     * optimistic locking in {@link Executor#batchStore(UpdatableRecord...)}
+     * calls, where all records are checked in bulk
+     */
+    static final String          DATA_OMIT_CHECK_IF_CHANGED = "org.jooq.configuration.omit-check-if-changed";
+
+    /**
+     * This constant is used internally by jOOQ to store the
+     * {@link ResultCache} installed in a {@link Configuration}
+     */
+    static final String          DATA_RESULT_CACHE          = "org.jooq.configuration.result-cache";
+
+    /**
+     * This constant is used internally by jOOQ to store the
+     * {@link RecordCache} installed in a {@link Configuration}
+     */
+    static final String          DATA_RECORD_CACHE          = "org.jooq.configuration.record-cache";
+
+    /**
+     * This constant is used internally by jOOQ to store the
+     * {@link MetaCache} installed in a {@link Configuration}
+     */
+    static final String          DATA_META_CACHE            = "org.jooq.configuration.meta-cache";
+
     // ------------------------------------------------------------------------
     // Other constants
     // ------------------------------------------------------------------------
@@ -121,11 +153,6 @@ final class Utils {
      */
     private static Boolean       isJPAAvailable;
 
-    /**
-     * A pattern for the JDBC escape syntax
-     */
-    private static final Pattern JDBC_ESCAPE_PATTERN        = Pattern.compile("\\{(fn|d|t|ts)\\b.*");
-
     /**
      * Create a new Oracle-style VARRAY {@link ArrayRecord}
      */
@@ -408,122 +435,49 @@ final class Utils {
      * </ul>
      */
     static final void renderAndBind(RenderContext render, BindContext bind, String sql, List<QueryPart> substitutes) {
-        int substituteIndex = 0;
-        char[] sqlChars = sql.toCharArray();
-
-        // [#1593] Create a dummy renderer if we're in bind mode
-        if (render == null) render = new DefaultRenderContext(bind);
-
-        for (int i = 0; i < sqlChars.length; i++) {
-
-            // [#1797] Skip content inside of single-line comments, e.g.
-            // select 1 x -- what's this ?'?
-            // from t_book -- what's that ?'?
-            // where id = ?
-            if (peek(sqlChars, i, "--")) {
-
-                // Consume the complete comment
-                for (; sqlChars[i] != '\r' && sqlChars[i] != '\n'; render.sql(sqlChars[i++]));
-
-                // Consume the newline character
-                render.sql(sqlChars[i]);
-            }
-
-            // [#1797] Skip content inside of multi-line comments, e.g.
-            // select 1 x /* what's this ?'?
-            // I don't know ?'? */
-            // from t_book where id = ?
-            else if (peek(sqlChars, i, "/*")) {
-
-                // Consume the complete comment
-                for (; !peek(sqlChars, i, "*/"); render.sql(sqlChars[i++]));
-
-                // Consume the comment delimiter
-                render.sql(sqlChars[i++]);
-                render.sql(sqlChars[i]);
-            }
-
-            // [#1031] [#1032] Skip ? inside of string literals, e.g.
-            // insert into x values ('Hello? Anybody out there?');
-            else if (sqlChars[i] == '\'') {
-
-                // Consume the initial string literal delimiter
-                render.sql(sqlChars[i++]);
-
-                // Consume the whole string literal
-                for (;;) {
-
-                    // Consume an escaped apostrophe
-                    if (peek(sqlChars, i, "''")) {
-                        render.sql(sqlChars[i++]);
-                    }
-
-                    // Break on the terminal string literal delimiter
-                    else if (peek(sqlChars, i, "'")) {
-                        break;
-                    }
-
-                    // Consume string literal content
-                    render.sql(sqlChars[i++]);
-                }
-
-                // Consume the terminal string literal delimiter
-                render.sql(sqlChars[i]);
-            }
-
-            // Inline bind variables only outside of string literals
-            else if (sqlChars[i] == '?' && substituteIndex < substitutes.size()) {
-                QueryPart substitute = substitutes.get(substituteIndex++);
-
-                if (render.inline()) {
-                    render.sql(substitute);
-                }
-                else {
-                    render.sql(sqlChars[i]);
-                }
-
-                if (bind != null) {
-                    bind.bind(substitute);
-                }
-            }
+        SQLTemplate.template(sql).renderAndBind(render, bind, substitutes);
+    }
 
-            // [#1432] Inline substitues for {numbered placeholders} outside of string literals
-            else if (sqlChars[i] == '{') {
+    /**
+     * The maximum number of bind values that can be sent to the database with
+     * a single statement in a given dialect
+     */
+    static final int maxBindValues(SQLDialect dialect) {
+        switch (dialect) {
 
-                // [#1461] Be careful not to match any JDBC escape syntax
-                if (JDBC_ESCAPE_PATTERN.matcher(sql.substring(i)).matches()) {
-                    render.sql(sqlChars[i]);
-                }
+            // SQLITE_MAX_VARIABLE_NUMBER defaults to 999
+            case SQLITE:
+                return 999;
 
-                // Consume the whole token
-                else {
-                    int start = ++i;
-                    for (; i < sqlChars.length && sqlChars[i] != '}'; i++);
-                    int end = i;
+            // SQL Server allows for 2100 parameters, some of which may be used
+            // by the JDBC driver itself
+            case SQLSERVER:
+                return 2000;
 
-                    String token = sql.substring(start, end);
+            case ASE:
+                return 2000;
 
-                    // Try getting the {numbered placeholder}
-                    try {
-                        QueryPart substitute = substitutes.get(Integer.valueOf(token));
-                        render.sql(substitute);
+            // The Postgres protocol addresses bind values with 16 bit integers
+            default:
+                return Short.MAX_VALUE;
+        }
+    }
 
-                        if (bind != null) {
-                            bind.bind(substitute);
-                        }
-                    }
+    /**
+     * The maximum number of rows that are combined into a single multi-row
+     * <code>INSERT</code> statement in a given dialect
+     */
+    static final int maxMultiRowInserts(SQLDialect dialect) {
+        switch (dialect) {
 
-                    // If the above failed, then we're dealing with a {keyword}
-                    catch (NumberFormatException e) {
-                        render.keyword(token);
-                    }
-                }
-            }
+            // SQL Server's table value constructors are limited to 1000 rows
+            case SQLSERVER:
+                return 1000;
 
-            // Any other character
-            else {
-                render.sql(sqlChars[i]);
-            }
+            // Other databases have no such limit, but parsing very long VALUES
+            // clauses or UNION ALL simulations gets expensive
+            default:
+                return 1000;
         }
     }
 
@@ -1198,6 +1152,114 @@ final class Utils {
         }
     }
 
+    /**
+     * Fetch the database records corresponding to a set of records by their
+     * main key values.
+     * <p>
+     * Records are fetched in chunks with <code>IN</code> predicates, or with
+     * <code>OR</code>-connected predicates for composite keys, as large as the
+     * dialect's bind value limit permits.
+     *
+     * @return The fetched records, by their main key values, as returned from
+     *         {@link #keyValues(Record, List)}
+     */
+    static final <R extends Record> Map<List<Object>, R> fetchByKeys(Executor create, UpdatableTable<R> table, List<? extends Record> records, boolean forUpdate) {
+        List<TableField<R, ?>> key = table.getMainKey().getFields();
+        List<List<Object>> values = new ArrayList<List<Object>>(records.size());
+        Map<List<Object>, R> result = new HashMap<List<Object>, R>();
+
+        for (Record record : records) {
+            values.add(keyValues(record, key));
+        }
+
+        for (R record : fetchByValues(create, table, key, values, forUpdate)) {
+            result.put(keyValues(record, key), record);
+        }
+
+        return result;
+    }
+
+    /**
+     * Fetch the records of a table whose values for a set of key fields are
+     * contained in a collection of key values.
+     * <p>
+     * Records are fetched in chunks with <code>IN</code> predicates, or with
+     * <code>OR</code>-connected predicates for composite keys, as large as the
+     * dialect's bind value limit permits.
+     */
+    static final <R extends Record> List<R> fetchByValues(Executor create, Table<R> table, List<? extends Field<?>> key, Collection<List<Object>> values) {
+        return fetchByValues(create, table, key, values, false);
+    }
+
+    private static final <R extends Record> List<R> fetchByValues(Executor create, Table<R> table, List<? extends Field<?>> key, Collection<List<Object>> values, boolean forUpdate) {
+        List<List<Object>> list = new ArrayList<List<Object>>(values);
+        List<R> result = new ArrayList<R>();
+
+        int chunk = Math.max(1, maxBindValues(create.getDialect()) / key.size());
+        for (int i = 0; i < list.size(); i += chunk) {
+            SimpleSelectQuery<R> select = create.selectQuery(table);
+            select.addConditions(keyCondition(key, list.subList(i, Math.min(i + chunk, list.size()))));
+
+            // [#1547] SQLite doesn't support FOR UPDATE. CUBRID and SQL Server
+            // can simulate it, though!
+            if (forUpdate && create.getDialect() != SQLDialect.SQLITE) {
+                select.setForUpdate(true);
+            }
+
+            result.addAll(select.fetch());
+        }
+
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final Condition keyCondition(List<? extends Field<?>> key, List<List<Object>> values) {
+        if (key.size() == 1) {
+            Field<Object> field = (Field<Object>) key.get(0);
+            List<Object> list = new ArrayList<Object>(values.size());
+
+            for (List<Object> value : values) {
+                list.add(value.get(0));
+            }
+
+            return field.in(list);
+        }
+        else {
+            List<Condition> result = new ArrayList<Condition>(values.size());
+
+            // Combine conditions only once, as combining them one by one
+            // copies all previously combined conditions every time
+            for (List<Object> value : values) {
+                List<Condition> condition = new ArrayList<Condition>(key.size());
+
+                for (int i = 0; i < key.size(); i++) {
+                    condition.add(((Field<Object>) key.get(i)).equal(value.get(i)));
+                }
+
+                result.add(new CombinedCondition(Operator.AND, condition));
+            }
+
+            return new CombinedCondition(Operator.OR, result);
+        }
+    }
+
+    /**
+     * Extract a record's values for a set of key fields, suitable for use as a
+     * hash map key.
+     * <p>
+     * Values are converted to the key fields' types, such that keys of records
+     * holding e.g. <code>Long</code> and <code>Integer</code> values are equal
+     */
+    static final List<Object> keyValues(Record record, List<? extends Field<?>> key) {
+        List<Object> result = new ArrayList<Object>(key.size());
+
+        for (Field<?> field : key) {
+            result.add(field.getDataType().convert(record.getValue(field)));
+        }
+
+        return result;
+    }
+
     /**
      * Add a field condition to a query
      */
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.tools.metrics;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.jooq.SQLDialect;
+import org.jooq.tools.JooqLogger;
+
+/**
+ * A utility collecting execution plans for {@link SlowQuery} instances
+ * <p>
+ * Plans are collected asynchronously by a single daemon thread. Pending
+ * requests are discarded if that thread cannot keep up. Plain JDBC is used on
+ * a separate connection, such that no {@link org.jooq.ExecuteListener} is
+ * triggered and the executing connection's transaction is not affected.
+ *
+ * @author Lukas Eder
+ */
+final class ExplainPlans {
+
+    private static final JooqLogger      log          = JooqLogger.getLogger(ExplainPlans.class);
+
+    /**
+     * The maximum number of pending plan requests
+     */
+    private static final int             MAX_PENDING  = 16;
+
+    private static final AtomicLong      STATEMENT_ID = new AtomicLong();
+    private static final ExecutorService EXECUTOR     = new ThreadPoolExecutor(
+        1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<Runnable>(MAX_PENDING),
+        new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "jOOQ explain plan collector");
+                thread.setDaemon(true);
+                return thread;
+            }
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+
+    /**
+     * Whether execution plans can be collected for a given dialect
+     */
+    static boolean supports(SQLDialect dialect) {
+        if (dialect == null) {
+            return false;
+        }
+
+        switch (dialect) {
+            case H2:
+            case HSQLDB:
+            case MYSQL:
+            case ORACLE:
+            case POSTGRES:
+            case SQLITE:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Schedule the collection of a query's execution plan
+     *
+     * @return Whether the collection was scheduled. Requests are discarded if
+     *         too many requests are pending.
+     */
+    static boolean explain(final SlowQuery query, final SQLDialect dialect, final DataSource dataSource) {
+        try {
+            EXECUTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    String sql = query.getInlinedSQL() != null ? query.getInlinedSQL() : query.getSql();
+
+                    try {
+                        query.setPlan(plan(dialect, dataSource, sql));
+                    }
+                    catch (Exception e) {
+                        log.debug("Cannot collect execution plan", e);
+                        query.setPlan("Cannot collect execution plan: " + e.getMessage());
+                    }
+                }
+            });
+
+            return true;
+        }
+        catch (RejectedExecutionException e) {
+            log.debug("Discarding execution plan request", query.getFingerprint());
+            return false;
+        }
+    }
+
+    private static String plan(SQLDialect dialect, DataSource dataSource, String sql) throws SQLException {
+        Connection connection = dataSource.getConnection();
+
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+
+            // Explaining statements must not have any side-effects. Some
+            // databases (e.g. Oracle) write plans to tables, though
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+
+            try {
+                Statement stmt = connection.createStatement();
+
+                try {
+                    switch (dialect) {
+                        case ORACLE: {
+                            String id = "jOOQ-" + STATEMENT_ID.incrementAndGet();
+
+                            stmt.execute("explain plan set statement_id = '" + id + "' for " + sql);
+                            return format(stmt.executeQuery(
+                                "select plan_table_output from table(dbms_xplan.display(null, '" + id + "'))"));
+                        }
+
+                        case HSQLDB:
+                            return format(stmt.executeQuery("explain plan for " + sql));
+
+                        case SQLITE:
+                            return format(stmt.executeQuery("explain query plan " + sql));
+
+                        default:
+                            return format(stmt.executeQuery("explain " + sql));
+                    }
+                }
+                finally {
+                    stmt.close();
+                }
+            }
+            finally {
+                connection.rollback();
+
+                if (autoCommit) {
+                    connection.setAutoCommit(true);
+                }
+            }
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Format a plan's rows, one per line, with tab-separated columns
+     */
+    private static String format(ResultSet rs) throws SQLException {
+        try {
+            ResultSetMetaData meta = rs.getMetaData();
+            int columns = meta.getColumnCount();
+            StringBuilder sb = new StringBuilder();
+
+            // Tabular plans (e.g. MySQL, SQLite) are hard to read without
+            // their column names
+            if (columns > 1) {
+                for (int i = 1; i <= columns; i++) {
+                    if (i > 1) {
+                        sb.append('\t');
+                    }
+
+                    sb.append(meta.getColumnLabel(i));
+                }
+            }
+
+            while (rs.next()) {
+                if (sb.length() > 0) {
+                    sb.append('\n');
+                }
+
+                for (int i = 1; i <= columns; i++) {
+                    if (i > 1) {
+                        sb.append('\t');
+                    }
+
+                    sb.append(rs.getString(i));
+                }
+            }
+
+            return sb.toString();
+        }
+        finally {
+            rs.close();
+        }
+    }
+
+    private ExplainPlans() {}
+}
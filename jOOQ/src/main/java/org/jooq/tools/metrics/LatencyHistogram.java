@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.tools.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds
+ * <p>
+ * Like an HDR histogram, this histogram uses log-linear buckets: every power
+ * of two is divided into {@link #SUB_BUCKETS} linear sub-buckets. This
+ * guarantees a relative precision of about 12.5% over the whole range of
+ * <code>long</code> values, with a fixed, small memory footprint. Recording a
+ * value is wait-free except for maintaining the maximum.
+ *
+ * @author Lukas Eder
+ */
+public final class LatencyHistogram {
+
+    private static final int  SUB_BUCKET_BITS = 3;
+    private static final int  SUB_BUCKETS     = 1 << SUB_BUCKET_BITS;
+    private static final int  BUCKETS         = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts      = new AtomicLongArray(BUCKETS);
+    private final AtomicLong      count       = new AtomicLong();
+    private final AtomicLong      sum         = new AtomicLong();
+    private final AtomicLong      max         = new AtomicLong();
+
+    /**
+     * Record a latency in nanoseconds. Negative values are recorded as
+     * <code>0</code>.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+
+        counts.incrementAndGet(index(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+
+        long m;
+        while (value > (m = max.get())) {
+            if (max.compareAndSet(m, value)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * The number of recorded values
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * The sum of all recorded values in nanoseconds
+     */
+    public long getSum() {
+        return sum.get();
+    }
+
+    /**
+     * The maximum recorded value in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * The mean recorded value in nanoseconds, or <code>0</code> if no values
+     * were recorded
+     */
+    public long getMean() {
+        long c = count.get();
+        return c == 0 ? 0 : sum.get() / c;
+    }
+
+    /**
+     * An approximation of a percentile of the recorded values in nanoseconds
+     *
+     * @param percentile The percentile between <code>0.0</code> and
+     *            <code>100.0</code>
+     * @return The upper bound of the bucket containing the percentile, or
+     *         <code>0</code> if no values were recorded
+     */
+    public long getPercentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * total);
+        rank = Math.max(1, rank);
+
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Reset this histogram
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+
+        return (long) (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    static long upperBound(int index) {
+        return index + 1 < BUCKETS ? lowerBound(index + 1) - 1 : Long.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount()
+            + ", mean=" + getMean()
+            + ", p50=" + getPercentile(50)
+            + ", p99=" + getPercentile(99)
+            + ", max=" + getMax();
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.tools.metrics;
+
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.jooq.conf.Settings;
+import org.jooq.impl.DefaultExecuteListener;
+
+/**
+ * An {@link ExecuteListener} collecting per-statement metrics into a
+ * {@link MetricsRegistry}
+ * <p>
+ * Statements are grouped by their {@link SQLFingerprint}. For every
+ * statement, latencies of all execution {@link Phase}s are recorded in
+ * histograms, along with execution, error and fetched row counts. Add this
+ * listener to {@link Settings#getExecuteListeners()} to collect metrics into
+ * the {@link MetricsRegistry#getDefault()} registry. Subclasses may override
+ * {@link #registry()} to collect metrics elsewhere.
+ *
+ * @author Lukas Eder
+ */
+public class MetricsListener extends DefaultExecuteListener {
+
+    private StatementMetrics metrics;
+
+    private long             renderStart;
+    private long             prepareStart;
+    private long             bindStart;
+    private long             executeStart;
+    private long             fetchStart;
+    private long             rows;
+
+    /**
+     * The registry collecting metrics from this listener
+     */
+    protected MetricsRegistry registry() {
+        return MetricsRegistry.getDefault();
+    }
+
+    @Override
+    public void renderStart(ExecuteContext ctx) {
+        renderStart = System.nanoTime();
+    }
+
+    @Override
+    public void renderEnd(ExecuteContext ctx) {
+        record(ctx, Phase.RENDER, renderStart);
+    }
+
+    @Override
+    public void prepareStart(ExecuteContext ctx) {
+        prepareStart = System.nanoTime();
+    }
+
+    @Override
+    public void prepareEnd(ExecuteContext ctx) {
+        record(ctx, Phase.PREPARE, prepareStart);
+    }
+
+    @Override
+    public void bindStart(ExecuteContext ctx) {
+        bindStart = System.nanoTime();
+    }
+
+    @Override
+    public void bindEnd(ExecuteContext ctx) {
+        record(ctx, Phase.BIND, bindStart);
+    }
+
+    @Override
+    public void executeStart(ExecuteContext ctx) {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void executeEnd(ExecuteContext ctx) {
+        StatementMetrics m = metrics(ctx);
+
+        if (m != null) {
+            m.recordExecution();
+            m.record(Phase.EXECUTE, System.nanoTime() - executeStart);
+        }
+    }
+
+    @Override
+    public void fetchStart(ExecuteContext ctx) {
+        fetchStart = System.nanoTime();
+        rows = 0;
+    }
+
+    @Override
+    public void recordEnd(ExecuteContext ctx) {
+        rows++;
+    }
+
+    @Override
+    public void fetchEnd(ExecuteContext ctx) {
+        StatementMetrics m = metrics(ctx);
+
+        if (m != null) {
+            m.record(Phase.FETCH, System.nanoTime() - fetchStart);
+            m.recordRowsFetched(rows);
+        }
+    }
+
+    @Override
+    public void exception(ExecuteContext ctx) {
+        StatementMetrics m = metrics(ctx);
+
+        if (m != null) {
+            m.recordError();
+        }
+    }
+
+    private void record(ExecuteContext ctx, Phase phase, long start) {
+        StatementMetrics m = metrics(ctx);
+
+        if (m != null) {
+            m.record(phase, System.nanoTime() - start);
+        }
+    }
+
+    private StatementMetrics metrics(ExecuteContext ctx) {
+        if (metrics == null) {
+            String sql = ctx.sql();
+
+            // [#1529] Batch queries may not have a single SQL string
+            if (sql == null) {
+                String[] batchSQL = ctx.batchSQL();
+
+                if (batchSQL.length > 0) {
+                    sql = batchSQL[0];
+                }
+            }
+
+            if (sql != null) {
+                metrics = registry().metrics(sql);
+            }
+        }
+
+        return metrics;
+    }
+}
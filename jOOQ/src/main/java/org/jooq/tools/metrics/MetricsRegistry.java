@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.tools.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A registry of {@link StatementMetrics}, keyed by statement fingerprint
+ * <p>
+ * The registry tracks at most a configurable number of distinct fingerprints.
+ * Statements exceeding that number are accounted for in a single
+ * {@link #OTHER} entry, in order to bound memory consumption when a lot of
+ * dynamic SQL is executed.
+ *
+ * @author Lukas Eder
+ * @see MetricsListener
+ */
+public class MetricsRegistry implements MetricsRegistryMXBean {
+
+    /**
+     * The fingerprint of metrics collected for statements exceeding the
+     * maximum number of tracked fingerprints
+     */
+    public static final String                            OTHER                  = "<other>";
+
+    /**
+     * The default maximum number of tracked fingerprints
+     */
+    public static final int                               DEFAULT_MAX_STATEMENTS = 10000;
+
+    private static final MetricsRegistry                  DEFAULT                = new MetricsRegistry();
+
+    private final ConcurrentMap<String, StatementMetrics> metrics;
+    private final int                                     maxStatements;
+    private final StatementMetrics                        other;
+
+    /**
+     * Create a new registry tracking up to {@link #DEFAULT_MAX_STATEMENTS}
+     * fingerprints
+     */
+    public MetricsRegistry() {
+        this(DEFAULT_MAX_STATEMENTS);
+    }
+
+    /**
+     * Create a new registry
+     *
+     * @param maxStatements The maximum number of tracked fingerprints
+     */
+    public MetricsRegistry(int maxStatements) {
+        this.maxStatements = maxStatements;
+        this.metrics = new ConcurrentHashMap<String, StatementMetrics>();
+        this.other = new StatementMetrics(OTHER);
+    }
+
+    /**
+     * The registry used by the default {@link MetricsListener}
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Get the metrics for a SQL string, creating them if necessary
+     *
+     * @param sql The SQL string, which is normalised using
+     *            {@link SQLFingerprint#of(String)}
+     */
+    public StatementMetrics metrics(String sql) {
+        String fingerprint = SQLFingerprint.of(sql);
+        StatementMetrics result = metrics.get(fingerprint);
+
+        if (result == null) {
+            if (metrics.size() >= maxStatements) {
+                return other;
+            }
+
+            result = new StatementMetrics(fingerprint);
+            StatementMetrics previous = metrics.putIfAbsent(fingerprint, result);
+
+            if (previous != null) {
+                result = previous;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the metrics for a fingerprint
+     *
+     * @return The metrics, or <code>null</code> if no such fingerprint is
+     *         being tracked.
+     */
+    public StatementMetrics getMetrics(String fingerprint) {
+        if (OTHER.equals(fingerprint)) {
+            return other;
+        }
+
+        return metrics.get(fingerprint);
+    }
+
+    /**
+     * Get all live metrics, including the {@link #OTHER} entry, if it has
+     * recorded any executions
+     */
+    public Collection<StatementMetrics> getMetrics() {
+        List<StatementMetrics> result = new ArrayList<StatementMetrics>(metrics.values());
+
+        if (other.getExecutions() > 0 || other.getErrors() > 0) {
+            result.add(other);
+        }
+
+        return Collections.unmodifiableList(result);
+    }
+
+    @Override
+    public int getFingerprintCount() {
+        return metrics.size();
+    }
+
+    @Override
+    public String[] getFingerprints() {
+        return metrics.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public StatementStatistics[] getStatistics() {
+        Collection<StatementMetrics> all = getMetrics();
+        StatementStatistics[] result = new StatementStatistics[all.size()];
+
+        int i = 0;
+        for (StatementMetrics m : all) {
+            result[i++] = m.getStatistics();
+        }
+
+        return result;
+    }
+
+    @Override
+    public StatementStatistics[] getSlowestStatements(int limit) {
+        return top(limit, new Comparator<StatementMetrics>() {
+            @Override
+            public int compare(StatementMetrics o1, StatementMetrics o2) {
+                return compareLongs(total(o2), total(o1));
+            }
+
+            private long total(StatementMetrics m) {
+                long result = 0;
+
+                for (Phase phase : Phase.values()) {
+                    result += m.getHistogram(phase).getSum();
+                }
+
+                return result;
+            }
+        });
+    }
+
+    @Override
+    public StatementStatistics[] getHottestStatements(int limit) {
+        return top(limit, new Comparator<StatementMetrics>() {
+            @Override
+            public int compare(StatementMetrics o1, StatementMetrics o2) {
+                return compareLongs(o2.getExecutions(), o1.getExecutions());
+            }
+        });
+    }
+
+    private StatementStatistics[] top(int limit, Comparator<StatementMetrics> comparator) {
+        StatementMetrics[] all = getMetrics().toArray(new StatementMetrics[0]);
+        Arrays.sort(all, comparator);
+
+        StatementStatistics[] result = new StatementStatistics[Math.max(0, Math.min(limit, all.length))];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = all[i].getStatistics();
+        }
+
+        return result;
+    }
+
+    private static int compareLongs(long l1, long l2) {
+        return l1 < l2 ? -1 : l1 == l2 ? 0 : 1;
+    }
+
+    @Override
+    public void reset() {
+        metrics.clear();
+        other.reset();
+    }
+
+    /**
+     * Register this registry with the platform MBean server
+     *
+     * @param name The name of this registry, used in the
+     *            <code>org.jooq:type=Metrics,name=[name]</code> object name
+     * @return The object name under which this registry was registered
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("org.jooq:type=Metrics,name=" + ObjectName.quote(name));
+
+            server.registerMBean(this, objectName);
+            return objectName;
+        }
+        catch (Exception e) {
+            throw new IllegalStateException("Cannot register metrics MBean " + name, e);
+        }
+    }
+
+    /**
+     * Unregister this registry from the platform MBean server
+     *
+     * @param objectName The object name returned from
+     *            {@link #registerMBean(String)}
+     */
+    public void unregisterMBean(ObjectName objectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        }
+        catch (Exception e) {
+            throw new IllegalStateException("Cannot unregister metrics MBean " + objectName, e);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.tools.metrics;
+
+/**
+ * A normaliser for SQL strings
+ * <p>
+ * Statements that differ only in their literals or bind values share the same
+ * fingerprint. Normalisation consists of:
+ * <ul>
+ * <li>Replacing string and numeric literals by <code>?</code></li>
+ * <li>Replacing named (<code>:name</code>) and numbered (<code>$1</code>) bind
+ * markers by <code>?</code></li>
+ * <li>Collapsing <code>IN (?, ?, ...)</code> lists to <code>IN (?)</code></li>
+ * <li>Removing comments and collapsing whitespace</li>
+ * </ul>
+ * Quoted identifiers are retained as they are.
+ *
+ * @author Lukas Eder
+ */
+public final class SQLFingerprint {
+
+    /**
+     * Compute the fingerprint of a SQL string
+     */
+    public static String of(String sql) {
+        if (sql == null) {
+            return null;
+        }
+
+        final int length = sql.length();
+        final StringBuilder sb = new StringBuilder(length);
+
+        // Positions of unclosed opening parentheses in sb
+        int[] parens = new int[8];
+        int depth = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = sql.charAt(i);
+
+            // [-- comment]
+            if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                while (i + 1 < length && sql.charAt(i + 1) != '\n') {
+                    i++;
+                }
+
+                space(sb);
+            }
+
+            // [/* comment */]
+            else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                i += 2;
+                while (i + 1 < length && !(sql.charAt(i) == '*' && sql.charAt(i + 1) == '/')) {
+                    i++;
+                }
+
+                i++;
+                space(sb);
+            }
+
+            // [String literal], with escaped apostrophes
+            else if (c == '\'') {
+                while (++i < length) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                            i++;
+                        }
+                        else {
+                            break;
+                        }
+                    }
+                }
+
+                sb.append('?');
+            }
+
+            // [Quoted identifiers]
+            else if (c == '"' || c == '`' || c == '[') {
+                char close = (c == '[') ? ']' : c;
+
+                sb.append(c);
+                while (++i < length) {
+                    char d = sql.charAt(i);
+                    sb.append(d);
+
+                    if (d == close) {
+                        break;
+                    }
+                }
+            }
+
+            // [Whitespace]
+            else if (Character.isWhitespace(c)) {
+                space(sb);
+            }
+
+            // [Numeric literals], unless they are part of an identifier
+            else if (Character.isDigit(c) && !isIdentifierPart(sb)) {
+                while (i + 1 < length && isNumberPart(sql.charAt(i + 1))) {
+                    i++;
+                }
+
+                sb.append('?');
+            }
+
+            // [Named or numbered bind markers]
+            else if ((c == ':' || c == '$')
+                    && i + 1 < length
+                    && Character.isJavaIdentifierPart(sql.charAt(i + 1))
+                    && !(c == ':' && i > 0 && sql.charAt(i - 1) == ':')
+                    && !(c == ':' && sql.charAt(i + 1) == ':')
+                    && !isIdentifierPart(sb)) {
+
+                while (i + 1 < length && Character.isJavaIdentifierPart(sql.charAt(i + 1))) {
+                    i++;
+                }
+
+                sb.append('?');
+            }
+
+            else if (c == '(') {
+                if (depth == parens.length) {
+                    int[] copy = new int[depth * 2];
+                    System.arraycopy(parens, 0, copy, 0, depth);
+                    parens = copy;
+                }
+
+                parens[depth++] = sb.length();
+                sb.append(c);
+            }
+
+            else if (c == ')') {
+                if (depth > 0) {
+                    collapseInList(sb, parens[--depth]);
+                }
+
+                trimSpace(sb);
+                sb.append(c);
+            }
+
+            else if (c == ',') {
+                trimSpace(sb);
+                sb.append(c);
+            }
+
+            else {
+                sb.append(c);
+            }
+        }
+
+        trimSpace(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Collapse a list of bind markers to a single one, if the list is an
+     * argument to an <code>IN</code> predicate.
+     */
+    private static void collapseInList(StringBuilder sb, int open) {
+        int markers = 0;
+
+        for (int i = open + 1; i < sb.length(); i++) {
+            char c = sb.charAt(i);
+
+            if (c == '?') {
+                markers++;
+            }
+            else if (c != ',' && c != ' ') {
+                return;
+            }
+        }
+
+        if (markers == 0) {
+            return;
+        }
+
+        // Check for the preceding IN keyword
+        int i = open - 1;
+        if (i >= 0 && sb.charAt(i) == ' ') {
+            i--;
+        }
+
+        if (i >= 1
+                && Character.toLowerCase(sb.charAt(i)) == 'n'
+                && Character.toLowerCase(sb.charAt(i - 1)) == 'i'
+                && (i == 1 || !Character.isJavaIdentifierPart(sb.charAt(i - 2)))) {
+
+            sb.setLength(open + 1);
+            sb.append('?');
+        }
+    }
+
+    private static boolean isIdentifierPart(StringBuilder sb) {
+        return sb.length() > 0 && Character.isJavaIdentifierPart(sb.charAt(sb.length() - 1));
+    }
+
+    private static boolean isNumberPart(char c) {
+        return Character.isDigit(c) || c == '.' || c == 'e' || c == 'E';
+    }
+
+    private static void space(StringBuilder sb) {
+        int length = sb.length();
+
+        if (length > 0 && sb.charAt(length - 1) != ' ' && sb.charAt(length - 1) != '(') {
+            sb.append(' ');
+        }
+    }
+
+    private static void trimSpace(StringBuilder sb) {
+        int length = sb.length();
+
+        if (length > 0 && sb.charAt(length - 1) == ' ') {
+            sb.setLength(length - 1);
+        }
+    }
+
+    /**
+     * No instances
+     */
+    private SQLFingerprint() {}
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.tools.metrics;
+
+import java.beans.ConstructorProperties;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * A statement captured by the {@link SlowQueryListener}
+ * <p>
+ * All durations are in nanoseconds. The execution plan is collected
+ * asynchronously and may thus become available only some time after the
+ * statement was captured, if at all.
+ *
+ * @author Lukas Eder
+ */
+public final class SlowQuery implements Serializable {
+
+    /**
+     * Generated UID
+     */
+    private static final long serialVersionUID = 4711962318746950212L;
+
+    private final String      fingerprint;
+    private final String      sql;
+    private final String      inlinedSQL;
+    private final String      dialect;
+    private final long        timestamp;
+    private final long        totalTime;
+    private final long[]      phaseTimes;
+    private volatile String   plan;
+
+    @ConstructorProperties({ "fingerprint", "sql", "inlinedSQL", "dialect", "timestamp", "totalTime", "phaseTimes", "plan" })
+    public SlowQuery(String fingerprint, String sql, String inlinedSQL, String dialect, long timestamp, long totalTime,
+        long[] phaseTimes, String plan) {
+
+        this.fingerprint = fingerprint;
+        this.sql = sql;
+        this.inlinedSQL = inlinedSQL;
+        this.dialect = dialect;
+        this.timestamp = timestamp;
+        this.totalTime = totalTime;
+        this.phaseTimes = phaseTimes.clone();
+        this.plan = plan;
+    }
+
+    /**
+     * The statement's {@link SQLFingerprint}
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * The SQL string as executed, possibly containing bind variables
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * The SQL string with inlined bind values, or <code>null</code> if the
+     * statement was not executed from a {@link org.jooq.Query}
+     */
+    public String getInlinedSQL() {
+        return inlinedSQL;
+    }
+
+    /**
+     * The name of the {@link org.jooq.SQLDialect} the statement was executed
+     * with
+     */
+    public String getDialect() {
+        return dialect;
+    }
+
+    /**
+     * The time the statement was captured at, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * The total execution time of the statement
+     */
+    public long getTotalTime() {
+        return totalTime;
+    }
+
+    /**
+     * The execution time of each {@link Phase}, indexed by
+     * {@link Phase#ordinal()}
+     */
+    public long[] getPhaseTimes() {
+        return phaseTimes.clone();
+    }
+
+    /**
+     * The execution time of a given {@link Phase}
+     */
+    public long getPhaseTime(Phase phase) {
+        return phaseTimes[phase.ordinal()];
+    }
+
+    /**
+     * The statement's execution plan, or <code>null</code> if no plan has
+     * been collected (yet)
+     */
+    public String getPlan() {
+        return plan;
+    }
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(new Date(timestamp)).append(" [total=").append(totalTime);
+        for (Phase phase : Phase.values()) {
+            sb.append(", ").append(phase.name().toLowerCase()).append("=").append(phaseTimes[phase.ordinal()]);
+        }
+        sb.append("]\n").append(inlinedSQL != null ? inlinedSQL : sql);
+
+        if (plan != null) {
+            sb.append("\n").append(plan);
+        }
+
+        return sb.toString();
+    }
+}
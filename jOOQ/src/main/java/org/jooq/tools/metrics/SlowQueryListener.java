@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.tools.metrics;
+
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.jooq.ExecuteType;
+import org.jooq.Query;
+import org.jooq.conf.Settings;
+import org.jooq.impl.DefaultExecuteListener;
+
+/**
+ * An {@link ExecuteListener} capturing slow statements into a
+ * {@link SlowQueryStore}
+ * <p>
+ * Statements whose total execution time exceeds the store's threshold are
+ * captured along with their rendered SQL, their SQL with inlined bind values,
+ * and the execution time of every {@link Phase}. For <code>SELECT</code>
+ * statements executed through a {@link javax.sql.DataSource}, the store
+ * collects an execution plan asynchronously on a separate connection. Add
+ * this listener to {@link Settings#getExecuteListeners()} to capture
+ * statements into the {@link SlowQueryStore#getDefault()} store. Subclasses
+ * may override {@link #store()} to capture statements elsewhere.
+ *
+ * @author Lukas Eder
+ */
+public class SlowQueryListener extends DefaultExecuteListener {
+
+    private final long[] phaseTimes = new long[Phase.values().length];
+
+    private long         start;
+    private long         phaseStart;
+
+    /**
+     * The store capturing statements from this listener
+     */
+    protected SlowQueryStore store() {
+        return SlowQueryStore.getDefault();
+    }
+
+    @Override
+    public void start(ExecuteContext ctx) {
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void renderStart(ExecuteContext ctx) {
+        phaseStart = System.nanoTime();
+    }
+
+    @Override
+    public void renderEnd(ExecuteContext ctx) {
+        record(Phase.RENDER);
+    }
+
+    @Override
+    public void prepareStart(ExecuteContext ctx) {
+        phaseStart = System.nanoTime();
+    }
+
+    @Override
+    public void prepareEnd(ExecuteContext ctx) {
+        record(Phase.PREPARE);
+    }
+
+    @Override
+    public void bindStart(ExecuteContext ctx) {
+        phaseStart = System.nanoTime();
+    }
+
+    @Override
+    public void bindEnd(ExecuteContext ctx) {
+        record(Phase.BIND);
+    }
+
+    @Override
+    public void executeStart(ExecuteContext ctx) {
+        phaseStart = System.nanoTime();
+    }
+
+    @Override
+    public void executeEnd(ExecuteContext ctx) {
+        record(Phase.EXECUTE);
+    }
+
+    @Override
+    public void fetchStart(ExecuteContext ctx) {
+        phaseStart = System.nanoTime();
+    }
+
+    @Override
+    public void fetchEnd(ExecuteContext ctx) {
+        record(Phase.FETCH);
+    }
+
+    @Override
+    public void end(ExecuteContext ctx) {
+        long total = System.nanoTime() - start;
+        SlowQueryStore store = store();
+
+        if (!store.isSlow(total)) {
+            return;
+        }
+
+        String sql = ctx.sql();
+
+        // [#1529] Batch queries may not have a single SQL string
+        if (sql == null) {
+            String[] batchSQL = ctx.batchSQL();
+
+            if (batchSQL.length == 0) {
+                return;
+            }
+
+            sql = batchSQL[0];
+        }
+
+        Query query = ctx.query();
+        SlowQuery slow = new SlowQuery(
+            SQLFingerprint.of(sql),
+            sql,
+            query != null ? query.getSQL(true) : null,
+            ctx.getDialect() != null ? ctx.getDialect().name() : null,
+            System.currentTimeMillis(),
+            total,
+            phaseTimes,
+            null);
+
+        // Only SELECT statements can be explained without side-effects on
+        // all supported databases
+        store.add(slow, ctx.getDialect(), ctx.type() == ExecuteType.READ ? ctx.getDataSource() : null);
+    }
+
+    private void record(Phase phase) {
+        phaseTimes[phase.ordinal()] += System.nanoTime() - phaseStart;
+    }
+}
@@ -0,0 +1,325 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.tools.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+
+import org.jooq.SQLDialect;
+
+/**
+ * A bounded store of {@link SlowQuery} instances
+ * <p>
+ * The store keeps the most recent statements that exceeded a configurable
+ * threshold. Older statements are discarded once the store's capacity is
+ * exceeded. Execution plans are collected asynchronously on a separate
+ * connection, at most once per {@link SQLFingerprint} and explain interval.
+ *
+ * @author Lukas Eder
+ * @see SlowQueryListener
+ */
+public class SlowQueryStore implements SlowQueryStoreMXBean {
+
+    /**
+     * The default capacity of a store
+     */
+    public static final int             DEFAULT_CAPACITY         = 100;
+
+    /**
+     * The default threshold in milliseconds
+     */
+    public static final long            DEFAULT_THRESHOLD        = 1000L;
+
+    /**
+     * The default minimum interval in milliseconds between two execution plan
+     * collections for the same fingerprint
+     */
+    public static final long            DEFAULT_EXPLAIN_INTERVAL = 60000L;
+
+    /**
+     * The maximum number of fingerprints remembered for rate limiting
+     */
+    private static final int            MAX_FINGERPRINTS         = 1000;
+
+    private static final SlowQueryStore DEFAULT                  = new SlowQueryStore();
+
+    private final SlowQuery[]           queries;
+    private final Map<String, Long>     lastExplained;
+    private int                         head;
+    private int                         size;
+
+    private volatile long               threshold;
+    private volatile long               explainInterval;
+    private volatile boolean            explainEnabled;
+
+    /**
+     * Create a new store with a capacity of {@link #DEFAULT_CAPACITY}
+     */
+    public SlowQueryStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new store
+     *
+     * @param capacity The maximum number of statements kept in this store
+     */
+    public SlowQueryStore(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+
+        this.queries = new SlowQuery[capacity];
+        this.lastExplained = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+
+            /**
+             * Generated UID
+             */
+            private static final long serialVersionUID = -3176298214716395081L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > MAX_FINGERPRINTS;
+            }
+        };
+
+        this.threshold = TimeUnit.MILLISECONDS.toNanos(DEFAULT_THRESHOLD);
+        this.explainInterval = TimeUnit.MILLISECONDS.toNanos(DEFAULT_EXPLAIN_INTERVAL);
+        this.explainEnabled = true;
+    }
+
+    /**
+     * The store used by the default {@link SlowQueryListener}
+     */
+    public static SlowQueryStore getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * The threshold above which statements are captured
+     */
+    public long getThreshold(TimeUnit unit) {
+        return unit.convert(threshold, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Set the threshold above which statements are captured
+     */
+    public void setThreshold(long duration, TimeUnit unit) {
+        threshold = unit.toNanos(duration);
+    }
+
+    @Override
+    public long getThresholdMillis() {
+        return getThreshold(TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void setThresholdMillis(long duration) {
+        setThreshold(duration, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long getExplainIntervalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(explainInterval);
+    }
+
+    @Override
+    public void setExplainIntervalMillis(long interval) {
+        explainInterval = TimeUnit.MILLISECONDS.toNanos(interval);
+    }
+
+    @Override
+    public boolean isExplainEnabled() {
+        return explainEnabled;
+    }
+
+    @Override
+    public void setExplainEnabled(boolean enabled) {
+        explainEnabled = enabled;
+    }
+
+    /**
+     * Whether a statement of a given duration exceeds this store's threshold
+     *
+     * @param nanos The statement's total execution time in nanoseconds
+     */
+    public boolean isSlow(long nanos) {
+        return nanos >= threshold;
+    }
+
+    /**
+     * Add a statement to this store, and schedule the collection of its
+     * execution plan, if applicable
+     *
+     * @param query The captured statement
+     * @param dialect The dialect used for the execution plan
+     * @param dataSource The data source providing a separate connection for
+     *            the execution plan collection. If this is <code>null</code>,
+     *            no plan is collected.
+     */
+    public void add(SlowQuery query, SQLDialect dialect, DataSource dataSource) {
+        synchronized (queries) {
+            queries[head] = query;
+            head = (head + 1) % queries.length;
+
+            if (size < queries.length) {
+                size++;
+            }
+        }
+
+        if (explainEnabled && dataSource != null && ExplainPlans.supports(dialect)) {
+            String fingerprint = query.getFingerprint();
+            Long now = System.nanoTime();
+            Long previous = reserveExplain(fingerprint, now);
+
+            // Discarded requests don't count towards the rate limit
+            if (previous != null && !ExplainPlans.explain(query, dialect, dataSource)) {
+                releaseExplain(fingerprint, now, previous);
+            }
+        }
+    }
+
+    /**
+     * Reserve the collection of an execution plan for a fingerprint
+     *
+     * @return <code>null</code> if a plan was collected for the fingerprint
+     *         within the explain interval. Otherwise, the previous collection
+     *         time, or <code>0L</code> if there was none.
+     */
+    private Long reserveExplain(String fingerprint, Long now) {
+        synchronized (lastExplained) {
+            Long last = lastExplained.get(fingerprint);
+
+            if (last != null && now - last < explainInterval) {
+                return null;
+            }
+
+            lastExplained.put(fingerprint, now);
+            return last == null ? 0L : last;
+        }
+    }
+
+    /**
+     * Undo {@link #reserveExplain(String, Long)}, unless another reservation
+     * was made in the meantime
+     */
+    private void releaseExplain(String fingerprint, Long now, Long previous) {
+        synchronized (lastExplained) {
+            if (now.equals(lastExplained.get(fingerprint))) {
+                if (previous == 0L) {
+                    lastExplained.remove(fingerprint);
+                }
+                else {
+                    lastExplained.put(fingerprint, previous);
+                }
+            }
+        }
+    }
+
+    @Override
+    public SlowQuery[] getSlowQueries() {
+        synchronized (queries) {
+            SlowQuery[] result = new SlowQuery[size];
+            int start = (head - size + queries.length) % queries.length;
+
+            for (int i = 0; i < size; i++) {
+                result[i] = queries[(start + i) % queries.length];
+            }
+
+            return result;
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (queries) {
+            for (int i = 0; i < queries.length; i++) {
+                queries[i] = null;
+            }
+
+            head = 0;
+            size = 0;
+        }
+
+        synchronized (lastExplained) {
+            lastExplained.clear();
+        }
+    }
+
+    /**
+     * Register this store with the platform MBean server
+     *
+     * @param name The name of this store, used in the
+     *            <code>org.jooq:type=SlowQueries,name=[name]</code> object
+     *            name
+     * @return The object name under which this store was registered
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("org.jooq:type=SlowQueries,name=" + ObjectName.quote(name));
+
+            server.registerMBean(this, objectName);
+            return objectName;
+        }
+        catch (Exception e) {
+            throw new IllegalStateException("Cannot register slow query MBean " + name, e);
+        }
+    }
+
+    /**
+     * Unregister this store from the platform MBean server
+     *
+     * @param objectName The object name returned from
+     *            {@link #registerMBean(String)}
+     */
+    public void unregisterMBean(ObjectName objectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        }
+        catch (Exception e) {
+            throw new IllegalStateException("Cannot unregister slow query MBean " + objectName, e);
+        }
+    }
+}
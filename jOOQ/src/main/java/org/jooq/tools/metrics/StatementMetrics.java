@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.tools.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live, lock-free metrics of a single SQL statement fingerprint
+ *
+ * @author Lukas Eder
+ */
+public final class StatementMetrics {
+
+    private final String             fingerprint;
+    private final LatencyHistogram[] histograms;
+    private final AtomicLong         executions  = new AtomicLong();
+    private final AtomicLong         errors      = new AtomicLong();
+    private final AtomicLong         rowsFetched = new AtomicLong();
+
+    StatementMetrics(String fingerprint) {
+        this.fingerprint = fingerprint;
+        this.histograms = new LatencyHistogram[Phase.values().length];
+
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    void recordExecution() {
+        executions.incrementAndGet();
+    }
+
+    void recordError() {
+        errors.incrementAndGet();
+    }
+
+    void recordRowsFetched(long rows) {
+        rowsFetched.addAndGet(rows);
+    }
+
+    void record(Phase phase, long nanos) {
+        histograms[phase.ordinal()].record(nanos);
+    }
+
+    /**
+     * The normalised SQL string of this statement
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * The number of times this statement was executed
+     */
+    public long getExecutions() {
+        return executions.get();
+    }
+
+    /**
+     * The number of times this statement failed
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * The total number of rows fetched by this statement
+     */
+    public long getRowsFetched() {
+        return rowsFetched.get();
+    }
+
+    /**
+     * The latency histogram of an execution phase of this statement
+     */
+    public LatencyHistogram getHistogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    /**
+     * Take an immutable snapshot of these metrics
+     */
+    public StatementStatistics getStatistics() {
+        PhaseStatistics[] phases = new PhaseStatistics[histograms.length];
+
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram h = histograms[phase.ordinal()];
+
+            phases[phase.ordinal()] = new PhaseStatistics(
+                phase.name(),
+                h.getCount(),
+                h.getMean(),
+                h.getPercentile(50),
+                h.getPercentile(95),
+                h.getPercentile(99),
+                h.getMax());
+        }
+
+        return new StatementStatistics(fingerprint, getExecutions(), getErrors(), getRowsFetched(), phases);
+    }
+
+    void reset() {
+        executions.set(0);
+        errors.set(0);
+        rowsFetched.set(0);
+
+        for (LatencyHistogram h : histograms) {
+            h.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return fingerprint + " [executions=" + getExecutions() + ", errors=" + getErrors() + ", rows=" + getRowsFetched() + "]";
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.tools.metrics;
+
+import java.beans.ConstructorProperties;
+import java.io.Serializable;
+
+/**
+ * An immutable snapshot of a {@link StatementMetrics}
+ *
+ * @author Lukas Eder
+ */
+public final class StatementStatistics implements Serializable {
+
+    /**
+     * Generated UID
+     */
+    private static final long       serialVersionUID = 5330211566960512785L;
+
+    private final String            fingerprint;
+    private final long              executions;
+    private final long              errors;
+    private final long              rowsFetched;
+    private final PhaseStatistics[] phases;
+
+    @ConstructorProperties({ "fingerprint", "executions", "errors", "rowsFetched", "phases" })
+    public StatementStatistics(String fingerprint, long executions, long errors, long rowsFetched, PhaseStatistics[] phases) {
+        this.fingerprint = fingerprint;
+        this.executions = executions;
+        this.errors = errors;
+        this.rowsFetched = rowsFetched;
+        this.phases = phases;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getRowsFetched() {
+        return rowsFetched;
+    }
+
+    /**
+     * The statistics of all phases, in {@link Phase} order
+     */
+    public PhaseStatistics[] getPhases() {
+        return phases.clone();
+    }
+
+    /**
+     * The statistics of a single phase
+     */
+    public PhaseStatistics getPhase(Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        return fingerprint + " [executions=" + executions + ", errors=" + errors + ", rows=" + rowsFetched + "]";
+    }
+}
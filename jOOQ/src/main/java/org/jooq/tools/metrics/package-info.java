@@ -0,0 +1,15 @@
+/**
+ * The <code>org.jooq.tools.metrics</code> package contains tools for collecting
+ * per-statement execution metrics
+ * <p>
+ * Register the {@link org.jooq.tools.metrics.MetricsListener} in your
+ * {@link org.jooq.conf.Settings#getExecuteListeners()} to collect latency
+ * histograms per SQL statement fingerprint. Collected metrics can be read
+ * through the {@link org.jooq.tools.metrics.MetricsRegistry} API, or through
+ * JMX, once the registry is registered with an MBean server.
+ * <p>
+ * Register the {@link org.jooq.tools.metrics.SlowQueryListener} to capture
+ * statements exceeding a threshold, along with their execution plans, into a
+ * {@link org.jooq.tools.metrics.SlowQueryStore}.
+ */
+package org.jooq.tools.metrics;
@@ -0,0 +1,514 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.util.postgres;
+
+import org.jooq.exception.DataTypeException;
+
+/**
+ * A single-pass parser for Postgres array and row (composite type) literals
+ * <p>
+ * The Postgres JDBC driver exposes arrays of user-defined types and
+ * composite types only through their string representations, such as
+ * <code>{1,NULL,"a \"quoted\" value"}</code> or <code>(1,,"a, b")</code>.
+ * This parser reads such literals character by character. Values are only
+ * extracted as strings once they are consumed, and nested arrays can be read
+ * in place:
+ *
+ * <pre>
+ * PostgresLiteralParser parser = new PostgresLiteralParser("{{1,2},{3,NULL}}");
+ * parser.openArray();
+ *
+ * while (parser.next()) {
+ *     parser.openArray();
+ *
+ *     while (parser.next()) {
+ *         String value = parser.string();
+ *     }
+ * }
+ * </pre>
+ * <p>
+ * In arrays, unquoted <code>NULL</code> denotes a <code>null</code> value,
+ * and whitespace surrounding unquoted values is ignored. In rows, empty values
+ * denote <code>null</code> values, and whitespace is significant. Quoted
+ * values may contain backslash escapes and, in rows, doubled quotes. Rows
+ * nested in rows or arrays are quoted, and can be read by parsing the
+ * {@link #string()} value with a new parser.
+ * <p>
+ * Instances of this class are not thread-safe.
+ *
+ * @author Lukas Eder
+ */
+public class PostgresLiteralParser {
+
+    private final String  input;
+    private final int     length;
+    private int           position;
+
+    /**
+     * The closing characters of the currently open arrays and rows
+     */
+    private char[]        stack;
+    private int           depth;
+
+    /**
+     * Whether the current element has been consumed
+     */
+    private boolean       consumed;
+
+    /**
+     * Whether no element has been read yet from the innermost array or row
+     */
+    private boolean       first;
+
+    /**
+     * A buffer for unescaping quoted values, reused across values
+     */
+    private StringBuilder buffer;
+
+    public PostgresLiteralParser(String input) {
+        this.input = input;
+        this.length = input.length();
+        this.stack = new char[4];
+        this.consumed = true;
+    }
+
+    /**
+     * Open an array at the current position
+     * <p>
+     * Any leading dimension decoration, such as <code>[1:3]=</code> is
+     * skipped.
+     *
+     * @throws DataTypeException If there is no array at the current position
+     */
+    public final void openArray() {
+        skipWhitespace();
+
+        if (position < length && input.charAt(position) == '[') {
+            int equals = input.indexOf('=', position);
+
+            if (equals < 0) {
+                throw error("Array dimension decoration not terminated");
+            }
+
+            position = equals + 1;
+        }
+
+        open('{', '}');
+    }
+
+    /**
+     * Open a row at the current position
+     *
+     * @throws DataTypeException If there is no row at the current position
+     */
+    public final void openRow() {
+        skipWhitespace();
+        open('(', ')');
+    }
+
+    private final void open(char open, char close) {
+        if (position >= length || input.charAt(position) != open) {
+            throw error("Expected " + open);
+        }
+
+        position++;
+
+        if (depth == stack.length) {
+            char[] s = new char[depth * 2];
+            System.arraycopy(stack, 0, s, 0, depth);
+            stack = s;
+        }
+
+        stack[depth++] = close;
+        consumed = true;
+        first = true;
+    }
+
+    /**
+     * Advance to the next element of the innermost open array or row
+     * <p>
+     * If the current element has not been consumed, it is skipped.
+     *
+     * @return <code>true</code> if there is a next element, or
+     *         <code>false</code> if the innermost array or row has been
+     *         closed.
+     * @throws DataTypeException If the literal is malformed
+     */
+    public final boolean next() {
+        if (depth == 0) {
+            throw error("No open array or row");
+        }
+
+        if (!consumed) {
+            skip();
+        }
+
+        char close = stack[depth - 1];
+        boolean array = close == '}';
+
+        if (array) {
+            skipWhitespace();
+        }
+
+        if (position >= length) {
+            throw error("Unexpected end of literal");
+        }
+
+        char c = input.charAt(position);
+
+        if (first) {
+            first = false;
+
+            // Empty arrays contain no elements, whereas "()" is a row with a
+            // single null element
+            if (array && c == '}') {
+                return close();
+            }
+        }
+        else if (c == close) {
+            return close();
+        }
+        else if (c == ',') {
+            position++;
+
+            if (array) {
+                skipWhitespace();
+            }
+        }
+        else {
+            throw error("Expected , or " + close);
+        }
+
+        consumed = false;
+        return true;
+    }
+
+    private final boolean close() {
+        position++;
+        depth--;
+        consumed = true;
+        first = false;
+        return false;
+    }
+
+    /**
+     * Whether the current element is <code>null</code>
+     */
+    public final boolean isNull() {
+        checkElement();
+
+        if (inArray()) {
+            return position + 4 <= length
+                && input.regionMatches(true, position, "NULL", 0, 4)
+                && isArrayValueEnd(position + 4);
+        }
+        else {
+            return position < length && (input.charAt(position) == ',' || input.charAt(position) == ')');
+        }
+    }
+
+    /**
+     * Whether the current element is an unquoted, nested array, which can be
+     * read using {@link #openArray()}
+     */
+    public final boolean isArray() {
+        checkElement();
+        return inArray() && position < length && input.charAt(position) == '{';
+    }
+
+    /**
+     * Consume the current element as a string
+     * <p>
+     * Nested arrays are returned in their literal form.
+     *
+     * @return The unescaped value, or <code>null</code> if the element is
+     *         <code>null</code>
+     */
+    public final String string() {
+        if (isNull()) {
+            skip();
+            return null;
+        }
+
+        consumed = true;
+        char c = input.charAt(position);
+
+        if (c == '"') {
+            return quoted();
+        }
+        else if (inArray() && c == '{') {
+            int start = position;
+            skipNested();
+            return input.substring(start, position);
+        }
+        else {
+            return unquoted();
+        }
+    }
+
+    /**
+     * Whether the parser has consumed the whole literal, except for trailing
+     * whitespace
+     */
+    public final boolean isDone() {
+        skipWhitespace();
+        return depth == 0 && position == length;
+    }
+
+    // -------------------------------------------------------------------------
+    // Internals
+    // -------------------------------------------------------------------------
+
+    private final boolean inArray() {
+        return depth > 0 && stack[depth - 1] == '}';
+    }
+
+    private final void checkElement() {
+        if (consumed) {
+            throw error("No current element");
+        }
+    }
+
+    private final boolean isArrayValueEnd(int i) {
+        while (i < length && Character.isWhitespace(input.charAt(i))) {
+            i++;
+        }
+
+        return i < length && (input.charAt(i) == ',' || input.charAt(i) == '}');
+    }
+
+    private final void skipWhitespace() {
+        while (position < length && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+    }
+
+    /**
+     * Skip the current element without extracting its value
+     */
+    private final void skip() {
+        if (isNull()) {
+            position += inArray() ? 4 : 0;
+        }
+        else {
+            char c = input.charAt(position);
+
+            if (c == '"') {
+                skipQuoted();
+            }
+            else if (inArray() && c == '{') {
+                skipNested();
+            }
+            else {
+                skipUnquoted();
+            }
+        }
+
+        consumed = true;
+    }
+
+    private final void skipNested() {
+        int level = 0;
+
+        while (position < length) {
+            char c = input.charAt(position);
+
+            if (c == '"') {
+                skipQuoted();
+                continue;
+            }
+
+            position++;
+
+            if (c == '{') {
+                level++;
+            }
+            else if (c == '}' && --level == 0) {
+                return;
+            }
+        }
+
+        throw error("Unterminated nested array");
+    }
+
+    private final void skipQuoted() {
+        position++;
+
+        while (position < length) {
+            char c = input.charAt(position++);
+
+            if (c == '\\') {
+                position++;
+            }
+            else if (c == '"') {
+
+                // Doubled quotes are escaped quotes
+                if (position < length && input.charAt(position) == '"') {
+                    position++;
+                }
+                else {
+                    return;
+                }
+            }
+        }
+
+        throw error("Unterminated quoted value");
+    }
+
+    private final void skipUnquoted() {
+        char close = stack[depth - 1];
+
+        while (position < length) {
+            char c = input.charAt(position);
+
+            if (c == ',' || c == close) {
+                return;
+            }
+            else if (c == '\\') {
+                position++;
+            }
+
+            position++;
+        }
+    }
+
+    private final String quoted() {
+        int start = ++position;
+
+        // Fast path: no escaping
+        while (position < length) {
+            char c = input.charAt(position);
+
+            if (c == '\\') {
+                break;
+            }
+            else if (c == '"') {
+                if (position + 1 < length && input.charAt(position + 1) == '"') {
+                    break;
+                }
+
+                return input.substring(start, position++);
+            }
+
+            position++;
+        }
+
+        StringBuilder sb = buffer();
+        sb.append(input, start, position);
+
+        while (position < length) {
+            char c = input.charAt(position++);
+
+            if (c == '\\') {
+                if (position >= length) {
+                    break;
+                }
+
+                sb.append(input.charAt(position++));
+            }
+            else if (c == '"') {
+                if (position < length && input.charAt(position) == '"') {
+                    sb.append('"');
+                    position++;
+                }
+                else {
+                    return sb.toString();
+                }
+            }
+            else {
+                sb.append(c);
+            }
+        }
+
+        throw error("Unterminated quoted value");
+    }
+
+    private final String unquoted() {
+        int start = position;
+        boolean escaped = false;
+
+        skipUnquoted();
+
+        for (int i = start; i < position; i++) {
+            if (input.charAt(i) == '\\') {
+                escaped = true;
+                break;
+            }
+        }
+
+        int end = position;
+
+        // Whitespace surrounding unquoted array values is ignored
+        if (inArray()) {
+            while (end > start && Character.isWhitespace(input.charAt(end - 1))) {
+                end--;
+            }
+        }
+
+        if (!escaped) {
+            return input.substring(start, end);
+        }
+
+        StringBuilder sb = buffer();
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+
+            if (c == '\\' && i + 1 < end) {
+                c = input.charAt(++i);
+            }
+
+            sb.append(c);
+        }
+
+        return sb.toString();
+    }
+
+    private final StringBuilder buffer() {
+        if (buffer == null) {
+            buffer = new StringBuilder();
+        }
+        else {
+            buffer.setLength(0);
+        }
+
+        return buffer;
+    }
+
+    private final DataTypeException error(String message) {
+        return new DataTypeException(message + " at position " + position + " in Postgres literal: " + input);
+    }
+}
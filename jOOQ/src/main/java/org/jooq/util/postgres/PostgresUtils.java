@@ -64,14 +64,6 @@ public class PostgresUtils {
 
     private static final String POSTGRESQL_HEX_STRING_PREFIX = "\\x";
 
-    // PGobject parsing state machine
-    private static final int    PG_OBJECT_INIT               = 0;
-    private static final int    PG_OBJECT_BEFORE_VALUE       = 1;
-    private static final int    PG_OBJECT_QUOTED_VALUE       = 2;
-    private static final int    PG_OBJECT_UNQUOTED_VALUE     = 3;
-    private static final int    PG_OBJECT_AFTER_VALUE        = 4;
-    private static final int    PG_OBJECT_END                = 5;
-
     /**
      * Parse a Postgres-encoded <code>bytea</code> string
      */
@@ -258,146 +250,16 @@ public class PostgresUtils {
 
     /**
      * Tokenize a PGObject input string
+     *
+     * @see PostgresLiteralParser
      */
-    @SuppressWarnings("null")
     public static List<String> toPGObject(String input) {
         List<String> values = new ArrayList<String>();
-        int i = 0;
-        int state = 0;
-        StringBuilder sb = null;
-
-        while (i < input.length()) {
-            char c = input.charAt(i);
-
-            switch (state) {
-                // Initial state
-                case PG_OBJECT_INIT:
-
-                    // Consume the opening parenthesis
-                    if (c == '(') {
-                        state = PG_OBJECT_BEFORE_VALUE;
-                    }
-
-                    break;
-
-                // Before a new value
-                case PG_OBJECT_BEFORE_VALUE:
-                    sb = new StringBuilder();
-
-                    // Consume "empty"
-                    if (c == ',') {
-                        values.add(null);
-                        state = PG_OBJECT_BEFORE_VALUE;
-                    }
-
-                    // Consume "empty"
-                    else if (c == ')') {
-                        values.add(null);
-                        state = PG_OBJECT_END;
-                    }
-
-                    // Consume the opening quote
-                    else if (c == '"') {
-                        state = PG_OBJECT_QUOTED_VALUE;
-                    }
-
-                    // Consume "null"
-                    else if ((c == 'n' || c == 'N') && (i + 4 < input.length())
-                        && input.substring(i, i + 4).equalsIgnoreCase("null")) {
-                        values.add(null);
-                        i += 3;
-                        state = PG_OBJECT_AFTER_VALUE;
-                    }
-
-                    // Consume a character
-                    else {
-                        sb.append(c);
-                        state = PG_OBJECT_UNQUOTED_VALUE;
-                    }
-
-                    break;
-
-                // A "value" is being created
-                case PG_OBJECT_QUOTED_VALUE:
-
-                    // Consume a quote
-                    if (c == '"') {
-
-                        // Consume an escaped quote
-                        if (input.charAt(i + 1) == '"') {
-                            sb.append(c);
-                            i++;
-                        }
-
-                        // Consume the closing quote
-                        else {
-                            values.add(sb.toString());
-                            state = PG_OBJECT_AFTER_VALUE;
-                        }
-                    }
-
-                    // Consume a backslash
-                    else if (c == '\\') {
-
-                        // Consume an escaped backslash
-                        if (input.charAt(i + 1) == '\\') {
-                            sb.append(c);
-                            i++;
-                        }
-
-                        // Consume an "illegal" backslash (?)
-                        else {
-                            sb.append(c);
-                        }
-                    }
-
-                    // Consume any other character
-                    else {
-                        sb.append(c);
-                    }
-
-                    break;
-
-                // A value is being created
-                case PG_OBJECT_UNQUOTED_VALUE:
-
-                    // Consume the closing parenthesis
-                    if (c == ')') {
-                        values.add(sb.toString());
-                        state = PG_OBJECT_END;
-                    }
-
-                    // Consume the value separator
-                    else if (c == ',') {
-                        values.add(sb.toString());
-                        state = PG_OBJECT_BEFORE_VALUE;
-                    }
-
-                    // Consume any other character
-                    else {
-                        sb.append(c);
-                    }
-
-                    break;
-
-                // A value was just added
-                case PG_OBJECT_AFTER_VALUE:
-
-                    // Consume the closing parenthesis
-                    if (c == ')') {
-                        state = PG_OBJECT_END;
-                    }
-
-                    // Consume the value separator
-                    else if (c == ',') {
-                        state = PG_OBJECT_BEFORE_VALUE;
-                    }
-
-                    break;
-            }
+        PostgresLiteralParser parser = new PostgresLiteralParser(input);
 
-            // Consume next character
-            i++;
+        parser.openRow();
+        while (parser.next()) {
+            values.add(parser.string());
         }
 
         return values;
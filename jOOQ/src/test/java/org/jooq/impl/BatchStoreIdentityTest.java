@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.impl;
+
+import static org.jooq.test.TIdentity.ID;
+import static org.jooq.test.TIdentity.NAME;
+import static org.jooq.test.TIdentity.T_IDENTITY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jooq.SQLDialect;
+import org.jooq.conf.Settings;
+import org.jooq.test.TIdentity;
+import org.jooq.test.TIdentityRecord;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Some common tests related to generated identity values in
+ * {@link BatchStore}
+ *
+ * @author Lukas Eder
+ */
+public class BatchStoreIdentityTest {
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:hsqldb:mem:batch-store-identity-test", "sa", "");
+        new Executor(connection, SQLDialect.HSQLDB).execute(TIdentity.DDL);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        new Executor(connection, SQLDialect.HSQLDB).execute("drop table t_identity");
+        connection.close();
+    }
+
+    @Test
+    public void testIdentities() throws Exception {
+        Executor create = create(false);
+        TIdentityRecord[] records = records(create, 3);
+
+        assertEquals(3, create.batchStore(records).execute().length);
+
+        for (int i = 0; i < records.length; i++) {
+            assertEquals(i + 1, (int) records[i].getValue(ID));
+            assertFalse(records[i].changed());
+        }
+
+        assertIdentities(create, records);
+    }
+
+    @Test
+    public void testIdentitiesMultiRow() throws Exception {
+        Executor create = create(true);
+        TIdentityRecord[] records = records(create, 2500);
+
+        assertEquals(2500, create.batchStore(records).execute().length);
+        assertIdentities(create, records);
+    }
+
+    @Test
+    public void testExplicitIdentities() throws Exception {
+        Executor create = create(false);
+        TIdentityRecord[] records = records(create, 3);
+
+        for (int i = 0; i < records.length; i++) {
+            records[i].setValue(ID, 10 * (i + 1));
+        }
+
+        create.batchStore(records).execute();
+
+        for (int i = 0; i < records.length; i++) {
+            assertEquals(10 * (i + 1), (int) records[i].getValue(ID));
+        }
+
+        assertIdentities(create, records);
+    }
+
+    private Executor create(boolean multiRow) {
+        Settings settings = new Settings();
+        settings.setExecuteLogging(false);
+        settings.setExecuteMultiRowInserts(multiRow);
+
+        return new Executor(connection, SQLDialect.HSQLDB, settings);
+    }
+
+    private static TIdentityRecord[] records(Executor create, int count) {
+        TIdentityRecord[] result = new TIdentityRecord[count];
+
+        for (int i = 0; i < count; i++) {
+            result[i] = create.newRecord(T_IDENTITY);
+            result[i].setValue(NAME, "Record " + i);
+        }
+
+        return result;
+    }
+
+    /**
+     * Check that every record received the identity value of its own row
+     */
+    private static void assertIdentities(Executor create, TIdentityRecord[] records) {
+        Map<Integer, String> names = create.select(ID, NAME).from(T_IDENTITY).fetchMap(ID, NAME);
+        Set<Integer> ids = new HashSet<Integer>();
+
+        assertEquals(records.length, names.size());
+        for (TIdentityRecord record : records) {
+            assertEquals(record.getValue(NAME), names.get(record.getValue(ID)));
+            ids.add(record.getValue(ID));
+        }
+
+        assertEquals(records.length, ids.size());
+    }
+}
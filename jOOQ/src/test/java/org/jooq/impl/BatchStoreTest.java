@@ -0,0 +1,305 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.impl;
+
+import static org.jooq.test.TAuthor.ID;
+import static org.jooq.test.TAuthor.NAME;
+import static org.jooq.test.TAuthor.T_AUTHOR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jooq.ExecuteContext;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.conf.Settings;
+import org.jooq.conf.StatementType;
+import org.jooq.exception.DataChangedException;
+import org.jooq.test.TAuthor;
+import org.jooq.test.TAuthorRecord;
+import org.jooq.test.TVersioned;
+import org.jooq.test.TVersionedRecord;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link BatchStore}
+ *
+ * @author Lukas Eder
+ */
+public class BatchStoreTest {
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:batch-store-test", "sa", "");
+        new Executor(connection, SQLDialect.H2).execute(TAuthor.DDL);
+        new Executor(connection, SQLDialect.H2).execute(TVersioned.DDL);
+        StatementRecorder.STATEMENTS.clear();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        new Executor(connection, SQLDialect.H2).execute("drop table t_versioned");
+        new Executor(connection, SQLDialect.H2).execute("drop table t_author");
+        connection.close();
+    }
+
+    @Test
+    public void testMultiRowChunkSize() {
+
+        // Chunks are limited by rows
+        assertEquals(1000, BatchStore.multiRowChunkSize(SQLDialect.H2, 2));
+        assertEquals(1000, BatchStore.multiRowChunkSize(SQLDialect.SQLSERVER, 1));
+        assertEquals(1000, BatchStore.multiRowChunkSize(SQLDialect.SQLSERVER, 2));
+
+        // Chunks are limited by bind values
+        assertEquals(666, BatchStore.multiRowChunkSize(SQLDialect.SQLSERVER, 3));
+        assertEquals(333, BatchStore.multiRowChunkSize(SQLDialect.SQLITE, 3));
+        assertEquals(1, BatchStore.multiRowChunkSize(SQLDialect.SQLITE, 5000));
+    }
+
+    @Test
+    public void testMultiRowInsertsPrepared() throws Exception {
+        Executor create = create(StatementType.PREPARED_STATEMENT);
+        int[] result = create.batchStore(authors(create, 2500)).execute();
+
+        assertEquals(2500, result.length);
+        assertEquals(2500, sum(result));
+
+        // Two chunks of 1000 rows share their SQL and are sent in a single
+        // batch, followed by the remaining 500 rows
+        assertEquals(2, StatementRecorder.STATEMENTS.size());
+        assertEquals(1000, rows(StatementRecorder.STATEMENTS.get(0)));
+        assertEquals(500, rows(StatementRecorder.STATEMENTS.get(1)));
+        assertEquals(2500, (int) create.selectCount().from(T_AUTHOR).fetchOne(0, Integer.class));
+    }
+
+    @Test
+    public void testMultiRowInsertsStatic() throws Exception {
+        Executor create = create(StatementType.STATIC_STATEMENT);
+        int[] result = create.batchStore(authors(create, 2001)).execute();
+
+        assertEquals(2001, result.length);
+        assertEquals(2001, sum(result));
+
+        assertEquals(3, StatementRecorder.STATEMENTS.size());
+        assertEquals(1000, rows(StatementRecorder.STATEMENTS.get(0)));
+        assertEquals(1000, rows(StatementRecorder.STATEMENTS.get(1)));
+        assertEquals(1, rows(StatementRecorder.STATEMENTS.get(2)));
+        assertEquals(2001, (int) create.selectCount().from(T_AUTHOR).fetchOne(0, Integer.class));
+    }
+
+    @Test
+    public void testOptimisticLockingCheckedOnce() throws Exception {
+        Executor create = createLocking();
+        create.insertInto(T_AUTHOR, ID, NAME).values(1, "A").values(2, "B").values(3, "C").execute();
+
+        Result<TAuthorRecord> records = create.selectFrom(T_AUTHOR).orderBy(ID).fetch();
+        for (TAuthorRecord record : records) {
+            record.setValue(NAME, record.getValue(NAME) + "'");
+        }
+
+        StatementRecorder.STATEMENTS.clear();
+        assertEquals(3, sum(create.batchStore(records).execute()));
+
+        // All records are checked with a single SELECT .. FOR UPDATE before
+        // the UPDATE statements are batched
+        assertEquals(2, StatementRecorder.STATEMENTS.size());
+        assertTrue(StatementRecorder.STATEMENTS.get(0).startsWith("select"));
+        assertTrue(StatementRecorder.STATEMENTS.get(0).endsWith("for update"));
+        assertTrue(StatementRecorder.STATEMENTS.get(1).startsWith("update"));
+
+        for (TAuthorRecord record : records) {
+            assertFalse(record.changed());
+        }
+
+        assertEquals(Arrays.asList("A'", "B'", "C'"), create.select(NAME).from(T_AUTHOR).orderBy(ID).fetch(NAME));
+    }
+
+    @Test
+    public void testOptimisticLockingChangedRecord() throws Exception {
+        Executor create = createLocking();
+        create.insertInto(T_AUTHOR, ID, NAME).values(1, "A").values(2, "B").values(3, "C").execute();
+
+        Result<TAuthorRecord> records = create.selectFrom(T_AUTHOR).orderBy(ID).fetch();
+        for (TAuthorRecord record : records) {
+            record.setValue(NAME, record.getValue(NAME) + "'");
+        }
+
+        // Another session modifies one of the records
+        new Executor(connection, SQLDialect.H2).update(T_AUTHOR).set(NAME, "X").where(ID.equal(2)).execute();
+
+        try {
+            create.batchStore(records).execute();
+            fail();
+        }
+        catch (DataChangedException e) {
+            assertEquals(1, e.getRecords().size());
+            assertSame(records.get(1), e.getRecords().get(0));
+        }
+
+        // No records are updated if the check fails
+        assertEquals(Arrays.asList("A", "X", "C"), create.select(NAME).from(T_AUTHOR).orderBy(ID).fetch(NAME));
+    }
+
+    @Test
+    public void testOptimisticLockingVersionMissed() throws Exception {
+        Executor create = createLocking();
+        create.insertInto(TVersioned.T_VERSIONED, TVersioned.ID, TVersioned.NAME, TVersioned.VERSION)
+              .values(1, "A", 1)
+              .values(2, "B", 1)
+              .values(3, "C", 1)
+              .execute();
+
+        Result<TVersionedRecord> records = create.selectFrom(TVersioned.T_VERSIONED).orderBy(TVersioned.ID).fetch();
+        for (TVersionedRecord record : records) {
+            record.setValue(TVersioned.NAME, record.getValue(TVersioned.NAME) + "'");
+        }
+
+        // Another session increments one of the versions
+        new Executor(connection, SQLDialect.H2).update(TVersioned.T_VERSIONED)
+                                               .set(TVersioned.VERSION, 2)
+                                               .where(TVersioned.ID.equal(2))
+                                               .execute();
+
+        StatementRecorder.STATEMENTS.clear();
+        try {
+            create.batchStore(records).execute();
+            fail();
+        }
+        catch (DataChangedException e) {
+            assertEquals(1, e.getRecords().size());
+            assertSame(records.get(1), e.getRecords().get(0));
+        }
+
+        // Versions are checked by the UPDATE counts, without any SELECT
+        assertEquals(1, StatementRecorder.STATEMENTS.size());
+        assertTrue(StatementRecorder.STATEMENTS.get(0).startsWith("update"));
+
+        // Records that were stored successfully have their new versions
+        assertEquals(2, (int) records.get(0).getValue(TVersioned.VERSION));
+        assertEquals(1, (int) records.get(1).getValue(TVersioned.VERSION));
+        assertEquals(2, (int) records.get(2).getValue(TVersioned.VERSION));
+        assertFalse(records.get(0).changed());
+        assertTrue(records.get(1).changed());
+        assertFalse(records.get(2).changed());
+
+        assertEquals(Arrays.asList("A'", "B", "C'"),
+            create.select(TVersioned.NAME).from(TVersioned.T_VERSIONED).orderBy(TVersioned.ID).fetch(TVersioned.NAME));
+    }
+
+    private Executor createLocking() {
+        Executor create = create(StatementType.PREPARED_STATEMENT);
+        create.getSettings().setExecuteWithOptimisticLocking(true);
+        return create;
+    }
+
+    private Executor create(StatementType type) {
+        Settings settings = new Settings();
+        settings.setStatementType(type);
+        settings.setExecuteMultiRowInserts(true);
+        settings.setExecuteLogging(false);
+        settings.getExecuteListeners().add(StatementRecorder.class.getName());
+
+        return new Executor(connection, SQLDialect.H2, settings);
+    }
+
+    private static TAuthorRecord[] authors(Executor create, int count) {
+        TAuthorRecord[] result = new TAuthorRecord[count];
+
+        for (int i = 0; i < count; i++) {
+            result[i] = create.newRecord(T_AUTHOR);
+            result[i].setValue(ID, i);
+            result[i].setValue(NAME, "Author " + i);
+        }
+
+        return result;
+    }
+
+    private static int sum(int[] array) {
+        int result = 0;
+
+        for (int i : array) {
+            result += i;
+        }
+
+        return result;
+    }
+
+    /**
+     * The number of rows in a multi-row INSERT statement
+     */
+    private static int rows(String sql) {
+        int result = 0;
+
+        for (int i = sql.indexOf("), ("); i >= 0; i = sql.indexOf("), (", i + 1)) {
+            result++;
+        }
+
+        return result + 1;
+    }
+
+    /**
+     * An {@link org.jooq.ExecuteListener} recording all executed statements
+     */
+    public static class StatementRecorder extends DefaultExecuteListener {
+
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public void executeStart(ExecuteContext ctx) {
+            if (ctx.batchSQL().length > 1) {
+                Collections.addAll(STATEMENTS, ctx.batchSQL());
+            }
+            else if (ctx.sql() != null) {
+                STATEMENTS.add(ctx.sql());
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.impl;
+
+import static org.jooq.test.TAuthor.ID;
+import static org.jooq.test.TAuthor.NAME;
+import static org.jooq.test.TAuthor.T_AUTHOR;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jooq.SQLDialect;
+import org.jooq.exception.SQLDialectNotSupportedException;
+import org.jooq.test.TAuthor;
+import org.jooq.test.TAuthorRecord;
+
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link BatchUpsert}
+ *
+ * @author Lukas Eder
+ */
+public class BatchUpsertTest {
+
+    @Test
+    public void testMySQLInsertOnDuplicateKeyUpdate() {
+        assertEquals(
+            "insert into `T_AUTHOR` (`ID`, `NAME`) values (1, 'A1'), (2, 'A2') " +
+            "on duplicate key update `NAME` = values(`NAME`)",
+            render(SQLDialect.MYSQL));
+    }
+
+    @Test
+    public void testH2MergeKey() {
+        assertEquals(
+            "merge into \"T_AUTHOR\" (\"ID\", \"NAME\") key (\"ID\") " +
+            "(select 1 \"ID\", 'A1' \"NAME\" from dual) union all " +
+            "(select 2 \"ID\", 'A2' \"NAME\" from dual)",
+            render(SQLDialect.H2));
+    }
+
+    @Test
+    public void testMergeUsingUnionAll() {
+        assertEquals(
+            "merge into \"T_AUTHOR\" using (" +
+            "(select 1 \"ID\", 'A1' \"NAME\" from dual) union all " +
+            "(select 2 \"ID\", 'A2' \"NAME\" from dual)) \"src\" " +
+            "on (\"T_AUTHOR\".\"ID\" = \"src\".\"ID\") " +
+            "when matched then update set \"NAME\" = \"src\".\"NAME\" " +
+            "when not matched then insert (\"ID\", \"NAME\") values (\"src\".\"ID\", \"src\".\"NAME\")",
+            render(SQLDialect.ORACLE));
+
+        assertEquals(
+            "merge into \"T_AUTHOR\" using (" +
+            "(select 1 as \"ID\", 'A1' as \"NAME\" from \"INFORMATION_SCHEMA\".\"SYSTEM_USERS\") union all " +
+            "(select 2 as \"ID\", 'A2' as \"NAME\" from \"INFORMATION_SCHEMA\".\"SYSTEM_USERS\")) as \"src\" " +
+            "on (\"T_AUTHOR\".\"ID\" = \"src\".\"ID\") " +
+            "when matched then update set \"NAME\" = \"src\".\"NAME\" " +
+            "when not matched then insert (\"ID\", \"NAME\") values (\"src\".\"ID\", \"src\".\"NAME\")",
+            render(SQLDialect.HSQLDB));
+    }
+
+    @Test(expected = SQLDialectNotSupportedException.class)
+    public void testUnsupportedDialect() {
+        render(SQLDialect.POSTGRES);
+    }
+
+    @Test
+    public void testH2Execution() throws Exception {
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:batch-upsert-test", "sa", "");
+
+        try {
+            Executor create = new Executor(connection, SQLDialect.H2);
+            create.execute(TAuthor.DDL);
+            create.insertInto(T_AUTHOR, ID, NAME)
+                  .values(1, "Old 1")
+                  .values(2, "Old 2")
+                  .values(3, "Old 3")
+                  .execute();
+
+            // Two existing and two new records in chunks of two records
+            List<TAuthorRecord> records = authors(create, 2, 3, 4, 5);
+            int[] result = create.batchUpsert(T_AUTHOR, records, 2).execute();
+
+            assertArrayEquals(new int[] { 2, 2 }, result);
+            assertEquals(
+                Arrays.asList("Old 1", "Author 2", "Author 3", "Author 4", "Author 5"),
+                create.select(NAME).from(T_AUTHOR).orderBy(ID).fetch(NAME));
+
+            for (TAuthorRecord record : records) {
+                assertFalse(record.changed());
+            }
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    private static String render(SQLDialect dialect) {
+        Executor create = new Executor(dialect);
+        List<TAuthorRecord> records = authors(create, 1, 2);
+
+        for (TAuthorRecord record : records) {
+            record.setValue(NAME, "A" + record.getValue(ID));
+        }
+
+        return create.renderInlined(new BatchUpsert<TAuthorRecord>(create, T_AUTHOR, records, 10).query(records));
+    }
+
+    private static List<TAuthorRecord> authors(Executor create, Integer... ids) {
+        TAuthorRecord[] result = new TAuthorRecord[ids.length];
+
+        for (int i = 0; i < ids.length; i++) {
+            result[i] = create.newRecord(T_AUTHOR);
+            result[i].setValue(ID, ids[i]);
+            result[i].setValue(NAME, "Author " + ids[i]);
+        }
+
+        return Arrays.asList(result);
+    }
+}
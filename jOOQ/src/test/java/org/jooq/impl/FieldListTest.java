@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.impl;
+
+import static org.jooq.impl.Factory.fieldByName;
+import static org.jooq.impl.Factory.val;
+import static org.jooq.test.Table1.FIELD_ID1;
+import static org.jooq.test.Table1.FIELD_NAME1;
+import static org.jooq.test.Table1.TABLE1;
+import static org.jooq.test.Table2.FIELD_ID2;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ListIterator;
+
+import org.jooq.Field;
+import org.jooq.Table;
+import org.jooq.test.Table1Record;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Some common tests related to field lookups in {@link FieldList}
+ *
+ * @author Lukas Eder
+ */
+public class FieldListTest {
+
+    private Table<Table1Record> t;
+    private FieldList           fields;
+
+    @Before
+    public void setUp() throws Exception {
+        t = TABLE1.as("t");
+        fields = new FieldList(
+            FIELD_ID1,
+            FIELD_NAME1,
+            t.getField(FIELD_ID1),
+            t.getField(FIELD_NAME1),
+            FIELD_ID2);
+    }
+
+    @Test
+    public void testIdentity() throws Exception {
+        for (int i = 0; i < fields.size(); i++) {
+            assertEquals(i, fields.getIndex(fields.get(i)));
+            assertSame(fields.get(i), fields.getField(fields.get(i)));
+        }
+    }
+
+    @Test
+    public void testUniqueName() throws Exception {
+        assertEquals(4, fields.getIndex("ID2"));
+        assertEquals(4, fields.getIndex(fieldByName(SQLDataType.INTEGER, "ID2")));
+        assertEquals(4, fields.getIndex(fieldByName(SQLDataType.INTEGER, "any", "ID2")));
+    }
+
+    @Test
+    public void testAmbiguousName() throws Exception {
+
+        // Plain names resolve to the first field with that name
+        assertEquals(0, fields.getIndex("ID1"));
+        assertEquals(1, fields.getIndex("NAME1"));
+        assertEquals(0, fields.getIndex(fieldByName(SQLDataType.INTEGER, "ID1")));
+
+        // [#1802] Qualified names resolve to the field of the matching table
+        assertEquals(2, fields.getIndex(TABLE1.as("t").getField(FIELD_ID1)));
+        assertEquals(3, fields.getIndex(TABLE1.as("t").getField(FIELD_NAME1)));
+        assertEquals(2, fields.getIndex(fieldByName(SQLDataType.INTEGER, "t", "ID1")));
+        assertEquals(0, fields.getIndex(fieldByName(SQLDataType.INTEGER, "TABLE1", "ID1")));
+
+        // Fields of other tables resolve to the first field with that name
+        assertEquals(0, fields.getIndex(TABLE1.as("u").getField(FIELD_ID1)));
+    }
+
+    @Test
+    public void testDuplicateQualifiedNames() throws Exception {
+        Field<Integer> id = t.getField(FIELD_ID1);
+        FieldList list = new FieldList(id, val(1).as("ID1"), id);
+
+        // The first field with an equal qualified name is resolved
+        assertEquals(0, list.getIndex(id));
+        assertEquals(0, list.getIndex(TABLE1.as("t").getField(FIELD_ID1)));
+        assertEquals(1, list.getIndex(val(1).as("ID1")));
+    }
+
+    @Test
+    public void testUnknownField() throws Exception {
+        assertNull(fields.getField("XX"));
+        assertNull(fields.getField(fieldByName(SQLDataType.INTEGER, "XX")));
+        assertNull(fields.getField((String) null));
+        assertNull(fields.getField((Field<?>) null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownIndex() throws Exception {
+        fields.getIndex("XX");
+    }
+
+    @Test
+    public void testModifications() throws Exception {
+        assertEquals(0, fields.getIndex("ID1"));
+
+        fields.remove(0);
+        assertEquals(1, fields.getIndex("ID1"));
+
+        fields.add(0, FIELD_ID1);
+        assertEquals(0, fields.getIndex("ID1"));
+        assertEquals(0, fields.getIndex(FIELD_ID1));
+
+        fields.set(0, FIELD_NAME1);
+        assertEquals(0, fields.getIndex(FIELD_NAME1));
+        assertEquals(2, fields.getIndex(FIELD_ID1));
+
+        fields.clear();
+        assertNull(fields.getField("ID1"));
+
+        fields.addAll(Collections.singletonList(FIELD_ID2));
+        assertEquals(0, fields.getIndex(FIELD_ID2));
+    }
+
+    @Test
+    public void testIteratorAndSubListModifications() throws Exception {
+        assertEquals(4, fields.getIndex(FIELD_ID2));
+
+        // Modifications that don't change the list's size
+        ListIterator<Field<?>> it = fields.listIterator();
+        it.next();
+        it.set(FIELD_ID2);
+        assertEquals(0, fields.getIndex(FIELD_ID2));
+        assertEquals(2, fields.getIndex("ID1"));
+
+        fields.subList(0, 1).set(0, FIELD_ID1);
+        assertEquals(0, fields.getIndex("ID1"));
+        assertEquals(4, fields.getIndex(FIELD_ID2));
+
+        // Sorting modifies the list through its list iterator
+        Collections.sort(fields, new Comparator<Field<?>>() {
+            @Override
+            public int compare(Field<?> f1, Field<?> f2) {
+                return f2.getName().compareTo(f1.getName());
+            }
+        });
+
+        assertEquals(0, fields.getIndex("NAME1"));
+        assertEquals(2, fields.getIndex("ID2"));
+        assertEquals(3, fields.getIndex("ID1"));
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jooq.Field;
+import org.jooq.Meta;
+import org.jooq.SQLDialect;
+import org.jooq.Schema;
+import org.jooq.Table;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link MetaCache} and {@link MetaImpl}
+ *
+ * @author Lukas Eder
+ */
+public class MetaCacheTest {
+
+    private Connection connection;
+    private Executor   create;
+    private MetaCache  cache;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:meta-cache-test", "sa", "");
+        create = new Executor(connection, SQLDialect.H2);
+
+        // The schema name P_B is a LIKE pattern matching PXB, too
+        create.execute("create schema p_b");
+        create.execute("create schema pxb");
+        create.execute("create table p_b.t (a int, b int)");
+        create.execute("create table pxb.t (x int, y int, z int)");
+        create.execute("create table pxb.u (id int primary key)");
+
+        cache = new MetaCache();
+        cache.install(create);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        create.execute("drop schema p_b");
+        create.execute("drop schema pxb");
+        connection.close();
+    }
+
+    @Test
+    public void testTablesFilteredBySchema() throws Exception {
+        Meta meta = create.meta();
+
+        List<Table<?>> pB = schema(meta, "P_B").getTables();
+        assertEquals(1, pB.size());
+        assertEquals("T", pB.get(0).getName());
+        assertEquals(Arrays.asList("A", "B"), names(pB.get(0)));
+        assertEquals("P_B", pB.get(0).getSchema().getName());
+
+        List<Table<?>> pxb = schema(meta, "PXB").getTables();
+        assertEquals(2, pxb.size());
+        assertEquals(Arrays.asList("X", "Y", "Z"), names(table(pxb, "T")));
+        assertEquals(Arrays.asList("ID"), names(table(pxb, "U")));
+    }
+
+    @Test
+    public void testTablesCachedPerSchema() throws Exception {
+        assertNull(cache.getTables("P_B"));
+        schema(create.meta(), "P_B").getTables();
+
+        assertNotNull(cache.getTables("P_B"));
+        assertNull(cache.getTables("PXB"));
+
+        // Cached tables are served without reading modified meta data
+        create.execute("alter table p_b.t add c int");
+        assertEquals(Arrays.asList("A", "B"), names(schema(create.meta(), "P_B").getTables().get(0)));
+
+        cache.invalidate(schema(create.meta(), "P_B"));
+        assertNull(cache.getTables("P_B"));
+        assertEquals(Arrays.asList("A", "B", "C"), names(schema(create.meta(), "P_B").getTables().get(0)));
+
+        // Other executors with the same configuration share the cache
+        Executor other = new Executor(connection, SQLDialect.H2);
+        other.getData().putAll(create.getData());
+        assertEquals(Arrays.asList("X", "Y", "Z"), names(table(schema(other.meta(), "PXB").getTables(), "T")));
+        assertNotNull(cache.getTables("PXB"));
+    }
+
+    private static Schema schema(Meta meta, String name) {
+        for (Schema schema : meta.getSchemas()) {
+            if (name.equals(schema.getName())) {
+                return schema;
+            }
+        }
+
+        throw new AssertionError("Schema not found: " + name);
+    }
+
+    private static Table<?> table(List<Table<?>> tables, String name) {
+        for (Table<?> table : tables) {
+            if (name.equals(table.getName())) {
+                return table;
+            }
+        }
+
+        throw new AssertionError("Table not found: " + name);
+    }
+
+    private static List<String> names(Table<?> table) {
+        List<String> result = new ArrayList<String>();
+
+        for (Field<?> field : table.getFields()) {
+            result.add(field.getName());
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.impl;
+
+import static org.jooq.test.TBook.AUTHOR_ID;
+import static org.jooq.test.TBook.ID;
+import static org.jooq.test.TBook.TITLE;
+import static org.jooq.test.TBook.T_BOOK;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.conf.Settings;
+import org.jooq.exception.DataAccessException;
+import org.jooq.test.TAuthor;
+import org.jooq.test.TBook;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link ParallelSelect}
+ *
+ * @author Lukas Eder
+ */
+public class ParallelSelectTest {
+
+    private JdbcDataSource dataSource;
+    private Connection     connection;
+    private Executor       create;
+
+    @Before
+    public void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:parallel-select-test");
+        dataSource.setUser("sa");
+        dataSource.setPassword("");
+
+        // Keep the in-memory database open while other connections come and go
+        connection = dataSource.getConnection();
+
+        Settings settings = new Settings();
+        settings.setExecuteLogging(false);
+        settings.getExecuteListeners().add(BatchStoreTest.StatementRecorder.class.getName());
+
+        create = new Executor(connection, SQLDialect.H2, settings);
+        create.execute(TAuthor.DDL);
+        create.execute(TBook.DDL);
+        create.execute("insert into t_author select x, 'Author ' || x from system_range(1, 10)");
+
+        // Every 7th book has no author
+        create.execute(
+            "insert into t_book " +
+            "select x, case when mod(x, 7) = 0 then null else mod(x, 10) + 1 end, 'Book ' || mod(x, 13) " +
+            "from system_range(1, 200)");
+
+        BatchStoreTest.StatementRecorder.STATEMENTS.clear();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        create.execute("drop table t_book");
+        create.execute("drop table t_author");
+        connection.close();
+    }
+
+    @Test
+    public void testFetchParallelUnordered() throws Exception {
+        Result<Record> expected = create.select().from(T_BOOK).orderBy(ID).fetch();
+
+        for (int partitions = 1; partitions <= 12; partitions++) {
+            Result<Record> actual = create.fetchParallel(create.select().from(T_BOOK), AUTHOR_ID, partitions);
+
+            // NULL values are fetched first, in a partition of their own
+            if (partitions > 1) {
+                assertNull(actual.get(0).getValue(AUTHOR_ID));
+            }
+
+            // Without ORDER BY, only the set of records is defined
+            assertEquals(expected, actual.sortAsc(ID));
+        }
+    }
+
+    @Test
+    public void testFetchParallelOrdered() throws Exception {
+        Result<Record> expected = create.select().from(T_BOOK).orderBy(AUTHOR_ID, ID).fetch();
+
+        for (int partitions = 1; partitions <= 12; partitions++) {
+            assertEquals(expected, create.fetchParallel(create.select().from(T_BOOK), AUTHOR_ID, partitions, AUTHOR_ID.asc(), ID.asc()));
+            assertEquals(expected, create.fetchParallel(create.select().from(T_BOOK), ID, partitions, AUTHOR_ID.asc(), ID.asc()));
+        }
+    }
+
+    @Test
+    public void testFetchParallelConcurrently() throws Exception {
+        Executor concurrent = new Executor(dataSource, SQLDialect.H2, create.getSettings());
+        Result<Record> expected = create.select().from(T_BOOK).orderBy(TITLE, ID).fetch();
+
+        assertEquals(expected, concurrent.fetchParallel(concurrent.select().from(T_BOOK), AUTHOR_ID, 4, TITLE.asc(), ID.asc()));
+    }
+
+    @Test
+    public void testFetchParallelOnlyNulls() throws Exception {
+        create.update(T_BOOK).set(AUTHOR_ID, (Integer) null).execute();
+        Result<Record> expected = create.select().from(T_BOOK).orderBy(ID).fetch();
+
+        BatchStoreTest.StatementRecorder.STATEMENTS.clear();
+        assertEquals(expected, create.fetchParallel(create.select().from(T_BOOK), AUTHOR_ID, 4, ID.asc()));
+
+        // Without any bounds, a single partition is fetched after MIN() and MAX()
+        assertEquals(2, BatchStoreTest.StatementRecorder.STATEMENTS.size());
+    }
+
+    @Test
+    public void testFetchParallelTilesExcludeNulls() throws Exception {
+
+        // H2 doesn't support NTILE(), but the statement rendered for Postgres
+        // can be checked anyway
+        Executor postgres = new Executor(connection, SQLDialect.POSTGRES, create.getSettings());
+
+        try {
+            postgres.fetchParallel(postgres.select().from(T_BOOK), TITLE, 4);
+            fail();
+        }
+        catch (DataAccessException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("ntile(4) over (order by \"p\".\"TITLE\" asc)"));
+            assertTrue(e.getMessage(), e.getMessage().contains("where \"p\".\"TITLE\" is not null"));
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.impl;
+
+import static java.util.Collections.singletonList;
+import static org.jooq.test.TAuthor.ID;
+import static org.jooq.test.TAuthor.NAME;
+import static org.jooq.test.TAuthor.T_AUTHOR;
+import static org.jooq.test.TBook.T_BOOK;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jooq.ExecuteContext;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.conf.Settings;
+import org.jooq.test.TAuthor;
+import org.jooq.test.TAuthorRecord;
+import org.jooq.test.TBook;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link RecordCache}
+ *
+ * @author Lukas Eder
+ */
+public class RecordCacheTest {
+
+    private Connection  connection;
+    private Executor    create;
+    private RecordCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:record-cache-test", "sa", "");
+
+        Settings settings = new Settings();
+        settings.setExecuteLogging(false);
+        settings.getExecuteListeners().add(FetchBlocker.class.getName());
+
+        create = new Executor(connection, SQLDialect.H2, settings);
+        create.execute(TAuthor.DDL);
+        create.execute(TBook.DDL);
+        create.insertInto(T_AUTHOR, ID, NAME)
+              .values(1, "Orwell")
+              .values(2, "Coelho")
+              .execute();
+
+        cache = new RecordCache();
+        cache.enable(T_AUTHOR);
+        cache.install(create);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FetchBlocker.thread = null;
+
+        create.execute("drop table t_book");
+        create.execute("drop table t_author");
+        connection.close();
+    }
+
+    @Test
+    public void testCopyIsolation() throws Exception {
+        Result<TAuthorRecord> result = create.selectFrom(T_AUTHOR).orderBy(ID).fetch();
+        assertEquals(2, cache.size());
+
+        // Modifying fetched records doesn't modify cached records
+        result.get(0).setValue(NAME, "Modified");
+        TAuthorRecord r1 = cache.get(T_AUTHOR, singletonList((Object) 1), create);
+        assertNotSame(result.get(0), r1);
+        assertEquals("Orwell", r1.getValue(NAME));
+
+        // Modifying cached records doesn't modify cached records either
+        r1.setValue(NAME, "Modified");
+        TAuthorRecord r2 = cache.get(T_AUTHOR, singletonList((Object) 1), create);
+        assertNotSame(r1, r2);
+        assertEquals("Orwell", r2.getValue(NAME));
+        assertFalse(r2.changed());
+
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    public void testGenerationGuard() throws Exception {
+        Result<TAuthorRecord> result = create.selectFrom(T_AUTHOR).fetch();
+        cache.clear();
+
+        // Records fetched before an invalidation are not cached anymore
+        long before = cache.generation();
+        cache.invalidate(T_AUTHOR);
+        cache.put(result, before);
+        assertEquals(0, cache.size());
+
+        cache.put(result, cache.generation());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testGenerationGuardConcurrentInvalidation() throws Exception {
+        final Throwable[] error = new Throwable[1];
+
+        // Fetch authors in another thread, which is blocked after fetching,
+        // but before putting records into the cache
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    create.selectFrom(T_AUTHOR).fetch();
+                }
+                catch (Throwable e) {
+                    error[0] = e;
+                }
+            }
+        };
+
+        FetchBlocker.thread = reader;
+        FetchBlocker.fetched = new CountDownLatch(1);
+        FetchBlocker.resume = new CountDownLatch(1);
+
+        reader.start();
+        assertTrue(FetchBlocker.fetched.await(10, TimeUnit.SECONDS));
+
+        // Modify an author while the reader holds the fetched records
+        create.update(T_AUTHOR).set(NAME, "Blair").where(ID.equal(1)).execute();
+
+        FetchBlocker.resume.countDown();
+        reader.join(10000);
+        assertNull(error[0]);
+
+        // The stale records must not have been cached
+        assertEquals(0, cache.size());
+        assertNull(cache.get(T_AUTHOR, singletonList((Object) 1), create));
+
+        create.selectFrom(T_AUTHOR).fetch();
+        assertEquals("Blair", cache.get(T_AUTHOR, singletonList((Object) 1), create).getValue(NAME));
+    }
+
+    @Test
+    public void testInvalidationByQuery() throws Exception {
+        create.selectFrom(T_AUTHOR).fetch();
+        assertEquals(2, cache.size());
+
+        // Statements on other tables don't invalidate cached records
+        create.insertInto(T_BOOK, TBook.ID, TBook.AUTHOR_ID, TBook.TITLE).values(1, 1, "1984").execute();
+        assertEquals(2, cache.size());
+
+        create.update(T_AUTHOR).set(NAME, "Blair").where(ID.equal(1)).execute();
+        assertEquals(0, cache.size());
+
+        // Storing records invalidates cached records, too
+        TAuthorRecord record = create.selectFrom(T_AUTHOR).where(ID.equal(2)).fetchOne();
+        assertEquals(1, cache.size());
+
+        record.setValue(NAME, "Paulo Coelho");
+        record.store();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidationByBatchSingle() throws Exception {
+        create.selectFrom(T_AUTHOR).fetch();
+        assertEquals(2, cache.size());
+
+        create.batch(create.update(T_AUTHOR).set(NAME, "").where(ID.equal(0)))
+              .bind("Blair", 1)
+              .bind("Paulo Coelho", 2)
+              .execute();
+
+        assertEquals(0, cache.size());
+        assertNull(cache.get(T_AUTHOR, singletonList((Object) 1), create));
+    }
+
+    @Test
+    public void testInvalidationByBatchMultiple() throws Exception {
+        create.selectFrom(T_AUTHOR).fetch();
+        assertEquals(2, cache.size());
+
+        create.batch(
+            create.insertInto(T_BOOK, TBook.ID, TBook.AUTHOR_ID, TBook.TITLE).values(1, 1, "1984"),
+            create.update(T_AUTHOR).set(NAME, "Blair").where(ID.equal(1)))
+              .execute();
+
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * An {@link org.jooq.ExecuteListener} blocking a thread after fetching,
+     * until it is resumed
+     */
+    public static class FetchBlocker extends DefaultExecuteListener {
+
+        static volatile Thread         thread;
+        static volatile CountDownLatch fetched;
+        static volatile CountDownLatch resume;
+
+        @Override
+        public void fetchEnd(ExecuteContext ctx) {
+            if (Thread.currentThread() == thread) {
+                fetched.countDown();
+
+                try {
+                    resume.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.jooq.Record;
+import org.jooq.TableField;
+import org.jooq.UniqueKey;
+
+import org.junit.Test;
+
+/**
+ * Some common tests related to change tracking in {@link AbstractRecord}
+ *
+ * @author Lukas Eder
+ */
+public class RecordChangedTest {
+
+    @Test
+    public void testNewRecord() throws Exception {
+        KeyRecord record = new KeyRecord();
+
+        assertFalse(record.changed());
+        assertFalse(record.isChanged(0));
+        assertEquals(record, record.original());
+    }
+
+    @Test
+    public void testChanged() throws Exception {
+        KeyRecord record = fetched(1, "A");
+
+        assertFalse(record.changed());
+        assertEquals("A", record.original().getValue(KeyTable.NAME));
+
+        record.setValue(KeyTable.NAME, "B");
+        record.setValue(KeyTable.NAME, "C");
+
+        assertTrue(record.changed());
+        assertFalse(record.isChanged(0));
+        assertTrue(record.isChanged(1));
+        assertEquals("C", record.getValue(KeyTable.NAME));
+
+        // The original value is the one prior to the first modification
+        assertEquals("A", record.original().getValue(KeyTable.NAME));
+        assertEquals(1, (int) record.original().getValue(KeyTable.ID));
+        assertFalse(record.original().changed());
+
+        // [#945] Setting the same value flags it as changed, too
+        KeyRecord same = fetched(1, "A");
+        same.setValue(KeyTable.NAME, "A");
+        assertTrue(same.changed());
+    }
+
+    @Test
+    public void testInitValue() throws Exception {
+        KeyRecord record = fetched(1, "A");
+        record.setValue(KeyTable.NAME, "B");
+
+        // Loading a value makes it the original value, and unchanged
+        record.initValue(KeyTable.NAME, "C");
+        assertFalse(record.changed());
+        assertEquals("C", record.getValue(KeyTable.NAME));
+        assertEquals("C", record.original().getValue(KeyTable.NAME));
+    }
+
+    @Test
+    public void testSetAllChanged() throws Exception {
+        KeyRecord record = fetched(1, "A");
+
+        record.setAllChanged(true);
+        assertTrue(record.isChanged(0));
+        assertTrue(record.isChanged(1));
+
+        record.setAllChanged(false);
+        assertFalse(record.changed());
+    }
+
+    @Test
+    public void testMainKeyUnchanged() throws Exception {
+        KeyRecord record = fetched(1, "A");
+
+        // Setting the main key to its current value doesn't change anything
+        record.setValue(KeyTable.ID, 1);
+        assertFalse(record.changed());
+    }
+
+    @Test
+    public void testMainKeyChanged() throws Exception {
+        KeyRecord record = fetched(1, "A");
+
+        // [#979] Changing the main key flags all values as changed, such that
+        // storing the record issues an INSERT of all values
+        record.setValue(KeyTable.ID, 2);
+        assertTrue(record.isChanged(0));
+        assertTrue(record.isChanged(1));
+        assertEquals(1, (int) record.original().getValue(KeyTable.ID));
+
+        // key() refers to the original main key
+        assertEquals(1, (int) record.key().original().getValue(KeyTable.ID));
+        assertEquals(2, (int) record.key().getValue(KeyTable.ID));
+        assertTrue(record.key().changed());
+    }
+
+    @Test
+    public void testMainKeyPreviouslyChanged() throws Exception {
+        KeyRecord record = new KeyRecord();
+
+        // Setting the main key of a new record flags all values
+        record.setValue(KeyTable.ID, 1);
+        assertTrue(record.isChanged(0));
+        assertTrue(record.isChanged(1));
+
+        // Other values are not flagged again, if the main key's changed flag
+        // was set before
+        record.setChanged(1, false);
+        record.setValue(KeyTable.ID, 2);
+        assertTrue(record.isChanged(0));
+        assertFalse(record.isChanged(1));
+    }
+
+    @Test
+    public void testCopyValueWithoutOriginals() throws Exception {
+        KeyRecord source = fetched(1, "A");
+        source.setValue(KeyTable.NAME, "B");
+
+        // The target has not been modified yet, and keeps no originals
+        KeyRecord target = fetched(2, "X");
+        target.copyValue(1, source, 1);
+
+        assertEquals("B", target.getValue(KeyTable.NAME));
+        assertEquals("A", target.getOriginal(1));
+        assertTrue(target.isChanged(1));
+
+        // Other values' originals are unaffected
+        assertEquals(2, target.getOriginal(0));
+        assertFalse(target.isChanged(0));
+        assertEquals(2, (int) target.original().getValue(KeyTable.ID));
+        assertEquals("A", target.original().getValue(KeyTable.NAME));
+    }
+
+    @Test
+    public void testCopyUnchangedValue() throws Exception {
+        KeyRecord source = fetched(1, "A");
+        KeyRecord target = new KeyRecord();
+        target.setValue(KeyTable.NAME, "X");
+
+        target.copyValue(1, source, 1);
+        assertEquals("A", target.getValue(KeyTable.NAME));
+        assertEquals("A", target.getOriginal(1));
+        assertFalse(target.isChanged(1));
+        assertFalse(target.changed());
+    }
+
+    @Test
+    public void testKeyOfUnchangedRecord() throws Exception {
+        Record key = fetched(1, "A").key();
+
+        assertFalse(key.changed());
+        assertEquals(1, (int) key.getValue(KeyTable.ID));
+        assertEquals(1, key.getFields().size());
+    }
+
+    private static KeyRecord fetched(Integer id, String name) {
+        KeyRecord record = new KeyRecord();
+        record.initValue(KeyTable.ID, id);
+        record.initValue(KeyTable.NAME, name);
+        return record;
+    }
+
+    static class KeyTable extends UpdatableTableImpl<KeyRecord> {
+
+        /**
+         * Generated UID
+         */
+        private static final long                    serialVersionUID = 1573616101716366711L;
+
+        static final KeyTable                        KEY_TABLE        = new KeyTable();
+        static final TableField<KeyRecord, Integer>  ID               = createField("ID", SQLDataType.INTEGER, KEY_TABLE);
+        static final TableField<KeyRecord, String>   NAME             = createField("NAME", SQLDataType.VARCHAR, KEY_TABLE);
+        @SuppressWarnings("unchecked")
+        static final UniqueKey<KeyRecord>            PK               = Keys.createUniqueKey(KEY_TABLE, ID);
+
+        KeyTable() {
+            super("KEY_TABLE");
+        }
+
+        @Override
+        public Class<KeyRecord> getRecordType() {
+            return KeyRecord.class;
+        }
+
+        @Override
+        public UniqueKey<KeyRecord> getMainKey() {
+            return PK;
+        }
+    }
+
+    static class KeyRecord extends UpdatableRecordImpl<KeyRecord> {
+
+        /**
+         * Generated UID
+         */
+        private static final long serialVersionUID = -6061390734521218235L;
+
+        public KeyRecord() {
+            super(KeyTable.KEY_TABLE);
+        }
+    }
+
+    static class Keys extends AbstractKeys {
+    }
+}
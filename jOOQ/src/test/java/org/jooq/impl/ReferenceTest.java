@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.impl;
+
+import static org.jooq.test.Keys.FK_T_BOOK_AUTHOR;
+import static org.jooq.test.TAuthor.T_AUTHOR;
+import static org.jooq.test.TBook.T_BOOK;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.conf.Settings;
+import org.jooq.test.TAuthor;
+import org.jooq.test.TAuthorRecord;
+import org.jooq.test.TBook;
+import org.jooq.test.TBookRecord;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link ReferenceImpl}
+ *
+ * @author Lukas Eder
+ */
+public class ReferenceTest {
+
+    private Connection connection;
+    private Executor   create;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:reference-test", "sa", "");
+
+        Settings settings = new Settings();
+        settings.setExecuteLogging(false);
+        settings.getExecuteListeners().add(BatchStoreTest.StatementRecorder.class.getName());
+
+        create = new Executor(connection, SQLDialect.H2, settings);
+        create.execute(TAuthor.DDL);
+        create.execute(TBook.DDL);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        create.execute("drop table t_book");
+        create.execute("drop table t_author");
+        connection.close();
+    }
+
+    @Test
+    public void testFetchParents() throws Exception {
+        insertAuthorsAndBooks();
+        List<TBookRecord> books = create.selectFrom(T_BOOK).orderBy(TBook.ID).fetch();
+
+        BatchStoreTest.StatementRecorder.STATEMENTS.clear();
+        Map<TBookRecord, TAuthorRecord> parents = FK_T_BOOK_AUTHOR.fetchParents(books);
+        assertEquals(1, BatchStoreTest.StatementRecorder.STATEMENTS.size());
+
+        assertEquals(4, parents.size());
+        assertEquals("Orwell", parents.get(books.get(0)).getValue(TAuthor.NAME));
+        assertEquals("Orwell", parents.get(books.get(1)).getValue(TAuthor.NAME));
+        assertEquals("Coelho", parents.get(books.get(2)).getValue(TAuthor.NAME));
+
+        // Books without an author have no parent
+        assertTrue(parents.containsKey(books.get(3)));
+        assertNull(parents.get(books.get(3)));
+    }
+
+    @Test
+    public void testFetchChildren() throws Exception {
+        insertAuthorsAndBooks();
+        List<TAuthorRecord> authors = create.selectFrom(T_AUTHOR).orderBy(TAuthor.ID).fetch();
+
+        BatchStoreTest.StatementRecorder.STATEMENTS.clear();
+        Map<TAuthorRecord, Result<TBookRecord>> children = FK_T_BOOK_AUTHOR.fetchChildren(authors);
+        assertEquals(1, BatchStoreTest.StatementRecorder.STATEMENTS.size());
+
+        assertEquals(3, children.size());
+        assertEquals(2, children.get(authors.get(0)).size());
+        assertEquals(1, children.get(authors.get(1)).size());
+        assertEquals("Alchemist", children.get(authors.get(1)).get(0).getValue(TBook.TITLE));
+
+        // Authors without books have an empty result, books without an
+        // author are nobody's children
+        assertEquals(0, children.get(authors.get(2)).size());
+    }
+
+    @Test
+    public void testFetchNullForeignKeys() throws Exception {
+        insertAuthorsAndBooks();
+        List<TBookRecord> books = create.selectFrom(T_BOOK).where(TBook.AUTHOR_ID.isNull()).fetch();
+
+        // No statement is needed if there are no key values to look up
+        BatchStoreTest.StatementRecorder.STATEMENTS.clear();
+        Map<TBookRecord, TAuthorRecord> parents = FK_T_BOOK_AUTHOR.fetchParents(books);
+        assertEquals(0, BatchStoreTest.StatementRecorder.STATEMENTS.size());
+
+        assertEquals(1, parents.size());
+        assertNull(parents.get(books.get(0)));
+        assertTrue(FK_T_BOOK_AUTHOR.fetchParents(Collections.<TBookRecord> emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testFetchChunked() throws Exception {
+
+        // Lookups are chunked by the dialect's bind value limit. SQLite's low
+        // limit keeps chunks small, and its SQL can be executed by H2, too
+        Executor sqlite = new Executor(connection, SQLDialect.SQLITE, create.getSettings());
+        int count = 2 * Utils.maxBindValues(SQLDialect.SQLITE) + 100;
+        create.execute("insert into t_author select x, 'Author ' || x from system_range(1, " + count + ")");
+        create.execute("insert into t_book select x, x, 'Book ' || x from system_range(1, " + count + ")");
+
+        List<TBookRecord> books = sqlite.selectFrom(T_BOOK).fetch();
+        BatchStoreTest.StatementRecorder.STATEMENTS.clear();
+        Map<TBookRecord, TAuthorRecord> parents = FK_T_BOOK_AUTHOR.fetchParents(books);
+        assertEquals(3, BatchStoreTest.StatementRecorder.STATEMENTS.size());
+
+        assertEquals(count, parents.size());
+        for (Entry<TBookRecord, TAuthorRecord> entry : parents.entrySet()) {
+            assertEquals(entry.getKey().getValue(TBook.AUTHOR_ID), entry.getValue().getValue(TAuthor.ID));
+        }
+
+        List<TAuthorRecord> authors = sqlite.selectFrom(T_AUTHOR).fetch();
+        BatchStoreTest.StatementRecorder.STATEMENTS.clear();
+        Map<TAuthorRecord, Result<TBookRecord>> children = FK_T_BOOK_AUTHOR.fetchChildren(authors);
+        assertEquals(3, BatchStoreTest.StatementRecorder.STATEMENTS.size());
+
+        assertEquals(count, children.size());
+        for (Entry<TAuthorRecord, Result<TBookRecord>> entry : children.entrySet()) {
+            assertEquals(1, entry.getValue().size());
+            assertEquals(entry.getKey().getValue(TAuthor.ID), entry.getValue().get(0).getValue(TBook.AUTHOR_ID));
+        }
+    }
+
+    private void insertAuthorsAndBooks() {
+        create.insertInto(T_AUTHOR, TAuthor.ID, TAuthor.NAME)
+              .values(1, "Orwell")
+              .values(2, "Coelho")
+              .values(3, "Hesse")
+              .execute();
+        create.insertInto(T_BOOK, TBook.ID, TBook.AUTHOR_ID, TBook.TITLE)
+              .values(1, 1, "1984")
+              .values(2, 1, "Animal Farm")
+              .values(3, 2, "Alchemist")
+              .values(4, null, "Anonymous")
+              .execute();
+    }
+}
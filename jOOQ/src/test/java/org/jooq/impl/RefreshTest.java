@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.impl;
+
+import static org.jooq.test.TAuthor.T_AUTHOR;
+import static org.jooq.test.TBook.T_BOOK;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jooq.Field;
+import org.jooq.SQLDialect;
+import org.jooq.UpdatableRecord;
+import org.jooq.conf.Settings;
+import org.jooq.exception.InvalidResultException;
+import org.jooq.test.TAuthor;
+import org.jooq.test.TAuthorRecord;
+import org.jooq.test.TBook;
+import org.jooq.test.TBookRecord;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link Executor#refresh(java.util.Collection)}
+ *
+ * @author Lukas Eder
+ */
+public class RefreshTest {
+
+    private Connection connection;
+    private Executor   create;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:refresh-test", "sa", "");
+
+        Settings settings = new Settings();
+        settings.setExecuteLogging(false);
+        settings.getExecuteListeners().add(BatchStoreTest.StatementRecorder.class.getName());
+
+        create = new Executor(connection, SQLDialect.H2, settings);
+        create.execute(TAuthor.DDL);
+        create.execute(TBook.DDL);
+        create.insertInto(T_AUTHOR, TAuthor.ID, TAuthor.NAME)
+              .values(1, "Orwell")
+              .values(2, "Coelho")
+              .values(3, "Hesse")
+              .execute();
+        create.insertInto(T_BOOK, TBook.ID, TBook.AUTHOR_ID, TBook.TITLE)
+              .values(1, 1, "1984")
+              .values(2, 2, "Alchemist")
+              .execute();
+
+        BatchStoreTest.StatementRecorder.STATEMENTS.clear();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        create.execute("drop table t_book");
+        create.execute("drop table t_author");
+        connection.close();
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+        List<UpdatableRecord<?>> records = new ArrayList<UpdatableRecord<?>>();
+        records.add(author(1));
+        records.add(book(1));
+        records.add(author(3));
+        records.add(book(2));
+
+        create.refresh(records);
+
+        // One statement per table
+        assertEquals(2, BatchStoreTest.StatementRecorder.STATEMENTS.size());
+
+        assertEquals("Orwell", records.get(0).getValue(TAuthor.NAME));
+        assertEquals("1984", records.get(1).getValue(TBook.TITLE));
+        assertEquals(1, (int) records.get(1).getValue(TBook.AUTHOR_ID));
+        assertEquals("Hesse", records.get(2).getValue(TAuthor.NAME));
+        assertEquals("Alchemist", records.get(3).getValue(TBook.TITLE));
+
+        for (UpdatableRecord<?> record : records) {
+            assertFalse(record.changed());
+        }
+    }
+
+    @Test
+    public void testRefreshMissingRecords() throws Exception {
+        TAuthorRecord a1 = author(1);
+        TAuthorRecord a4 = author(4);
+        TBookRecord b3 = book(3);
+        List<UpdatableRecord<?>> records = new ArrayList<UpdatableRecord<?>>();
+        records.add(a4);
+        records.add(a1);
+        records.add(b3);
+
+        try {
+            create.refresh(records);
+            fail();
+        }
+        catch (InvalidResultException e) {
+            assertEquals(2, e.getRecords().size());
+            assertSame(a4, e.getRecords().get(0));
+            assertSame(b3, e.getRecords().get(1));
+        }
+
+        // Existing records are refreshed anyway
+        assertEquals("Orwell", a1.getValue(TAuthor.NAME));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Test
+    public void testRefreshConvertsKeyValues() throws Exception {
+        TAuthorRecord record = create.newRecord(T_AUTHOR);
+
+        // Key values of a type other than the key's type are still matched
+        record.setValue((Field) TAuthor.ID, 2L);
+        create.refresh(Collections.singletonList(record));
+
+        assertEquals("Coelho", record.getValue(TAuthor.NAME));
+        assertEquals(Integer.valueOf(2), record.getValue(TAuthor.ID));
+    }
+
+    private TAuthorRecord author(int id) {
+        TAuthorRecord result = create.newRecord(T_AUTHOR);
+        result.setValue(TAuthor.ID, id);
+        return result;
+    }
+
+    private TBookRecord book(int id) {
+        TBookRecord result = create.newRecord(T_BOOK);
+        result.setValue(TBook.ID, id);
+        return result;
+    }
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.impl;
+
+import static org.jooq.impl.Factory.exists;
+import static org.jooq.impl.Factory.inline;
+import static org.jooq.impl.Factory.val;
+import static org.jooq.test.Table1.FIELD_ID1;
+import static org.jooq.test.Table1.FIELD_NAME1;
+import static org.jooq.test.Table1.TABLE1;
+import static org.jooq.test.Table2.FIELD_ID2;
+import static org.jooq.test.Table2.FIELD_NAME2;
+import static org.jooq.test.Table2.TABLE2;
+import static org.jooq.test.Table3.FIELD_ID3;
+import static org.jooq.test.Table3.TABLE3;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.Table;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link ResultCache} and {@link TableCollector}
+ *
+ * @author Lukas Eder
+ */
+public class ResultCacheTest {
+
+    private Connection  connection;
+    private Executor    create;
+    private ResultCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:result-cache-test", "sa", "");
+        create = new Executor(connection, SQLDialect.H2);
+
+        create.execute("create table table1 (id1 int, name1 varchar(50), date1 date)");
+        create.execute("create table table2 (id2 int, name2 varchar(50), date2 date)");
+        create.execute("insert into table1 (id1, name1) values (1, 'a'), (2, 'b')");
+        create.execute("insert into table2 (id2, name2) values (1, 'x')");
+
+        cache = new ResultCache();
+        cache.install(create);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ResultCache.uninstall(create);
+        create.execute("drop table table1");
+        create.execute("drop table table2");
+        connection.close();
+    }
+
+    @Test
+    public void testCollectTables() {
+        assertEquals(
+            new LinkedHashSet<String>(Arrays.asList("TABLE1")),
+            collect(create.selectFrom(TABLE1).where(FIELD_ID1.equal(1))).result);
+    }
+
+    @Test
+    public void testCollectTablesThroughJoinsAndAliases() {
+        Table<?> t2 = TABLE2.as("t2");
+
+        TableCollector collector = collect(create
+            .select(FIELD_ID1)
+            .from(TABLE1)
+            .join(t2).on(FIELD_ID1.equal(t2.getField(FIELD_ID2))));
+
+        assertEquals(new LinkedHashSet<String>(Arrays.asList("TABLE1", "TABLE2")), collector.result);
+        assertFalse(collector.plainSQL);
+    }
+
+    @Test
+    public void testCollectTablesThroughSubqueries() {
+        TableCollector collector = collect(create
+            .select(FIELD_ID1)
+            .from(TABLE1, create.select(FIELD_ID3).from(TABLE3).asTable("nested"))
+            .where(exists(create.selectOne().from(TABLE2).where(FIELD_ID2.equal(FIELD_ID1)))));
+
+        assertEquals(new LinkedHashSet<String>(Arrays.asList("TABLE1", "TABLE2", "TABLE3")), collector.result);
+    }
+
+    @Test
+    public void testCollectPlainSQL() {
+        TableCollector collector = collect(create.select(FIELD_ID1).from(TABLE1).where("1 = 1"));
+
+        assertEquals(new LinkedHashSet<String>(Arrays.asList("TABLE1")), collector.result);
+        assertTrue(collector.plainSQL);
+    }
+
+    @Test
+    public void testStatement() {
+        assertNull(new TableCollector(create).statement());
+    }
+
+    @Test
+    public void testHits() {
+        Result<?> r1 = create.selectFrom(TABLE1).orderBy(FIELD_ID1).fetch();
+        Result<?> r2 = create.selectFrom(TABLE1).orderBy(FIELD_ID1).fetch();
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+        assertEquals(r1, r2);
+
+        // Different bind values are different queries
+        create.selectFrom(TABLE1).where(FIELD_ID1.equal(1)).fetch();
+        create.selectFrom(TABLE1).where(FIELD_ID1.equal(2)).fetch();
+        create.selectFrom(TABLE1).where(FIELD_ID1.equal(2)).fetch();
+
+        assertEquals(3, cache.getMisses());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    public void testCopies() {
+        Result<?> r1 = create.select(FIELD_NAME1).from(TABLE1).where(FIELD_ID1.equal(1)).fetch();
+        r1.get(0).setValue(FIELD_NAME1, "changed");
+
+        Result<?> r2 = create.select(FIELD_NAME1).from(TABLE1).where(FIELD_ID1.equal(1)).fetch();
+        assertEquals(1, cache.getHits());
+        assertEquals("a", r2.getValue(0, FIELD_NAME1));
+    }
+
+    @Test
+    public void testInvalidateOnDML() {
+        create.select(FIELD_NAME1).from(TABLE1).where(FIELD_ID1.equal(1)).fetch();
+        create.select(FIELD_NAME2).from(TABLE2).where(FIELD_ID2.equal(1)).fetch();
+        assertEquals(2, cache.size());
+
+        create.update(TABLE1).set(FIELD_NAME1, inline("c")).where(FIELD_ID1.equal(inline(1))).execute();
+        assertEquals(1, cache.size());
+
+        Result<Record> result = create.select(FIELD_NAME1).from(TABLE1).where(FIELD_ID1.equal(1)).fetch();
+        assertEquals("c", result.getValue(0, FIELD_NAME1));
+        assertEquals(3, cache.getMisses());
+
+        // TABLE2's result was not affected
+        create.select(FIELD_NAME2).from(TABLE2).where(FIELD_ID2.equal(1)).fetch();
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testInvalidateOnDMLThroughJoins() {
+        create.select(FIELD_NAME1, FIELD_NAME2)
+              .from(TABLE1)
+              .join(TABLE2).on(FIELD_ID1.equal(FIELD_ID2))
+              .fetch();
+        assertEquals(1, cache.size());
+
+        create.insertInto(TABLE2, FIELD_ID2, FIELD_NAME2).values(val(2), val("y")).execute();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidateOnPlainSQL() {
+        create.selectFrom(TABLE1).fetch();
+        create.selectFrom(TABLE2).fetch();
+        assertEquals(2, cache.size());
+
+        create.query("update table1 set name1 = 'c'").execute();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidateTables() {
+        create.selectFrom(TABLE1).fetch();
+        create.selectFrom(TABLE2).fetch();
+
+        cache.invalidate(TABLE2);
+        assertEquals(1, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testForUpdateIsNotCached() {
+        create.selectFrom(TABLE1).forUpdate().fetch();
+        create.selectFrom(TABLE1).forUpdate().fetch();
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHits());
+    }
+
+    private TableCollector collect(org.jooq.QueryPart part) {
+        TableCollector collector = new TableCollector(create);
+        collector.bind(part);
+        return collector;
+    }
+}
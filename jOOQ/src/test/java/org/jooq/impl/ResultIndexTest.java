@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.impl;
+
+import static org.jooq.test.Table1.FIELD_DATE1;
+import static org.jooq.test.Table1.FIELD_ID1;
+import static org.jooq.test.Table1.FIELD_NAME1;
+import static org.jooq.test.Table1.TABLE1;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Date;
+
+import org.jooq.Result;
+import org.jooq.ResultIndex;
+import org.jooq.SQLDialect;
+import org.jooq.exception.InvalidResultException;
+import org.jooq.test.Table1Record;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link ResultIndexImpl}
+ *
+ * @author Lukas Eder
+ */
+public class ResultIndexTest {
+
+    private Executor            create;
+    private Result<Table1Record> result;
+
+    @Before
+    public void setUp() throws Exception {
+        create = new Executor(SQLDialect.H2);
+        result = new ResultImpl<Table1Record>(create, new FieldList(TABLE1.getFields()));
+
+        // 1000 records with 37 distinct names, enforcing long chains and
+        // hash collisions in the index's hash table
+        for (int i = 0; i < 1000; i++) {
+            result.add(record(i, "name" + (i % 37)));
+        }
+    }
+
+    @Test
+    public void testUniqueIndex() throws Exception {
+        ResultIndex<Table1Record> index = result.uniqueIndex(FIELD_ID1);
+
+        assertTrue(index.isUnique());
+        assertEquals(1000, index.size());
+
+        for (int i = 0; i < 1000; i++) {
+            assertSame(result.get(i), index.get(i));
+            assertArrayEquals(new int[] { i }, index.positions(i));
+        }
+
+        assertFalse(index.contains(1000));
+        assertNull(index.get(1000));
+        assertEquals(0, index.getAll(1000).size());
+        assertEquals(0, index.positions(1000).length);
+    }
+
+    @Test
+    public void testChains() throws Exception {
+        ResultIndex<Table1Record> index = result.index(FIELD_NAME1);
+
+        assertFalse(index.isUnique());
+        assertEquals(37, index.size());
+
+        for (int i = 0; i < 37; i++) {
+            Result<Table1Record> all = index.getAll("name" + i);
+            int[] positions = index.positions("name" + i);
+
+            assertEquals(positions.length, all.size());
+
+            // Chains preserve the original record order
+            for (int j = 0; j < positions.length; j++) {
+                assertEquals(i + j * 37, positions[j]);
+                assertSame(result.get(positions[j]), all.get(j));
+            }
+        }
+    }
+
+    @Test
+    public void testMultipleKeys() throws Exception {
+        ResultIndex<Table1Record> index = result.uniqueIndex(FIELD_NAME1, FIELD_ID1);
+
+        assertEquals(1000, index.size());
+        assertSame(result.get(38), index.get("name1", 38));
+        assertFalse(index.contains("name2", 38));
+    }
+
+    @Test
+    public void testProbeConversion() throws Exception {
+        ResultIndex<Table1Record> index = result.uniqueIndex(FIELD_ID1);
+
+        assertSame(result.get(5), index.get("5"));
+        assertSame(result.get(5), index.get(5L));
+        assertTrue(index.contains(new java.math.BigDecimal("999")));
+    }
+
+    @Test
+    public void testNullKeys() throws Exception {
+        result.add(record(null, null));
+        result.add(record(null, null));
+
+        ResultIndex<Table1Record> index = result.index(FIELD_ID1);
+        assertArrayEquals(new int[] { 1000, 1001 }, index.positions((Object) null));
+        assertArrayEquals(new int[] { 1000, 1001 }, index.positions((Object[]) null));
+        assertTrue(result.index(FIELD_DATE1).contains((Date) null));
+    }
+
+    @Test(expected = InvalidResultException.class)
+    public void testUniqueIndexDuplicates() throws Exception {
+        result.uniqueIndex(FIELD_NAME1);
+    }
+
+    @Test(expected = InvalidResultException.class)
+    public void testGetDuplicates() throws Exception {
+        result.index(FIELD_NAME1).get("name1");
+    }
+
+    @Test
+    public void testGetSingleInNonUniqueIndex() throws Exception {
+        ResultIndex<Table1Record> index = result.index(FIELD_ID1);
+        assertSame(result.get(7), index.get(7));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testProbeLength() throws Exception {
+        result.index(FIELD_ID1).get(1, 2);
+    }
+
+    private Table1Record record(Integer id, String name) {
+        Table1Record record = create.newRecord(TABLE1);
+        record.setValue(FIELD_ID1, id);
+        record.setValue(FIELD_NAME1, name);
+        return record;
+    }
+}
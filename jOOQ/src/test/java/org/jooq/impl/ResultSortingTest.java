@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.impl;
+
+import static org.jooq.impl.Factory.fieldByName;
+import static org.jooq.test.Table1.FIELD_ID1;
+import static org.jooq.test.Table1.FIELD_NAME1;
+import static org.jooq.test.Table1.TABLE1;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.test.Table1Record;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link ResultSorting}
+ *
+ * @author Lukas Eder
+ */
+public class ResultSortingTest {
+
+    private Executor             create;
+    private Result<Table1Record> result;
+
+    @Before
+    public void setUp() throws Exception {
+        create = new Executor(SQLDialect.H2);
+        result = new ResultImpl<Table1Record>(create, new FieldList(TABLE1.getFields()));
+
+        // IDs are unique and ascending, such that they reflect the original
+        // record order. Names contain duplicates and nulls
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            int name = random.nextInt(20);
+            result.add(record(i, name == 0 ? null : "name" + (char) ('a' + name)));
+        }
+    }
+
+    @Test
+    public void testMultipleKeys() throws Exception {
+        result.sort(FIELD_NAME1.asc(), FIELD_ID1.desc());
+
+        assertSorted(result, new Comparator<Table1Record>() {
+            @Override
+            public int compare(Table1Record r1, Table1Record r2) {
+                int result = compareNullsFirst(r1.getValue(FIELD_NAME1), r2.getValue(FIELD_NAME1));
+                return result != 0 ? result : r2.getValue(FIELD_ID1).compareTo(r1.getValue(FIELD_ID1));
+            }
+        });
+    }
+
+    @Test
+    public void testNulls() throws Exception {
+
+        // By default, null is smaller than any other value
+        result.sort(FIELD_NAME1.asc());
+        assertNull(result.get(0).getValue(FIELD_NAME1));
+        assertNull(result.sort(FIELD_NAME1.desc()).get(999).getValue(FIELD_NAME1));
+
+        // Explicit NULLS FIRST / NULLS LAST override the default
+        assertNull(result.sort(FIELD_NAME1.asc().nullsLast()).get(999).getValue(FIELD_NAME1));
+        assertNull(result.sort(FIELD_NAME1.desc().nullsFirst()).get(0).getValue(FIELD_NAME1));
+
+        result.sort(FIELD_NAME1.desc().nullsFirst());
+        assertSorted(result, new Comparator<Table1Record>() {
+            @Override
+            public int compare(Table1Record r1, Table1Record r2) {
+                String s1 = r1.getValue(FIELD_NAME1);
+                String s2 = r2.getValue(FIELD_NAME1);
+                return s1 == null || s2 == null ? compareNullsFirst(s1, s2) : s2.compareTo(s1);
+            }
+        });
+    }
+
+    @Test
+    public void testStability() throws Exception {
+        result.sort(FIELD_NAME1.desc());
+
+        // Records with equal names retain their original order
+        for (int i = 1; i < result.size(); i++) {
+            Table1Record r1 = result.get(i - 1);
+            Table1Record r2 = result.get(i);
+
+            if (compareNullsFirst(r1.getValue(FIELD_NAME1), r2.getValue(FIELD_NAME1)) == 0) {
+                assertEquals(-1, r1.getValue(FIELD_ID1).compareTo(r2.getValue(FIELD_ID1)));
+            }
+        }
+    }
+
+    @Test
+    public void testParallelSort() throws Exception {
+        Comparator<Table1Record> comparator = ResultSorting.comparator(result, FIELD_NAME1.asc());
+
+        for (int parts = 1; parts <= 7; parts++) {
+            Table1Record[] expected = result.toArray(new Table1Record[result.size()]);
+            Table1Record[] actual = result.toArray(new Table1Record[result.size()]);
+
+            Arrays.sort(expected, comparator);
+            ResultSorting.sort(actual, comparator, parts);
+
+            // Both sorts are stable, so the same record instances are expected
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testTop() throws Exception {
+        List<Table1Record> sorted = new ArrayList<Table1Record>(result);
+        Collections.sort(sorted, ResultSorting.<Table1Record>comparator(result, FIELD_NAME1.desc(), FIELD_ID1.asc()));
+
+        for (int n : new int[] { 0, 1, 10, 999, 1000, 1001 }) {
+            Result<Table1Record> top = result.top(n, FIELD_NAME1.desc(), FIELD_ID1.asc());
+            assertEquals(sorted.subList(0, Math.min(n, 1000)), top);
+        }
+
+        // Ties are resolved by the original record order
+        List<Table1Record> byName = new ArrayList<Table1Record>(result);
+        Collections.sort(byName, ResultSorting.<Table1Record>comparator(result, FIELD_NAME1.asc()));
+        assertEquals(byName.subList(0, 100), result.top(100, FIELD_NAME1.asc()));
+
+        // The result itself is not modified
+        for (int i = 0; i < result.size(); i++) {
+            assertEquals(i, (int) result.get(i).getValue(FIELD_ID1));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonComparableType() throws Exception {
+        Field<byte[]> blob = fieldByName(byte[].class, "BLOB");
+        new ResultImpl<Record>(create, new FieldList(FIELD_ID1, blob)).sort(blob.asc());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonComparableValue() throws Exception {
+        Field<Object> other = fieldByName("OTHER");
+        FieldList fields = new FieldList(FIELD_ID1, other);
+        Result<Record> r = new ResultImpl<Record>(create, fields);
+
+        for (int i = 0; i < 2; i++) {
+            Record record = Utils.newRecord(Record.class, fields, create);
+            record.setValue(other, new Object());
+            r.add(record);
+        }
+
+        r.sort(other.asc());
+    }
+
+    private Table1Record record(Integer id, String name) {
+        Table1Record record = create.newRecord(TABLE1);
+        record.setValue(FIELD_ID1, id);
+        record.setValue(FIELD_NAME1, name);
+        return record;
+    }
+
+    private static int compareNullsFirst(String s1, String s2) {
+        return s1 == null ? (s2 == null ? 0 : -1) : s2 == null ? 1 : s1.compareTo(s2);
+    }
+
+    private static void assertSorted(List<Table1Record> list, Comparator<Table1Record> comparator) {
+        for (int i = 1; i < list.size(); i++) {
+            assertEquals(true, comparator.compare(list.get(i - 1), list.get(i)) <= 0);
+        }
+    }
+}
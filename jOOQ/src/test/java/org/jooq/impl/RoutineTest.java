@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jooq.ExecuteContext;
+import org.jooq.Parameter;
+import org.jooq.SQLDialect;
+import org.jooq.conf.Settings;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link AbstractRoutine} and
+ * {@link BatchRoutine}
+ *
+ * @author Lukas Eder
+ */
+public class RoutineTest {
+
+    private Connection connection;
+    private Executor   create;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:hsqldb:mem:routine-test", "sa", "");
+
+        Settings settings = new Settings();
+        settings.setExecuteLogging(false);
+        settings.getExecuteListeners().add(PrepareCounter.class.getName());
+
+        create = new Executor(connection, SQLDialect.HSQLDB, settings);
+        create.execute("create procedure p_double(in i int, out o int) set o = i * 2");
+
+        PrepareCounter.COUNT.set(0);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        create.execute("drop procedure p_double");
+        connection.close();
+    }
+
+    @Test
+    public void testStatementNotKept() throws Exception {
+        PDouble p = new PDouble();
+        p.attach(create);
+
+        p.setI(1);
+        p.execute();
+        assertEquals(2, (int) p.getO());
+
+        p.setI(2);
+        p.execute();
+        assertEquals(4, (int) p.getO());
+
+        assertEquals(2, PrepareCounter.COUNT.get());
+    }
+
+    @Test
+    public void testKeepStatement() throws Exception {
+        PDouble p = new PDouble();
+        p.attach(create);
+        p.keepStatement(true);
+
+        // The statement and its OUT parameter registration are re-used
+        for (int i = 1; i <= 5; i++) {
+            p.setI(i);
+            p.execute();
+            assertEquals(2 * i, (int) p.getO());
+        }
+
+        assertEquals(1, PrepareCounter.COUNT.get());
+
+        // Closing the statement requires preparing a new one
+        p.close();
+        p.close();
+        p.setI(6);
+        p.execute();
+        assertEquals(12, (int) p.getO());
+        assertEquals(2, PrepareCounter.COUNT.get());
+
+        // Statements are no longer kept once this is turned off
+        p.keepStatement(false);
+        p.setI(7);
+        p.execute();
+        p.setI(8);
+        p.execute();
+        assertEquals(16, (int) p.getO());
+        assertEquals(4, PrepareCounter.COUNT.get());
+    }
+
+    @Test
+    public void testBatchCall() throws Exception {
+
+        // HSQLDB doesn't support batches of CallableStatements, H2 does
+        Connection h2 = DriverManager.getConnection("jdbc:h2:mem:routine-test", "sa", "");
+
+        try {
+            Executor batch = new Executor(h2, SQLDialect.H2, create.getSettings());
+            batch.execute("create table t_log (v int)");
+            batch.execute("create alias p_log for \"" + RoutineTest.class.getName() + ".log\"");
+
+            PLog[] calls = new PLog[5];
+            for (int i = 0; i < calls.length; i++) {
+                calls[i] = new PLog();
+                calls[i].setV(i);
+            }
+
+            PrepareCounter.COUNT.set(0);
+            int[] result = batch.batchCall(calls).execute();
+            assertEquals(5, result.length);
+
+            // All calls share a single statement
+            assertEquals(1, PrepareCounter.COUNT.get());
+            assertEquals(
+                Arrays.asList(0, 1, 2, 3, 4),
+                batch.fetch("select v from t_log order by v").getValues(0, Integer.class));
+        }
+        finally {
+            h2.close();
+        }
+    }
+
+    /**
+     * The implementation of the <code>P_LOG</code> procedure in H2
+     */
+    public static void log(Connection c, Integer v) throws SQLException {
+        PreparedStatement s = c.prepareStatement("insert into t_log values (?)");
+
+        try {
+            s.setObject(1, v);
+            s.executeUpdate();
+        }
+        finally {
+            s.close();
+        }
+    }
+
+    @Test
+    public void testBatchCallEmpty() throws Exception {
+        assertArrayEquals(new int[0], create.batchCall().execute());
+        assertEquals(0, PrepareCounter.COUNT.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchCallOutParameters() throws Exception {
+        create.batchCall(new PLog(), new PDouble());
+    }
+
+    /**
+     * A procedure doubling its IN parameter into its OUT parameter
+     */
+    public static class PDouble extends AbstractRoutine<Void> {
+
+        private static final long               serialVersionUID = 5017519604402616211L;
+
+        public static final Parameter<Integer> I                = createParameter("I", SQLDataType.INTEGER);
+        public static final Parameter<Integer> O                = createParameter("O", SQLDataType.INTEGER);
+
+        public PDouble() {
+            super("P_DOUBLE", null);
+
+            addInParameter(I);
+            addOutParameter(O);
+        }
+
+        public void setI(Integer value) {
+            setValue(I, value);
+        }
+
+        public Integer getO() {
+            return getValue(O);
+        }
+    }
+
+    /**
+     * A procedure inserting its IN parameter into a table
+     */
+    public static class PLog extends AbstractRoutine<Void> {
+
+        private static final long               serialVersionUID = -3468310722478010939L;
+
+        public static final Parameter<Integer> V                = createParameter("V", SQLDataType.INTEGER);
+
+        public PLog() {
+            super("P_LOG", null);
+
+            addInParameter(V);
+        }
+
+        public void setV(Integer value) {
+            setValue(V, value);
+        }
+    }
+
+    /**
+     * An {@link org.jooq.ExecuteListener} counting prepared statements
+     */
+    public static class PrepareCounter extends DefaultExecuteListener {
+
+        static final AtomicInteger COUNT = new AtomicInteger();
+
+        @Override
+        public void prepareStart(ExecuteContext ctx) {
+            COUNT.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link TemporalCodec}
+ * <p>
+ * Decoded values must be the same as those produced by
+ * {@link Timestamp#valueOf(String)} and {@link Date#valueOf(String)}
+ *
+ * @author Lukas Eder
+ */
+public class TemporalCodecTest {
+
+    private static final String[] ZONES = {
+        "UTC",
+        "Europe/Berlin",
+        "America/New_York",
+        "America/Sao_Paulo",
+        "Asia/Kolkata",
+        "Australia/Lord_Howe",
+        "Pacific/Apia"
+    };
+
+    private static final long     DAY   = 86400000L;
+
+    private final TimeZone        defaultZone = TimeZone.getDefault();
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(defaultZone);
+        TemporalCodec.resetZone();
+    }
+
+    @Test
+    public void testJulianDates() throws Exception {
+        for (String zone : ZONES) {
+            zone(zone);
+
+            assertTimestamp("0001-01-01 00:00:00");
+            assertTimestamp("1000-02-29 12:30:00");
+            assertTimestamp("1500-01-01 00:00:00");
+            assertTimestamp("1582-10-04 23:59:59");
+            assertTimestamp("1582-10-15 00:00:00");
+            assertTimestamp("1583-01-01 00:00:00");
+
+            assertDate("0001-01-01");
+            assertDate("1500-01-01");
+            assertDate("1582-10-04");
+            assertDate("1582-10-15");
+        }
+    }
+
+    @Test
+    public void testGaps() throws Exception {
+        zone("Asia/Kolkata");
+        assertDate("1906-01-01");
+        assertTimestamp("1906-01-01 00:05:00");
+
+        zone("Australia/Lord_Howe");
+        assertDate("1981-03-01");
+        assertTimestamp("1981-03-01 00:15:00");
+
+        zone("Europe/Berlin");
+        assertTimestamp("2012-03-25 02:30:00");
+
+        // Ambiguous local times
+        assertTimestamp("2012-10-28 02:30:00");
+
+        zone("Pacific/Apia");
+        assertDate("2011-12-30");
+        assertTimestamp("2011-12-30 12:00:00");
+    }
+
+    @Test
+    public void testAllDays() throws Exception {
+        for (String zone : ZONES) {
+            zone(zone);
+            TimeZone z = TimeZone.getTimeZone(zone);
+
+            Date date = Date.valueOf("1850-01-01");
+            Date end = Date.valueOf("2040-01-01");
+
+            for (long t = date.getTime(); t < end.getTime(); t += DAY) {
+                String day = new Date(t).toString();
+
+                assertDate(day);
+                assertTimestamp(day + " 00:00:00");
+
+                // Check all hours of days with offset transitions
+                if (z.getOffset(t) != z.getOffset(t + DAY)) {
+                    for (int hour = 0; hour < 24; hour++) {
+                        for (int minute = 0; minute < 60; minute += 15) {
+                            assertTimestamp(String.format("%s %02d:%02d:00", day, hour, minute));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFormats() throws Exception {
+        zone("Europe/Berlin");
+
+        assertEquals(Timestamp.valueOf("2012-07-01 13:14:15.123456789"), TemporalCodec.parseTimestamp("2012-07-01T13:14:15.123456789"));
+        assertEquals(Timestamp.valueOf("2012-07-01 13:14:00"), TemporalCodec.parseTimestamp("2012-07-01 13:14"));
+        assertEquals(Timestamp.valueOf("2012-07-01 00:00:00"), TemporalCodec.parseTimestamp("2012-07-01"));
+        assertEquals(1234L, TemporalCodec.parseTimestamp("1234").getTime());
+    }
+
+    private static void zone(String zone) {
+        TimeZone.setDefault(TimeZone.getTimeZone(zone));
+        TemporalCodec.resetZone();
+    }
+
+    private static void assertDate(String string) throws Exception {
+        assertEquals(TimeZone.getDefault().getID() + " " + string,
+            Date.valueOf(string).getTime(),
+            TemporalCodec.parseDate(string).getTime());
+    }
+
+    private static void assertTimestamp(String string) throws Exception {
+        assertEquals(TimeZone.getDefault().getID() + " " + string,
+            Timestamp.valueOf(string).getTime(),
+            TemporalCodec.parseTimestamp(string).getTime());
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.jooq.tools.metrics.LatencyHistogram;
+import org.jooq.tools.metrics.MetricsRegistry;
+import org.jooq.tools.metrics.SQLFingerprint;
+
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link MetricsRegistry}
+ *
+ * @author Lukas Eder
+ */
+public class MetricsTest {
+
+    @Test
+    public void testFingerprintLiterals() {
+        assertEquals(
+            "select \"t1\".\"a\" from \"t1\" where \"x\" = ? and \"y\" = ?",
+            SQLFingerprint.of("select \"t1\".\"a\" from \"t1\" where \"x\" = 1 and \"y\" = 'a''b'"));
+    }
+
+    @Test
+    public void testFingerprintBindMarkers() {
+        assertEquals(
+            "select * from t where a = ? and b = ? and c = ? and d::int = ?",
+            SQLFingerprint.of("select * from t where a = ? and b = :b and c = $1 and d::int = 2"));
+    }
+
+    @Test
+    public void testFingerprintInLists() {
+        assertEquals(
+            SQLFingerprint.of("select * from t where a in (?)"),
+            SQLFingerprint.of("select * from t where a in (?, ?, ?)"));
+        assertEquals(
+            SQLFingerprint.of("select * from t where a IN (1)"),
+            SQLFingerprint.of("select * from t where a IN (1,2 , 3)"));
+
+        // Other lists are not collapsed
+        assertEquals("insert into t values (?, ?)", SQLFingerprint.of("insert into t values (?, ?)"));
+    }
+
+    @Test
+    public void testFingerprintWhitespaceAndComments() {
+        assertEquals(
+            "select a, b from t",
+            SQLFingerprint.of("  select a ,\n\tb -- comment\n from /* comment */ t  "));
+    }
+
+    @Test
+    public void testHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000000L, histogram.getMax());
+        assertEquals(500500L, histogram.getMean());
+
+        // Buckets have a relative precision of 12.5%
+        long p50 = histogram.getPercentile(50);
+        assertTrue(p50 >= 500000L && p50 <= 500000L * 1.125);
+        assertEquals(1000000L, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testRegistry() {
+        MetricsRegistry registry = new MetricsRegistry(1);
+
+        assertSame(registry.metrics("select 1"), registry.metrics("select 2"));
+        assertEquals(1, registry.getFingerprintCount());
+        assertSame(registry.getMetrics(MetricsRegistry.OTHER), registry.metrics("select a from t"));
+    }
+}
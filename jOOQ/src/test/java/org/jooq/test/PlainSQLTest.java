@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.test;
+
+import static java.util.Arrays.asList;
+import static org.jooq.impl.Factory.inline;
+import static org.jooq.impl.Factory.val;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+
+import org.jooq.Query;
+import org.jooq.SQLDialect;
+import org.jooq.impl.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Some common tests related to rendering and binding plain SQL
+ *
+ * @author Lukas Eder
+ */
+public class PlainSQLTest {
+
+    private Executor create;
+
+    @Before
+    public void setUp() throws Exception {
+        create = new Executor(SQLDialect.H2);
+    }
+
+    @Test
+    public void testBindValues() throws Exception {
+        Query q = create.query("select * from t where a = ? and b = ?", 1, "x");
+
+        assertEquals("select * from t where a = ? and b = ?", q.getSQL());
+        assertEquals("select * from t where a = 1 and b = 'x'", q.getSQL(true));
+        assertEquals(asList((Object) 1, "x"), q.getBindValues());
+    }
+
+    @Test
+    public void testSingleLineComments() throws Exception {
+        String sql = "select 1 x -- what's this ?'?\nfrom t -- what's that ?'?\r\nwhere id = ?";
+        Query q = create.query(sql, 1);
+
+        assertEquals(sql, q.getSQL());
+        assertEquals("select 1 x -- what's this ?'?\nfrom t -- what's that ?'?\r\nwhere id = 1", q.getSQL(true));
+        assertEquals(asList((Object) 1), q.getBindValues());
+    }
+
+    @Test
+    public void testMultiLineComments() throws Exception {
+        String sql = "select 1 x /* what's this ?'?\nI don't know ?'? */ from t where id = ?";
+        Query q = create.query(sql, 1);
+
+        assertEquals(sql, q.getSQL());
+        assertEquals("select 1 x /* what's this ?'?\nI don't know ?'? */ from t where id = 1", q.getSQL(true));
+        assertEquals(asList((Object) 1), q.getBindValues());
+    }
+
+    @Test
+    public void testStringLiterals() throws Exception {
+        String sql = "insert into x values ('Hello? It''s me?', ?, '''?''')";
+        Query q = create.query(sql, 1);
+
+        assertEquals(sql, q.getSQL());
+        assertEquals("insert into x values ('Hello? It''s me?', 1, '''?''')", q.getSQL(true));
+        assertEquals(asList((Object) 1), q.getBindValues());
+    }
+
+    @Test
+    public void testJDBCEscapeSyntax() throws Exception {
+        String sql = "select {fn ucase(?)}, {d '2012-01-01'}, {t '12:00:00'}, {ts '2012-01-01 12:00:00'} from t where a = ?";
+        Query q = create.query(sql, "a", 1);
+
+        assertEquals(sql, q.getSQL());
+        assertEquals("select {fn ucase('a')}, {d '2012-01-01'}, {t '12:00:00'}, {ts '2012-01-01 12:00:00'} from t where a = 1", q.getSQL(true));
+        assertEquals(asList((Object) "a", 1), q.getBindValues());
+    }
+
+    @Test
+    public void testNumberedPlaceholders() throws Exception {
+        Query q = create.query("select {1}, {0} from t where a = {1} and b = ?", val(1), val("x"));
+
+        assertEquals("select 'x', 1 from t where a = 'x' and b = 1", q.getSQL(true));
+        assertEquals(asList((Object) "x", 1, "x", 1), q.getBindValues());
+
+        // Placeholders may be substituted by any QueryPart
+        assertEquals("select 1 from t where x = 'x'",
+            create.query("select {0} from t where x = {1}", inline(1), val("x")).getSQL(true));
+    }
+
+    @Test
+    public void testKeywords() throws Exception {
+        assertEquals("select 1 from dual where x = ?",
+            create.query("{select} 1 {from} dual where x = ?", 1).getSQL());
+    }
+
+    @Test
+    public void testSurplusBindMarkers() throws Exception {
+        Query q = create.query("select ?, ?, ? from t", 1);
+
+        assertEquals("select ?, ?, ? from t", q.getSQL());
+        assertEquals("select 1, ?, ? from t", q.getSQL(true));
+        assertEquals(asList((Object) 1), q.getBindValues());
+
+        q = create.query("select ? from t");
+        assertEquals("select ? from t", q.getSQL(true));
+        assertEquals(Collections.emptyList(), q.getBindValues());
+    }
+}
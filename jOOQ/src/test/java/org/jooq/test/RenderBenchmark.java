@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.test;
+
+import static org.jooq.impl.Factory.count;
+import static org.jooq.impl.Factory.decode;
+import static org.jooq.impl.Factory.exists;
+import static org.jooq.impl.Factory.field;
+import static org.jooq.impl.Factory.fieldByName;
+import static org.jooq.impl.Factory.select;
+import static org.jooq.test.Table1.FIELD_DATE1;
+import static org.jooq.test.Table1.FIELD_ID1;
+import static org.jooq.test.Table1.FIELD_NAME1;
+import static org.jooq.test.Table1.TABLE1;
+import static org.jooq.test.Table2.FIELD_ID2;
+import static org.jooq.test.Table2.FIELD_NAME2;
+import static org.jooq.test.Table2.TABLE2;
+import static org.jooq.test.Table3.FIELD_ID3;
+import static org.jooq.test.Table3.TABLE3;
+
+import org.jooq.Field;
+import org.jooq.SQLDialect;
+import org.jooq.Select;
+import org.jooq.Table;
+import org.jooq.conf.Settings;
+import org.jooq.impl.Executor;
+
+/**
+ * A benchmark for rendering deeply nested {@link Select} statements
+ * <p>
+ * This is not a unit test. Run it with {@link #main(String[])}, optionally
+ * passing the nesting depth and the number of iterations. Every dialect is
+ * rendered with and without formatting, reporting the average time per
+ * rendered statement.
+ *
+ * @author Lukas Eder
+ */
+public class RenderBenchmark {
+
+    private static final SQLDialect[] DIALECTS = {
+        SQLDialect.H2,
+        SQLDialect.MYSQL,
+        SQLDialect.ORACLE,
+        SQLDialect.POSTGRES,
+        SQLDialect.SQLSERVER };
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+        for (boolean formatted : new boolean[] { false, true }) {
+            for (SQLDialect dialect : DIALECTS) {
+                Settings settings = new Settings();
+                settings.setRenderFormatted(formatted);
+                Executor create = new Executor(dialect, settings);
+                Select<?> select = nestedSelect(create, depth);
+
+                // Warm up the JIT
+                int length = run(create, select, iterations);
+
+                long start = System.nanoTime();
+                run(create, select, iterations);
+                long time = System.nanoTime() - start;
+
+                System.out.println(String.format("%-10s formatted: %-5s length: %6d  %8.2f us/render",
+                    dialect, formatted, length / iterations, time / 1000.0 / iterations));
+            }
+        }
+    }
+
+    private static int run(Executor create, Select<?> select, int iterations) {
+        int length = 0;
+
+        for (int i = 0; i < iterations; i++) {
+            length += create.render(select).length();
+        }
+
+        return length;
+    }
+
+    /**
+     * Create a select statement nesting derived tables, subqueries, joins,
+     * <code>CASE</code> expressions and multi-line plain SQL
+     */
+    static Select<?> nestedSelect(Executor create, int depth) {
+        Table<?> table = TABLE1;
+        Field<Integer> id = FIELD_ID1;
+        Field<String> name = FIELD_NAME1;
+
+        for (int level = 0; level < depth; level++) {
+            Table<?> nested = create
+                .select(
+                    id.as("ID"),
+                    decode().when(name.equal("a"), name.concat("b"))
+                            .when(name.like("b%"), FIELD_NAME2)
+                            .otherwise(name).as("NAME"),
+                    field("coalesce(\n  {0},\n  {1}\n)", Integer.class, id, FIELD_ID2).as("X"),
+                    count().as("C"))
+                .from(table)
+                .join(TABLE2).on(id.equal(FIELD_ID2))
+                .where(id.in(select(FIELD_ID3).from(TABLE3).where(FIELD_ID3.greaterThan(level))))
+                .and(exists(create.selectOne().from(TABLE3).where(FIELD_ID3.equal(id))).or(FIELD_DATE1.isNull()))
+                .groupBy(id, name, FIELD_NAME2, FIELD_ID2)
+                .orderBy(id)
+                .asTable("t" + level);
+
+            table = nested;
+            id = fieldByName(Integer.class, "t" + level, "ID");
+            name = fieldByName(String.class, "t" + level, "NAME");
+        }
+
+        return create.select(id, name).from(table).where(id.isNotNull());
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.test;
+
+import static org.jooq.impl.Factory.decode;
+import static org.jooq.impl.Factory.field;
+import static org.jooq.test.Table1.FIELD_ID1;
+import static org.jooq.test.Table1.FIELD_NAME1;
+import static org.jooq.test.Table1.TABLE1;
+import static org.junit.Assert.assertEquals;
+
+import org.jooq.SQLDialect;
+import org.jooq.Select;
+import org.jooq.conf.Settings;
+import org.jooq.impl.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Some common tests related to rendering formatted SQL
+ *
+ * @author Lukas Eder
+ */
+public class RenderFormattingTest {
+
+    private Executor create;
+    private Executor format;
+
+    @Before
+    public void setUp() throws Exception {
+        Settings settings = new Settings();
+        settings.setRenderFormatted(true);
+
+        create = new Executor(SQLDialect.H2);
+        format = new Executor(SQLDialect.H2, settings);
+    }
+
+    @Test
+    public void testNestedSelect() throws Exception {
+        Select<?> select = create
+            .select(FIELD_ID1)
+            .from(create.select(FIELD_ID1, FIELD_NAME1)
+                        .from(TABLE1)
+                        .where(FIELD_ID1.equal(1))
+                        .and(FIELD_NAME1.isNotNull())
+                        .asTable("t"))
+            .where(FIELD_ID1.in(1, 2))
+            .orderBy(FIELD_ID1);
+
+        assertEquals(
+            "select \"TABLE1\".\"ID1\" from (select \"TABLE1\".\"ID1\", \"TABLE1\".\"NAME1\" from \"TABLE1\" " +
+            "where (\"TABLE1\".\"ID1\" = cast(? as Integer) and \"TABLE1\".\"NAME1\" is not null)) \"t\" " +
+            "where \"TABLE1\".\"ID1\" in (cast(? as int), cast(? as int)) order by \"TABLE1\".\"ID1\" asc",
+            create.render(select));
+
+        assertEquals(
+            "select \"TABLE1\".\"ID1\"\n" +
+            "from (\n" +
+            "  select \n" +
+            "    \"TABLE1\".\"ID1\", \n" +
+            "    \"TABLE1\".\"NAME1\"\n" +
+            "  from \"TABLE1\"\n" +
+            "  where (\n" +
+            "    \"TABLE1\".\"ID1\" = cast(? as Integer)\n" +
+            "    and \"TABLE1\".\"NAME1\" is not null\n" +
+            "  )\n" +
+            ") \"t\"\n" +
+            "where \"TABLE1\".\"ID1\" in (\n" +
+            "  cast(? as int), cast(? as int)\n" +
+            ")\n" +
+            "order by \"TABLE1\".\"ID1\" asc",
+            format.render(select));
+    }
+
+    @Test
+    public void testDeeplyNestedSelect() throws Exception {
+        for (SQLDialect dialect : SQLDialect.values()) {
+            Settings settings = new Settings();
+            settings.setRenderFormatted(true);
+
+            Executor c = new Executor(dialect);
+            Executor f = new Executor(dialect, settings);
+
+            // Formatting must only add whitespace
+            assertEquals(
+                dialect.toString(),
+                c.render(RenderBenchmark.nestedSelect(c, 6)).replaceAll("\\s+", ""),
+                f.render(RenderBenchmark.nestedSelect(f, 6)).replaceAll("\\s+", ""));
+        }
+    }
+
+    @Test
+    public void testMultiLinePlainSQLInIndentLock() throws Exception {
+        Select<?> select = create
+            .select(
+                FIELD_ID1,
+                decode().when(FIELD_ID1.equal(1), field("a\n+ b", String.class))
+                        .otherwise(field("c\n\n+ d", String.class)).as("x"))
+            .from(TABLE1);
+
+        assertEquals(
+            "select \"TABLE1\".\"ID1\", case when \"TABLE1\".\"ID1\" = cast(? as Integer) then a\n" +
+            "+ b else c\n" +
+            "\n" +
+            "+ d end \"x\" from \"TABLE1\"",
+            create.render(select));
+
+        // Line breaks in plain SQL are indented to the locked indentation
+        assertEquals(
+            "select \n" +
+            "  \"TABLE1\".\"ID1\", \n" +
+            "  case when \"TABLE1\".\"ID1\" = cast(? as Integer) then a\n" +
+            "      + b\n" +
+            "       else c\n" +
+            "      \n" +
+            "      + d\n" +
+            "  end \"x\"\n" +
+            "from \"TABLE1\"",
+            format.render(select));
+    }
+}
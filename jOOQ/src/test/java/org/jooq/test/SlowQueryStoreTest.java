@@ -0,0 +1,278 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.jooq.SQLDialect;
+import org.jooq.conf.Settings;
+import org.jooq.impl.Executor;
+import org.jooq.tools.metrics.SQLFingerprint;
+import org.jooq.tools.metrics.SlowQuery;
+import org.jooq.tools.metrics.SlowQueryListener;
+import org.jooq.tools.metrics.SlowQueryStore;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link SlowQueryStore}
+ *
+ * @author Lukas Eder
+ */
+public class SlowQueryStoreTest {
+
+    /**
+     * The number of requests that can be pending in the explain plan collector
+     */
+    private static final int MAX_PENDING = 16;
+
+    @After
+    public void tearDown() {
+        SlowQueryStore.getDefault().clear();
+        SlowQueryStore.getDefault().setThreshold(SlowQueryStore.DEFAULT_THRESHOLD, MILLISECONDS);
+    }
+
+    @Test
+    public void testThreshold() {
+        SlowQueryStore store = new SlowQueryStore();
+        store.setThreshold(5, MILLISECONDS);
+
+        assertEquals(5L, store.getThresholdMillis());
+        assertFalse(store.isSlow(MILLISECONDS.toNanos(5) - 1));
+        assertTrue(store.isSlow(MILLISECONDS.toNanos(5)));
+    }
+
+    @Test
+    public void testThresholdListener() throws Exception {
+        Settings settings = new Settings();
+        settings.getExecuteListeners().add(SlowQueryListener.class.getName());
+
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:slow-query-store-test", "sa", "");
+
+        try {
+            Executor create = new Executor(connection, SQLDialect.H2, settings);
+
+            SlowQueryStore.getDefault().setThreshold(1, SECONDS);
+            create.fetch("select 1 from dual");
+            assertEquals(0, SlowQueryStore.getDefault().getSlowQueries().length);
+
+            SlowQueryStore.getDefault().setThreshold(0, SECONDS);
+            create.fetch("select 2 from dual");
+            SlowQuery[] queries = SlowQueryStore.getDefault().getSlowQueries();
+            assertEquals(1, queries.length);
+            assertEquals("select ? from dual", queries[0].getFingerprint());
+            assertEquals("H2", queries[0].getDialect());
+
+            // Statements executed on a Connection are not explained
+            assertNull(queries[0].getPlan());
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testCapacity() {
+        SlowQueryStore store = new SlowQueryStore(2);
+        SlowQuery q1 = query("select 1");
+        SlowQuery q2 = query("select 2");
+        SlowQuery q3 = query("select 3");
+
+        store.add(q1, SQLDialect.H2, null);
+        store.add(q2, SQLDialect.H2, null);
+        store.add(q3, SQLDialect.H2, null);
+
+        SlowQuery[] queries = store.getSlowQueries();
+        assertEquals(2, queries.length);
+        assertTrue(q2 == queries[0]);
+        assertTrue(q3 == queries[1]);
+
+        store.clear();
+        assertEquals(0, store.getSlowQueries().length);
+    }
+
+    @Test
+    public void testExplainOncePerFingerprint() throws Exception {
+        ConnectionCounter counter = new ConnectionCounter(null, null);
+        DataSource ds = counter.dataSource();
+        SlowQueryStore store = new SlowQueryStore();
+        SlowQuery q1 = query("select * from t where a = 1");
+        SlowQuery q2 = query("select * from t where a = 2");
+        SlowQuery q3 = query("select * from u where a = 1");
+
+        assertEquals(q1.getFingerprint(), q2.getFingerprint());
+
+        store.add(q1, SQLDialect.H2, ds);
+        store.add(q2, SQLDialect.H2, ds);
+        store.add(q3, SQLDialect.H2, ds);
+
+        // Plans are collected in order by a single thread
+        awaitPlan(q3);
+        assertNotNull(q1.getPlan());
+        assertNull(q2.getPlan());
+        assertEquals(2, counter.connections.get());
+    }
+
+    @Test
+    public void testExplainInterval() throws Exception {
+        ConnectionCounter counter = new ConnectionCounter(null, null);
+        DataSource ds = counter.dataSource();
+        SlowQueryStore store = new SlowQueryStore();
+        SlowQuery q1 = query("select * from t where a = 1");
+        SlowQuery q2 = query("select * from t where a = 2");
+
+        store.setExplainIntervalMillis(0);
+        store.add(q1, SQLDialect.H2, ds);
+        store.add(q2, SQLDialect.H2, ds);
+
+        awaitPlan(q2);
+        assertNotNull(q1.getPlan());
+        assertEquals(2, counter.connections.get());
+    }
+
+    @Test
+    public void testExplainDisabled() {
+        ConnectionCounter counter = new ConnectionCounter(null, null);
+        DataSource ds = counter.dataSource();
+        SlowQueryStore store = new SlowQueryStore();
+
+        store.setExplainEnabled(false);
+        store.add(query("select 1"), SQLDialect.H2, ds);
+        store.add(query("select 1"), SQLDialect.SQLSERVER, ds);
+        store.setExplainEnabled(true);
+        store.add(query("select 1"), SQLDialect.SQLSERVER, ds);
+
+        assertEquals(0, counter.connections.get());
+    }
+
+    @Test
+    public void testDiscardedRequestsAreNotRateLimited() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ConnectionCounter counter = new ConnectionCounter(running, release);
+        DataSource ds = counter.dataSource();
+        SlowQueryStore store = new SlowQueryStore(MAX_PENDING + 2);
+
+        // Block the collector thread, then fill its queue
+        SlowQuery blocking = query("select * from blocking");
+        store.add(blocking, SQLDialect.H2, ds);
+        assertTrue(running.await(10, SECONDS));
+
+        SlowQuery[] pending = new SlowQuery[MAX_PENDING];
+        for (int i = 0; i < MAX_PENDING; i++) {
+            pending[i] = query("select * from pending_" + i);
+            store.add(pending[i], SQLDialect.H2, ds);
+        }
+
+        SlowQuery discarded = query("select * from t where a = 1");
+        store.add(discarded, SQLDialect.H2, ds);
+
+        release.countDown();
+        awaitPlan(pending[MAX_PENDING - 1]);
+        assertNull(discarded.getPlan());
+
+        // The discarded request must not prevent a new attempt
+        SlowQuery retried = query("select * from t where a = 2");
+        store.add(retried, SQLDialect.H2, ds);
+        awaitPlan(retried);
+        assertEquals(MAX_PENDING + 2, counter.connections.get());
+    }
+
+    private static SlowQuery query(String sql) {
+        return new SlowQuery(SQLFingerprint.of(sql), sql, null, "H2", System.currentTimeMillis(), 0L, new long[0], null);
+    }
+
+    private static void awaitPlan(SlowQuery query) throws InterruptedException {
+        for (int i = 0; i < 1000 && query.getPlan() == null; i++) {
+            Thread.sleep(10);
+        }
+
+        assertNotNull(query.getPlan());
+    }
+
+    /**
+     * A {@link DataSource} proxy counting (and failing) connection requests,
+     * optionally blocking the first request until released
+     */
+    private static class ConnectionCounter implements InvocationHandler {
+
+        final AtomicInteger          connections = new AtomicInteger();
+        private final CountDownLatch running;
+        private final CountDownLatch release;
+
+        ConnectionCounter(CountDownLatch running, CountDownLatch release) {
+            this.running = running;
+            this.release = release;
+        }
+
+        DataSource dataSource() {
+            return (DataSource) Proxy.newProxyInstance(
+                DataSource.class.getClassLoader(), new Class[] { DataSource.class }, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("getConnection".equals(method.getName())) {
+                if (connections.incrementAndGet() == 1 && running != null) {
+                    running.countDown();
+                    release.await(10, SECONDS);
+                }
+
+                throw new SQLException("No connection");
+            }
+
+            throw new UnsupportedOperationException(method.getName());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.jooq.ForeignKey;
+import org.jooq.TableField;
+import org.jooq.UniqueKey;
+import org.jooq.impl.SQLDataType;
+import org.jooq.impl.UpdatableTableImpl;
+
+/**
+ * An updatable table referencing {@link TAuthor}, for tests against an
+ * in-memory database
+ *
+ * @author Lukas Eder
+ */
+public class TBook extends UpdatableTableImpl<TBookRecord> {
+
+    /**
+     * Generated UID
+     */
+    private static final long                            serialVersionUID = 5340871263421730123L;
+
+    public static final TBook                            T_BOOK           = new TBook();
+
+    public static final TableField<TBookRecord, Integer> ID               = createField("ID", SQLDataType.INTEGER, T_BOOK);
+    public static final TableField<TBookRecord, Integer> AUTHOR_ID        = createField("AUTHOR_ID", SQLDataType.INTEGER, T_BOOK);
+    public static final TableField<TBookRecord, String>  TITLE            = createField("TITLE", SQLDataType.VARCHAR, T_BOOK);
+
+    /**
+     * The DDL creating this table
+     */
+    public static final String                           DDL              =
+        "create table t_book (id int not null primary key, author_id int references t_author (id), title varchar(50))";
+
+    public TBook() {
+        super("T_BOOK");
+    }
+
+    @Override
+    public Class<TBookRecord> getRecordType() {
+        return TBookRecord.class;
+    }
+
+    @Override
+    public UniqueKey<TBookRecord> getMainKey() {
+        return Keys.PK_T_BOOK;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ForeignKey<TBookRecord, ?>> getReferences() {
+        return Arrays.<ForeignKey<TBookRecord, ?>>asList(Keys.FK_T_BOOK_AUTHOR);
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jooq.test;
+
+import org.jooq.TableField;
+import org.jooq.UniqueKey;
+import org.jooq.impl.SQLDataType;
+import org.jooq.impl.UpdatableTableImpl;
+
+/**
+ * An updatable table with a record version for tests against an in-memory
+ * database
+ *
+ * @author Lukas Eder
+ */
+public class TVersioned extends UpdatableTableImpl<TVersionedRecord> {
+
+    /**
+     * Generated UID
+     */
+    private static final long                                 serialVersionUID = 6218846236390498236L;
+
+    public static final TVersioned                            T_VERSIONED      = new TVersioned();
+
+    public static final TableField<TVersionedRecord, Integer> ID               = createField("ID", SQLDataType.INTEGER, T_VERSIONED);
+    public static final TableField<TVersionedRecord, String>  NAME             = createField("NAME", SQLDataType.VARCHAR, T_VERSIONED);
+    public static final TableField<TVersionedRecord, Integer> VERSION          = createField("VERSION", SQLDataType.INTEGER, T_VERSIONED);
+
+    /**
+     * The DDL creating this table
+     */
+    public static final String                                DDL              =
+        "create table t_versioned (id int not null primary key, name varchar(50), version int)";
+
+    public TVersioned() {
+        super("T_VERSIONED");
+    }
+
+    @Override
+    public Class<TVersionedRecord> getRecordType() {
+        return TVersionedRecord.class;
+    }
+
+    @Override
+    public UniqueKey<TVersionedRecord> getMainKey() {
+        return Keys.PK_T_VERSIONED;
+    }
+
+    @Override
+    public TableField<TVersionedRecord, Integer> getRecordVersion() {
+        return VERSION;
+    }
+}
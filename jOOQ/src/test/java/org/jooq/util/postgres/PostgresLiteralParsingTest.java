@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2009-2012, Lukas Eder, lukas.eder@gmail.com
+ * All rights reserved.
+ *
+ * This software is licensed to you under the Apache License, Version 2.0
+ * (the "License"); You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * . Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * . Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * . Neither the name "jOOQ" nor the names of its contributors may be
+ *   used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.jooq.util.postgres;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jooq.exception.DataTypeException;
+
+import org.junit.Test;
+
+/**
+ * Some common tests related to {@link PostgresLiteralParser}, using literals
+ * as produced by the Postgres server
+ *
+ * @author Lukas Eder
+ */
+public class PostgresLiteralParsingTest {
+
+    @Test
+    public void emptyArray() {
+        assertEquals(asList(), array("{}"));
+    }
+
+    @Test
+    public void simpleArrays() {
+        assertEquals(asList("1", "2", "3"), array("{1,2,3}"));
+        assertEquals(asList("a", "b"), array("{ a , b }"));
+        assertEquals(asList("1", "2"), array("[0:1]={1,2}"));
+    }
+
+    @Test
+    public void arraysWithNulls() {
+        assertEquals(asList(null, "a", null), array("{NULL,a,null}"));
+        assertEquals(asList("NULL", "NULLS"), array("{\"NULL\",NULLS}"));
+    }
+
+    @Test
+    public void arraysWithQuotedValues() {
+        assertEquals(asList("a,b", "", " x "), array("{\"a,b\",\"\",\" x \"}"));
+        assertEquals(asList("\"foo", "\\bar", "{}"), array("{\"\\\"foo\",\"\\\\bar\",\"{}\"}"));
+    }
+
+    @Test
+    public void nestedArrays() {
+        PostgresLiteralParser parser = new PostgresLiteralParser("{{1,2},{\"3,4\",NULL},{}}");
+        List<List<String>> result = new ArrayList<List<String>>();
+
+        parser.openArray();
+        while (parser.next()) {
+            assertTrue(parser.isArray());
+
+            List<String> inner = new ArrayList<String>();
+            parser.openArray();
+
+            while (parser.next()) {
+                inner.add(parser.string());
+            }
+
+            result.add(inner);
+        }
+
+        assertTrue(parser.isDone());
+        assertEquals(asList(asList("1", "2"), asList("3,4", null), asList()), result);
+    }
+
+    @Test
+    public void nestedArraysAsStrings() {
+        assertEquals(asList("{1,\"}\"}", "{2}"), array("{{1,\"}\"},{2}}"));
+    }
+
+    @Test
+    public void skippedElements() {
+        PostgresLiteralParser parser = new PostgresLiteralParser("{{1,2},\"x,y\",z}");
+
+        parser.openArray();
+        assertTrue(parser.next());
+        assertTrue(parser.next());
+        assertTrue(parser.next());
+        assertEquals("z", parser.string());
+        assertFalse(parser.next());
+        assertTrue(parser.isDone());
+    }
+
+    @Test
+    public void rows() {
+        assertEquals(asList("1", "a b", null, ""), row("(1,a b,,\"\")"));
+        assertEquals(asList((String) null), row("()"));
+        assertEquals(asList(null, null), row("(,)"));
+    }
+
+    @Test
+    public void rowsWithQuotedValues() {
+        assertEquals(asList("a \"b\"", "c\\d", "(1,2)"), row("(\"a \"\"b\"\"\",\"c\\\\d\",\"(1,2)\")"));
+        assertEquals(asList("null", " x"), row("(null, x)"));
+    }
+
+    @Test
+    public void nestedRows() {
+        List<String> outer = row("(1,\"(2,\"\"a,b\"\")\")");
+        assertEquals("(2,\"a,b\")", outer.get(1));
+        assertEquals(asList("2", "a,b"), row(outer.get(1)));
+    }
+
+    @Test
+    public void toPGObject() {
+        assertEquals(asList("1", null, "x,y"), PostgresUtils.toPGObject("(1,,\"x,y\")"));
+    }
+
+    @Test(expected = DataTypeException.class)
+    public void unterminatedQuote() {
+        array("{\"abc}");
+    }
+
+    @Test(expected = DataTypeException.class)
+    public void missingSeparator() {
+        array("{\"a\"b}");
+    }
+
+    @Test(expected = DataTypeException.class)
+    public void notAnArray() {
+        array("(1,2)");
+    }
+
+    private static List<String> array(String literal) {
+        PostgresLiteralParser parser = new PostgresLiteralParser(literal);
+        List<String> result = new ArrayList<String>();
+
+        parser.openArray();
+        while (parser.next()) {
+            result.add(parser.string());
+        }
+
+        assertTrue(parser.isDone());
+        return result;
+    }
+
+    private static List<String> row(String literal) {
+        PostgresLiteralParser parser = new PostgresLiteralParser(literal);
+        List<String> result = new ArrayList<String>();
+
+        parser.openRow();
+        while (parser.next()) {
+            result.add(parser.string());
+        }
+
+        assertTrue(parser.isDone());
+        return result;
+    }
+}